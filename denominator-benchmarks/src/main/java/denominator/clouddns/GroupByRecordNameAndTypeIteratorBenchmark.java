@@ -0,0 +1,60 @@
+package denominator.clouddns;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.rackspace.clouddns.v1.domain.RecordDetail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.ImmutableList;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * grouping a sorted stream of A records, two per name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GroupByRecordNameAndTypeIteratorBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    int size;
+
+    List<RecordDetail> records;
+
+    @Setup
+    public void setup() {
+        Date now = new Date();
+        ImmutableList.Builder<RecordDetail> builder = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(RecordDetail.builder()
+                                    .id("A-" + i)
+                                    .name(String.format("www%07d.denominator.io", i / 2))
+                                    .type("A")
+                                    .ttl(3600)
+                                    .data("192.0.2." + (i % 2 + 1))
+                                    .created(now)
+                                    .updated(now).build());
+        }
+        records = builder.build();
+    }
+
+    @Benchmark
+    public int groupBy() {
+        int count = 0;
+        for (Iterator<ResourceRecordSet<?>> i = new GroupByRecordNameAndTypeIterator(records.iterator()); i.hasNext();) {
+            count += i.next().size();
+        }
+        return count;
+    }
+}
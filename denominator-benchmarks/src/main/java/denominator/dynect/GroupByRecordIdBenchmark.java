@@ -0,0 +1,101 @@
+package denominator.dynect;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jclouds.dynect.v3.domain.Record;
+import org.jclouds.dynect.v3.domain.RecordId;
+import org.jclouds.dynect.v3.domain.rdata.AData;
+import org.jclouds.dynect.v3.features.RecordApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * grouping a sorted stream of A record ids, two per name, as listed without
+ * detail. Each record is got by id, which takes {@code latencyMicros} to
+ * simulate a round trip, with up to {@code prefetch} gets in flight.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GroupByRecordIdBenchmark {
+
+    @Param({ "1000", "10000" })
+    int size;
+
+    @Param({ "0", "200" })
+    int latencyMicros;
+
+    @Param({ "1", "16" })
+    int prefetch;
+
+    List<RecordId> recordIds;
+
+    ListeningExecutorService executor;
+
+    RecordApi api = (RecordApi) Proxy.newProxyInstance(RecordApi.class.getClassLoader(),
+            new Class<?>[] { RecordApi.class }, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if (!method.getName().equals("getA"))
+                        throw new UnsupportedOperationException(method.getName());
+                    if (latencyMicros > 0)
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+                    long id = Long.class.cast(args[1]);
+                    return Record.<AData> builder()
+                                 .zone("denominator.io")
+                                 .fqdn(String.class.cast(args[0]))
+                                 .type("A")
+                                 .id(id)
+                                 .ttl(3600)
+                                 .rdata(AData.a("192.0.2." + (id % 2 + 1))).build();
+                }
+            });
+
+    @Setup
+    public void setup() {
+        ImmutableList.Builder<RecordId> builder = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(RecordId.recordIdBuilder()
+                                .zone("denominator.io")
+                                .fqdn(String.format("www%07d.denominator.io", i / 2))
+                                .type("A")
+                                .id(i).build());
+        }
+        recordIds = builder.build();
+        executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(prefetch));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int groupBy() {
+        int count = 0;
+        for (Iterator<ResourceRecordSet<?>> i = new GroupByRecordNameAndTypeIterator(api, recordIds.iterator(),
+                executor, prefetch); i.hasNext();) {
+            count += i.next().size();
+        }
+        return count;
+    }
+}
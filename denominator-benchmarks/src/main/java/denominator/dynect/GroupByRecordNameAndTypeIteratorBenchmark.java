@@ -0,0 +1,72 @@
+package denominator.dynect;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.dynect.v3.domain.Record;
+import org.jclouds.dynect.v3.domain.RecordId;
+import org.jclouds.dynect.v3.domain.rdata.AData;
+import org.jclouds.dynect.v3.features.RecordApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.ImmutableList;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * grouping a sorted stream of A records listed with detail, two per name. As
+ * records are already detailed, no gets are made.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GroupByRecordNameAndTypeIteratorBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    int size;
+
+    List<RecordId> records;
+
+    RecordApi api = (RecordApi) Proxy.newProxyInstance(RecordApi.class.getClassLoader(),
+            new Class<?>[] { RecordApi.class }, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+
+    @Setup
+    public void setup() {
+        ImmutableList.Builder<RecordId> builder = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(Record.<AData> builder()
+                              .zone("denominator.io")
+                              .fqdn(String.format("www%07d.denominator.io", i / 2))
+                              .type("A")
+                              .id(i)
+                              .ttl(3600)
+                              .rdata(AData.a("192.0.2." + (i % 2 + 1))).build());
+        }
+        records = builder.build();
+    }
+
+    @Benchmark
+    public int groupBy() {
+        int count = 0;
+        for (Iterator<ResourceRecordSet<?>> i = new GroupByRecordNameAndTypeIterator(api, records.iterator()); i
+                .hasNext();) {
+            count += i.next().size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,58 @@
+package denominator.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import denominator.model.rdata.AAAAData;
+import denominator.model.rdata.AData;
+import denominator.model.rdata.SOAData;
+import denominator.model.rdata.SRVData;
+
+/**
+ * constructing rdata, including the address parsing in {@link AData} and
+ * {@link AAAAData}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RDataBenchmark {
+
+    @Benchmark
+    public AData aData() {
+        return AData.create("192.0.2.1");
+    }
+
+    @Benchmark
+    public AAAAData aaaaData() {
+        return AAAAData.create("2001:db8:85a3::8a2e:370:7334");
+    }
+
+    @Benchmark
+    public AAAAData aaaaDataToCanonicalize() {
+        return AAAAData.create("2001:0DB8:85A3:0:0:8A2E:0370:7334");
+    }
+
+    @Benchmark
+    public SOAData soaData() {
+        return SOAData.builder()
+                      .mname("ns1.denominator.io.")
+                      .rname("admin.denominator.io.")
+                      .serial(1)
+                      .refresh(3600)
+                      .retry(600)
+                      .expire(604800)
+                      .minimum(60).build();
+    }
+
+    @Benchmark
+    public SRVData srvData() {
+        return SRVData.builder()
+                      .priority(0)
+                      .weight(1)
+                      .port(80)
+                      .target("www.denominator.io.").build();
+    }
+}
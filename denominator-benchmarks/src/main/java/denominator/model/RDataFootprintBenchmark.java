@@ -0,0 +1,116 @@
+package denominator.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.ForwardingMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import denominator.model.rdata.AAAAData;
+import denominator.model.rdata.AData;
+import denominator.model.rdata.CNAMEData;
+
+/**
+ * holding a snapshot of A, AAAA and CNAME rdata, in equal parts, as it is
+ * stored now and as it was stored when each rdata held a map delegate
+ * alongside its fields.
+ *
+ * Run with {@code -prof gc} to compare allocation per snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RDataFootprintBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    int size;
+
+    @Benchmark
+    public List<Map<String, Object>> compact() {
+        return compact(size);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mapDelegate() {
+        return mapDelegate(size);
+    }
+
+    static List<Map<String, Object>> compact(int size) {
+        ImmutableList.Builder<Map<String, Object>> builder = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            switch (i % 3) {
+            case 0:
+                builder.add(AData.create(ipv4(i)));
+                break;
+            case 1:
+                builder.add(AAAAData.create(ipv6(i)));
+                break;
+            default:
+                builder.add(CNAMEData.create(cname(i)));
+            }
+        }
+        return builder.build();
+    }
+
+    static List<Map<String, Object>> mapDelegate(int size) {
+        ImmutableList.Builder<Map<String, Object>> builder = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            switch (i % 3) {
+            case 0:
+                builder.add(new MapDelegate("address", ipv4(i)));
+                break;
+            case 1:
+                builder.add(new MapDelegate("address", ipv6(i)));
+                break;
+            default:
+                builder.add(new MapDelegate("cname", cname(i)));
+            }
+        }
+        return builder.build();
+    }
+
+    static String ipv4(int i) {
+        return "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+    }
+
+    static String ipv6(int i) {
+        return "2001:db8:" + Integer.toHexString((i >>> 16) + 1) + "::" + Integer.toHexString(i & 0xffff | 1);
+    }
+
+    /**
+     * targets repeat, as they do in zones with many aliases of few hosts. A
+     * new string each time, as when parsed from a response.
+     */
+    static String cname(int i) {
+        return new StringBuilder("www").append(i % 100).append(".denominator.io.").toString();
+    }
+
+    /**
+     * the former layout of single-field rdata: a typed field, and an
+     * {@link ImmutableMap} holding the same value.
+     */
+    static final class MapDelegate extends ForwardingMap<String, Object> {
+        private final String value;
+        private final ImmutableMap<String, Object> delegate;
+
+        MapDelegate(String key, String value) {
+            this.value = value;
+            this.delegate = ImmutableMap.<String, Object> of(key, value);
+        }
+
+        @Override
+        protected Map<String, Object> delegate() {
+            return delegate;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package denominator.model;
+
+import static denominator.model.ResourceRecordSets.a;
+import static denominator.model.ResourceRecordSets.aaaa;
+import static denominator.model.ResourceRecordSets.cname;
+import static denominator.model.ResourceRecordSets.txt;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.ImmutableList;
+
+import denominator.model.rdata.AData;
+
+/**
+ * building record sets directly and via the {@link ResourceRecordSets}
+ * factory methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResourceRecordSetBenchmark {
+
+    AData a1 = AData.create("192.0.2.1");
+    AData a2 = AData.create("198.51.100.1");
+    List<String> addresses = ImmutableList.of("192.0.2.1", "198.51.100.1");
+
+    @Benchmark
+    public ResourceRecordSet<AData> builderBuild() {
+        return ResourceRecordSet.<AData> builder()
+                                .name("www.denominator.io.")
+                                .type("A")
+                                .ttl(3600)
+                                .add(a1)
+                                .add(a2).build();
+    }
+
+    @Benchmark
+    public ResourceRecordSet<?> a1() {
+        return a("www.denominator.io.", 3600, "192.0.2.1");
+    }
+
+    @Benchmark
+    public ResourceRecordSet<?> a2() {
+        return a("www.denominator.io.", 3600, addresses);
+    }
+
+    @Benchmark
+    public ResourceRecordSet<?> aaaa1() {
+        return aaaa("www.denominator.io.", 3600, "2001:db8::1");
+    }
+
+    @Benchmark
+    public ResourceRecordSet<?> cname1() {
+        return cname("www.denominator.io.", 3600, "www1.denominator.io.");
+    }
+
+    @Benchmark
+    public ResourceRecordSet<?> txt1() {
+        return txt("www.denominator.io.", 3600, "v=spf1 a mx -all");
+    }
+}
@@ -0,0 +1,94 @@
+package denominator.model.snapshot;
+
+import static denominator.model.ResourceRecordSets.a;
+import static denominator.model.ResourceRecordSets.cname;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.collect.ImmutableList;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * streaming and mapped access to snapshots of the same records as
+ * {@link denominator.model.zonefile.ZoneFilesBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SnapshotBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    int size;
+
+    List<ResourceRecordSet<?>> rrsets;
+    byte[] snapshot;
+    File file;
+    MappedSnapshot mapped;
+    int lookup;
+
+    @Setup
+    public void setup() throws IOException {
+        ImmutableList.Builder<ResourceRecordSet<?>> builder = ImmutableList.builder();
+        for (int i = 0; i < size / 3; i++) {
+            String name = String.format("www%07d.denominator.io.", i);
+            builder.add(a(name, 3600, ImmutableList.of("192.0.2." + (i % 254 + 1), "198.51.100." + (i % 254 + 1))));
+            builder.add(cname("alias-" + name, 300, name));
+        }
+        rrsets = builder.build();
+        snapshot = write();
+        file = File.createTempFile("denominator", ".snapshot");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(snapshot);
+        } finally {
+            out.close();
+        }
+        mapped = MappedSnapshot.open(file);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(snapshot != null ? snapshot.length : 8192);
+        new SnapshotWriter(Channels.newChannel(out)).writeAll(rrsets.iterator()).close();
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public int read() {
+        int count = 0;
+        SnapshotReader reader = new SnapshotReader(Channels.newChannel(new ByteArrayInputStream(snapshot)));
+        while (reader.hasNext()) {
+            count += reader.next().size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public ResourceRecordSet<?> getByNameAndType() {
+        int i = lookup++ % (size / 3);
+        return mapped.getByNameAndType(String.format("www%07d.denominator.io.", i), "A").get();
+    }
+}
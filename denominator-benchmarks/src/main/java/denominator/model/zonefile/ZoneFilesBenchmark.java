@@ -0,0 +1,69 @@
+package denominator.model.zonefile;
+
+import static denominator.model.ResourceRecordSets.a;
+import static denominator.model.ResourceRecordSets.cname;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.ImmutableList;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * reading and writing zone files of A and CNAME records, two A records per
+ * name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ZoneFilesBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    int size;
+
+    List<ResourceRecordSet<?>> rrsets;
+    String zoneFile;
+
+    @Setup
+    public void setup() throws IOException {
+        ImmutableList.Builder<ResourceRecordSet<?>> builder = ImmutableList.builder();
+        for (int i = 0; i < size / 3; i++) {
+            String name = String.format("www%07d.denominator.io.", i);
+            builder.add(a(name, 3600, ImmutableList.of("192.0.2." + (i % 254 + 1), "198.51.100." + (i % 254 + 1))));
+            builder.add(cname("alias-" + name, 300, name));
+        }
+        rrsets = builder.build();
+        StringBuilder zone = new StringBuilder();
+        ZoneFiles.write(rrsets.iterator(), "denominator.io.", zone);
+        zoneFile = zone.toString();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        StringBuilder zone = new StringBuilder(zoneFile.length());
+        ZoneFiles.write(rrsets.iterator(), "denominator.io.", zone);
+        return zone.length();
+    }
+
+    @Benchmark
+    public int read() {
+        int count = 0;
+        for (Iterator<ResourceRecordSet<?>> i = ZoneFiles.read(new StringReader(zoneFile), null); i.hasNext();) {
+            count += i.next().size();
+        }
+        return count;
+    }
+}
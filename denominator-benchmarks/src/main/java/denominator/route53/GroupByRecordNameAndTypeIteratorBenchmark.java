@@ -0,0 +1,52 @@
+package denominator.route53;
+
+import static denominator.model.ResourceRecordSets.a;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.google.common.collect.ImmutableList;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * grouping a sorted stream of weighted record sets, two per name and type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GroupByRecordNameAndTypeIteratorBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    int size;
+
+    List<ResourceRecordSet<?>> records;
+
+    @Setup
+    public void setup() {
+        ImmutableList.Builder<ResourceRecordSet<?>> builder = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(a(String.format("www%07d.denominator.io.", i / 2), 3600, "192.0.2." + (i % 2 + 1)));
+        }
+        records = builder.build();
+    }
+
+    @Benchmark
+    public int groupBy() {
+        int count = 0;
+        for (Iterator<ResourceRecordSet<?>> i = new GroupByRecordNameAndTypeIterator(records.iterator()); i.hasNext();) {
+            count += i.next().size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,49 @@
+package denominator.route53;
+
+import static denominator.route53.ToDenominatorResourceRecordSet.parseTextFormat;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+/**
+ * parsing route53 rdata text into denominator rdata.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseTextFormatBenchmark {
+
+    @Benchmark
+    public Map<String, Object> a() {
+        return parseTextFormat("A", "192.0.2.1");
+    }
+
+    @Benchmark
+    public Map<String, Object> cname() {
+        return parseTextFormat("CNAME", "www1.denominator.io.");
+    }
+
+    @Benchmark
+    public Map<String, Object> mx() {
+        return parseTextFormat("MX", "10 mail.denominator.io.");
+    }
+
+    @Benchmark
+    public Map<String, Object> soa() {
+        return parseTextFormat("SOA", "ns-1612.awsdns-09.co.uk. awsdns-hostmaster.amazon.com. 1 7200 900 1209600 86400");
+    }
+
+    @Benchmark
+    public Map<String, Object> srv() {
+        return parseTextFormat("SRV", "0 1 80 www.denominator.io.");
+    }
+
+    @Benchmark
+    public Map<String, Object> txt() {
+        return parseTextFormat("TXT", "\"v=spf1 a mx -all\"");
+    }
+}
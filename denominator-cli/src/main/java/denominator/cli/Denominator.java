@@ -29,7 +29,9 @@ import denominator.cli.GeoResourceRecordSetCommands.GeoTypeList;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetAdd;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetApplyTTL;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetDelete;
+import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetExport;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetGet;
+import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetImport;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetList;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetRemove;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetReplace;
@@ -57,7 +59,9 @@ public class Denominator {
                .withCommand(ResourceRecordSetApplyTTL.class)
                .withCommand(ResourceRecordSetReplace.class)
                .withCommand(ResourceRecordSetRemove.class)
-               .withCommand(ResourceRecordSetDelete.class);
+               .withCommand(ResourceRecordSetDelete.class)
+               .withCommand(ResourceRecordSetExport.class)
+               .withCommand(ResourceRecordSetImport.class);
 
         builder.withGroup("geo")
                .withDescription("manage geo resource record sets in a zone")
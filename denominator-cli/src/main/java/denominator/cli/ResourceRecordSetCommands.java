@@ -10,19 +10,38 @@ import io.airlift.command.Command;
 import io.airlift.command.Option;
 import io.airlift.command.OptionType;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.InetAddress;
 import java.net.URI;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.common.io.CharStreams;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
 
 import denominator.DNSApiManager;
+import denominator.ResourceRecordSetBatch;
 import denominator.cli.Denominator.DenominatorCommand;
 import denominator.hook.InstanceMetadataHook;
 import denominator.model.ResourceRecordSet;
@@ -37,6 +56,7 @@ import denominator.model.rdata.SOAData;
 import denominator.model.rdata.SPFData;
 import denominator.model.rdata.SRVData;
 import denominator.model.rdata.TXTData;
+import denominator.model.zonefile.ZoneFiles;
 
 class ResourceRecordSetCommands {
 
@@ -312,6 +332,185 @@ class ResourceRecordSetCommands {
         }
     }
 
+    @Command(name = "export", description = "writes the record sets in this zone in zone file format. record sets of types the format doesn't support are skipped, and noted in comments")
+    public static class ResourceRecordSetExport extends ResourceRecordSetCommand {
+
+        public Iterator<String> doRun(DNSApiManager mgr) {
+            Iterator<ResourceRecordSet<?>> list = mgr.getApi().getResourceRecordSetApiForZone(zoneName).list();
+            return concat(forArray("$ORIGIN " + zoneName), transform(list, ResourceRecordSetToZoneFile.INSTANCE));
+        }
+    }
+
+    @Command(name = "import", description = "creates or replaces the record sets in a zone file. skips the SOA and NS record sets of the zone, as providers manage these. the whole file is read before any change is made")
+    public static class ResourceRecordSetImport extends ResourceRecordSetCommand {
+        @Option(type = OptionType.COMMAND, name = { "-f", "--file" }, description = "zone file to read, or standard input if absent. ex. denominator.io.zone")
+        public String file;
+
+        public Reader in = new InputStreamReader(System.in, Charsets.UTF_8);
+
+        public Iterator<String> doRun(final DNSApiManager mgr) {
+            final File zoneFile = file != null ? new File(file) : copyToTempFile(in);
+            if (!zoneFile.isFile())
+                throw new IllegalArgumentException("file not found: " + file);
+            // fails on a malformed file before anything is changed
+            final Set<Entry<String, String>> apart;
+            try {
+                apart = validate(zoneFile);
+            } catch (RuntimeException e) {
+                if (file == null)
+                    zoneFile.delete();
+                throw e;
+            }
+            String cmd = format(";; in zone %s importing record sets from %s", zoneName, file != null ? file
+                    : "standard input");
+            return concat(forArray(cmd), new AbstractIterator<String>() {
+                Reader in = open(zoneFile);
+                Iterator<ResourceRecordSet<?>> rrsets = ZoneFiles.read(in, zoneName);
+                ResourceRecordSetBatch batch = mgr.getApi().getResourceRecordSetBatchForZone(zoneName);
+                /**
+                 * records of a name and type may be apart in the file, and are
+                 * then read as several record sets. The first replaces what's
+                 * in the zone, and the rest are added to it. Only names and
+                 * types found apart when validating are tracked.
+                 */
+                Set<Entry<String, String>> imported = Sets.newHashSet();
+                boolean done = false;
+
+                @Override
+                protected String computeNext() {
+                    if (done)
+                        return endOfData();
+                    boolean finished = true;
+                    try {
+                        if (!rrsets.hasNext()) {
+                            done = true;
+                            return ";; ok";
+                        }
+                        String result = importBatch();
+                        finished = false;
+                        return result;
+                    } finally {
+                        if (finished) {
+                            close(in);
+                            if (file == null)
+                                zoneFile.delete();
+                        }
+                    }
+                }
+
+                private String importBatch() {
+                    int replaced = 0, merged = 0, skipped = 0;
+                    while (replaced + merged < RECORD_SETS_PER_BATCH && rrsets.hasNext()) {
+                        ResourceRecordSet<?> rrset = rrsets.next();
+                        if (zoneName.equals(rrset.getName())
+                                && ("SOA".equals(rrset.getType()) || "NS".equals(rrset.getType()))) {
+                            skipped++;
+                        } else if (isFirst(Maps.immutableEntry(rrset.getName(), rrset.getType()))) {
+                            batch.replace(rrset);
+                            replaced++;
+                        } else {
+                            batch.add(rrset);
+                            merged++;
+                        }
+                    }
+                    if (replaced + merged > 0)
+                        batch.commit();
+                    String result = format(";; replaced %s record sets", replaced);
+                    if (merged > 0)
+                        result = format("%s, added %s more", result, merged);
+                    return skipped > 0 ? format("%s, skipped %s", result, skipped) : result;
+                }
+
+                private boolean isFirst(Entry<String, String> nameAndType) {
+                    return !apart.contains(nameAndType) || imported.add(nameAndType);
+                }
+            });
+        }
+
+        /**
+         * reads the whole file, so that a malformed one fails before any batch
+         * is committed. Returns the names and types whose records are apart in
+         * the file. As names and types already read are kept in a bloom filter
+         * of fixed size, a few that aren't apart may be returned too.
+         */
+        private Set<Entry<String, String>> validate(File zoneFile) {
+            BloomFilter<CharSequence> read = BloomFilter.create(Funnels.stringFunnel(), RECORD_SETS_IN_FILTER);
+            Set<Entry<String, String>> apart = Sets.newHashSet();
+            Reader in = open(zoneFile);
+            try {
+                for (Iterator<ResourceRecordSet<?>> rrsets = ZoneFiles.read(in, zoneName); rrsets.hasNext();) {
+                    ResourceRecordSet<?> rrset = rrsets.next();
+                    if (!read.put(rrset.getName() + ' ' + rrset.getType()))
+                        apart.add(Maps.immutableEntry(rrset.getName(), rrset.getType()));
+                }
+            } finally {
+                close(in);
+            }
+            return apart;
+        }
+
+        /**
+         * standard input can only be read once, so it is copied to a file that
+         * is read twice: once to validate, and once to import.
+         */
+        private static File copyToTempFile(Reader in) {
+            try {
+                File tempFile = File.createTempFile("denominator", ".zone");
+                tempFile.deleteOnExit();
+                Writer out = Files.newWriter(tempFile, Charsets.UTF_8);
+                try {
+                    CharStreams.copy(in, out);
+                } finally {
+                    Closeables.close(out, false);
+                    close(in);
+                }
+                return tempFile;
+            } catch (IOException e) {
+                throw Throwables.propagate(e);
+            }
+        }
+
+        private static Reader open(File zoneFile) {
+            try {
+                return Files.newReader(zoneFile, Charsets.UTF_8);
+            } catch (FileNotFoundException e) {
+                throw new IllegalArgumentException("file not found: " + zoneFile);
+            }
+        }
+
+        private static void close(Reader in) {
+            try {
+                Closeables.close(in, true);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    /**
+     * record sets replaced in each batch commit during import, so that memory
+     * use doesn't grow with the size of the zone file.
+     */
+    static final int RECORD_SETS_PER_BATCH = 1000;
+
+    /**
+     * sizes the bloom filter of names and types read while validating an
+     * import to about a megabyte. Larger files only mean more names and types
+     * are wrongly thought apart.
+     */
+    static final int RECORD_SETS_IN_FILTER = 1000000;
+
+    static enum ResourceRecordSetToZoneFile implements Function<ResourceRecordSet<?>, String> {
+        INSTANCE;
+
+        @Override
+        public String apply(ResourceRecordSet<?> input) {
+            if (!ZoneFiles.isSupported(input.getType()))
+                return format("; skipped %s %s: unsupported type", input.getName(), input.getType());
+            return ZoneFiles.format(input);
+        }
+    }
+
     static enum ResourceRecordSetToString implements Function<ResourceRecordSet<?>, String> {
         INSTANCE;
 
@@ -1,11 +1,19 @@
 package denominator.cli;
 
+import static denominator.model.ResourceRecordSets.a;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.StringReader;
+import java.util.Map;
 
 import org.testng.annotations.Test;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import denominator.DNSApiManager;
 import denominator.Provider;
@@ -18,12 +26,15 @@ import denominator.cli.GeoResourceRecordSetCommands.GeoTypeList;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetAdd;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetApplyTTL;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetDelete;
+import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetExport;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetGet;
+import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetImport;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetList;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetRemove;
 import denominator.cli.ResourceRecordSetCommands.ResourceRecordSetReplace;
 import denominator.dynect.DynECTProvider;
 import denominator.mock.MockProvider;
+import denominator.model.ResourceRecordSet;
 import denominator.route53.Route53Provider;
 import denominator.ultradns.UltraDNSProvider;
 @Test
@@ -177,6 +188,90 @@ public class DenominatorTest {
                 ";; ok"));
     }
 
+    @Test(description = "denominator -p mock record -z denominator.io. export")
+    public void testResourceRecordSetExport() {
+        ResourceRecordSetExport command = new ResourceRecordSetExport();
+        command.zoneName = "denominator.io.";
+        assertEquals(Joiner.on('\n').join(command.doRun(denominator.Denominator.create(new MockProvider()))),
+                Joiner.on('\n').join(
+                "$ORIGIN denominator.io.",
+                "denominator.io.\t86400\tIN\tNS\tns1.denominator.io.",
+                "denominator.io.\t3600\tIN\tSOA\tns1.denominator.io. admin.denominator.io. 1 3600 600 604800 60",
+                "www.denominator.io.\t3600\tIN\tCNAME\twww1.denominator.io.",
+                "www1.denominator.io.\t3600\tIN\tA\t192.0.2.1",
+                "www1.denominator.io.\t3600\tIN\tA\t192.0.2.2",
+                "www2.denominator.io.\t3600\tIN\tA\t198.51.100.1"));
+    }
+
+    @Test(description = "denominator -p mock record -z denominator.io. import < denominator.io.zone")
+    public void testResourceRecordSetImport() {
+        DNSApiManager mgr = denominator.Denominator.create(new MockProvider());
+        ResourceRecordSetImport command = new ResourceRecordSetImport();
+        command.zoneName = "denominator.io.";
+        command.in = new StringReader(Joiner.on('\n').join(
+                "$TTL 300",
+                "@ NS ns2.denominator.io.",
+                "www4 A 192.0.2.4",
+                "     A 192.0.2.5"));
+        assertEquals(Joiner.on('\n').join(command.doRun(mgr)), Joiner.on('\n').join(
+                ";; in zone denominator.io. importing record sets from standard input",
+                ";; replaced 1 record sets, skipped 1",
+                ";; ok"));
+        assertEquals(mgr.getApi().getResourceRecordSetApiForZone("denominator.io.")
+                .getByNameAndType("www4.denominator.io.", "A").get(),
+                a("www4.denominator.io.", 300, ImmutableList.of("192.0.2.4", "192.0.2.5")));
+    }
+
+    @Test(description = "denominator -p mock record -z denominator.io. import < interleaved.zone")
+    public void testResourceRecordSetImportMergesRecordsApartInTheFile() {
+        DNSApiManager mgr = denominator.Denominator.create(new MockProvider());
+        ResourceRecordSetImport command = new ResourceRecordSetImport();
+        command.zoneName = "denominator.io.";
+        command.in = new StringReader(Joiner.on('\n').join(
+                "www4 300 A 192.0.2.4",
+                "www5 300 A 192.0.2.6",
+                "www4 300 A 192.0.2.5"));
+        assertEquals(Joiner.on('\n').join(command.doRun(mgr)), Joiner.on('\n').join(
+                ";; in zone denominator.io. importing record sets from standard input",
+                ";; replaced 2 record sets, added 1 more",
+                ";; ok"));
+        assertEquals(mgr.getApi().getResourceRecordSetApiForZone("denominator.io.")
+                .getByNameAndType("www4.denominator.io.", "A").get(),
+                a("www4.denominator.io.", 300, ImmutableList.of("192.0.2.4", "192.0.2.5")));
+    }
+
+    @Test(description = "denominator -p mock record -z denominator.io. import < malformed.zone")
+    public void testResourceRecordSetImportChangesNothingWhenFileIsMalformed() {
+        DNSApiManager mgr = denominator.Denominator.create(new MockProvider());
+        ResourceRecordSetImport command = new ResourceRecordSetImport();
+        command.zoneName = "denominator.io.";
+        command.in = new StringReader(Joiner.on('\n').join(
+                "www4 300 A 192.0.2.4",
+                "www5 300 MX mail.denominator.io."));
+        try {
+            command.doRun(mgr);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), "line 2: MX expects 2 values, not 1");
+        }
+        assertFalse(mgr.getApi().getResourceRecordSetApiForZone("denominator.io.")
+                .getByNameAndType("www4.denominator.io.", "A").isPresent());
+    }
+
+    @Test(description = "denominator -p mock record -z denominator.io. export")
+    public void testResourceRecordSetExportSkipsUnsupportedTypes() {
+        DNSApiManager mgr = denominator.Denominator.create(new MockProvider());
+        mgr.getApi().getResourceRecordSetApiForZone("denominator.io.").add(
+                ResourceRecordSet.<Map<String, Object>> builder()
+                                 .name("www.denominator.io.")
+                                 .type("HINFO")
+                                 .add(ImmutableMap.<String, Object> of("cpu", "PC", "os", "Linux")).build());
+        ResourceRecordSetExport command = new ResourceRecordSetExport();
+        command.zoneName = "denominator.io.";
+        assertTrue(ImmutableList.copyOf(command.doRun(mgr)).contains(
+                "; skipped www.denominator.io. HINFO: unsupported type"));
+    }
+
     @Test(description = "denominator -p mock geo -z denominator.io. types")
     public void testGeoTypeList() {
         GeoTypeList command = new GeoTypeList();
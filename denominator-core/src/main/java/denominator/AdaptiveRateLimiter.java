@@ -0,0 +1,316 @@
+package denominator;
+
+import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Iterables;
+
+/**
+ * limits calls to a provider with a token bucket whose rate adapts to
+ * throttling. The rate starts at its maximum and grows by about one permit per
+ * second, each second of successful calls. When the provider throttles a
+ * call, the rate halves, at most once per second, down to its minimum.
+ *
+ * Providers bind one of these in their module and
+ * {@link #decorate(Class, Object, Predicate) decorate} their client with it,
+ * so that every outbound call waits for a permit. Iterables which list
+ * further pages on their own, such as jclouds' {@code PagedIterable}, call the
+ * undecorated client, so providers page through the decorated one instead.
+ *
+ * The limiter isn't exposed by {@link DNSApiManager}. To change the limits,
+ * or read stats such as {@link #getQueueLength()} and
+ * {@link #getWaitNanos()}, pass a module with {@code overrides = true} that
+ * provides an instance you keep a reference to.
+ *
+ * ex.
+ *
+ * <pre>
+ * final AdaptiveRateLimiter limiter = AdaptiveRateLimiter.create(10);
+ *
+ * &#064;Module(entryPoints = DNSApiManager.class, complete = false, overrides = true)
+ * class Route53Limits {
+ *     &#064;Provides
+ *     &#064;Singleton
+ *     AdaptiveRateLimiter provideRateLimiter() {
+ *         return limiter;
+ *     }
+ * }
+ *
+ * DNSApiManager manager = Denominator.create(new Route53Provider(), credentials(accessKey, secretKey),
+ *         new Route53Limits());
+ * ...
+ * long waitNanos = limiter.getWaitNanos();
+ * </pre>
+ */
+@Beta
+public final class AdaptiveRateLimiter {
+
+    /**
+     * reads which the provider throttled are retried this many times.
+     */
+    static final int THROTTLED_RETRIES = 3;
+
+    /**
+     * @param maxPermitsPerSecond
+     *            the rate to start at, and never exceed.
+     */
+    public static AdaptiveRateLimiter create(double maxPermitsPerSecond) {
+        return create(maxPermitsPerSecond, Math.min(1, maxPermitsPerSecond));
+    }
+
+    /**
+     * @param maxPermitsPerSecond
+     *            the rate to start at, and never exceed.
+     * @param minPermitsPerSecond
+     *            the rate throttling won't reduce below.
+     */
+    public static AdaptiveRateLimiter create(double maxPermitsPerSecond, double minPermitsPerSecond) {
+        return new AdaptiveRateLimiter(Ticker.systemTicker(), maxPermitsPerSecond, minPermitsPerSecond);
+    }
+
+    private final Ticker ticker;
+    private final double maxRate;
+    private final double minRate;
+
+    // guarded by this
+    private double rate;
+    // negative when callers are waiting for permits
+    private double storedPermits;
+    private long lastRefill;
+    private long lastDecrease;
+
+    private final AtomicInteger queueLength = new AtomicInteger();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    AdaptiveRateLimiter(Ticker ticker, double maxRate, double minRate) {
+        this.ticker = checkNotNull(ticker, "ticker");
+        checkArgument(minRate > 0 && minRate <= maxRate, "rates must be positive, with min <= max: %s, %s", minRate,
+                maxRate);
+        this.maxRate = maxRate;
+        this.minRate = minRate;
+        this.rate = maxRate;
+        this.storedPermits = 1;
+        this.lastRefill = ticker.read();
+        this.lastDecrease = lastRefill - SECONDS.toNanos(1);
+    }
+
+    /**
+     * blocks until a permit is available.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting. The permit is still used.
+     */
+    public void acquire() throws InterruptedException {
+        long wait = reserve();
+        if (wait > 0) {
+            queueLength.incrementAndGet();
+            try {
+                NANOSECONDS.sleep(wait);
+            } finally {
+                queueLength.decrementAndGet();
+            }
+            waitNanos.addAndGet(wait);
+        }
+        acquired.incrementAndGet();
+    }
+
+    /**
+     * takes a permit, which may be in the future.
+     *
+     * @return nanoseconds until the permit is available.
+     */
+    synchronized long reserve() {
+        refill(ticker.read());
+        storedPermits -= 1;
+        if (storedPermits >= 0)
+            return 0;
+        return (long) (-storedPermits * SECONDS.toNanos(1) / rate);
+    }
+
+    private void refill(long now) {
+        // hold up to a second of permits, so that idle time allows a burst
+        double burst = Math.max(1, rate);
+        storedPermits = Math.min(burst, storedPermits + (now - lastRefill) * rate / SECONDS.toNanos(1));
+        lastRefill = now;
+    }
+
+    /**
+     * records a call which the provider accepted, increasing the rate.
+     */
+    public synchronized void onSuccess() {
+        if (rate < maxRate) {
+            refill(ticker.read());
+            rate = Math.min(maxRate, rate + 1 / rate);
+        }
+    }
+
+    /**
+     * records a call which the provider throttled, halving the rate unless it
+     * was halved within the last second.
+     */
+    public synchronized void onThrottled() {
+        throttled.incrementAndGet();
+        long now = ticker.read();
+        if (now - lastDecrease < SECONDS.toNanos(1))
+            return;
+        refill(now);
+        rate = Math.max(minRate, rate / 2);
+        lastDecrease = now;
+    }
+
+    /**
+     * permits per second currently allowed.
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * callers currently waiting for a permit.
+     */
+    public int getQueueLength() {
+        return queueLength.get();
+    }
+
+    /**
+     * permits handed out so far.
+     */
+    public long getAcquired() {
+        return acquired.get();
+    }
+
+    /**
+     * total time callers spent waiting for permits.
+     */
+    public long getWaitNanos() {
+        return waitNanos.get();
+    }
+
+    /**
+     * calls the provider throttled so far, including retries.
+     */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    /**
+     * returns a proxy of {@code delegate} which acquires a permit before each
+     * call. Methods which return another api, whose interface is in the
+     * package of {@code type} or below, make no request, so they don't wait
+     * for a permit, and their result is decorated the same way. Calls that
+     * fail with an exception, or cause, matching {@code throttled} reduce the
+     * rate. Of those, reads, whose method names start with {@code get} or
+     * {@code list}, are retried up to 3 times. Others may have been applied
+     * despite the error, so aren't retried.
+     *
+     * {@code throttled} should only match errors the http client doesn't
+     * already retry, such as {@code 429}, so that retries don't multiply.
+     * If the calling thread is interrupted while waiting for a permit, the
+     * call fails without being made, and the thread stays interrupted.
+     */
+    public <T> T decorate(Class<T> type, T delegate, Predicate<? super Throwable> throttled) {
+        checkArgument(checkNotNull(type, "type").isInterface(), "%s is not an interface", type);
+        checkNotNull(delegate, "delegate");
+        checkNotNull(throttled, "throttled");
+        return type.cast(decorate(type, delegate, type.getPackage().getName(), throttled));
+    }
+
+    private Object decorate(Class<?> type, Object delegate, String rootPackage, Predicate<? super Throwable> throttled) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new RateLimitedHandler(delegate,
+                rootPackage, throttled));
+    }
+
+    private final class RateLimitedHandler implements InvocationHandler {
+        private final Object delegate;
+        private final String rootPackage;
+        private final Predicate<? super Throwable> isThrottled;
+
+        private RateLimitedHandler(Object delegate, String rootPackage, Predicate<? super Throwable> throttled) {
+            this.delegate = delegate;
+            this.rootPackage = rootPackage;
+            this.isThrottled = throttled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class || "close".equals(method.getName()))
+                return invokeDelegate(method, args);
+            // accessors of other apis are local, so neither wait nor count
+            if (isApi(method.getReturnType()))
+                return decorateIfApi(method.getReturnType(), invokeDelegate(method, args));
+            int retries = isRead(method) ? THROTTLED_RETRIES : 0;
+            for (int attempt = 0;; attempt++) {
+                try {
+                    acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw Throwables.propagate(e);
+                }
+                try {
+                    Object result = invokeDelegate(method, args);
+                    onSuccess();
+                    return result;
+                } catch (Throwable e) {
+                    if (!Iterables.any(Throwables.getCausalChain(e), isThrottled))
+                        throw e;
+                    onThrottled();
+                    if (attempt == retries)
+                        throw e;
+                }
+            }
+        }
+
+        private boolean isRead(Method method) {
+            return method.getName().startsWith("get") || method.getName().startsWith("list");
+        }
+
+        private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private boolean isApi(Class<?> returnType) {
+            if (!returnType.isInterface() || returnType.getPackage() == null)
+                return false;
+            String returnPackage = returnType.getPackage().getName();
+            return returnPackage.equals(rootPackage) || returnPackage.startsWith(rootPackage + ".");
+        }
+
+        private Object decorateIfApi(Class<?> returnType, Object result) {
+            if (result == null || !isApi(returnType))
+                return result;
+            return decorate(returnType, result, rootPackage, isThrottled);
+        }
+
+        @Override
+        public String toString() {
+            return "RateLimited(" + delegate + ")";
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return toStringHelper(this).add("rate", rate).add("maxRate", maxRate).add("minRate", minRate)
+                .add("queueLength", queueLength).add("acquired", acquired).add("waitNanos", waitNanos)
+                .add("throttled", throttled).toString();
+    }
+}
@@ -0,0 +1,50 @@
+package denominator;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * non-blocking variant of {@link ResourceRecordSetApi}. Failures, such as
+ * {@code IllegalArgumentException} when the zone isn't found, are reported
+ * through the returned future.
+ * 
+ * @see ResourceRecordSetApi
+ */
+public interface AsyncResourceRecordSetApi {
+
+    /**
+     * @see ResourceRecordSetApi#getByNameAndType(String, String)
+     */
+    ListenableFuture<Optional<ResourceRecordSet<?>>> getByNameAndType(String name, String type);
+
+    /**
+     * @see ResourceRecordSetApi#add(ResourceRecordSet)
+     */
+    ListenableFuture<Void> add(ResourceRecordSet<?> rrset);
+
+    /**
+     * @see ResourceRecordSetApi#applyTTLToNameAndType(int, String, String)
+     */
+    ListenableFuture<Void> applyTTLToNameAndType(int ttl, String name, String type);
+
+    /**
+     * @see ResourceRecordSetApi#replace(ResourceRecordSet)
+     */
+    ListenableFuture<Void> replace(ResourceRecordSet<?> rrset);
+
+    /**
+     * @see ResourceRecordSetApi#remove(ResourceRecordSet)
+     */
+    ListenableFuture<Void> remove(ResourceRecordSet<?> rrset);
+
+    /**
+     * @see ResourceRecordSetApi#deleteByNameAndType(String, String)
+     */
+    ListenableFuture<Void> deleteByNameAndType(String name, String type);
+
+    static interface Factory {
+        AsyncResourceRecordSetApi create(String zoneName);
+    }
+}
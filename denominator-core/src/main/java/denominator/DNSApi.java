@@ -12,15 +12,21 @@ import denominator.profile.GeoResourceRecordSetApi;
 public class DNSApi {
     private final ZoneApi zoneApi;
     private final ResourceRecordSetApi.Factory rrsetApiFactory;
+    private final AsyncResourceRecordSetApi.Factory asyncRRSetApiFactory;
+    private final ResourceRecordSetBatch.Factory rrsetBatchFactory;
     private final AllProfileResourceRecordSetApi.Factory allRRSetApiFactory;
     private final GeoResourceRecordSetApi.Factory geoApiFactory;
 
     @Inject
     DNSApi(ZoneApi zoneApi, ResourceRecordSetApi.Factory rrsetApiFactory,
+            AsyncResourceRecordSetApi.Factory asyncRRSetApiFactory,
+            ResourceRecordSetBatch.Factory rrsetBatchFactory,
             AllProfileResourceRecordSetApi.Factory allRRSetApiFactory,
             GeoResourceRecordSetApi.Factory geoApiFactory) {
         this.zoneApi = zoneApi;
         this.rrsetApiFactory = rrsetApiFactory;
+        this.asyncRRSetApiFactory = asyncRRSetApiFactory;
+        this.rrsetBatchFactory = rrsetBatchFactory;
         this.allRRSetApiFactory = allRRSetApiFactory;
         this.geoApiFactory = geoApiFactory;
     }
@@ -40,6 +46,36 @@ public class DNSApi {
         return rrsetApiFactory.create(zoneName);
     }
 
+    /**
+     * controls DNS records as a set, without blocking the caller.
+     */
+    public AsyncResourceRecordSetApi getAsyncResourceRecordSetApiForZone(String zoneName) {
+        return asyncRRSetApiFactory.create(zoneName);
+    }
+
+    /**
+     * stages changes to many DNS record sets, applying them in as few requests
+     * as the provider allows.
+     */
+    public ResourceRecordSetBatch getResourceRecordSetBatchForZone(String zoneName) {
+        return rrsetBatchFactory.create(zoneName);
+    }
+
+    /**
+     * lists record sets in each of {@code zoneNames} using
+     * {@link #getResourceRecordSetApiForZone(String)}, up to
+     * {@code parallelism} zones at a time. Zones start listing no faster than
+     * {@code zonesPerSecond}, which can be
+     * {@link Double#POSITIVE_INFINITY} for no limit. The limit applies to this
+     * listing only, not to other calls to the provider.
+     *
+     * @see MultiZoneListing
+     */
+    public MultiZoneListing listResourceRecordSetsInZones(Iterable<String> zoneNames, int parallelism,
+            double zonesPerSecond) {
+        return new MultiZoneListing(rrsetApiFactory, zoneNames, parallelism, zonesPerSecond);
+    }
+
     /**
      * allows you to list all resource record sets regardless of their profile.
      */
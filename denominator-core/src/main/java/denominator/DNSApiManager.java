@@ -4,8 +4,15 @@ import static com.google.common.base.Objects.toStringHelper;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import denominator.profile.GeoResourceRecordSetApi;
 
 /**
  * represents the connection between a {@link DNSApi} interface and the
@@ -15,12 +22,57 @@ public class DNSApiManager implements Closeable {
     private final Provider provider;
     private final DNSApi api;
     private final Closeable closer;
+    private final ExecutorService asyncExecutor;
 
     @Inject
-    DNSApiManager(Provider provider, DNSApi api, Closeable closer) {
+    DNSApiManager(Provider provider, DNSApi api, Closeable closer,
+            @Named("async") ListeningExecutorService asyncExecutor, MetricsListener metricsListener,
+            ResourceRecordSetDecorator decorator) {
         this.provider = provider;
-        this.api = api;
+        if (metricsListener != MetricsConfiguration.NO_METRICS)
+            api = InstrumentedApis.instrument(api, provider.getName(), metricsListener);
+        this.api = decorate(api, decorator);
         this.closer = closer;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    private static DNSApi decorate(final DNSApi api, final ResourceRecordSetDecorator decorator) {
+        return new DNSApi(api.getZoneApi(), new ResourceRecordSetApi.Factory() {
+
+            @Override
+            public ResourceRecordSetApi create(String zoneName) {
+                return decorator.decorate(zoneName, api.getResourceRecordSetApiForZone(zoneName));
+            }
+
+        }, new AsyncResourceRecordSetApi.Factory() {
+
+            @Override
+            public AsyncResourceRecordSetApi create(String zoneName) {
+                return decorator.decorate(zoneName, api.getAsyncResourceRecordSetApiForZone(zoneName));
+            }
+
+        }, new ResourceRecordSetBatch.Factory() {
+
+            @Override
+            public ResourceRecordSetBatch create(String zoneName) {
+                return decorator.decorate(zoneName, api.getResourceRecordSetBatchForZone(zoneName));
+            }
+
+        }, new AllProfileResourceRecordSetApi.Factory() {
+
+            @Override
+            public AllProfileResourceRecordSetApi create(String zoneName) {
+                return api.getAllProfileResourceRecordSetApiForZone(zoneName);
+            }
+
+        }, new GeoResourceRecordSetApi.Factory() {
+
+            @Override
+            public Optional<GeoResourceRecordSetApi> create(String zoneName) {
+                return api.getGeoResourceRecordSetApiForZone(zoneName);
+            }
+
+        });
     }
 
     /**
@@ -39,11 +91,15 @@ public class DNSApiManager implements Closeable {
     
     /**
      * closes resources associated with the connections, such as thread pools or
-     * open files.
+     * open files. Async operations already submitted are allowed to complete.
      */
     @Override
     public void close() throws IOException {
-        closer.close();
+        try {
+            closer.close();
+        } finally {
+            asyncExecutor.shutdown();
+        }
     }
     
     @Override
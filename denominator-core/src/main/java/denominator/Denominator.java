@@ -8,6 +8,7 @@ import static com.google.common.collect.Maps.uniqueIndex;
 import static denominator.CredentialsConfiguration.anonymous;
 import static denominator.CredentialsConfiguration.checkValidForProvider;
 import static denominator.CredentialsConfiguration.credentials;
+import static denominator.MetricsConfiguration.noMetrics;
 
 import java.util.List;
 import java.util.Map;
@@ -20,6 +21,10 @@ import com.google.common.collect.ImmutableList.Builder;
 import dagger.ObjectGraph;
 import denominator.Credentials.AnonymousCredentials;
 import denominator.CredentialsConfiguration.CredentialsSupplier;
+import denominator.MetricsConfiguration.MetricsListenerModule;
+import denominator.config.AsyncOverBlockingResourceRecordSets;
+import denominator.config.BatchOverBlockingResourceRecordSets;
+import denominator.config.UndecoratedResourceRecordSets;
 import denominator.mock.MockProvider;
 
 public final class Denominator {
@@ -57,6 +62,7 @@ public final class Denominator {
      * </pre>
      * 
      * @see CredentialsConfiguration
+     * @see MetricsConfiguration
      * @see #listProviders
      */
     public static DNSApiManager create(Provider in, Object... modules) {
@@ -75,6 +81,12 @@ public final class Denominator {
                 modulesForGraph.add(anonymous());
             }
         }
+        // providers that don't bind async or batch clients use their blocking one
+        modulesForGraph.add(new AsyncOverBlockingResourceRecordSets());
+        modulesForGraph.add(new BatchOverBlockingResourceRecordSets());
+        modulesForGraph.add(new UndecoratedResourceRecordSets());
+        if (!any(inputModules, instanceOf(MetricsListenerModule.class)))
+            modulesForGraph.add(noMetrics());
         modulesForGraph.addAll(inputModules);
         return ObjectGraph.create(modulesForGraph.build().toArray()).get(DNSApiManager.class);
     }
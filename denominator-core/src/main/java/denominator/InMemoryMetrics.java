@@ -0,0 +1,155 @@
+package denominator;
+
+import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * a {@link MetricsListener} which keeps counts and a latency histogram for
+ * each provider, zone and operation.
+ *
+ * ex.
+ *
+ * <pre>
+ * InMemoryMetrics metrics = new InMemoryMetrics();
+ * DNSApiManager manager = Denominator.create(provider, credentials(username, password), metrics(metrics));
+ * ...
+ * metrics.get(&quot;route53&quot;, &quot;denominator.io.&quot;, &quot;ResourceRecordSetApi.list&quot;).getLatencyPercentile(0.99);
+ * </pre>
+ */
+public final class InMemoryMetrics implements MetricsListener {
+
+    /**
+     * keys are {@code [provider, zone, operation]}, where zone is empty for
+     * {@link ZoneApi}.
+     */
+    private final ConcurrentMap<List<String>, Stats> stats = Maps.newConcurrentMap();
+
+    @Override
+    public void onCall(String provider, String zone, String operation, long nanos, int results, Throwable error) {
+        List<String> key = ImmutableList.of(provider, Strings.nullToEmpty(zone), operation);
+        Stats current = stats.get(key);
+        if (current == null) {
+            Stats newStats = new Stats();
+            current = stats.putIfAbsent(key, newStats);
+            if (current == null)
+                current = newStats;
+        }
+        current.record(nanos, results, error != null);
+    }
+
+    /**
+     * @param zone
+     *            null for {@link ZoneApi}
+     * @return stats for the operation, which are all zero if it wasn't called.
+     */
+    public Stats get(String provider, String zone, String operation) {
+        Stats current = stats.get(ImmutableList.of(provider, Strings.nullToEmpty(zone), operation));
+        return current != null ? current : new Stats();
+    }
+
+    /**
+     * all stats recorded so far, keyed on {@code [provider, zone, operation]},
+     * where zone is empty for {@link ZoneApi}.
+     */
+    public Map<List<String>, Stats> asMap() {
+        return ImmutableMap.copyOf(stats);
+    }
+
+    public static final class Stats {
+        /**
+         * bucket {@code i} counts calls which took less than {@code 2^i}
+         * microseconds, but at least {@code 2^(i-1)}.
+         */
+        private final AtomicLongArray latency = new AtomicLongArray(Long.SIZE);
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong results = new AtomicLong();
+
+        private Stats() {
+        }
+
+        private void record(long nanos, int resultCount, boolean error) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+            latency.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(micros));
+            calls.incrementAndGet();
+            if (error)
+                errors.incrementAndGet();
+            results.addAndGet(resultCount);
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        /**
+         * calls which threw an exception.
+         */
+        public long getErrors() {
+            return errors.get();
+        }
+
+        /**
+         * record sets or zones returned across all calls.
+         */
+        public long getResults() {
+            return results.get();
+        }
+
+        /**
+         * counts of calls by latency, where bucket {@code i} holds calls
+         * which took less than {@code 2^i} microseconds.
+         */
+        public long[] getLatencyHistogram() {
+            long[] histogram = new long[latency.length()];
+            for (int i = 0; i < histogram.length; i++)
+                histogram[i] = latency.get(i);
+            return histogram;
+        }
+
+        /**
+         * upper bound, in microseconds, of the latency under which
+         * {@code percentile} of calls completed, or zero if there were none.
+         *
+         * @param percentile
+         *            ex. {@code 0.99}
+         */
+        public long getLatencyPercentile(double percentile) {
+            checkArgument(percentile > 0 && percentile <= 1, "percentile must be in (0, 1], but was %s", percentile);
+            long[] histogram = getLatencyHistogram();
+            long total = 0;
+            for (long count : histogram)
+                total += count;
+            if (total == 0)
+                return 0;
+            long threshold = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= threshold)
+                    return 1L << i;
+            }
+            throw new AssertionError();
+        }
+
+        @Override
+        public String toString() {
+            return toStringHelper(this).add("calls", getCalls())
+                                       .add("errors", getErrors())
+                                       .add("results", getResults())
+                                       .add("p50", getLatencyPercentile(0.5))
+                                       .add("p99", getLatencyPercentile(0.99)).toString();
+        }
+    }
+}
@@ -0,0 +1,600 @@
+package denominator;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import denominator.model.ResourceRecordSet;
+import denominator.profile.GeoResourceRecordSetApi;
+
+/**
+ * decorates the apis of a {@link DNSApi} so that each call is reported to a
+ * {@link MetricsListener}.
+ */
+final class InstrumentedApis {
+
+    static DNSApi instrument(final DNSApi api, final String provider, final MetricsListener listener) {
+        return new DNSApi(new InstrumentedZoneApi(api.getZoneApi(), provider, listener),
+                new ResourceRecordSetApi.Factory() {
+
+                    @Override
+                    public ResourceRecordSetApi create(String zoneName) {
+                        return new InstrumentedResourceRecordSetApi(api.getResourceRecordSetApiForZone(zoneName),
+                                provider, zoneName, listener);
+                    }
+
+                }, new AsyncResourceRecordSetApi.Factory() {
+
+                    @Override
+                    public AsyncResourceRecordSetApi create(String zoneName) {
+                        return new InstrumentedAsyncResourceRecordSetApi(
+                                api.getAsyncResourceRecordSetApiForZone(zoneName), provider, zoneName, listener);
+                    }
+
+                }, new ResourceRecordSetBatch.Factory() {
+
+                    @Override
+                    public ResourceRecordSetBatch create(String zoneName) {
+                        return new InstrumentedResourceRecordSetBatch(api.getResourceRecordSetBatchForZone(zoneName),
+                                provider, zoneName, listener);
+                    }
+
+                }, new AllProfileResourceRecordSetApi.Factory() {
+
+                    @Override
+                    public AllProfileResourceRecordSetApi create(String zoneName) {
+                        return new InstrumentedAllProfileResourceRecordSetApi(
+                                api.getAllProfileResourceRecordSetApiForZone(zoneName), provider, zoneName, listener);
+                    }
+
+                }, new GeoResourceRecordSetApi.Factory() {
+
+                    @Override
+                    public Optional<GeoResourceRecordSetApi> create(String zoneName) {
+                        Optional<GeoResourceRecordSetApi> geoApi = api.getGeoResourceRecordSetApiForZone(zoneName);
+                        if (!geoApi.isPresent())
+                            return geoApi;
+                        return Optional.<GeoResourceRecordSetApi> of(new InstrumentedGeoResourceRecordSetApi(geoApi
+                                .get(), provider, zoneName, listener));
+                    }
+
+                });
+    }
+
+    /**
+     * iterators which were collected before they were exhausted.
+     */
+    private static final ReferenceQueue<Object> abandoned = new ReferenceQueue<Object>();
+
+    /**
+     * keeps references to unreported iterators reachable until they are
+     * enqueued.
+     */
+    private static final Set<AbandonedIterator> pending = Collections
+            .newSetFromMap(new ConcurrentHashMap<AbandonedIterator, Boolean>());
+
+    /**
+     * reports iterators that were dropped before their end, with the results
+     * they returned until then.
+     */
+    private static void reportAbandoned() {
+        Reference<?> ref;
+        while ((ref = abandoned.poll()) != null) {
+            AbandonedIterator iterator = AbandonedIterator.class.cast(ref);
+            pending.remove(iterator);
+            iterator.progress.report(null);
+        }
+    }
+
+    /**
+     * holds the tags common to every call on an api.
+     */
+    private static class Reporter {
+        private final String provider;
+        private final String zone;
+        private final String apiName;
+        private final MetricsListener listener;
+
+        private Reporter(String provider, String zone, String apiName, MetricsListener listener) {
+            this.provider = provider;
+            this.zone = zone;
+            this.apiName = apiName;
+            this.listener = listener;
+        }
+
+        void report(String method, long start, int results, Throwable error) {
+            reportNanos(method, System.nanoTime() - start, results, error);
+        }
+
+        void reportNanos(String method, long nanos, int results, Throwable error) {
+            reportAbandoned();
+            listener.onCall(provider, zone, apiName + "." + method, nanos, results, error);
+        }
+
+        Optional<ResourceRecordSet<?>> reportOptional(String method, long start, Optional<ResourceRecordSet<?>> result) {
+            report(method, start, result.isPresent() ? 1 : 0, null);
+            return result;
+        }
+
+        <T> Iterator<T> reportIterator(String method, long start, Iterator<T> iterator) {
+            reportAbandoned();
+            Progress progress = new Progress(this, method, System.nanoTime() - start);
+            InstrumentedIterator<T> instrumented = new InstrumentedIterator<T>(iterator, progress);
+            pending.add(new AbandonedIterator(instrumented, progress));
+            return instrumented;
+        }
+
+        <T> ListenableFuture<T> reportFuture(final String method, final long start, ListenableFuture<T> future) {
+            Futures.addCallback(future, new FutureCallback<T>() {
+
+                @Override
+                public void onSuccess(T result) {
+                    int results = result instanceof Optional && Optional.class.cast(result).isPresent() ? 1 : 0;
+                    report(method, start, results, null);
+                }
+
+                @Override
+                public void onFailure(Throwable error) {
+                    report(method, start, 0, error);
+                }
+            });
+            return future;
+        }
+    }
+
+    /**
+     * state of an iterator, kept apart from it so that it can be reported
+     * after the iterator is collected.
+     */
+    private static class Progress {
+        private final Reporter reporter;
+        private final String method;
+        private final AtomicBoolean reported = new AtomicBoolean();
+        private volatile long nanos;
+        private volatile int results;
+
+        private Progress(Reporter reporter, String method, long nanos) {
+            this.reporter = reporter;
+            this.method = method;
+            this.nanos = nanos;
+        }
+
+        private void report(Throwable error) {
+            if (reported.compareAndSet(false, true))
+                reporter.reportNanos(method, nanos, results, error);
+        }
+    }
+
+    private static class AbandonedIterator extends PhantomReference<Object> {
+        private final Progress progress;
+
+        private AbandonedIterator(Object iterator, Progress progress) {
+            super(iterator, abandoned);
+            this.progress = progress;
+        }
+    }
+
+    /**
+     * reports once, when exhausted or failed, with the time spent in the
+     * delegate. If dropped before then, it is reported on a later call after
+     * it is garbage collected.
+     */
+    private static class InstrumentedIterator<T> implements Iterator<T> {
+        private final Iterator<T> delegate;
+        private final Progress progress;
+
+        private InstrumentedIterator(Iterator<T> delegate, Progress progress) {
+            this.delegate = delegate;
+            this.progress = progress;
+        }
+
+        @Override
+        public boolean hasNext() {
+            long start = System.nanoTime();
+            try {
+                boolean hasNext = delegate.hasNext();
+                progress.nanos += System.nanoTime() - start;
+                if (!hasNext)
+                    progress.report(null);
+                return hasNext;
+            } catch (RuntimeException e) {
+                progress.nanos += System.nanoTime() - start;
+                progress.report(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public T next() {
+            long start = System.nanoTime();
+            try {
+                T next = delegate.next();
+                progress.nanos += System.nanoTime() - start;
+                progress.results++;
+                return next;
+            } catch (RuntimeException e) {
+                progress.nanos += System.nanoTime() - start;
+                progress.report(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void remove() {
+            delegate.remove();
+        }
+    }
+
+    private static class InstrumentedZoneApi implements ZoneApi {
+        private final ZoneApi delegate;
+        private final Reporter reporter;
+
+        private InstrumentedZoneApi(ZoneApi delegate, String provider, MetricsListener listener) {
+            this.delegate = delegate;
+            this.reporter = new Reporter(provider, null, "ZoneApi", listener);
+        }
+
+        @Override
+        public Iterator<String> list() {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportIterator("list", start, delegate.list());
+            } catch (RuntimeException e) {
+                reporter.report("list", start, 0, e);
+                throw e;
+            }
+        }
+    }
+
+    private static class InstrumentedResourceRecordSetApi implements ResourceRecordSetApi {
+        private final ResourceRecordSetApi delegate;
+        private final Reporter reporter;
+
+        private InstrumentedResourceRecordSetApi(ResourceRecordSetApi delegate, String provider, String zone,
+                MetricsListener listener) {
+            this.delegate = delegate;
+            this.reporter = new Reporter(provider, zone, "ResourceRecordSetApi", listener);
+        }
+
+        @Override
+        public Iterator<ResourceRecordSet<?>> list() {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportIterator("list", start, delegate.list());
+            } catch (RuntimeException e) {
+                reporter.report("list", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public Iterator<ResourceRecordSet<?>> listByName(String name) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportIterator("listByName", start, delegate.listByName(name));
+            } catch (RuntimeException e) {
+                reporter.report("listByName", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public Optional<ResourceRecordSet<?>> getByNameAndType(String name, String type) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportOptional("getByNameAndType", start, delegate.getByNameAndType(name, type));
+            } catch (RuntimeException e) {
+                reporter.report("getByNameAndType", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void add(ResourceRecordSet<?> rrset) {
+            long start = System.nanoTime();
+            try {
+                delegate.add(rrset);
+                reporter.report("add", start, 0, null);
+            } catch (RuntimeException e) {
+                reporter.report("add", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void applyTTLToNameAndType(int ttl, String name, String type) {
+            long start = System.nanoTime();
+            try {
+                delegate.applyTTLToNameAndType(ttl, name, type);
+                reporter.report("applyTTLToNameAndType", start, 0, null);
+            } catch (RuntimeException e) {
+                reporter.report("applyTTLToNameAndType", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void replace(ResourceRecordSet<?> rrset) {
+            long start = System.nanoTime();
+            try {
+                delegate.replace(rrset);
+                reporter.report("replace", start, 0, null);
+            } catch (RuntimeException e) {
+                reporter.report("replace", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void remove(ResourceRecordSet<?> rrset) {
+            long start = System.nanoTime();
+            try {
+                delegate.remove(rrset);
+                reporter.report("remove", start, 0, null);
+            } catch (RuntimeException e) {
+                reporter.report("remove", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void deleteByNameAndType(String name, String type) {
+            long start = System.nanoTime();
+            try {
+                delegate.deleteByNameAndType(name, type);
+                reporter.report("deleteByNameAndType", start, 0, null);
+            } catch (RuntimeException e) {
+                reporter.report("deleteByNameAndType", start, 0, e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * reports each call when its future completes, on the thread that
+     * completes it.
+     */
+    private static class InstrumentedAsyncResourceRecordSetApi implements AsyncResourceRecordSetApi {
+        private final AsyncResourceRecordSetApi delegate;
+        private final Reporter reporter;
+
+        private InstrumentedAsyncResourceRecordSetApi(AsyncResourceRecordSetApi delegate, String provider,
+                String zone, MetricsListener listener) {
+            this.delegate = delegate;
+            this.reporter = new Reporter(provider, zone, "AsyncResourceRecordSetApi", listener);
+        }
+
+        @Override
+        public ListenableFuture<Optional<ResourceRecordSet<?>>> getByNameAndType(String name, String type) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportFuture("getByNameAndType", start, delegate.getByNameAndType(name, type));
+            } catch (RuntimeException e) {
+                reporter.report("getByNameAndType", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public ListenableFuture<Void> add(ResourceRecordSet<?> rrset) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportFuture("add", start, delegate.add(rrset));
+            } catch (RuntimeException e) {
+                reporter.report("add", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public ListenableFuture<Void> applyTTLToNameAndType(int ttl, String name, String type) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportFuture("applyTTLToNameAndType", start,
+                        delegate.applyTTLToNameAndType(ttl, name, type));
+            } catch (RuntimeException e) {
+                reporter.report("applyTTLToNameAndType", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public ListenableFuture<Void> replace(ResourceRecordSet<?> rrset) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportFuture("replace", start, delegate.replace(rrset));
+            } catch (RuntimeException e) {
+                reporter.report("replace", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public ListenableFuture<Void> remove(ResourceRecordSet<?> rrset) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportFuture("remove", start, delegate.remove(rrset));
+            } catch (RuntimeException e) {
+                reporter.report("remove", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public ListenableFuture<Void> deleteByNameAndType(String name, String type) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportFuture("deleteByNameAndType", start, delegate.deleteByNameAndType(name, type));
+            } catch (RuntimeException e) {
+                reporter.report("deleteByNameAndType", start, 0, e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * staging is local, so only {@link #commit()} is reported.
+     */
+    private static class InstrumentedResourceRecordSetBatch implements ResourceRecordSetBatch {
+        private final ResourceRecordSetBatch delegate;
+        private final Reporter reporter;
+
+        private InstrumentedResourceRecordSetBatch(ResourceRecordSetBatch delegate, String provider, String zone,
+                MetricsListener listener) {
+            this.delegate = delegate;
+            this.reporter = new Reporter(provider, zone, "ResourceRecordSetBatch", listener);
+        }
+
+        @Override
+        public ResourceRecordSetBatch add(ResourceRecordSet<?> rrset) {
+            delegate.add(rrset);
+            return this;
+        }
+
+        @Override
+        public ResourceRecordSetBatch applyTTLToNameAndType(int ttl, String name, String type) {
+            delegate.applyTTLToNameAndType(ttl, name, type);
+            return this;
+        }
+
+        @Override
+        public ResourceRecordSetBatch applyTTL(int ttl, Predicate<? super ResourceRecordSet<?>> filter) {
+            delegate.applyTTL(ttl, filter);
+            return this;
+        }
+
+        @Override
+        public ResourceRecordSetBatch replace(ResourceRecordSet<?> rrset) {
+            delegate.replace(rrset);
+            return this;
+        }
+
+        @Override
+        public ResourceRecordSetBatch remove(ResourceRecordSet<?> rrset) {
+            delegate.remove(rrset);
+            return this;
+        }
+
+        @Override
+        public ResourceRecordSetBatch deleteByNameAndType(String name, String type) {
+            delegate.deleteByNameAndType(name, type);
+            return this;
+        }
+
+        @Override
+        public void commit() {
+            long start = System.nanoTime();
+            try {
+                delegate.commit();
+                reporter.report("commit", start, 0, null);
+            } catch (RuntimeException e) {
+                reporter.report("commit", start, 0, e);
+                throw e;
+            }
+        }
+    }
+
+    private static class InstrumentedAllProfileResourceRecordSetApi implements AllProfileResourceRecordSetApi {
+        private final AllProfileResourceRecordSetApi delegate;
+        final Reporter reporter;
+
+        private InstrumentedAllProfileResourceRecordSetApi(AllProfileResourceRecordSetApi delegate, String provider,
+                String zone, MetricsListener listener) {
+            this(delegate, new Reporter(provider, zone, "AllProfileResourceRecordSetApi", listener));
+        }
+
+        InstrumentedAllProfileResourceRecordSetApi(AllProfileResourceRecordSetApi delegate, Reporter reporter) {
+            this.delegate = delegate;
+            this.reporter = reporter;
+        }
+
+        @Override
+        public Iterator<ResourceRecordSet<?>> list() {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportIterator("list", start, delegate.list());
+            } catch (RuntimeException e) {
+                reporter.report("list", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public Iterator<ResourceRecordSet<?>> listByName(String name) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportIterator("listByName", start, delegate.listByName(name));
+            } catch (RuntimeException e) {
+                reporter.report("listByName", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public Iterator<ResourceRecordSet<?>> listByNameAndType(String name, String type) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportIterator("listByNameAndType", start, delegate.listByNameAndType(name, type));
+            } catch (RuntimeException e) {
+                reporter.report("listByNameAndType", start, 0, e);
+                throw e;
+            }
+        }
+    }
+
+    private static class InstrumentedGeoResourceRecordSetApi extends InstrumentedAllProfileResourceRecordSetApi
+            implements GeoResourceRecordSetApi {
+        private final GeoResourceRecordSetApi delegate;
+
+        private InstrumentedGeoResourceRecordSetApi(GeoResourceRecordSetApi delegate, String provider, String zone,
+                MetricsListener listener) {
+            super(delegate, new Reporter(provider, zone, "GeoResourceRecordSetApi", listener));
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Set<String> getSupportedTypes() {
+            return delegate.getSupportedTypes();
+        }
+
+        @Override
+        public Multimap<String, String> getSupportedRegions() {
+            long start = System.nanoTime();
+            try {
+                Multimap<String, String> regions = delegate.getSupportedRegions();
+                reporter.report("getSupportedRegions", start, regions.size(), null);
+                return regions;
+            } catch (RuntimeException e) {
+                reporter.report("getSupportedRegions", start, 0, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public Optional<ResourceRecordSet<?>> getByNameTypeAndGroup(String name, String type, String group) {
+            long start = System.nanoTime();
+            try {
+                return reporter.reportOptional("getByNameTypeAndGroup", start,
+                        delegate.getByNameTypeAndGroup(name, type, group));
+            } catch (RuntimeException e) {
+                reporter.report("getByNameTypeAndGroup", start, 0, e);
+                throw e;
+            }
+        }
+    }
+
+    private InstrumentedApis() {
+    }
+}
@@ -0,0 +1,64 @@
+package denominator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.inject.Singleton;
+
+import dagger.Module;
+import dagger.Provides;
+
+/**
+ * registers a {@link MetricsListener} with {@link Denominator#create}.
+ *
+ * ex.
+ *
+ * <pre>
+ * DNSApiManager manager = Denominator.create(provider, credentials(username, password), metrics(listener));
+ * </pre>
+ */
+public class MetricsConfiguration {
+
+    private MetricsConfiguration() {
+    }
+
+    /**
+     * the default, which skips instrumentation altogether.
+     */
+    static final MetricsListener NO_METRICS = new MetricsListener() {
+
+        @Override
+        public void onCall(String provider, String zone, String operation, long nanos, int results, Throwable error) {
+        }
+
+        @Override
+        public String toString() {
+            return "NoMetrics()";
+        }
+    };
+
+    /**
+     * created by {@link MetricsConfiguration#metrics(MetricsListener)}.
+     */
+    @Module(entryPoints = DNSApiManager.class, complete = false)
+    public static class MetricsListenerModule {
+        private final MetricsListener listener;
+
+        private MetricsListenerModule(MetricsListener listener) {
+            this.listener = listener;
+        }
+
+        @Provides
+        @Singleton
+        MetricsListener provideMetricsListener() {
+            return listener;
+        }
+    }
+
+    static MetricsListenerModule noMetrics() {
+        return new MetricsListenerModule(NO_METRICS);
+    }
+
+    public static MetricsListenerModule metrics(MetricsListener listener) {
+        return new MetricsListenerModule(checkNotNull(listener, "listener"));
+    }
+}
@@ -0,0 +1,49 @@
+package denominator;
+
+import denominator.profile.GeoResourceRecordSetApi;
+
+/**
+ * receives a callback for each call to the {@link ZoneApi},
+ * {@link ResourceRecordSetApi}, {@link AsyncResourceRecordSetApi},
+ * {@link ResourceRecordSetBatch#commit() batch commits},
+ * {@link AllProfileResourceRecordSetApi} and {@link GeoResourceRecordSetApi}
+ * of a {@link DNSApiManager}. Calls are reported as the provider sees them,
+ * so reads answered by a cache aren't reported.
+ *
+ * ex.
+ *
+ * <pre>
+ * InMemoryMetrics metrics = new InMemoryMetrics();
+ * DNSApiManager manager = Denominator.create(provider, credentials(username, password), metrics(metrics));
+ * </pre>
+ *
+ * Methods which return an iterator are reported once it is exhausted or
+ * fails, with the time spent iterating, not including time spent by the
+ * caller between elements. Iterators dropped before then are reported, with
+ * the results returned so far, on a later call after they are garbage
+ * collected. Async calls are reported on the thread which completes them.
+ * Otherwise, implementations are called on the thread that made the call.
+ * Either way, they should not block.
+ *
+ * @see MetricsConfiguration
+ * @see InMemoryMetrics
+ */
+public interface MetricsListener {
+
+    /**
+     * @param provider
+     *            {@link Provider#getName() name} of the provider.
+     * @param zone
+     *            zone the api is for, or null for {@link ZoneApi}.
+     * @param operation
+     *            api and method, ex.
+     *            {@code ResourceRecordSetApi.getByNameAndType}.
+     * @param nanos
+     *            time spent in the provider.
+     * @param results
+     *            count of record sets or zones returned.
+     * @param error
+     *            what the call failed with, or null if it succeeded.
+     */
+    void onCall(String provider, String zone, String operation, long nanos, int results, Throwable error);
+}
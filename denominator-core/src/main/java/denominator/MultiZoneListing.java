@@ -0,0 +1,218 @@
+package denominator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * lists record sets across many zones concurrently, merging them into one
+ * stream of entries keyed by zone name. Record sets of a zone are in the order
+ * its {@link ResourceRecordSetApi#list()} returned them, but are interleaved
+ * with those of other zones.
+ *
+ * A zone that fails to list is reported in {@link #getFailures()}, and the
+ * other zones continue. Record sets of the failed zone which were already
+ * returned are not retracted.
+ *
+ * <pre>
+ * MultiZoneListing listing = api.listResourceRecordSetsInZones(zones, 8, 5.0);
+ * try {
+ *     while (listing.hasNext()) {
+ *         Entry&lt;String, ResourceRecordSet&lt;?&gt;&gt; entry = listing.next();
+ *         ...
+ *     }
+ * } finally {
+ *     listing.close();
+ * }
+ * for (Entry&lt;String, Throwable&gt; failure : listing.getFailures().entrySet())
+ *     ...
+ * </pre>
+ *
+ * Listing stops early if {@link #close()} is called before the stream is
+ * exhausted. If the caller neither reads nor closes the listing for
+ * {@value #STALL_TIMEOUT_MINUTES} minutes, zones still listing stop, and are
+ * reported in {@link #getFailures()} with a {@link TimeoutException}.
+ */
+public final class MultiZoneListing extends AbstractIterator<Entry<String, ResourceRecordSet<?>>> implements
+        Closeable {
+
+    /**
+     * record sets buffered ahead of the caller, across all zones.
+     */
+    static final int BUFFER_SIZE = 1024;
+
+    /**
+     * how long a zone waits for space in the buffer before it gives up, as
+     * when the caller stopped reading without closing the listing.
+     */
+    static final long STALL_TIMEOUT_MINUTES = 5;
+
+    private final List<String> zoneNames;
+    private final ExecutorService executor;
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(BUFFER_SIZE);
+    private final Map<String, Throwable> failures = Collections.synchronizedMap(Maps
+            .<String, Throwable> newLinkedHashMap());
+    private final long stallTimeoutNanos;
+    /**
+     * zones that ended while the buffer was full, so couldn't send
+     * {@link ZoneDone}.
+     */
+    private final AtomicInteger zonesUnsent = new AtomicInteger();
+    private volatile boolean closed;
+    private int zonesRemaining;
+
+    MultiZoneListing(ResourceRecordSetApi.Factory factory, Iterable<String> zoneNames, int parallelism,
+            double zonesPerSecond) {
+        this(factory, zoneNames, parallelism, zonesPerSecond, STALL_TIMEOUT_MINUTES, MINUTES);
+    }
+
+    MultiZoneListing(ResourceRecordSetApi.Factory factory, Iterable<String> zoneNames, int parallelism,
+            double zonesPerSecond, long stallTimeout, TimeUnit unit) {
+        checkNotNull(factory, "factory");
+        this.zoneNames = ImmutableList.copyOf(checkNotNull(zoneNames, "zoneNames"));
+        checkArgument(parallelism > 0, "parallelism must be positive: %s", parallelism);
+        checkArgument(zonesPerSecond > 0, "zonesPerSecond must be positive: %s", zonesPerSecond);
+        this.stallTimeoutNanos = unit.toNanos(stallTimeout);
+        this.zonesRemaining = this.zoneNames.size();
+        this.executor = newFixedThreadPool(Math.max(1, Math.min(parallelism, this.zoneNames.size())),
+                new ThreadFactoryBuilder().setNameFormat("denominator-list-%d").setDaemon(true).build());
+        RateLimiter rateLimiter = zonesPerSecond == Double.POSITIVE_INFINITY ? null : RateLimiter
+                .create(zonesPerSecond);
+        for (String zoneName : this.zoneNames)
+            executor.execute(new ListZone(factory, zoneName, rateLimiter));
+        executor.shutdown();
+    }
+
+    /**
+     * zones which failed to list, and why, in the order they failed. Complete
+     * once {@link #hasNext()} returns false.
+     */
+    public Map<String, Throwable> getFailures() {
+        synchronized (failures) {
+            return ImmutableMap.copyOf(failures);
+        }
+    }
+
+    /**
+     * zones this listing covers.
+     */
+    public List<String> getZoneNames() {
+        return zoneNames;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Entry<String, ResourceRecordSet<?>> computeNext() {
+        while (!closed) {
+            boolean zonesSending = zonesRemaining > zonesUnsent.get();
+            Object next;
+            try {
+                // a zone may fail to send its done marker while we read, so recheck periodically
+                next = zonesSending ? queue.poll(1, SECONDS) : queue.poll();
+            } catch (InterruptedException e) {
+                close();
+                Thread.currentThread().interrupt();
+                throw Throwables.propagate(e);
+            }
+            if (next == null) {
+                if (zonesSending)
+                    continue;
+                break;
+            }
+            if (next instanceof ZoneDone) {
+                zonesRemaining--;
+            } else {
+                return (Entry<String, ResourceRecordSet<?>>) next;
+            }
+        }
+        return endOfData();
+    }
+
+    /**
+     * stops listing zones which haven't finished.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    private final class ListZone implements Runnable {
+        private final ResourceRecordSetApi.Factory factory;
+        private final String zoneName;
+        private final RateLimiter rateLimiter;
+
+        private ListZone(ResourceRecordSetApi.Factory factory, String zoneName, RateLimiter rateLimiter) {
+            this.factory = factory;
+            this.zoneName = zoneName;
+            this.rateLimiter = rateLimiter;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (rateLimiter != null)
+                    rateLimiter.acquire();
+                for (Iterator<ResourceRecordSet<?>> rrsets = factory.create(zoneName).list(); rrsets.hasNext();) {
+                    if (!offer(Maps.<String, ResourceRecordSet<?>> immutableEntry(zoneName, rrsets.next()))) {
+                        failures.put(zoneName, new TimeoutException(format(
+                                "stopped listing %s, as no record sets were read for %sms", zoneName,
+                                NANOSECONDS.toMillis(stallTimeoutNanos))));
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // closed
+            } catch (Throwable e) {
+                failures.put(zoneName, e);
+                Throwables.propagateIfInstanceOf(e, Error.class);
+            } finally {
+                // the consumer counts zones done, so this is sent however the zone ended
+                try {
+                    if (!closed && !offer(ZoneDone.INSTANCE))
+                        zonesUnsent.incrementAndGet();
+                } catch (InterruptedException e) {
+                    // closed
+                }
+            }
+        }
+
+        /**
+         * @return false if the buffer stayed full for the stall timeout.
+         */
+        private boolean offer(Object next) throws InterruptedException {
+            return queue.offer(next, stallTimeoutNanos, NANOSECONDS);
+        }
+    }
+
+    private static enum ZoneDone {
+        INSTANCE;
+    }
+}
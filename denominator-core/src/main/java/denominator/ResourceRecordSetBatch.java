@@ -0,0 +1,93 @@
+package denominator;
+
+import com.google.common.base.Predicate;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * stages changes to many resource record sets in a zone, so that they can be
+ * sent to the provider in as few calls as it allows. Nothing is changed until
+ * {@link #commit()}.
+ *
+ * Example of deploying several records at once.
+ *
+ * <pre>
+ * import static denominator.model.ResourceRecordSets.a;
+ * ...
+ * api.getResourceRecordSetBatchForZone(&quot;denominator.io.&quot;)
+ *    .replace(a(&quot;www.denominator.io.&quot;, 3600, &quot;192.0.2.1&quot;))
+ *    .add(a(&quot;www1.denominator.io.&quot;, 3600, &quot;192.0.2.2&quot;))
+ *    .deleteByNameAndType(&quot;www2.denominator.io.&quot;, &quot;A&quot;)
+ *    .commit();
+ * </pre>
+ *
+ * Operations on the same {@link ResourceRecordSet#getName() name} and
+ * {@link ResourceRecordSet#getType() type} are applied in the order they were
+ * staged.
+ *
+ * @see ResourceRecordSetApi
+ */
+public interface ResourceRecordSetBatch {
+
+    /**
+     * @see ResourceRecordSetApi#add(ResourceRecordSet)
+     */
+    ResourceRecordSetBatch add(ResourceRecordSet<?> rrset);
+
+    /**
+     * @see ResourceRecordSetApi#applyTTLToNameAndType(int, String, String)
+     */
+    ResourceRecordSetBatch applyTTLToNameAndType(int ttl, String name, String type);
+
+    /**
+     * applies {@code ttl} to each record set in the zone matching
+     * {@code filter}. On {@link #commit()}, the zone is listed once, and only
+     * record sets whose ttl differs are changed. Record sets with other
+     * changes staged in this batch are skipped, as are the zone's {@code SOA}
+     * and apex {@code NS} record sets.
+     *
+     * Example of lowering the ttl of many record sets before a migration.
+     *
+     * <pre>
+     * import static denominator.model.ResourceRecordSets.ttlGreaterThan;
+     * ...
+     * batch.applyTTL(300, ttlGreaterThan(300)).commit();
+     * </pre>
+     *
+     * @see denominator.model.ResourceRecordSets#nameAndTypeIn(com.google.common.collect.Multimap)
+     */
+    ResourceRecordSetBatch applyTTL(int ttl, Predicate<? super ResourceRecordSet<?>> filter);
+
+    /**
+     * @see ResourceRecordSetApi#replace(ResourceRecordSet)
+     */
+    ResourceRecordSetBatch replace(ResourceRecordSet<?> rrset);
+
+    /**
+     * @see ResourceRecordSetApi#remove(ResourceRecordSet)
+     */
+    ResourceRecordSetBatch remove(ResourceRecordSet<?> rrset);
+
+    /**
+     * @see ResourceRecordSetApi#deleteByNameAndType(String, String)
+     */
+    ResourceRecordSetBatch deleteByNameAndType(String name, String type);
+
+    /**
+     * sends all staged changes to the provider and clears them, so that the
+     * batch can be reused.
+     *
+     * The batch is not atomic. Providers which limit the size of a request,
+     * such as Route53, send large batches in several requests, and each
+     * request is applied on its own. If one fails, changes sent before it
+     * remain applied, and the staged changes are cleared regardless.
+     *
+     * @throws IllegalArgumentException
+     *             if the {@code zoneName} is not found.
+     */
+    void commit();
+
+    static interface Factory {
+        ResourceRecordSetBatch create(String zoneName);
+    }
+}
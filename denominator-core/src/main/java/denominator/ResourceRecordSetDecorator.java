@@ -0,0 +1,18 @@
+package denominator;
+
+/**
+ * wraps the record set apis of a {@link DNSApi}, such as to cache what they
+ * return. The provider's apis are passed in, after any
+ * {@link MetricsListener metrics} are recorded.
+ *
+ * To use one, pass a module with {@code overrides = true} that provides it,
+ * such as {@link denominator.config.CachingResourceRecordSets}.
+ */
+public interface ResourceRecordSetDecorator {
+
+    ResourceRecordSetApi decorate(String zoneName, ResourceRecordSetApi api);
+
+    AsyncResourceRecordSetApi decorate(String zoneName, AsyncResourceRecordSetApi api);
+
+    ResourceRecordSetBatch decorate(String zoneName, ResourceRecordSetBatch batch);
+}
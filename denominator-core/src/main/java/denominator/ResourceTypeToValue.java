@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.EnumSet;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import com.google.common.annotations.Beta;
@@ -16,7 +17,11 @@ import com.google.common.collect.ImmutableBiMap;
  * Some apis use numerical type value of a resource record rather than their
  * names. This class helps convert the numerical values to what people more
  * commonly use. Note that this does not complain a complete mapping and may
- * need updates over time.
+ * need updates over time. Additional types can be added with
+ * {@link #register(String, int)}.
+ *
+ * All instances and static methods share the same registry, so there's no
+ * need to create an instance for a lookup.
  */
 @Beta
 public class ResourceTypeToValue extends ForwardingMap<String, Integer> implements Function<Object, String>,
@@ -30,12 +35,62 @@ public class ResourceTypeToValue extends ForwardingMap<String, Integer> implemen
      *            type to look up. ex {@code AAAA}
      * @throws IllegalArgumentException
      *             if the type was not configured.
+     * @see #typeValue(String)
      */
     public static Integer lookup(String type) throws IllegalArgumentException {
+        return registry.byName.get(checkRegistered(type));
+    }
+
+    /**
+     * like {@link #lookup(String)}, except without boxing, or allocating when
+     * the type is present.
+     */
+    public static int typeValue(String type) throws IllegalArgumentException {
+        return registry.byName.get(checkRegistered(type)).intValue();
+    }
+
+    /**
+     * look up the mnemonic name (ex. {@code AAAA}) for the value (ex.
+     * {@code 28}).
+     * 
+     * @return the name or null, if the value isn't registered.
+     */
+    public static String typeName(int value) {
+        String[] byValue = registry.byValue;
+        return value >= 0 && value < byValue.length ? byValue[value] : null;
+    }
+
+    /**
+     * adds a type not included by default, such as one newly assigned by iana.
+     * Registering the same name and value again has no effect.
+     * 
+     * @param type
+     *            mnemonic name, ex. {@code CAA}
+     * @param value
+     *            value, ex. {@code 257}
+     * @throws IllegalArgumentException
+     *             if either the name or value are already registered to
+     *             something else.
+     */
+    public static synchronized void register(String type, int value) throws IllegalArgumentException {
+        checkNotNull(type, "resource type was null");
+        checkArgument(value >= 0 && value <= 65535, "value of %s must be between 0 and 65535, not %s", type, value);
+        ImmutableBiMap<String, Integer> current = registry.byName;
+        if (Integer.valueOf(value).equals(current.get(type)))
+            return;
+        checkArgument(!current.containsKey(type), "%s is already registered as %s", type, current.get(type));
+        checkArgument(!current.containsValue(value), "%s is already registered as %s", value,
+                current.inverse().get(value));
+        registry = new Registry(ImmutableBiMap.<String, Integer> builder().putAll(current).put(type, value).build());
+    }
+
+    private static String checkRegistered(String type) {
         checkNotNull(type, "resource type was null");
-        checkArgument(lookup.containsKey(type), "%s do not include %s; types: %s", ResourceTypes.class.getSimpleName(),
-                type, EnumSet.allOf(ResourceTypes.class));
-        return lookup.get(type);
+        // not checkArgument, as its varargs would allocate on each call
+        if (!registry.byName.containsKey(type))
+            throw new IllegalArgumentException(String.format("%s do not include %s; types: %s",
+                    ResourceTypes.class.getSimpleName(), type, registry.byName.keySet()));
+        return type;
     }
 
     /**
@@ -108,19 +163,41 @@ public class ResourceTypeToValue extends ForwardingMap<String, Integer> implemen
         }
     }
 
-    @Override
-    protected ImmutableBiMap<String, Integer> delegate() {
-        return lookup;
+    /**
+     * immutable snapshot of all registered types, replaced on
+     * {@link #register(String, int)}.
+     */
+    private static final class Registry {
+        private final ImmutableBiMap<String, Integer> byName;
+        /**
+         * index is the value, sized to the largest registered.
+         */
+        private final String[] byValue;
+
+        private Registry(ImmutableBiMap<String, Integer> byName) {
+            this.byName = byName;
+            int max = 0;
+            for (int value : byName.values())
+                max = Math.max(max, value);
+            this.byValue = new String[max + 1];
+            for (Entry<String, Integer> entry : byName.entrySet())
+                byValue[entry.getValue()] = entry.getKey();
+        }
     }
 
-    private static final ImmutableBiMap<String, Integer> lookup;
+    private static volatile Registry registry;
 
     static {
         ImmutableBiMap.Builder<String, Integer> builder = ImmutableBiMap.builder();
         for (ResourceTypes r : EnumSet.allOf(ResourceTypes.class)) {
             builder.put(r.name(), r.value);
         }
-        lookup = builder.build();
+        registry = new Registry(builder.build());
+    }
+
+    @Override
+    protected ImmutableBiMap<String, Integer> delegate() {
+        return registry.byName;
     }
 
     /**
@@ -129,17 +206,17 @@ public class ResourceTypeToValue extends ForwardingMap<String, Integer> implemen
     @Deprecated
     @Override
     public Integer forcePut(String key, Integer value) {
-        return lookup.forcePut(key, value);
+        return delegate().forcePut(key, value);
     }
 
     @Override
     public Set<Integer> values() {
-        return lookup.values();
+        return delegate().values();
     }
 
     @Override
     public BiMap<Integer, String> inverse() {
-        return lookup.inverse();
+        return delegate().inverse();
     }
 
     @Override
@@ -0,0 +1,307 @@
+package denominator;
+
+import static com.google.common.base.Functions.compose;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Predicates.and;
+import static com.google.common.base.Predicates.in;
+import static com.google.common.base.Predicates.not;
+import static denominator.model.ResourceRecordSets.nameAndTypeIn;
+import static com.google.common.collect.Iterables.filter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * collapses the operations staged against each name and type into a single
+ * function from the existing record set to the desired one. On
+ * {@link #commit()}, providers translate each of these into their own changes
+ * via {@link #stage(String, String, Function)}, then send them all in
+ * {@link #apply()}.
+ *
+ * Changes staged by {@link #applyTTL(int, Predicate)} are combined into one
+ * function, which providers apply to each matching record set while listing
+ * the zone once, in {@link #stageMatching(Predicate, Function)}. The zone's
+ * {@code SOA} and apex {@code NS} record sets never match.
+ */
+public abstract class StagedResourceRecordSetBatch implements ResourceRecordSetBatch {
+
+    private final String zoneName;
+    private final Map<Entry<String, String>, Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>>> changes = Maps
+            .newLinkedHashMap();
+    private final List<ApplyTTL> zoneChanges = Lists.newArrayList();
+
+    /**
+     * @param zoneName
+     *            name of the zone, as it appears in its record set names.
+     */
+    protected StagedResourceRecordSetBatch(String zoneName) {
+        this.zoneName = checkNotNull(zoneName, "zoneName was null");
+    }
+
+    @Override
+    public ResourceRecordSetBatch add(ResourceRecordSet<?> rrset) {
+        checkNotNull(rrset, "rrset was null");
+        checkArgument(!rrset.isEmpty(), "rrset was empty %s", rrset);
+        return collect(rrset.getName(), rrset.getType(), new Add(rrset));
+    }
+
+    @Override
+    public ResourceRecordSetBatch replace(ResourceRecordSet<?> rrset) {
+        checkNotNull(rrset, "rrset was null");
+        checkArgument(!rrset.isEmpty(), "rrset was empty %s", rrset);
+        return collect(rrset.getName(), rrset.getType(), new Replace(rrset));
+    }
+
+    @Override
+    public ResourceRecordSetBatch remove(ResourceRecordSet<?> rrset) {
+        checkNotNull(rrset, "rrset was null");
+        checkArgument(!rrset.isEmpty(), "rrset was empty %s", rrset);
+        return collect(rrset.getName(), rrset.getType(), new Remove(rrset));
+    }
+
+    @Override
+    public ResourceRecordSetBatch deleteByNameAndType(String name, String type) {
+        checkNotNull(name, "name");
+        checkNotNull(type, "type");
+        return collect(name, type, Delete.INSTANCE);
+    }
+
+    @Override
+    public ResourceRecordSetBatch applyTTLToNameAndType(int ttl, String name, String type) {
+        checkArgument(ttl >= 0, "ttl must be non-negative: %s", ttl);
+        checkNotNull(name, "name");
+        checkNotNull(type, "type");
+        return collect(name, type, new ApplyTTL(ttl, Predicates.<ResourceRecordSet<?>> alwaysTrue()));
+    }
+
+    @Override
+    public ResourceRecordSetBatch applyTTL(int ttl, Predicate<? super ResourceRecordSet<?>> filter) {
+        checkArgument(ttl >= 0, "ttl must be non-negative: %s", ttl);
+        checkNotNull(filter, "filter");
+        zoneChanges.add(new ApplyTTL(ttl, filter));
+        return this;
+    }
+
+    private ResourceRecordSetBatch collect(String name, String type,
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change) {
+        Entry<String, String> nameAndType = Maps.immutableEntry(name, type);
+        Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> existing = changes.get(nameAndType);
+        changes.put(nameAndType, existing != null ? compose(change, existing) : change);
+        return this;
+    }
+
+    @Override
+    public void commit() {
+        try {
+            ImmutableSetMultimap.Builder<String, String> staged = ImmutableSetMultimap.builder();
+            for (Entry<Entry<String, String>, Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>>> change : changes
+                    .entrySet()) {
+                stage(change.getKey().getKey(), change.getKey().getValue(), change.getValue());
+                staged.put(change.getKey());
+            }
+            if (!zoneChanges.isEmpty()) {
+                List<Predicate<? super ResourceRecordSet<?>>> filters = Lists.newArrayList();
+                Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change = null;
+                for (ApplyTTL zoneChange : zoneChanges) {
+                    filters.add(zoneChange.filter);
+                    change = change != null ? compose(zoneChange, change) : zoneChange;
+                }
+                stageMatching(and(Predicates.<ResourceRecordSet<?>> or(filters), not(nameAndTypeIn(staged.build())),
+                        not(new ZoneApex(zoneName))), change);
+            }
+            apply();
+        } finally {
+            changes.clear();
+            zoneChanges.clear();
+        }
+    }
+
+    /**
+     * the zone's {@code SOA} and apex {@code NS} record sets, which zone-wide
+     * changes leave alone.
+     */
+    private static final class ZoneApex implements Predicate<ResourceRecordSet<?>> {
+        private final String zoneName;
+
+        private ZoneApex(String zoneName) {
+            this.zoneName = zoneName;
+        }
+
+        @Override
+        public boolean apply(ResourceRecordSet<?> input) {
+            return "SOA".equals(input.getType()) || "NS".equals(input.getType()) && zoneName.equals(input.getName());
+        }
+
+        @Override
+        public String toString() {
+            return "zoneApex(" + zoneName + ")";
+        }
+    }
+
+    /**
+     * translates the change to the record set at {@code name} and
+     * {@code type} into provider-specific changes.
+     *
+     * @param change
+     *            applied to the current record set, if present, returns the
+     *            desired one, or absent, if the record set should be deleted.
+     */
+    protected abstract void stage(String name, String type,
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change);
+
+    /**
+     * lists the zone once, translating the change to each record set matching
+     * {@code filter} into provider-specific changes, as
+     * {@link #stage(String, String, Function)} would. Implementations should
+     * stage each match as it is listed, rather than collecting the zone first.
+     *
+     * @param change
+     *            applied to each matching record set, returns the desired one.
+     */
+    protected abstract void stageMatching(Predicate<? super ResourceRecordSet<?>> filter,
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change);
+
+    /**
+     * sends the changes collected by {@link #stage(String, String, Function)}
+     * to the provider. When they don't fit in one request, each request is
+     * applied on its own: if one fails, those before it remain applied.
+     */
+    protected abstract void apply();
+
+    /**
+     * if {@link ResourceRecordSet#getTTL() ttl} is absent, the existing ttl is
+     * retained.
+     */
+    private static final class Add implements Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> {
+        private final ResourceRecordSet<?> rrset;
+
+        private Add(ResourceRecordSet<?> rrset) {
+            this.rrset = rrset;
+        }
+
+        @Override
+        public Optional<ResourceRecordSet<?>> apply(Optional<ResourceRecordSet<?>> existing) {
+            if (!existing.isPresent())
+                return Optional.<ResourceRecordSet<?>> of(rrset);
+            return Optional.<ResourceRecordSet<?>> of(ResourceRecordSet.<Map<String, Object>> builder()
+                    .name(rrset.getName())
+                    .type(rrset.getType())
+                    .ttl(rrset.getTTL().or(existing.get().getTTL()).orNull())
+                    .addAll(existing.get())
+                    .addAll(filter(rrset, not(in(existing.get())))).build());
+        }
+
+        @Override
+        public String toString() {
+            return "add(" + rrset + ")";
+        }
+    }
+
+    private static final class Replace implements
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> {
+        private final ResourceRecordSet<?> rrset;
+
+        private Replace(ResourceRecordSet<?> rrset) {
+            this.rrset = rrset;
+        }
+
+        @Override
+        public Optional<ResourceRecordSet<?>> apply(Optional<ResourceRecordSet<?>> existing) {
+            return Optional.<ResourceRecordSet<?>> of(rrset);
+        }
+
+        @Override
+        public String toString() {
+            return "replace(" + rrset + ")";
+        }
+    }
+
+    /**
+     * deletes the record set, if there's no rdata left.
+     */
+    private static final class Remove implements
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> {
+        private final ResourceRecordSet<?> rrset;
+
+        private Remove(ResourceRecordSet<?> rrset) {
+            this.rrset = rrset;
+        }
+
+        @Override
+        public Optional<ResourceRecordSet<?>> apply(Optional<ResourceRecordSet<?>> existing) {
+            if (!existing.isPresent())
+                return existing;
+            ImmutableList<Map<String, Object>> retained = ImmutableList.<Map<String, Object>> copyOf(filter(
+                    existing.get(), not(in(rrset))));
+            if (retained.isEmpty())
+                return Optional.absent();
+            return Optional.<ResourceRecordSet<?>> of(ResourceRecordSet.<Map<String, Object>> builder()
+                    .name(rrset.getName())
+                    .type(rrset.getType())
+                    .ttl(existing.get().getTTL().orNull())
+                    .addAll(retained).build());
+        }
+
+        @Override
+        public String toString() {
+            return "remove(" + rrset + ")";
+        }
+    }
+
+    /**
+     * applies the ttl to the record set, if it exists and matches the filter.
+     */
+    private static final class ApplyTTL implements
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> {
+        private final int ttl;
+        private final Predicate<? super ResourceRecordSet<?>> filter;
+
+        private ApplyTTL(int ttl, Predicate<? super ResourceRecordSet<?>> filter) {
+            this.ttl = ttl;
+            this.filter = filter;
+        }
+
+        @Override
+        public Optional<ResourceRecordSet<?>> apply(Optional<ResourceRecordSet<?>> existing) {
+            if (!existing.isPresent() || !filter.apply(existing.get()))
+                return existing;
+            return Optional.<ResourceRecordSet<?>> of(ResourceRecordSet.<Map<String, Object>> builder()
+                    .name(existing.get().getName())
+                    .type(existing.get().getType())
+                    .ttl(ttl)
+                    .addAll(existing.get()).build());
+        }
+
+        @Override
+        public String toString() {
+            return "applyTTL(" + ttl + ", " + filter + ")";
+        }
+    }
+
+    private static enum Delete implements Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> {
+        INSTANCE;
+
+        @Override
+        public Optional<ResourceRecordSet<?>> apply(Optional<ResourceRecordSet<?>> existing) {
+            return Optional.absent();
+        }
+
+        @Override
+        public String toString() {
+            return "delete()";
+        }
+    }
+}
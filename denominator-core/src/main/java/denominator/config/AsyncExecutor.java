@@ -0,0 +1,33 @@
+package denominator.config;
+
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import dagger.Module;
+import dagger.Provides;
+import denominator.AsyncResourceRecordSetApi;
+import denominator.DNSApiManager;
+
+/**
+ * Provides the executor for {@link AsyncResourceRecordSetApi}, which
+ * {@link DNSApiManager#close()} shuts down. To use a different executor, pass
+ * a module with {@code overrides = true} that provides
+ * {@code @Named("async") ListeningExecutorService}.
+ */
+@Module(entryPoints = DNSApiManager.class, complete = false)
+public class AsyncExecutor {
+
+    @Provides
+    @Singleton
+    @Named("async")
+    ListeningExecutorService provideAsyncExecutor() {
+        return listeningDecorator(newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("denominator-async-%d")
+                                                                                .setDaemon(true).build()));
+    }
+}
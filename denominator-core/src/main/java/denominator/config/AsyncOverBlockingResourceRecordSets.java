@@ -0,0 +1,114 @@
+package denominator.config;
+
+import java.util.concurrent.Callable;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import dagger.Module;
+import dagger.Provides;
+import denominator.AsyncResourceRecordSetApi;
+import denominator.DNSApiManager;
+import denominator.ResourceRecordSetApi;
+import denominator.model.ResourceRecordSet;
+
+/**
+ * Used when the backend doesn't have a non-blocking client. Calls to
+ * {@link ResourceRecordSetApi} are made on the async executor.
+ *
+ * {@link denominator.Denominator#create(denominator.Provider, Object...)
+ * Denominator.create} includes this module, so providers need not. A provider
+ * with a non-blocking client should provide its own
+ * {@link AsyncResourceRecordSetApi.Factory} in a module with
+ * {@code overrides = true}.
+ */
+@Module(entryPoints = DNSApiManager.class, complete = false, includes = AsyncExecutor.class)
+public class AsyncOverBlockingResourceRecordSets {
+
+    @Provides
+    @Singleton
+    AsyncResourceRecordSetApi.Factory provideAsyncResourceRecordSetApiFactory(final ResourceRecordSetApi.Factory factory,
+            @Named("async") final ListeningExecutorService executor) {
+        return new AsyncResourceRecordSetApi.Factory() {
+
+            @Override
+            public AsyncResourceRecordSetApi create(String zoneName) {
+                return new AsyncOverBlockingResourceRecordSetApi(factory.create(zoneName), executor);
+            }
+
+        };
+    }
+
+    private static class AsyncOverBlockingResourceRecordSetApi implements AsyncResourceRecordSetApi {
+        private final ResourceRecordSetApi api;
+        private final ListeningExecutorService executor;
+
+        private AsyncOverBlockingResourceRecordSetApi(ResourceRecordSetApi api, ListeningExecutorService executor) {
+            this.api = api;
+            this.executor = executor;
+        }
+
+        @Override
+        public ListenableFuture<Optional<ResourceRecordSet<?>>> getByNameAndType(final String name, final String type) {
+            return executor.submit(new Callable<Optional<ResourceRecordSet<?>>>() {
+                public Optional<ResourceRecordSet<?>> call() {
+                    return api.getByNameAndType(name, type);
+                }
+            });
+        }
+
+        @Override
+        public ListenableFuture<Void> add(final ResourceRecordSet<?> rrset) {
+            return executor.submit(new Callable<Void>() {
+                public Void call() {
+                    api.add(rrset);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public ListenableFuture<Void> applyTTLToNameAndType(final int ttl, final String name, final String type) {
+            return executor.submit(new Callable<Void>() {
+                public Void call() {
+                    api.applyTTLToNameAndType(ttl, name, type);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public ListenableFuture<Void> replace(final ResourceRecordSet<?> rrset) {
+            return executor.submit(new Callable<Void>() {
+                public Void call() {
+                    api.replace(rrset);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public ListenableFuture<Void> remove(final ResourceRecordSet<?> rrset) {
+            return executor.submit(new Callable<Void>() {
+                public Void call() {
+                    api.remove(rrset);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public ListenableFuture<Void> deleteByNameAndType(final String name, final String type) {
+            return executor.submit(new Callable<Void>() {
+                public Void call() {
+                    api.deleteByNameAndType(name, type);
+                    return null;
+                }
+            });
+        }
+    }
+}
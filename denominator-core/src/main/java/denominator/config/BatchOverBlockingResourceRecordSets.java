@@ -0,0 +1,102 @@
+package denominator.config;
+
+import java.util.Iterator;
+
+import javax.inject.Singleton;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+
+import dagger.Module;
+import dagger.Provides;
+import denominator.DNSApiManager;
+import denominator.ResourceRecordSetApi;
+import denominator.ResourceRecordSetBatch;
+import denominator.StagedResourceRecordSetBatch;
+import denominator.model.ResourceRecordSet;
+
+/**
+ * Used when the backend cannot apply changes to multiple record sets at once.
+ * Staged operations on the same name and type are collapsed, then each record
+ * set is added, replaced or deleted with {@link ResourceRecordSetApi} on
+ * commit.
+ *
+ * {@link denominator.Denominator#create(denominator.Provider, Object...)
+ * Denominator.create} includes this module, so providers need not. A provider
+ * that can apply many changes at once should provide its own
+ * {@link ResourceRecordSetBatch.Factory} in a module with
+ * {@code overrides = true}.
+ */
+@Module(entryPoints = DNSApiManager.class, complete = false)
+public class BatchOverBlockingResourceRecordSets {
+
+    @Provides
+    @Singleton
+    ResourceRecordSetBatch.Factory provideResourceRecordSetBatchFactory(final ResourceRecordSetApi.Factory factory) {
+        return new ResourceRecordSetBatch.Factory() {
+
+            @Override
+            public ResourceRecordSetBatch create(String zoneName) {
+                return new ResourceRecordSetBatchOverBlockingApi(zoneName, factory.create(zoneName));
+            }
+
+        };
+    }
+
+    private static class ResourceRecordSetBatchOverBlockingApi extends StagedResourceRecordSetBatch {
+        private final ResourceRecordSetApi api;
+
+        private ResourceRecordSetBatchOverBlockingApi(String zoneName, ResourceRecordSetApi api) {
+            super(zoneName);
+            this.api = api;
+        }
+
+        @Override
+        protected void stage(String name, String type,
+                Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change) {
+            Optional<ResourceRecordSet<?>> existing = api.getByNameAndType(name, type);
+            send(name, type, existing, change.apply(existing));
+        }
+
+        /**
+         * each match is sent as it is listed. As only its ttl changes, the
+         * listing neither gains nor loses record sets.
+         */
+        @Override
+        protected void stageMatching(Predicate<? super ResourceRecordSet<?>> filter,
+                Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change) {
+            for (Iterator<ResourceRecordSet<?>> rrsets = api.list(); rrsets.hasNext();) {
+                ResourceRecordSet<?> rrset = rrsets.next();
+                if (filter.apply(rrset)) {
+                    Optional<ResourceRecordSet<?>> existing = Optional.<ResourceRecordSet<?>> of(rrset);
+                    send(rrset.getName(), rrset.getType(), existing, change.apply(existing));
+                }
+            }
+        }
+
+        private void send(String name, String type, Optional<ResourceRecordSet<?>> existing,
+                Optional<ResourceRecordSet<?>> desired) {
+            if (!desired.isPresent()) {
+                if (existing.isPresent())
+                    api.deleteByNameAndType(name, type);
+            } else if (!existing.isPresent()) {
+                // add, so that the provider applies its default ttl if absent
+                api.add(desired.get());
+            } else if (!desired.equals(existing)) {
+                api.replace(desired.get());
+            } else if (!desired.get().getTTL().equals(existing.get().getTTL())) {
+                // cheaper than replace where the provider updates records in
+                // place
+                if (desired.get().getTTL().isPresent())
+                    api.applyTTLToNameAndType(desired.get().getTTL().get(), name, type);
+                else
+                    api.replace(desired.get());
+            }
+        }
+
+        @Override
+        protected void apply() {
+        }
+    }
+}
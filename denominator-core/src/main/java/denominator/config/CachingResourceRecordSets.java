@@ -0,0 +1,367 @@
+package denominator.config;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import dagger.Module;
+import dagger.Provides;
+import denominator.AsyncResourceRecordSetApi;
+import denominator.DNSApi;
+import denominator.DNSApiManager;
+import denominator.ResourceRecordSetApi;
+import denominator.ResourceRecordSetBatch;
+import denominator.ResourceRecordSetDecorator;
+import denominator.model.ResourceRecordSet;
+
+/**
+ * Opt-in cache of {@link ResourceRecordSetApi#getByNameAndType(String, String)
+ * getByNameAndType} and {@link ResourceRecordSetApi#listByName(String)
+ * listByName}, for applications which ask the same questions repeatedly.
+ *
+ * ex.
+ *
+ * <pre>
+ * CachingResourceRecordSets caching = new CachingResourceRecordSets(&quot;maximumSize=10000,expireAfterWrite=30s&quot;);
+ * DNSApiManager manager = Denominator.create(provider, credentials(username, password), caching);
+ * ...
+ * CacheStats stats = caching.stats();
+ * </pre>
+ *
+ * Changes made through {@link DNSApi}, whether via the normal, async or batch
+ * apis, invalidate the entries for the names they affect. A value loaded
+ * while such a change completes is not kept, as it may predate the change.
+ * Changes made elsewhere are seen once entries expire. Use a separate instance of this
+ * module for each {@link DNSApiManager}.
+ */
+@Module(entryPoints = DNSApiManager.class, complete = false, overrides = true)
+public class CachingResourceRecordSets {
+
+    /**
+     * keys are {@code [zoneName, name, type]}.
+     */
+    private final Cache<List<String>, Optional<ResourceRecordSet<?>>> byNameAndType;
+
+    /**
+     * keys are {@code [zoneName, name]}.
+     */
+    private final Cache<List<String>, List<ResourceRecordSet<?>>> byName;
+
+    /**
+     * incremented as each write is invalidated.
+     */
+    private final AtomicLong writes = new AtomicLong();
+
+    /**
+     * caches up to 10000 queries of each kind for one minute.
+     */
+    public CachingResourceRecordSets() {
+        this("maximumSize=10000,expireAfterWrite=1m");
+    }
+
+    /**
+     * @param spec
+     *            bounds of the cache, in {@link CacheBuilderSpec} format. ex.
+     *            {@code maximumSize=10000,expireAfterWrite=30s}
+     */
+    public CachingResourceRecordSets(String spec) {
+        CacheBuilderSpec cacheBuilderSpec = CacheBuilderSpec.parse(checkNotNull(spec, "spec"));
+        this.byNameAndType = CacheBuilder.from(cacheBuilderSpec).recordStats().build();
+        this.byName = CacheBuilder.from(cacheBuilderSpec).recordStats().build();
+    }
+
+    /**
+     * hits, misses and evictions of both {@code getByNameAndType} and
+     * {@code listByName}.
+     */
+    public CacheStats stats() {
+        return byNameAndType.stats().plus(byName.stats());
+    }
+
+    @Provides
+    ResourceRecordSetDecorator provideResourceRecordSetDecorator() {
+        return new ResourceRecordSetDecorator() {
+
+            @Override
+            public ResourceRecordSetApi decorate(String zoneName, ResourceRecordSetApi api) {
+                return new CachingResourceRecordSetApi(api, zoneName);
+            }
+
+            @Override
+            public AsyncResourceRecordSetApi decorate(String zoneName, AsyncResourceRecordSetApi api) {
+                return new InvalidatingAsyncResourceRecordSetApi(api, zoneName);
+            }
+
+            @Override
+            public ResourceRecordSetBatch decorate(String zoneName, ResourceRecordSetBatch batch) {
+                return new InvalidatingResourceRecordSetBatch(batch, zoneName);
+            }
+
+        };
+    }
+
+    private void invalidate(String zoneName, String name, String type) {
+        writes.incrementAndGet();
+        byNameAndType.invalidate(ImmutableList.of(zoneName, name, type));
+        byName.invalidate(ImmutableList.of(zoneName, name));
+    }
+
+    private void invalidateZone(String zoneName) {
+        writes.incrementAndGet();
+        for (Cache<List<String>, ?> cache : ImmutableList.<Cache<List<String>, ?>> of(byNameAndType, byName)) {
+            for (Iterator<List<String>> keys = cache.asMap().keySet().iterator(); keys.hasNext();) {
+                if (keys.next().get(0).equals(zoneName))
+                    keys.remove();
+            }
+        }
+    }
+
+    /**
+     * a write that completes while a value is loading may not be reflected in
+     * it, so such a value is returned to the caller, but not kept.
+     */
+    private <K, V> V get(Cache<K, V> cache, K key, Callable<V> loader) {
+        long writesBeforeLoad = writes.get();
+        try {
+            V value = cache.get(key, loader);
+            if (writes.get() != writesBeforeLoad)
+                cache.asMap().remove(key, value);
+            return value;
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private class CachingResourceRecordSetApi implements ResourceRecordSetApi {
+        private final ResourceRecordSetApi api;
+        private final String zoneName;
+
+        private CachingResourceRecordSetApi(ResourceRecordSetApi api, String zoneName) {
+            this.api = api;
+            this.zoneName = zoneName;
+        }
+
+        @Override
+        public Iterator<ResourceRecordSet<?>> list() {
+            return api.list();
+        }
+
+        @Override
+        public Iterator<ResourceRecordSet<?>> listByName(final String name) {
+            checkNotNull(name, "name");
+            return get(byName, ImmutableList.of(zoneName, name), new Callable<List<ResourceRecordSet<?>>>() {
+                public List<ResourceRecordSet<?>> call() {
+                    return ImmutableList.copyOf(api.listByName(name));
+                }
+            }).iterator();
+        }
+
+        @Override
+        public Optional<ResourceRecordSet<?>> getByNameAndType(final String name, final String type) {
+            checkNotNull(name, "name");
+            checkNotNull(type, "type");
+            return get(byNameAndType, ImmutableList.of(zoneName, name, type),
+                    new Callable<Optional<ResourceRecordSet<?>>>() {
+                        public Optional<ResourceRecordSet<?>> call() {
+                            return api.getByNameAndType(name, type);
+                        }
+                    });
+        }
+
+        @Override
+        public void add(ResourceRecordSet<?> rrset) {
+            try {
+                api.add(rrset);
+            } finally {
+                invalidate(zoneName, rrset.getName(), rrset.getType());
+            }
+        }
+
+        @Override
+        public void applyTTLToNameAndType(int ttl, String name, String type) {
+            try {
+                api.applyTTLToNameAndType(ttl, name, type);
+            } finally {
+                invalidate(zoneName, name, type);
+            }
+        }
+
+        @Override
+        public void replace(ResourceRecordSet<?> rrset) {
+            try {
+                api.replace(rrset);
+            } finally {
+                invalidate(zoneName, rrset.getName(), rrset.getType());
+            }
+        }
+
+        @Override
+        public void remove(ResourceRecordSet<?> rrset) {
+            try {
+                api.remove(rrset);
+            } finally {
+                invalidate(zoneName, rrset.getName(), rrset.getType());
+            }
+        }
+
+        @Override
+        public void deleteByNameAndType(String name, String type) {
+            try {
+                api.deleteByNameAndType(name, type);
+            } finally {
+                invalidate(zoneName, name, type);
+            }
+        }
+    }
+
+    /**
+     * invalidates when the change completes, successfully or not.
+     */
+    private class InvalidatingAsyncResourceRecordSetApi implements AsyncResourceRecordSetApi {
+        private final AsyncResourceRecordSetApi api;
+        private final String zoneName;
+
+        private InvalidatingAsyncResourceRecordSetApi(AsyncResourceRecordSetApi api, String zoneName) {
+            this.api = api;
+            this.zoneName = zoneName;
+        }
+
+        private ListenableFuture<Void> invalidateOnCompletion(ListenableFuture<Void> future, final String name,
+                final String type) {
+            future.addListener(new Runnable() {
+                public void run() {
+                    invalidate(zoneName, name, type);
+                }
+            }, sameThreadExecutor());
+            return future;
+        }
+
+        @Override
+        public ListenableFuture<Optional<ResourceRecordSet<?>>> getByNameAndType(String name, String type) {
+            return api.getByNameAndType(name, type);
+        }
+
+        @Override
+        public ListenableFuture<Void> add(ResourceRecordSet<?> rrset) {
+            return invalidateOnCompletion(api.add(rrset), rrset.getName(), rrset.getType());
+        }
+
+        @Override
+        public ListenableFuture<Void> applyTTLToNameAndType(int ttl, String name, String type) {
+            return invalidateOnCompletion(api.applyTTLToNameAndType(ttl, name, type), name, type);
+        }
+
+        @Override
+        public ListenableFuture<Void> replace(ResourceRecordSet<?> rrset) {
+            return invalidateOnCompletion(api.replace(rrset), rrset.getName(), rrset.getType());
+        }
+
+        @Override
+        public ListenableFuture<Void> remove(ResourceRecordSet<?> rrset) {
+            return invalidateOnCompletion(api.remove(rrset), rrset.getName(), rrset.getType());
+        }
+
+        @Override
+        public ListenableFuture<Void> deleteByNameAndType(String name, String type) {
+            return invalidateOnCompletion(api.deleteByNameAndType(name, type), name, type);
+        }
+    }
+
+    /**
+     * invalidates the names and types staged, once committed.
+     */
+    private class InvalidatingResourceRecordSetBatch implements ResourceRecordSetBatch {
+        private final ResourceRecordSetBatch batch;
+        private final String zoneName;
+        private final Set<List<String>> staged = Sets.newLinkedHashSet();
+        private boolean stagedZone;
+
+        private InvalidatingResourceRecordSetBatch(ResourceRecordSetBatch batch, String zoneName) {
+            this.batch = batch;
+            this.zoneName = zoneName;
+        }
+
+        @Override
+        public ResourceRecordSetBatch add(ResourceRecordSet<?> rrset) {
+            batch.add(rrset);
+            staged.add(ImmutableList.of(rrset.getName(), rrset.getType()));
+            return this;
+        }
+
+        @Override
+        public ResourceRecordSetBatch replace(ResourceRecordSet<?> rrset) {
+            batch.replace(rrset);
+            staged.add(ImmutableList.of(rrset.getName(), rrset.getType()));
+            return this;
+        }
+
+        @Override
+        public ResourceRecordSetBatch remove(ResourceRecordSet<?> rrset) {
+            batch.remove(rrset);
+            staged.add(ImmutableList.of(rrset.getName(), rrset.getType()));
+            return this;
+        }
+
+        @Override
+        public ResourceRecordSetBatch deleteByNameAndType(String name, String type) {
+            batch.deleteByNameAndType(name, type);
+            staged.add(ImmutableList.of(name, type));
+            return this;
+        }
+
+        @Override
+        public ResourceRecordSetBatch applyTTLToNameAndType(int ttl, String name, String type) {
+            batch.applyTTLToNameAndType(ttl, name, type);
+            staged.add(ImmutableList.of(name, type));
+            return this;
+        }
+
+        /**
+         * the names affected aren't known until commit, so this invalidates
+         * the whole zone.
+         */
+        @Override
+        public ResourceRecordSetBatch applyTTL(int ttl, Predicate<? super ResourceRecordSet<?>> filter) {
+            batch.applyTTL(ttl, filter);
+            stagedZone = true;
+            return this;
+        }
+
+        @Override
+        public void commit() {
+            try {
+                batch.commit();
+            } finally {
+                if (stagedZone) {
+                    invalidateZone(zoneName);
+                } else {
+                    for (List<String> nameAndType : staged) {
+                        invalidate(zoneName, nameAndType.get(0), nameAndType.get(1));
+                    }
+                }
+                staged.clear();
+                stagedZone = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package denominator.config;
+
+import dagger.Module;
+import dagger.Provides;
+import denominator.AsyncResourceRecordSetApi;
+import denominator.DNSApiManager;
+import denominator.ResourceRecordSetApi;
+import denominator.ResourceRecordSetBatch;
+import denominator.ResourceRecordSetDecorator;
+
+/**
+ * the default, which leaves record set apis as the provider binds them.
+ * {@link denominator.Denominator#create(denominator.Provider, Object...)
+ * Denominator.create} includes this module.
+ */
+@Module(entryPoints = DNSApiManager.class, complete = false)
+public class UndecoratedResourceRecordSets implements ResourceRecordSetDecorator {
+
+    @Provides
+    ResourceRecordSetDecorator provideResourceRecordSetDecorator() {
+        return this;
+    }
+
+    @Override
+    public ResourceRecordSetApi decorate(String zoneName, ResourceRecordSetApi api) {
+        return api;
+    }
+
+    @Override
+    public AsyncResourceRecordSetApi decorate(String zoneName, AsyncResourceRecordSetApi api) {
+        return api;
+    }
+
+    @Override
+    public ResourceRecordSetBatch decorate(String zoneName, ResourceRecordSetBatch batch) {
+        return batch;
+    }
+
+    @Override
+    public String toString() {
+        return "UndecoratedResourceRecordSets()";
+    }
+}
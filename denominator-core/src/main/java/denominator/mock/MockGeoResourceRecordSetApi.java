@@ -2,10 +2,8 @@ package denominator.mock;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.base.Predicates.and;
 import static com.google.common.base.Predicates.compose;
-import static com.google.common.collect.FluentIterable.from;
-import static com.google.common.collect.Multimaps.filterValues;
+import static com.google.common.collect.Iterators.tryFind;
 import static denominator.model.ResourceRecordSets.profileContainsType;
 import static denominator.model.ResourceRecordSets.toProfile;
 import static denominator.model.profile.Geos.nameEqualTo;
@@ -27,9 +25,9 @@ public final class MockGeoResourceRecordSetApi extends MockAllProfileResourceRec
     private final Multimap<String, String> regions;
     private final Set<String> types;
 
-    MockGeoResourceRecordSetApi(Multimap<String, ResourceRecordSet<?>> records, Multimap<String, String> regions,
-            Set<String> types, String zoneName) {
-        super(records, zoneName);
+    MockGeoResourceRecordSetApi(MockRecordStore records, Multimap<String, String> regions, Set<String> types,
+            String zoneName) {
+        super(records, zoneName, profileContainsType(Geo.class));
         this.regions = regions;
         this.types = types;
     }
@@ -49,8 +47,7 @@ public final class MockGeoResourceRecordSetApi extends MockAllProfileResourceRec
         checkNotNull(name, "name");
         checkNotNull(type, "type");
         checkNotNull(type, "group");
-        return from(records.get(zoneName))
-                .firstMatch(and(nameAndTypeEqualTo(name, type), geoGroupNameEqualTo(group)));
+        return tryFind(listByNameAndType(name, type), geoGroupNameEqualTo(group));
     }
 
     private static Predicate<ResourceRecordSet<?>> geoGroupNameEqualTo(String group) {
@@ -59,24 +56,21 @@ public final class MockGeoResourceRecordSetApi extends MockAllProfileResourceRec
 
     public static final class Factory implements GeoResourceRecordSetApi.Factory {
 
-        private final Multimap<String, ResourceRecordSet<?>> records;
+        private final MockRecordStore records;
         private final Multimap<String, String> regions;
         private final Set<String> types;
 
-        // wildcard types are not currently injectable in dagger
-        @SuppressWarnings({ "rawtypes", "unchecked" })
         @Inject
-        Factory(Multimap<String, ResourceRecordSet> records,
-                @denominator.config.profile.Geo Multimap<String, String> regions,
+        Factory(MockRecordStore records, @denominator.config.profile.Geo Multimap<String, String> regions,
                 @denominator.config.profile.Geo Set<String> types) {
-            this.records = Multimap.class.cast(filterValues(Multimap.class.cast(records), profileContainsType(Geo.class)));
+            this.records = records;
             this.regions = regions;
             this.types = types;
         }
 
         @Override
         public Optional<GeoResourceRecordSetApi> create(String zoneName) {
-            checkArgument(records.keySet().contains(zoneName), "zone %s not found", zoneName);
+            checkArgument(records.containsZone(zoneName), "zone %s not found", zoneName);
             return Optional.<GeoResourceRecordSetApi> of(
                     new MockGeoResourceRecordSetApi(records, regions, types, zoneName));
         }
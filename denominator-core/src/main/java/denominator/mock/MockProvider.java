@@ -1,6 +1,5 @@
 package denominator.mock;
 
-import static com.google.common.collect.Multimaps.synchronizedListMultimap;
 import static denominator.model.ResourceRecordSets.a;
 import static denominator.model.ResourceRecordSets.cname;
 import static denominator.model.ResourceRecordSets.ns;
@@ -24,6 +23,8 @@ import denominator.DNSApiManager;
 import denominator.Provider;
 import denominator.ResourceRecordSetApi;
 import denominator.ZoneApi;
+import denominator.config.AsyncOverBlockingResourceRecordSets;
+import denominator.config.BatchOverBlockingResourceRecordSets;
 import denominator.config.NothingToClose;
 import denominator.model.ResourceRecordSet;
 import denominator.model.profile.Geo;
@@ -35,7 +36,8 @@ import denominator.profile.GeoResourceRecordSetApi;
 /**
  * in-memory {@code Provider}, used for testing.
  */
-@Module(entryPoints = DNSApiManager.class, includes = NothingToClose.class)
+@Module(entryPoints = DNSApiManager.class, includes = { NothingToClose.class, AsyncOverBlockingResourceRecordSets.class,
+                                                       BatchOverBlockingResourceRecordSets.class })
 public class MockProvider extends Provider {
 
     @Provides
@@ -64,6 +66,9 @@ public class MockProvider extends Provider {
         return in;
     }
 
+    /**
+     * record sets the {@link MockRecordStore} is seeded with, keyed by zone.
+     */
     // wildcard types are not currently injectable in dagger
     @SuppressWarnings({ "rawtypes", "unchecked" })
     @Provides
@@ -71,7 +76,6 @@ public class MockProvider extends Provider {
     Multimap<String, ResourceRecordSet> provideRecords() {
         String zoneName = "denominator.io.";
         ListMultimap<String, ResourceRecordSet<?>> records = LinkedListMultimap.create();
-        records = synchronizedListMultimap(records);
         records.put(zoneName, ResourceRecordSet.builder()
                                             .type("SOA")
                                             .name(zoneName)
@@ -0,0 +1,338 @@
+package denominator.mock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Predicates.in;
+import static com.google.common.base.Predicates.not;
+import static com.google.common.collect.Iterables.filter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.Striped;
+
+import denominator.model.ResourceRecordSet;
+import denominator.model.snapshot.SnapshotReader;
+import denominator.model.snapshot.SnapshotWriter;
+import denominator.model.zonefile.ZoneFiles;
+
+/**
+ * record sets of the {@link MockProvider}, held in a sorted, concurrent index
+ * per zone keyed by name, type and profile. Lookups by name and type are
+ * O(log n) and reads never block. Writes to the same name and type are
+ * serialized by striped locks, so that unrelated writes proceed in parallel.
+ *
+ * Listings are ordered by name, then type. Record sets of the same name and
+ * type are ordered by their profile, with those without a profile first.
+ *
+ * To seed the mock provider from a zone file, pass a module with
+ * {@code overrides = true} that provides your own store.
+ *
+ * <pre>
+ * &#064;Provides
+ * &#064;Singleton
+ * MockRecordStore provideRecordStore() {
+ *     return MockRecordStore.create().readZoneFile(&quot;denominator.io.&quot;, reader);
+ * }
+ * </pre>
+ *
+ * @see PersistentMockRecords
+ */
+@Singleton
+public final class MockRecordStore {
+
+    /**
+     * suffix of the file each zone is saved to, in
+     * {@link #save(File) save} and {@link #load(File) load}.
+     */
+    public static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    public static MockRecordStore create() {
+        return new MockRecordStore();
+    }
+
+    /**
+     * @param records
+     *            record sets keyed by zone name.
+     */
+    public static MockRecordStore copyOf(Multimap<String, ResourceRecordSet<?>> records) {
+        MockRecordStore store = new MockRecordStore();
+        store.putAll(checkNotNull(records, "records"));
+        return store;
+    }
+
+    /**
+     * reads each zone saved in {@code directory} by {@link #save(File)}.
+     */
+    public static MockRecordStore load(File directory) throws IOException {
+        checkArgument(checkNotNull(directory, "directory").isDirectory(), "%s is not a directory", directory);
+        MockRecordStore store = new MockRecordStore();
+        for (File file : directory.listFiles()) {
+            String fileName = file.getName();
+            if (!fileName.endsWith(SNAPSHOT_SUFFIX))
+                continue;
+            String zoneName = fileName.substring(0, fileName.length() - SNAPSHOT_SUFFIX.length());
+            FileInputStream in = new FileInputStream(file);
+            try {
+                store.putAll(zoneName, new SnapshotReader(in.getChannel()));
+            } finally {
+                in.close();
+            }
+        }
+        return store;
+    }
+
+    private final ConcurrentSkipListMap<String, ConcurrentSkipListMap<Key, ResourceRecordSet<?>>> zones =
+            new ConcurrentSkipListMap<String, ConcurrentSkipListMap<Key, ResourceRecordSet<?>>>();
+    private final Striped<Lock> locks = Striped.lock(64);
+
+    private MockRecordStore() {
+    }
+
+    /**
+     * seeded with the record sets the provider binds, keyed by zone.
+     */
+    // wildcard types are not currently injectable in dagger
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Inject
+    MockRecordStore(Multimap<String, ResourceRecordSet> records) {
+        putAll(Multimap.class.cast(records));
+    }
+
+    private void putAll(Multimap<String, ResourceRecordSet<?>> records) {
+        for (Entry<String, Collection<ResourceRecordSet<?>>> zone : records.asMap().entrySet()) {
+            putAll(zone.getKey(), zone.getValue().iterator());
+        }
+    }
+
+    /**
+     * sorted view of the zones in this store.
+     */
+    public Set<String> getZoneNames() {
+        return Collections.unmodifiableSet(zones.keySet());
+    }
+
+    /**
+     * creates the zone if absent.
+     */
+    public MockRecordStore createZone(String zoneName) {
+        zone(zoneName);
+        return this;
+    }
+
+    /**
+     * reads record sets from a zone file into {@code zoneName}, creating it if
+     * absent.
+     *
+     * @param in
+     *            zone file, whose relative names are under {@code zoneName}.
+     *            Isn't closed by this method.
+     */
+    public MockRecordStore readZoneFile(String zoneName, Reader in) {
+        return putAll(zoneName, ZoneFiles.read(in, zoneName));
+    }
+
+    /**
+     * puts each record set into {@code zoneName}, creating it if absent.
+     * Record sets replace any of the same name, type and profile already in
+     * the store. Those repeated in {@code rrsets}, such as records of one set
+     * split across a zone file, are merged, keeping the first ttl.
+     */
+    public MockRecordStore putAll(String zoneName, Iterator<? extends ResourceRecordSet<?>> rrsets) {
+        NavigableMap<Key, ResourceRecordSet<?>> zone = zone(zoneName);
+        Set<Key> put = Sets.newHashSet();
+        while (rrsets.hasNext()) {
+            ResourceRecordSet<?> rrset = rrsets.next();
+            Key key = Key.of(rrset);
+            ResourceRecordSet<?> existing = zone.get(key);
+            if (!put.add(key) && existing != null)
+                rrset = merge(existing, rrset);
+            zone.put(key, rrset);
+        }
+        return this;
+    }
+
+    private static ResourceRecordSet<?> merge(ResourceRecordSet<?> existing, ResourceRecordSet<?> rrset) {
+        return ResourceRecordSet.<Map<String, Object>> builder()
+                                .name(existing.getName())
+                                .type(existing.getType())
+                                .ttl(existing.getTTL().or(rrset.getTTL()).orNull())
+                                .addAll(existing)
+                                .addAll(filter(rrset, not(in(existing)))).build();
+    }
+
+    /**
+     * writes each zone to a file named for it in {@code directory}, replacing
+     * any previous save.
+     */
+    public void save(File directory) throws IOException {
+        checkArgument(checkNotNull(directory, "directory").isDirectory(), "%s is not a directory", directory);
+        for (Entry<String, ConcurrentSkipListMap<Key, ResourceRecordSet<?>>> zone : zones.entrySet()) {
+            File file = new File(directory, zone.getKey() + SNAPSHOT_SUFFIX);
+            File temp = new File(directory, zone.getKey() + SNAPSHOT_SUFFIX + ".tmp");
+            FileOutputStream out = new FileOutputStream(temp);
+            boolean threw = true;
+            try {
+                new SnapshotWriter(out.getChannel()).writeAll(zone.getValue().values().iterator()).close();
+                threw = false;
+            } finally {
+                Closeables.close(out, threw);
+            }
+            if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file)))
+                throw new IOException("could not replace " + file);
+        }
+    }
+
+    boolean containsZone(String zoneName) {
+        return zones.containsKey(zoneName);
+    }
+
+    /**
+     * all record sets in the zone, regardless of profile.
+     */
+    Iterator<ResourceRecordSet<?>> list(String zoneName) {
+        return values(zones.get(zoneName));
+    }
+
+    Iterator<ResourceRecordSet<?>> listByName(String zoneName, String name) {
+        NavigableMap<Key, ResourceRecordSet<?>> zone = zones.get(zoneName);
+        if (zone == null)
+            return Iterators.emptyIterator();
+        return values(zone.subMap(new Key(name, null, null), true, new Key(name + '\0', null, null), false));
+    }
+
+    Iterator<ResourceRecordSet<?>> listByNameAndType(String zoneName, String name, String type) {
+        NavigableMap<Key, ResourceRecordSet<?>> zone = zones.get(zoneName);
+        if (zone == null)
+            return Iterators.emptyIterator();
+        return values(zone.subMap(new Key(name, type, null), true, new Key(name, type + '\0', null), false));
+    }
+
+    /**
+     * the record set without a profile at {@code name} and {@code type}.
+     */
+    Optional<ResourceRecordSet<?>> getByNameAndType(String zoneName, String name, String type) {
+        NavigableMap<Key, ResourceRecordSet<?>> zone = zones.get(zoneName);
+        if (zone == null)
+            return Optional.absent();
+        return Optional.<ResourceRecordSet<?>> fromNullable(zone.get(new Key(name, type, "")));
+    }
+
+    /**
+     * replaces the record set of the same name, type and profile.
+     */
+    void put(String zoneName, ResourceRecordSet<?> rrset) {
+        zone(zoneName).put(Key.of(rrset), rrset);
+    }
+
+    /**
+     * removes the record set without a profile at {@code name} and
+     * {@code type}.
+     */
+    void deleteByNameAndType(String zoneName, String name, String type) {
+        NavigableMap<Key, ResourceRecordSet<?>> zone = zones.get(zoneName);
+        if (zone != null)
+            zone.remove(new Key(name, type, ""));
+    }
+
+    /**
+     * held while reading and then writing the record sets at {@code name} and
+     * {@code type}.
+     */
+    Lock lock(String zoneName, String name, String type) {
+        return locks.get(ImmutableList.of(zoneName, name, type));
+    }
+
+    private NavigableMap<Key, ResourceRecordSet<?>> zone(String zoneName) {
+        checkNotNull(zoneName, "zoneName");
+        ConcurrentSkipListMap<Key, ResourceRecordSet<?>> zone = zones.get(zoneName);
+        if (zone == null) {
+            zone = new ConcurrentSkipListMap<Key, ResourceRecordSet<?>>();
+            ConcurrentSkipListMap<Key, ResourceRecordSet<?>> existing = zones.putIfAbsent(zoneName, zone);
+            if (existing != null)
+                zone = existing;
+        }
+        return zone;
+    }
+
+    private static Iterator<ResourceRecordSet<?>> values(NavigableMap<Key, ResourceRecordSet<?>> zone) {
+        if (zone == null)
+            return Iterators.emptyIterator();
+        return Iterators.unmodifiableIterator(zone.values().iterator());
+    }
+
+    @Override
+    public String toString() {
+        return "MockRecordStore(" + zones.keySet() + ")";
+    }
+
+    /**
+     * null components sort first, so that they can bound ranges.
+     */
+    private static final class Key implements Comparable<Key> {
+        private static final Ordering<String> NULLS_FIRST = Ordering.<String> natural().nullsFirst();
+
+        /**
+         * record sets without a profile have an empty qualifier. Otherwise,
+         * as profiled record sets are read-only here, it is the record set's
+         * string form, which orders them as listings did before the index.
+         */
+        static Key of(ResourceRecordSet<?> rrset) {
+            checkNotNull(rrset, "rrset");
+            return new Key(rrset.getName(), rrset.getType(), rrset.getProfiles().isEmpty() ? "" : rrset.toString());
+        }
+
+        private final String name;
+        private final String type;
+        private final String qualifier;
+
+        private Key(String name, String type, String qualifier) {
+            this.name = checkNotNull(name, "name");
+            this.type = type;
+            this.qualifier = qualifier;
+        }
+
+        @Override
+        public int compareTo(Key that) {
+            return ComparisonChain.start()
+                                  .compare(this.name, that.name)
+                                  .compare(this.type, that.type, NULLS_FIRST)
+                                  .compare(this.qualifier, that.qualifier, NULLS_FIRST)
+                                  .result();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && compareTo(Key.class.cast(obj)) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(name, type, qualifier);
+        }
+    }
+}
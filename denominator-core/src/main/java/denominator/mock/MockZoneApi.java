@@ -4,22 +4,16 @@ import java.util.Iterator;
 
 import javax.inject.Inject;
 
-import com.google.common.collect.Multimap;
-
-import denominator.model.ResourceRecordSet;
-
 public final class MockZoneApi implements denominator.ZoneApi {
-    private final Multimap<String, ResourceRecordSet<?>> data;
+    private final MockRecordStore data;
 
-    // wildcard types are not currently injectable in dagger
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     @Inject
-    MockZoneApi(Multimap<String, ResourceRecordSet> data) {
-        this.data = Multimap.class.cast(data);
+    MockZoneApi(MockRecordStore data) {
+        this.data = data;
     }
 
     @Override
     public Iterator<String> list() {
-        return data.keySet().iterator();
+        return data.getZoneNames().iterator();
     }
-}
\ No newline at end of file
+}
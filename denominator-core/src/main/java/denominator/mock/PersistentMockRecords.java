@@ -0,0 +1,116 @@
+package denominator.mock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.inject.Singleton;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+
+import dagger.Module;
+import dagger.Provides;
+import denominator.DNSApiManager;
+import denominator.model.ResourceRecordSet;
+
+/**
+ * keeps the records of the {@link MockProvider} in {@code directory} between
+ * runs. Zones saved there are loaded when the {@link DNSApiManager} is
+ * created, and all zones are saved back when it is closed.
+ *
+ * If the directory has no saved zones, the store is seeded from the zone
+ * files added with {@link #zoneFile(String, File)}, or else the usual
+ * records.
+ *
+ * ex.
+ *
+ * <pre>
+ * PersistentMockRecords persistent = new PersistentMockRecords(new File(&quot;target/mock&quot;))
+ *         .zoneFile(&quot;denominator.io.&quot;, new File(&quot;denominator.io.zone&quot;));
+ * DNSApiManager manager = Denominator.create(new MockProvider(), persistent);
+ * </pre>
+ *
+ * Use a separate instance of this module for each {@link DNSApiManager}.
+ */
+@Module(entryPoints = DNSApiManager.class, complete = false, overrides = true)
+public class PersistentMockRecords implements Closeable {
+    private final File directory;
+    private final Map<String, File> zoneFiles = Maps.newLinkedHashMap();
+    private MockRecordStore store;
+
+    /**
+     * @param directory
+     *            where zones are saved, created if absent.
+     */
+    public PersistentMockRecords(File directory) {
+        this.directory = checkNotNull(directory, "directory");
+    }
+
+    /**
+     * seeds {@code zoneName} from a zone file, if the directory has no saved
+     * zones.
+     */
+    public PersistentMockRecords zoneFile(String zoneName, File zoneFile) {
+        checkArgument(checkNotNull(zoneFile, "zoneFile").isFile(), "%s is not a file", zoneFile);
+        zoneFiles.put(checkNotNull(zoneName, "zoneName"), zoneFile);
+        return this;
+    }
+
+    // wildcard types are not currently injectable in dagger
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Provides
+    @Singleton
+    MockRecordStore provideRecordStore(Multimap<String, ResourceRecordSet> records) {
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs())
+                throw new IOException("could not create " + directory);
+            store = MockRecordStore.load(directory);
+            if (!store.getZoneNames().isEmpty())
+                return store;
+            if (zoneFiles.isEmpty())
+                return store = MockRecordStore.copyOf(Multimap.class.cast(records));
+            for (Entry<String, File> zoneFile : zoneFiles.entrySet()) {
+                Reader in = new InputStreamReader(new FileInputStream(zoneFile.getValue()), Charsets.UTF_8);
+                try {
+                    store.readZoneFile(zoneFile.getKey(), in);
+                } finally {
+                    in.close();
+                }
+            }
+            return store;
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    @Provides
+    @Singleton
+    Closeable provideCloser() {
+        return this;
+    }
+
+    /**
+     * saves all zones to the directory.
+     */
+    @Override
+    public void close() throws IOException {
+        if (store != null)
+            store.save(directory);
+    }
+
+    @Override
+    public String toString() {
+        return "PersistentMockRecords(" + directory + ")";
+    }
+}
@@ -0,0 +1,107 @@
+package denominator.sync;
+
+import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * what needs to happen to the record set at a {@link #getName() name} and
+ * {@link #getType() type} for the zone to match the desired state.
+ */
+public final class Change {
+
+    public static enum Action {
+        /**
+         * present only in the desired state.
+         */
+        ADD,
+        /**
+         * present in both, but the rdata or ttl differ.
+         */
+        REPLACE,
+        /**
+         * present only in the current state.
+         */
+        DELETE,
+        /**
+         * present in both and equivalent, or the current {@code SOA}, which
+         * is never deleted.
+         */
+        NONE;
+    }
+
+    private final Action action;
+    private final String name;
+    private final String type;
+    private final Optional<ResourceRecordSet<?>> current;
+    private final Optional<ResourceRecordSet<?>> desired;
+
+    Change(Action action, Optional<ResourceRecordSet<?>> current, Optional<ResourceRecordSet<?>> desired) {
+        this.action = checkNotNull(action, "action");
+        this.current = checkNotNull(current, "current");
+        this.desired = checkNotNull(desired, "desired");
+        ResourceRecordSet<?> either = desired.or(current).get();
+        this.name = either.getName();
+        this.type = either.getType();
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * {@link ResourceRecordSet#getName() name} of the record set.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * {@link ResourceRecordSet#getType() type} of the record set.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * the record set as listed by the provider, absent on {@link Action#ADD}.
+     */
+    public Optional<ResourceRecordSet<?>> getCurrent() {
+        return current;
+    }
+
+    /**
+     * the record set as it should be, absent on {@link Action#DELETE}.
+     */
+    public Optional<ResourceRecordSet<?>> getDesired() {
+        return desired;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(action, current, desired);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || !(obj instanceof Change))
+            return false;
+        Change that = Change.class.cast(obj);
+        return this.action == that.action && this.current.equals(that.current) && this.desired.equals(that.desired);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this).add("action", action)
+                                   .add("name", name)
+                                   .add("type", type)
+                                   .add("current", current.orNull())
+                                   .add("desired", desired.orNull()).toString();
+    }
+}
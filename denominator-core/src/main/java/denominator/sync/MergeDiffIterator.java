@@ -0,0 +1,99 @@
+package denominator.sync;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterators.peekingIterator;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.PeekingIterator;
+
+import denominator.model.ResourceRecordSet;
+import denominator.sync.Change.Action;
+
+/**
+ * walks the current and desired record sets in step, like the merge phase of
+ * a merge sort, so that only one record set from each side is held at a time.
+ * Both sides must be sorted by the same {@code comparator}, and not contain
+ * more than one record set with the same name and type. This is checked as
+ * the iterators are consumed, as otherwise, a record set could be mistaken as
+ * absent and deleted.
+ */
+final class MergeDiffIterator extends AbstractIterator<Change> {
+    private final String zoneName;
+    private final PeekingIterator<ResourceRecordSet<?>> current;
+    private final PeekingIterator<ResourceRecordSet<?>> desired;
+    private final Comparator<? super ResourceRecordSet<?>> comparator;
+    private ResourceRecordSet<?> lastCurrent;
+    private ResourceRecordSet<?> lastDesired;
+
+    MergeDiffIterator(String zoneName, Iterator<ResourceRecordSet<?>> current, Iterator<ResourceRecordSet<?>> desired,
+            Comparator<? super ResourceRecordSet<?>> comparator) {
+        this.zoneName = zoneName;
+        this.current = peekingIterator(current);
+        this.desired = peekingIterator(desired);
+        this.comparator = comparator;
+    }
+
+    @Override
+    protected Change computeNext() {
+        if (!current.hasNext() && !desired.hasNext())
+            return endOfData();
+        if (!desired.hasNext())
+            return delete(nextCurrent());
+        if (!current.hasNext())
+            return add(nextDesired());
+        int compare = comparator.compare(current.peek(), desired.peek());
+        if (compare < 0)
+            return delete(nextCurrent());
+        if (compare > 0)
+            return add(nextDesired());
+        return compare(nextCurrent(), nextDesired());
+    }
+
+    private ResourceRecordSet<?> nextCurrent() {
+        ResourceRecordSet<?> next = current.next();
+        checkState(lastCurrent == null || comparator.compare(lastCurrent, next) < 0,
+                "current record sets must be in the same order as the desired ones: %s was listed after %s", next,
+                lastCurrent);
+        return lastCurrent = next;
+    }
+
+    private ResourceRecordSet<?> nextDesired() {
+        ResourceRecordSet<?> next = desired.next();
+        checkArgument(lastDesired == null || comparator.compare(lastDesired, next) < 0,
+                "desired record sets must be sorted and unique on name and type: %s was after %s", next, lastDesired);
+        return lastDesired = next;
+    }
+
+    private static Change add(ResourceRecordSet<?> desired) {
+        return new Change(Action.ADD, Optional.<ResourceRecordSet<?>> absent(),
+                Optional.<ResourceRecordSet<?>> of(desired));
+    }
+
+    /**
+     * the zone's {@code SOA} and apex {@code NS} are managed by the provider,
+     * and deleting them would break delegation, so they are never deleted.
+     */
+    private Change delete(ResourceRecordSet<?> current) {
+        boolean apex = "SOA".equals(current.getType())
+                || "NS".equals(current.getType()) && zoneName.equals(current.getName());
+        return new Change(apex ? Action.NONE : Action.DELETE, Optional.<ResourceRecordSet<?>> of(current),
+                Optional.<ResourceRecordSet<?>> absent());
+    }
+
+    /**
+     * rdata order isn't significant, and an absent ttl in the desired record
+     * set means the provider can choose it.
+     */
+    private static Change compare(ResourceRecordSet<?> current, ResourceRecordSet<?> desired) {
+        boolean sameTTL = !desired.getTTL().isPresent() || desired.getTTL().equals(current.getTTL());
+        boolean sameRData = ImmutableMultiset.copyOf(current).equals(ImmutableMultiset.copyOf(desired));
+        return new Change(sameTTL && sameRData ? Action.NONE : Action.REPLACE,
+                Optional.<ResourceRecordSet<?>> of(current), Optional.<ResourceRecordSet<?>> of(desired));
+    }
+}
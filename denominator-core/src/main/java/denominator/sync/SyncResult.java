@@ -0,0 +1,82 @@
+package denominator.sync;
+
+import static com.google.common.base.Objects.toStringHelper;
+
+import com.google.common.base.Objects;
+
+/**
+ * counts of record sets by what {@link ZoneSync} did to them.
+ */
+public final class SyncResult {
+    private final int added;
+    private final int replaced;
+    private final int deleted;
+    private final int unchanged;
+
+    SyncResult(int added, int replaced, int deleted, int unchanged) {
+        this.added = added;
+        this.replaced = replaced;
+        this.deleted = deleted;
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * record sets which were only in the desired state.
+     */
+    public int getAdded() {
+        return added;
+    }
+
+    /**
+     * record sets whose rdata or ttl were updated.
+     */
+    public int getReplaced() {
+        return replaced;
+    }
+
+    /**
+     * record sets which were only in the current state.
+     */
+    public int getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * sum of {@link #getAdded()}, {@link #getReplaced()} and
+     * {@link #getDeleted()}.
+     */
+    public int getChanged() {
+        return added + replaced + deleted;
+    }
+
+    /**
+     * record sets which already matched the desired state.
+     */
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(added, replaced, deleted, unchanged);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || !(obj instanceof SyncResult))
+            return false;
+        SyncResult that = SyncResult.class.cast(obj);
+        return this.added == that.added && this.replaced == that.replaced && this.deleted == that.deleted
+                && this.unchanged == that.unchanged;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this).add("added", added)
+                                   .add("replaced", replaced)
+                                   .add("deleted", deleted)
+                                   .add("unchanged", unchanged).toString();
+    }
+}
@@ -0,0 +1,201 @@
+package denominator.sync;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.Ordering;
+
+import denominator.DNSApi;
+import denominator.ResourceRecordSetApi;
+import denominator.ResourceRecordSetBatch;
+import denominator.model.ResourceRecordSet;
+import denominator.model.snapshot.MappedSnapshot;
+import denominator.model.snapshot.SnapshotWriter;
+
+/**
+ * makes the record sets in a zone match a desired state, changing only those
+ * that differ.
+ *
+ * Example of syncing a zone to a list of record sets.
+ *
+ * <pre>
+ * SyncResult result = ZoneSync.sync(api, &quot;denominator.io.&quot;, desired.iterator());
+ * </pre>
+ *
+ * Providers list record sets in their own order, so {@link #sync} first
+ * writes the desired record sets, and then those from
+ * {@link ResourceRecordSetApi#list()}, to temporary snapshot files, whose
+ * index sorts them {@link #BY_NAME_AND_TYPE}. The sorted files are then
+ * merged as streams, so neither side is held in memory, and input that can't
+ * be synced is rejected before any change is made. {@link #diff} compares
+ * streams which are already sorted.
+ */
+public final class ZoneSync {
+
+    /**
+     * sorts on {@link ResourceRecordSet#getName() name}, then
+     * {@link ResourceRecordSet#getType() type}.
+     */
+    public static final Ordering<ResourceRecordSet<?>> BY_NAME_AND_TYPE = new Ordering<ResourceRecordSet<?>>() {
+
+        @Override
+        public int compare(ResourceRecordSet<?> left, ResourceRecordSet<?> right) {
+            return ComparisonChain.start()
+                                  .compare(left.getName(), right.getName())
+                                  .compare(left.getType(), right.getType())
+                                  .result();
+        }
+
+        @Override
+        public String toString() {
+            return "byNameAndType()";
+        }
+    };
+
+    /**
+     * changes are committed in batches of this size, so that the staged
+     * changes don't grow with the size of the zone.
+     */
+    static final int CHANGES_PER_BATCH = 1000;
+
+    /**
+     * lazily computes the changes needed to turn {@code current} into
+     * {@code desired}, both sorted {@link #BY_NAME_AND_TYPE}.
+     *
+     * @param zoneName
+     *            the zone's {@code SOA} and apex {@code NS} record sets are
+     *            never deleted.
+     */
+    public static Iterator<Change> diff(String zoneName, Iterator<ResourceRecordSet<?>> current,
+            Iterator<ResourceRecordSet<?>> desired) {
+        return diff(zoneName, current, desired, BY_NAME_AND_TYPE);
+    }
+
+    /**
+     * lazily computes the changes needed to turn {@code current} into
+     * {@code desired}, both sorted by {@code comparator}.
+     *
+     * @param zoneName
+     *            the zone's {@code SOA} and apex {@code NS} record sets are
+     *            never deleted.
+     */
+    public static Iterator<Change> diff(String zoneName, Iterator<ResourceRecordSet<?>> current,
+            Iterator<ResourceRecordSet<?>> desired, Comparator<? super ResourceRecordSet<?>> comparator) {
+        checkNotNull(zoneName, "zoneName");
+        checkNotNull(current, "current");
+        checkNotNull(desired, "desired");
+        checkNotNull(comparator, "comparator");
+        return new MergeDiffIterator(zoneName, current, desired, comparator);
+    }
+
+    /**
+     * @param desired
+     *            all record sets that should be in the zone, in any order.
+     * @throws IllegalArgumentException
+     *             if more than one desired record set has the same name and
+     *             type. Nothing is changed in this case.
+     */
+    public static SyncResult sync(DNSApi api, String zoneName, Iterator<ResourceRecordSet<?>> desired) {
+        checkNotNull(api, "api");
+        checkNotNull(zoneName, "zoneName");
+        checkNotNull(desired, "desired");
+        File desiredFile = null;
+        File currentFile = null;
+        try {
+            desiredFile = sortToFile(desired);
+            MappedSnapshot sortedDesired = MappedSnapshot.open(desiredFile);
+            checkArgument(isUnique(sortedDesired.iterator()), "desired record sets must be unique on name and type");
+            currentFile = sortToFile(api.getResourceRecordSetApiForZone(zoneName).list());
+            MappedSnapshot sortedCurrent = MappedSnapshot.open(currentFile);
+            checkState(isUnique(sortedCurrent.iterator()),
+                    "%s listed more than one record set with the same name and type", zoneName);
+            return apply(api.getResourceRecordSetBatchForZone(zoneName),
+                    diff(zoneName, sortedCurrent.iterator(), sortedDesired.iterator()));
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        } finally {
+            delete(desiredFile);
+            delete(currentFile);
+        }
+    }
+
+    private static SyncResult apply(ResourceRecordSetBatch batch, Iterator<Change> changes) {
+        int added = 0, replaced = 0, deleted = 0, unchanged = 0, staged = 0;
+        while (changes.hasNext()) {
+            Change change = changes.next();
+            switch (change.getAction()) {
+            case ADD:
+                batch.replace(change.getDesired().get());
+                added++;
+                break;
+            case REPLACE:
+                batch.replace(change.getDesired().get());
+                replaced++;
+                break;
+            case DELETE:
+                batch.deleteByNameAndType(change.getName(), change.getType());
+                deleted++;
+                break;
+            case NONE:
+                unchanged++;
+                continue;
+            }
+            if (++staged == CHANGES_PER_BATCH) {
+                batch.commit();
+                staged = 0;
+            }
+        }
+        if (staged > 0)
+            batch.commit();
+        return new SyncResult(added, replaced, deleted, unchanged);
+    }
+
+    /**
+     * writes the record sets to a snapshot, which is indexed
+     * {@link #BY_NAME_AND_TYPE}. Only the index and distinct strings are held
+     * in memory while writing.
+     */
+    private static File sortToFile(Iterator<ResourceRecordSet<?>> rrsets) throws IOException {
+        File file = File.createTempFile("denominator", ".snapshot");
+        boolean threw = true;
+        try {
+            new SnapshotWriter(new FileOutputStream(file).getChannel()).writeAll(rrsets).close();
+            threw = false;
+        } finally {
+            if (threw)
+                delete(file);
+        }
+        return file;
+    }
+
+    private static boolean isUnique(Iterator<ResourceRecordSet<?>> sorted) {
+        ResourceRecordSet<?> last = null;
+        while (sorted.hasNext()) {
+            ResourceRecordSet<?> next = sorted.next();
+            if (last != null && BY_NAME_AND_TYPE.compare(last, next) == 0)
+                return false;
+            last = next;
+        }
+        return true;
+    }
+
+    /**
+     * the file may still be mapped, which prevents deletion on some platforms.
+     */
+    private static void delete(File file) {
+        if (file != null && !file.delete())
+            file.deleteOnExit();
+    }
+
+    private ZoneSync() {
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * computes and applies the minimal changes which make a zone match a desired
+ * set of record sets.
+ */
+package denominator.sync;
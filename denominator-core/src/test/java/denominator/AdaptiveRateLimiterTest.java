@@ -0,0 +1,192 @@
+package denominator;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Ticker;
+
+@Test
+public class AdaptiveRateLimiterTest {
+
+    static class FakeTicker extends Ticker {
+        long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+    }
+
+    public void reservesPermitsAtRate() {
+        FakeTicker ticker = new FakeTicker();
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(ticker, 10, 1);
+        assertEquals(limiter.reserve(), 0);
+        assertEquals(limiter.reserve(), MILLISECONDS.toNanos(100));
+        assertEquals(limiter.reserve(), MILLISECONDS.toNanos(200));
+
+        ticker.nanos += SECONDS.toNanos(10);
+        // idle time allows a burst of a second's worth
+        for (int i = 0; i < 10; i++)
+            assertEquals(limiter.reserve(), 0);
+        assertEquals(limiter.reserve(), MILLISECONDS.toNanos(100));
+    }
+
+    public void halvesOnThrottleAtMostOncePerSecond() {
+        FakeTicker ticker = new FakeTicker();
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(ticker, 10, 2);
+        limiter.onThrottled();
+        assertEquals(limiter.getRate(), 5.0);
+        limiter.onThrottled();
+        assertEquals(limiter.getRate(), 5.0);
+
+        ticker.nanos += SECONDS.toNanos(1);
+        limiter.onThrottled();
+        assertEquals(limiter.getRate(), 2.5);
+
+        ticker.nanos += SECONDS.toNanos(1);
+        limiter.onThrottled();
+        assertEquals(limiter.getRate(), 2.0);
+        assertEquals(limiter.getThrottled(), 4);
+    }
+
+    public void increasesOnSuccessUpToMax() {
+        FakeTicker ticker = new FakeTicker();
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(ticker, 10, 1);
+        limiter.onThrottled();
+        limiter.onSuccess();
+        assertEquals(limiter.getRate(), 5.2);
+        for (int i = 0; i < 100; i++)
+            limiter.onSuccess();
+        assertEquals(limiter.getRate(), 10.0);
+    }
+
+    public interface Api {
+        String get(String key);
+
+        void put(String key);
+
+        SubApi getSubApi();
+    }
+
+    public interface SubApi {
+        String get(String key);
+    }
+
+    static final Predicate<Throwable> THROTTLED = new Predicate<Throwable>() {
+
+        @Override
+        public boolean apply(Throwable input) {
+            return "throttled".equals(input.getMessage());
+        }
+    };
+
+    static class ThrottlingApi implements Api, SubApi {
+        final AtomicInteger calls = new AtomicInteger();
+        final int throttleCalls;
+
+        ThrottlingApi(int throttleCalls) {
+            this.throttleCalls = throttleCalls;
+        }
+
+        @Override
+        public String get(String key) {
+            if (calls.incrementAndGet() <= throttleCalls)
+                throw new IllegalStateException(new IllegalStateException("throttled"));
+            if (key == null)
+                throw new NullPointerException("key");
+            return key;
+        }
+
+        @Override
+        public void put(String key) {
+            get(key);
+        }
+
+        @Override
+        public SubApi getSubApi() {
+            return this;
+        }
+    }
+
+    public void decoratedApiRetriesThrottledCalls() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.create(1000, 100);
+        ThrottlingApi delegate = new ThrottlingApi(2);
+        Api api = limiter.decorate(Api.class, delegate, THROTTLED);
+        assertEquals(api.get("foo"), "foo");
+        assertEquals(delegate.calls.get(), 3);
+        assertEquals(limiter.getThrottled(), 2);
+        assertEquals(limiter.getAcquired(), 3);
+        assertTrue(limiter.getRate() < 1000);
+    }
+
+    public void decoratedApiGivesUpAfterRetries() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.create(1000, 100);
+        ThrottlingApi delegate = new ThrottlingApi(Integer.MAX_VALUE);
+        try {
+            limiter.decorate(Api.class, delegate, THROTTLED).get("foo");
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(e.getCause().getMessage(), "throttled");
+        }
+        assertEquals(delegate.calls.get(), AdaptiveRateLimiter.THROTTLED_RETRIES + 1);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class, expectedExceptionsMessageRegExp = "key")
+    public void decoratedApiDoesntRetryOtherFailures() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.create(1000, 100);
+        ThrottlingApi delegate = new ThrottlingApi(0);
+        try {
+            limiter.decorate(Api.class, delegate, THROTTLED).get(null);
+        } finally {
+            assertEquals(delegate.calls.get(), 1);
+            assertEquals(limiter.getThrottled(), 0);
+        }
+    }
+
+    public void decoratedApiDoesntRetryThrottledWrites() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.create(1000, 100);
+        ThrottlingApi delegate = new ThrottlingApi(1);
+        try {
+            limiter.decorate(Api.class, delegate, THROTTLED).put("foo");
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(e.getCause().getMessage(), "throttled");
+        }
+        assertEquals(delegate.calls.get(), 1);
+        assertEquals(limiter.getThrottled(), 1);
+    }
+
+    public void interruptedWhileWaitingDoesntCall() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.create(1, 1);
+        ThrottlingApi delegate = new ThrottlingApi(0);
+        Api api = limiter.decorate(Api.class, delegate, THROTTLED);
+        assertEquals(api.get("foo"), "foo");
+        Thread.currentThread().interrupt();
+        try {
+            api.get("bar");
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+            assertTrue(Thread.interrupted());
+        }
+        assertEquals(delegate.calls.get(), 1);
+    }
+
+    public void decoratesApisInTheSamePackage() {
+        AdaptiveRateLimiter limiter = AdaptiveRateLimiter.create(1000, 100);
+        ThrottlingApi delegate = new ThrottlingApi(1);
+        SubApi subApi = limiter.decorate(Api.class, delegate, THROTTLED).getSubApi();
+        assertEquals(subApi.get("foo"), "foo");
+        assertEquals(limiter.getThrottled(), 1);
+        // getting the sub api makes no request
+        assertEquals(limiter.getAcquired(), 2);
+    }
+}
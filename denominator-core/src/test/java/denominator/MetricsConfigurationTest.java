@@ -0,0 +1,165 @@
+package denominator;
+
+import static denominator.Denominator.create;
+import static denominator.MetricsConfiguration.metrics;
+import static denominator.model.ResourceRecordSets.a;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import denominator.InMemoryMetrics.Stats;
+import denominator.config.CachingResourceRecordSets;
+import denominator.mock.MockProvider;
+import denominator.mock.MockZoneApi;
+
+@Test
+public class MetricsConfigurationTest {
+
+    public void defaultIsNotInstrumented() throws IOException {
+        DNSApiManager manager = create(new MockProvider());
+        try {
+            assertSame(manager.getApi().getZoneApi().getClass(), MockZoneApi.class);
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void reportsCallsByProviderZoneAndOperation() throws IOException {
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        DNSApiManager manager = create(new MockProvider(), metrics(metrics));
+        try {
+            ImmutableList.copyOf(manager.getApi().getZoneApi().list());
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            int recordSetCount = ImmutableList.copyOf(api.list()).size();
+            api.getByNameAndType("www1.denominator.io.", "A");
+            api.getByNameAndType("www1.denominator.io.", "A");
+
+            Stats zones = metrics.get("mock", null, "ZoneApi.list");
+            assertEquals(zones.getCalls(), 1);
+            assertEquals(zones.getResults(), 1);
+
+            Stats list = metrics.get("mock", "denominator.io.", "ResourceRecordSetApi.list");
+            assertEquals(list.getCalls(), 1);
+            assertEquals(list.getResults(), recordSetCount);
+
+            Stats get = metrics.get("mock", "denominator.io.", "ResourceRecordSetApi.getByNameAndType");
+            assertEquals(get.getCalls(), 2);
+            assertEquals(get.getResults(), 2);
+            assertEquals(get.getErrors(), 0);
+            assertTrue(get.getLatencyPercentile(0.99) > 0);
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void reportsErrors() throws IOException {
+        final List<Throwable> errors = Lists.newArrayList();
+        DNSApiManager manager = create(new MockProvider(), metrics(new MetricsListener() {
+            @Override
+            public void onCall(String provider, String zone, String operation, long nanos, int results,
+                    Throwable error) {
+                errors.add(error);
+            }
+        }));
+        try {
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            api.add(a("metrics.denominator.io.", 3600, "192.0.2.1"));
+            api.deleteByNameAndType("metrics.denominator.io.", "A");
+            try {
+                api.add(null);
+                fail();
+            } catch (NullPointerException e) {
+                assertSame(errors.get(2), e);
+            }
+            assertNull(errors.get(0));
+            assertNull(errors.get(1));
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void reportsAsyncCallsWhenTheyComplete() throws Exception {
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        DNSApiManager manager = create(new MockProvider(), metrics(metrics));
+        try {
+            AsyncResourceRecordSetApi api = manager.getApi().getAsyncResourceRecordSetApiForZone("denominator.io.");
+            api.getByNameAndType("www1.denominator.io.", "A").get();
+
+            Stats get = awaitCalls(metrics, "AsyncResourceRecordSetApi.getByNameAndType");
+            assertEquals(get.getResults(), 1);
+            assertEquals(get.getErrors(), 0);
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void reportsBatchCommits() throws IOException {
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        DNSApiManager manager = create(new MockProvider(), metrics(metrics));
+        try {
+            ResourceRecordSetBatch batch = manager.getApi().getResourceRecordSetBatchForZone("denominator.io.");
+            assertSame(batch.add(a("metrics.denominator.io.", 3600, "192.0.2.1")), batch);
+            batch.commit();
+
+            assertEquals(metrics.get("mock", "denominator.io.", "ResourceRecordSetBatch.commit").getCalls(), 1);
+        } finally {
+            manager.close();
+        }
+    }
+
+    public void reportsIteratorsDroppedBeforeTheEnd() throws Exception {
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        DNSApiManager manager = create(new MockProvider(), metrics(metrics));
+        try {
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            readFirstAndDrop(api);
+
+            for (int i = 0; i < 100 && metrics.get("mock", "denominator.io.", "ResourceRecordSetApi.list")
+                    .getCalls() == 0; i++) {
+                System.gc();
+                Thread.sleep(10);
+                api.getByNameAndType("www1.denominator.io.", "A");
+            }
+
+            Stats list = metrics.get("mock", "denominator.io.", "ResourceRecordSetApi.list");
+            assertEquals(list.getCalls(), 1);
+            assertEquals(list.getResults(), 1);
+        } finally {
+            manager.close();
+        }
+    }
+
+    private static void readFirstAndDrop(ResourceRecordSetApi api) {
+        api.list().next();
+    }
+
+    public void cacheHitsAreNotReported() throws IOException {
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        DNSApiManager manager = create(new MockProvider(), metrics(metrics), new CachingResourceRecordSets());
+        try {
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            api.getByNameAndType("www1.denominator.io.", "A");
+            api.getByNameAndType("www1.denominator.io.", "A");
+
+            assertEquals(metrics.get("mock", "denominator.io.", "ResourceRecordSetApi.getByNameAndType").getCalls(), 1);
+        } finally {
+            manager.close();
+        }
+    }
+
+    private static Stats awaitCalls(InMemoryMetrics metrics, String operation) throws InterruptedException {
+        for (int i = 0; i < 100 && metrics.get("mock", "denominator.io.", operation).getCalls() == 0; i++)
+            Thread.sleep(10);
+        return metrics.get("mock", "denominator.io.", operation);
+    }
+}
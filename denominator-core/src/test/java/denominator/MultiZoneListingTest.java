@@ -0,0 +1,182 @@
+package denominator;
+
+import static com.google.common.collect.Multimaps.synchronizedListMultimap;
+import static denominator.Denominator.create;
+import static denominator.model.ResourceRecordSets.a;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeoutException;
+
+import javax.inject.Singleton;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimap;
+
+import dagger.Module;
+import dagger.Provides;
+import denominator.mock.MockProvider;
+import denominator.model.ResourceRecordSet;
+
+public class MultiZoneListingTest {
+
+    @Test
+    public void mergesZonesAndTagsEachRecordSet() throws IOException {
+        List<String> zones = ImmutableList.of("a.io.", "b.io.", "c.io.");
+        Multimap<String, ResourceRecordSet<?>> expected = LinkedHashMultimap.create();
+        for (String zone : zones) {
+            for (int i = 0; i < 500; i++)
+                expected.put(zone, a("www" + i + "." + zone, "192.0.2.1"));
+        }
+        DNSApiManager manager = create(new MockProvider(), new Records(expected));
+        try {
+            MultiZoneListing listing = manager.getApi().listResourceRecordSetsInZones(zones, 2,
+                    Double.POSITIVE_INFINITY);
+            Multimap<String, ResourceRecordSet<?>> actual = LinkedHashMultimap.create();
+            while (listing.hasNext()) {
+                Entry<String, ResourceRecordSet<?>> entry = listing.next();
+                actual.put(entry.getKey(), entry.getValue());
+            }
+            assertEquals(actual, expected);
+            assertTrue(listing.getFailures().isEmpty());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void failedZoneDoesntAbortOthers() throws IOException {
+        final DNSApiManager manager = create(new MockProvider());
+        try {
+            final IllegalArgumentException notFound = new IllegalArgumentException("zone bad.io. not found");
+            ResourceRecordSetApi.Factory factory = new ResourceRecordSetApi.Factory() {
+
+                @Override
+                public ResourceRecordSetApi create(String zoneName) {
+                    if (zoneName.equals("bad.io."))
+                        throw notFound;
+                    return manager.getApi().getResourceRecordSetApiForZone(zoneName);
+                }
+
+            };
+            MultiZoneListing listing = new MultiZoneListing(factory, ImmutableList.of("bad.io.", "denominator.io."),
+                    2, 10);
+            int denominatorIo = ImmutableList.copyOf(
+                    manager.getApi().getResourceRecordSetApiForZone("denominator.io.").list()).size();
+            assertEquals(ImmutableList.copyOf(listing).size(), denominatorIo);
+            assertEquals(listing.getFailures(), ImmutableMap.of("bad.io.", notFound));
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void zoneFailingWithErrorDoesntBlockReader() throws IOException {
+        final DNSApiManager manager = create(new MockProvider());
+        try {
+            final AssertionError error = new AssertionError("bad.io.");
+            ResourceRecordSetApi.Factory factory = new ResourceRecordSetApi.Factory() {
+
+                @Override
+                public ResourceRecordSetApi create(String zoneName) {
+                    if (zoneName.equals("bad.io."))
+                        throw error;
+                    return manager.getApi().getResourceRecordSetApiForZone(zoneName);
+                }
+
+            };
+            MultiZoneListing listing = new MultiZoneListing(factory, ImmutableList.of("bad.io.", "denominator.io."),
+                    2, Double.POSITIVE_INFINITY);
+            assertFalse(ImmutableList.copyOf(listing).isEmpty());
+            assertEquals(listing.getFailures(), ImmutableMap.of("bad.io.", error));
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void zoneStopsWhenReaderStallsWithoutClosing() throws Exception {
+        Multimap<String, ResourceRecordSet<?>> records = LinkedHashMultimap.create();
+        for (int i = 0; i < MultiZoneListing.BUFFER_SIZE * 2; i++)
+            records.put("a.io.", a("www" + i + ".a.io.", "192.0.2.1"));
+        final DNSApiManager manager = create(new MockProvider(), new Records(records));
+        try {
+            ResourceRecordSetApi.Factory factory = new ResourceRecordSetApi.Factory() {
+
+                @Override
+                public ResourceRecordSetApi create(String zoneName) {
+                    return manager.getApi().getResourceRecordSetApiForZone(zoneName);
+                }
+
+            };
+            MultiZoneListing listing = new MultiZoneListing(factory, ImmutableList.of("a.io."), 1,
+                    Double.POSITIVE_INFINITY, 100, MILLISECONDS);
+            listing.next();
+            for (int i = 0; i < 100 && listing.getFailures().isEmpty(); i++)
+                Thread.sleep(50);
+            assertTrue(listing.getFailures().get("a.io.") instanceof TimeoutException);
+
+            // what was buffered before the zone stopped is still read
+            assertTrue(ImmutableList.copyOf(listing).size() < MultiZoneListing.BUFFER_SIZE * 2 - 1);
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void closeStopsListing() throws IOException {
+        Multimap<String, ResourceRecordSet<?>> records = LinkedHashMultimap.create();
+        for (int i = 0; i < MultiZoneListing.BUFFER_SIZE * 2; i++)
+            records.put("a.io.", a("www" + i + ".a.io.", "192.0.2.1"));
+        DNSApiManager manager = create(new MockProvider(), new Records(records));
+        try {
+            MultiZoneListing listing = manager.getApi().listResourceRecordSetsInZones(ImmutableList.of("a.io."), 1,
+                    1);
+            assertTrue(listing.hasNext());
+            listing.next();
+            listing.close();
+            assertFalse(listing.hasNext());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "parallelism must be positive: 0")
+    public void parallelismMustBePositive() throws IOException {
+        DNSApiManager manager = create(new MockProvider());
+        try {
+            manager.getApi().listResourceRecordSetsInZones(ImmutableList.of("denominator.io."), 0, 1);
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Module(entryPoints = DNSApiManager.class, complete = false, overrides = true)
+    static class Records {
+        private final Multimap<String, ResourceRecordSet<?>> records;
+
+        Records(Multimap<String, ResourceRecordSet<?>> records) {
+            this.records = records;
+        }
+
+        // wildcard types are not currently injectable in dagger
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        @Provides
+        @Singleton
+        Multimap<String, ResourceRecordSet> provideRecords() {
+            ListMultimap<String, ResourceRecordSet<?>> copy = LinkedListMultimap.create(records);
+            return Multimap.class.cast(synchronizedListMultimap(copy));
+        }
+    }
+}
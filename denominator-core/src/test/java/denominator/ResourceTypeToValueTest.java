@@ -1,6 +1,7 @@
 package denominator;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 
 import org.testng.annotations.Test;
 
@@ -20,4 +21,32 @@ public class ResourceTypeToValueTest {
     public void testNormalCase() {
         assertEquals(new ResourceTypeToValue().apply("AAAA"), "28");
     }
+
+    @Test
+    public void testPrimitiveLookupsInBothDirections() {
+        assertEquals(ResourceTypeToValue.typeValue("AAAA"), 28);
+        assertEquals(ResourceTypeToValue.typeName(28), "AAAA");
+        assertNull(ResourceTypeToValue.typeName(65535));
+        assertNull(ResourceTypeToValue.typeName(-1));
+    }
+
+    // registers globally, so must run after the test which lists all types
+    @Test(dependsOnMethods = "testNiceExceptionOnNotFound")
+    public void testRegisterAddsType() {
+        ResourceTypeToValue.register("CAA", 257);
+        ResourceTypeToValue.register("CAA", 257);
+        assertEquals(ResourceTypeToValue.typeValue("CAA"), 257);
+        assertEquals(ResourceTypeToValue.typeName(257), "CAA");
+        assertEquals(new ResourceTypeToValue().inverse().get(257), "CAA");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "A is already registered as 1")
+    public void testRegisterDoesntReplaceName() {
+        ResourceTypeToValue.register("A", 100);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "1 is already registered as A")
+    public void testRegisterDoesntReplaceValue() {
+        ResourceTypeToValue.register("B", 1);
+    }
 }
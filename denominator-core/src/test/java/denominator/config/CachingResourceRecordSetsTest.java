@@ -0,0 +1,133 @@
+package denominator.config;
+
+import static denominator.Denominator.create;
+import static denominator.model.ResourceRecordSets.a;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import denominator.DNSApiManager;
+import denominator.ResourceRecordSetApi;
+import denominator.mock.MockProvider;
+import denominator.model.ResourceRecordSet;
+
+public class CachingResourceRecordSetsTest {
+
+    @Test
+    public void repeatedQueriesAreServedFromCache() throws IOException {
+        CachingResourceRecordSets caching = new CachingResourceRecordSets();
+        DNSApiManager manager = create(new MockProvider(), caching);
+        try {
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            assertEquals(api.getByNameAndType("www1.denominator.io.", "A"),
+                    api.getByNameAndType("www1.denominator.io.", "A"));
+            assertEquals(ImmutableList.copyOf(api.listByName("www1.denominator.io.")),
+                    ImmutableList.copyOf(api.listByName("www1.denominator.io.")));
+            assertEquals(caching.stats().missCount(), 2);
+            assertEquals(caching.stats().hitCount(), 2);
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void writesInvalidate() throws Exception {
+        CachingResourceRecordSets caching = new CachingResourceRecordSets();
+        DNSApiManager manager = create(new MockProvider(), caching);
+        try {
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            assertFalse(api.getByNameAndType("cached.denominator.io.", "A").isPresent());
+
+            api.add(a("cached.denominator.io.", 3600, "192.0.2.1"));
+            assertEquals(api.getByNameAndType("cached.denominator.io.", "A").get(),
+                    a("cached.denominator.io.", 3600, "192.0.2.1"));
+
+            manager.getApi().getAsyncResourceRecordSetApiForZone("denominator.io.")
+                    .replace(a("cached.denominator.io.", 3600, "192.0.2.2")).get();
+            assertEquals(ImmutableList.copyOf(api.listByName("cached.denominator.io.")),
+                    ImmutableList.of(a("cached.denominator.io.", 3600, "192.0.2.2")));
+
+            manager.getApi().getResourceRecordSetBatchForZone("denominator.io.")
+                    .deleteByNameAndType("cached.denominator.io.", "A").commit();
+            assertFalse(api.getByNameAndType("cached.denominator.io.", "A").isPresent());
+            assertFalse(api.listByName("cached.denominator.io.").hasNext());
+            assertEquals(caching.stats().hitCount(), 0);
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void valueLoadedDuringWriteIsNotKept() throws Exception {
+        DNSApiManager manager = create(new MockProvider());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final ResourceRecordSetApi mock = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            final CountDownLatch loaded = new CountDownLatch(1);
+            final CountDownLatch written = new CountDownLatch(1);
+            ResourceRecordSetApi slowReads = (ResourceRecordSetApi) Proxy.newProxyInstance(
+                    ResourceRecordSetApi.class.getClassLoader(), new Class<?>[] { ResourceRecordSetApi.class },
+                    new InvocationHandler() {
+
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            Object result = method.invoke(mock, args);
+                            if (method.getName().equals("getByNameAndType")) {
+                                loaded.countDown();
+                                written.await();
+                            }
+                            return result;
+                        }
+                    });
+
+            final ResourceRecordSetApi api = new CachingResourceRecordSets().provideResourceRecordSetDecorator()
+                    .decorate("denominator.io.", slowReads);
+            Future<Optional<ResourceRecordSet<?>>> stale = executor.submit(
+                    new Callable<Optional<ResourceRecordSet<?>>>() {
+                        public Optional<ResourceRecordSet<?>> call() {
+                            return api.getByNameAndType("www1.denominator.io.", "A");
+                        }
+                    });
+            loaded.await();
+            api.replace(a("www1.denominator.io.", 3600, "192.0.2.9"));
+            written.countDown();
+
+            assertEquals(stale.get().get().getTTL(), Optional.of(3600));
+            assertEquals(api.getByNameAndType("www1.denominator.io.", "A").get(),
+                    a("www1.denominator.io.", 3600, "192.0.2.9"));
+        } finally {
+            executor.shutdownNow();
+            manager.close();
+        }
+    }
+
+    @Test
+    public void sizeBoundEvicts() throws IOException {
+        CachingResourceRecordSets caching = new CachingResourceRecordSets("maximumSize=1");
+        DNSApiManager manager = create(new MockProvider(), caching);
+        try {
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            api.getByNameAndType("www1.denominator.io.", "A");
+            api.getByNameAndType("www2.denominator.io.", "A");
+            api.getByNameAndType("www1.denominator.io.", "A");
+            assertEquals(caching.stats().missCount(), 3);
+            assertEquals(caching.stats().evictionCount(), 2);
+        } finally {
+            manager.close();
+        }
+    }
+}
@@ -1,18 +1,29 @@
 package denominator.mock;
 
+import static com.google.common.base.Predicates.and;
 import static denominator.Denominator.create;
 import static denominator.Denominator.listProviders;
+import static denominator.model.ResourceRecordSets.a;
+import static denominator.model.ResourceRecordSets.nameEqualTo;
+import static denominator.model.ResourceRecordSets.ttlGreaterThan;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
+import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 
+import denominator.AsyncResourceRecordSetApi;
+import denominator.DNSApiManager;
 import denominator.Provider;
+import denominator.ResourceRecordSetApi;
 
 public class MockProviderTest {
     private static final Provider PROVIDER = new MockProvider();
@@ -34,4 +45,72 @@ public class MockProviderTest {
         assertEquals(create(PROVIDER).getApi().getZoneApi().getClass(), MockZoneApi.class);
         assertEquals(create("mock").getApi().getZoneApi().getClass(), MockZoneApi.class);
     }
+
+    @Test
+    public void testAsyncResourceRecordSetApi() throws Exception {
+        DNSApiManager manager = create(PROVIDER);
+        AsyncResourceRecordSetApi api = manager.getApi().getAsyncResourceRecordSetApiForZone("denominator.io.");
+        api.add(a("async.denominator.io.", 3600, "192.0.2.1")).get();
+        assertEquals(api.getByNameAndType("async.denominator.io.", "A").get().get(),
+                a("async.denominator.io.", 3600, "192.0.2.1"));
+        api.deleteByNameAndType("async.denominator.io.", "A").get();
+        assertFalse(api.getByNameAndType("async.denominator.io.", "A").get().isPresent());
+        manager.close();
+    }
+
+    @Test
+    public void testResourceRecordSetBatch() throws IOException {
+        DNSApiManager manager = create(PROVIDER);
+        manager.getApi().getResourceRecordSetBatchForZone("denominator.io.")
+                        .add(a("batch.denominator.io.", 3600, "192.0.2.1"))
+                        .add(a("batch.denominator.io.", "198.51.100.1"))
+                        .replace(a("batch1.denominator.io.", 3600, "192.0.2.1"))
+                        .deleteByNameAndType("batch1.denominator.io.", "A")
+                        .commit();
+        ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+        assertEquals(api.getByNameAndType("batch.denominator.io.", "A").get(),
+                a("batch.denominator.io.", 3600, ImmutableList.of("192.0.2.1", "198.51.100.1")));
+        assertFalse(api.getByNameAndType("batch1.denominator.io.", "A").isPresent());
+        api.deleteByNameAndType("batch.denominator.io.", "A");
+        manager.close();
+    }
+
+    @Test
+    public void testResourceRecordSetBatchApplyTTL() throws IOException {
+        DNSApiManager manager = create(PROVIDER);
+        ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+        api.add(a("ttl.denominator.io.", 3600, "192.0.2.1"));
+        api.add(a("ttl1.denominator.io.", 3600, "192.0.2.1"));
+        api.add(a("ttl2.denominator.io.", 60, "192.0.2.1"));
+        manager.getApi().getResourceRecordSetBatchForZone("denominator.io.")
+                        .applyTTL(300, and(ttlGreaterThan(300), nameEqualTo("ttl1.denominator.io.")))
+                        .applyTTL(300, and(ttlGreaterThan(300), nameEqualTo("ttl2.denominator.io.")))
+                        .applyTTLToNameAndType(600, "ttl.denominator.io.", "A")
+                        .commit();
+        assertEquals(api.getByNameAndType("ttl.denominator.io.", "A").get().getTTL().get(), Integer.valueOf(600));
+        assertEquals(api.getByNameAndType("ttl1.denominator.io.", "A").get().getTTL().get(), Integer.valueOf(300));
+        assertEquals(api.getByNameAndType("ttl2.denominator.io.", "A").get().getTTL().get(), Integer.valueOf(60));
+        for (String name : ImmutableList.of("ttl.denominator.io.", "ttl1.denominator.io.", "ttl2.denominator.io."))
+            api.deleteByNameAndType(name, "A");
+        manager.close();
+    }
+
+    @Test
+    public void testResourceRecordSetBatchApplyTTLSkipsZoneApex() throws IOException {
+        DNSApiManager manager = create(PROVIDER);
+        manager.getApi().getResourceRecordSetBatchForZone("denominator.io.")
+                        .applyTTL(300, nameEqualTo("denominator.io.")).commit();
+        ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+        assertEquals(api.getByNameAndType("denominator.io.", "SOA").get().getTTL().get(), Integer.valueOf(3600));
+        assertEquals(api.getByNameAndType("denominator.io.", "NS").get().getTTL().get(), Integer.valueOf(86400));
+        manager.close();
+    }
+
+    @Test(expectedExceptions = RejectedExecutionException.class)
+    public void testCloseShutsDownAsyncExecutor() throws IOException {
+        DNSApiManager manager = create(PROVIDER);
+        manager.close();
+        manager.getApi().getAsyncResourceRecordSetApiForZone("denominator.io.").deleteByNameAndType(
+                "async.denominator.io.", "A");
+    }
 }
@@ -0,0 +1,107 @@
+package denominator.mock;
+
+import static denominator.model.ResourceRecordSets.a;
+import static denominator.model.ResourceRecordSets.cname;
+import static denominator.model.ResourceRecordSets.ns;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+import denominator.model.ResourceRecordSet;
+
+@Test
+public class MockRecordStoreTest {
+
+    static MockRecordStore store() {
+        return MockRecordStore.create().putAll("denominator.io.", ImmutableList.<ResourceRecordSet<?>> of(
+                cname("www.denominator.io.", "www1.denominator.io."),
+                a("www2.denominator.io.", "192.0.2.2"),
+                a("www.denominator.io.", "192.0.2.1"),
+                ns("denominator.io.", "ns1.denominator.io.")).iterator());
+    }
+
+    public void listsOrderedByNameThenType() {
+        assertEquals(ImmutableList.copyOf(store().list("denominator.io.")), ImmutableList.of(
+                ns("denominator.io.", "ns1.denominator.io."),
+                a("www.denominator.io.", "192.0.2.1"),
+                cname("www.denominator.io.", "www1.denominator.io."),
+                a("www2.denominator.io.", "192.0.2.2")));
+    }
+
+    public void listByNameDoesntIncludeNamesWithTheSamePrefix() {
+        MockRecordStore store = store();
+        assertEquals(ImmutableList.copyOf(store.listByName("denominator.io.", "www.denominator.io.")),
+                ImmutableList.of(a("www.denominator.io.", "192.0.2.1"),
+                        cname("www.denominator.io.", "www1.denominator.io.")));
+        assertEquals(ImmutableList.copyOf(store.listByNameAndType("denominator.io.", "www.denominator.io.", "A")),
+                ImmutableList.of(a("www.denominator.io.", "192.0.2.1")));
+    }
+
+    public void getAndDeleteByNameAndType() {
+        MockRecordStore store = store();
+        assertEquals(store.getByNameAndType("denominator.io.", "www2.denominator.io.", "A").get(),
+                a("www2.denominator.io.", "192.0.2.2"));
+        store.deleteByNameAndType("denominator.io.", "www2.denominator.io.", "A");
+        assertFalse(store.getByNameAndType("denominator.io.", "www2.denominator.io.", "A").isPresent());
+        assertFalse(store.getByNameAndType("other.io.", "www2.denominator.io.", "A").isPresent());
+    }
+
+    public void readZoneFileResolvesRelativeNames() {
+        MockRecordStore store = MockRecordStore.create().readZoneFile("denominator.io.", new StringReader(
+                Joiner.on('\n').join(
+                        "$TTL 3600",
+                        "@ IN NS ns1",
+                        "www IN A 192.0.2.1",
+                        "")));
+        assertEquals(store.getZoneNames(), ImmutableSet.of("denominator.io."));
+        assertEquals(store.getByNameAndType("denominator.io.", "www.denominator.io.", "A").get(),
+                a("www.denominator.io.", 3600, "192.0.2.1"));
+        assertEquals(store.getByNameAndType("denominator.io.", "denominator.io.", "NS").get(),
+                ns("denominator.io.", 3600, "ns1.denominator.io."));
+    }
+
+    public void readZoneFileMergesNonAdjacentRecords() {
+        MockRecordStore store = store().readZoneFile("denominator.io.", new StringReader(
+                Joiner.on('\n').join(
+                        "$TTL 3600",
+                        "www IN A 192.0.2.3",
+                        "www2 IN A 192.0.2.4",
+                        "www 60 IN A 192.0.2.5",
+                        "")));
+        ResourceRecordSet<?> www = store.getByNameAndType("denominator.io.", "www.denominator.io.", "A").get();
+        assertEquals(www, a("www.denominator.io.", 3600, ImmutableList.of("192.0.2.3", "192.0.2.5")));
+        assertEquals(www.getTTL().get(), Integer.valueOf(3600));
+        assertEquals(store.getByNameAndType("denominator.io.", "www2.denominator.io.", "A").get(),
+                a("www2.denominator.io.", "192.0.2.4"));
+    }
+
+    public void saveThenLoadIsLossless() throws IOException {
+        File directory = Files.createTempDir();
+        try {
+            MockRecordStore store = store().createZone("empty.io.");
+            store.save(directory);
+            store.save(directory);
+
+            MockRecordStore loaded = MockRecordStore.load(directory);
+            assertEquals(loaded.getZoneNames(), ImmutableSet.of("denominator.io.", "empty.io."));
+            assertEquals(ImmutableList.copyOf(loaded.list("denominator.io.")),
+                    ImmutableList.copyOf(store.list("denominator.io.")));
+            assertFalse(loaded.list("empty.io.").hasNext());
+        } finally {
+            for (File file : directory.listFiles())
+                assertTrue(file.delete());
+            assertTrue(directory.delete());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package denominator.mock;
+
+import static denominator.model.ResourceRecordSets.a;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+import denominator.DNSApiManager;
+import denominator.Denominator;
+import denominator.ResourceRecordSetApi;
+
+@Test
+public class PersistentMockRecordsTest {
+
+    public void seedsFromZoneFileThenSavesOnCloseAndLoadsOnReopen() throws IOException {
+        File directory = Files.createTempDir();
+        File zoneFile = File.createTempFile("denominator.io.", ".zone");
+        try {
+            Files.write(Joiner.on('\n').join(
+                    "$TTL 3600",
+                    "www IN A 192.0.2.1",
+                    ""), zoneFile, Charsets.UTF_8);
+
+            DNSApiManager manager = Denominator.create(new MockProvider(), new PersistentMockRecords(directory)
+                    .zoneFile("denominator.io.", zoneFile));
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            // the zone file, not the usual records
+            assertEquals(api.getByNameAndType("www.denominator.io.", "A").get(),
+                    a("www.denominator.io.", 3600, "192.0.2.1"));
+            assertFalse(api.getByNameAndType("www1.denominator.io.", "A").isPresent());
+            api.add(a("www2.denominator.io.", 3600, "198.51.100.1"));
+            manager.close();
+
+            assertEquals(ImmutableSet.copyOf(directory.list()),
+                    ImmutableSet.of("denominator.io." + MockRecordStore.SNAPSHOT_SUFFIX));
+
+            manager = Denominator.create(new MockProvider(), new PersistentMockRecords(directory));
+            api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            assertEquals(api.getByNameAndType("www.denominator.io.", "A").get(),
+                    a("www.denominator.io.", 3600, "192.0.2.1"));
+            assertEquals(api.getByNameAndType("www2.denominator.io.", "A").get(),
+                    a("www2.denominator.io.", 3600, "198.51.100.1"));
+            assertFalse(api.getByNameAndType("www1.denominator.io.", "A").isPresent());
+            manager.close();
+        } finally {
+            assertTrue(zoneFile.delete());
+            for (File file : directory.listFiles())
+                assertTrue(file.delete());
+            assertTrue(directory.delete());
+        }
+    }
+}
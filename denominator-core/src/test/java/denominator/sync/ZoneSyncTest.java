@@ -0,0 +1,245 @@
+package denominator.sync;
+
+import static denominator.Denominator.create;
+import static denominator.model.ResourceRecordSets.a;
+import static denominator.model.ResourceRecordSets.cname;
+import static denominator.model.ResourceRecordSets.ns;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import dagger.Module;
+import dagger.Provides;
+import denominator.DNSApi;
+import denominator.DNSApiManager;
+import denominator.ResourceRecordSetApi;
+import denominator.mock.MockProvider;
+import denominator.model.ResourceRecordSet;
+import denominator.model.rdata.SOAData;
+import denominator.sync.Change.Action;
+
+public class ZoneSyncTest {
+
+    @Test
+    public void diffOnlyChangesWhatsDifferent() {
+        List<ResourceRecordSet<?>> current = ImmutableList.<ResourceRecordSet<?>> builder()
+                .add(a("a.denominator.io.", 3600, ImmutableList.of("192.0.2.1", "192.0.2.2")))
+                .add(a("b.denominator.io.", 3600, "192.0.2.1"))
+                .add(a("c.denominator.io.", 3600, "192.0.2.1"))
+                .add(cname("c.denominator.io.", 3600, "a.denominator.io."))
+                .add(a("e.denominator.io.", 3600, "192.0.2.1")).build();
+
+        List<ResourceRecordSet<?>> desired = ImmutableList.<ResourceRecordSet<?>> builder()
+                .add(a("a.denominator.io.", ImmutableList.of("192.0.2.2", "192.0.2.1")))
+                .add(a("b.denominator.io.", 300, "192.0.2.1"))
+                .add(cname("c.denominator.io.", 3600, "b.denominator.io."))
+                .add(a("d.denominator.io.", 3600, "192.0.2.1"))
+                .add(a("e.denominator.io.", 3600, "192.0.2.1")).build();
+
+        List<Change> changes = ImmutableList.copyOf(ZoneSync.diff("denominator.io.", current.iterator(),
+                desired.iterator()));
+        assertEquals(Lists.transform(changes, toAction), ImmutableList.of(
+                Action.NONE, Action.REPLACE, Action.DELETE, Action.REPLACE, Action.ADD, Action.NONE));
+        assertEquals(changes.get(2).getCurrent(), Optional.of(current.get(2)));
+        assertEquals(changes.get(3).getDesired(), Optional.of(desired.get(2)));
+        assertEquals(changes.get(4).getName(), "d.denominator.io.");
+    }
+
+    @Test
+    public void diffNeverDeletesSOA() {
+        ResourceRecordSet<?> soa = ResourceRecordSet.<SOAData> builder()
+                                                    .name("denominator.io.")
+                                                    .type("SOA")
+                                                    .ttl(3600)
+                                                    .add(SOAData.builder()
+                                                                .mname("ns1.denominator.io.")
+                                                                .rname("admin.denominator.io.")
+                                                                .serial(1)
+                                                                .refresh(3600)
+                                                                .retry(600)
+                                                                .expire(604800)
+                                                                .minimum(60).build()).build();
+        Iterator<Change> changes = ZoneSync.diff("denominator.io.",
+                ImmutableList.<ResourceRecordSet<?>> of(soa).iterator(),
+                ImmutableList.<ResourceRecordSet<?>> of().iterator());
+        assertEquals(changes.next().getAction(), Action.NONE);
+        assertFalse(changes.hasNext());
+    }
+
+    @Test
+    public void diffNeverDeletesApexNS() {
+        Iterator<Change> changes = ZoneSync.diff("denominator.io.", ImmutableList.<ResourceRecordSet<?>> of(
+                ns("denominator.io.", 86400, "ns1.denominator.io."),
+                ns("sub.denominator.io.", 86400, "ns1.denominator.io.")).iterator(),
+                ImmutableList.<ResourceRecordSet<?>> of().iterator());
+        assertEquals(changes.next().getAction(), Action.NONE);
+        assertEquals(changes.next().getAction(), Action.DELETE);
+        assertFalse(changes.hasNext());
+    }
+
+    @Test
+    public void syncLeavesApexNSMissingFromDesired() throws IOException {
+        DNSApiManager manager = create(new MockProvider());
+        try {
+            List<ResourceRecordSet<?>> desired = ImmutableList.<ResourceRecordSet<?>> builder()
+                    .add(cname("www.denominator.io.", 3600, "www1.denominator.io."))
+                    .add(a("www1.denominator.io.", 3600, ImmutableList.of("192.0.2.1", "192.0.2.2"))).build();
+
+            SyncResult result = ZoneSync.sync(manager.getApi(), "denominator.io.", desired.iterator());
+            assertEquals(result.getAdded(), 0);
+
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            assertEquals(api.getByNameAndType("denominator.io.", "NS").get(),
+                    ns("denominator.io.", 86400, "ns1.denominator.io."));
+            assertTrue(api.getByNameAndType("denominator.io.", "SOA").isPresent());
+            assertFalse(api.getByNameAndType("www2.denominator.io.", "A").isPresent());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "desired record sets must be sorted .*")
+    public void diffFailsOnUnsortedDesired() {
+        List<ResourceRecordSet<?>> desired = ImmutableList.<ResourceRecordSet<?>> of(
+                a("b.denominator.io.", 3600, "192.0.2.1"), a("a.denominator.io.", 3600, "192.0.2.1"));
+        ImmutableList.copyOf(ZoneSync.diff("denominator.io.", ImmutableList.<ResourceRecordSet<?>> of().iterator(),
+                desired.iterator()));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "current record sets must be in the same order .*")
+    public void diffFailsRatherThanDeleteWhenCurrentIsUnsorted() {
+        List<ResourceRecordSet<?>> current = ImmutableList.<ResourceRecordSet<?>> of(
+                a("b.denominator.io.", 3600, "192.0.2.1"), a("a.denominator.io.", 3600, "192.0.2.1"));
+        List<ResourceRecordSet<?>> desired = ImmutableList.<ResourceRecordSet<?>> of(
+                a("a.denominator.io.", 3600, "192.0.2.1"), a("b.denominator.io.", 3600, "192.0.2.1"));
+        ImmutableList.copyOf(ZoneSync.diff("denominator.io.", current.iterator(), desired.iterator()));
+    }
+
+    @Test
+    public void syncAppliesOnlyDifferences() throws IOException {
+        DNSApiManager manager = create(new MockProvider());
+        try {
+            List<ResourceRecordSet<?>> desired = ImmutableList.<ResourceRecordSet<?>> builder()
+                    .add(ns("denominator.io.", 86400, "ns1.denominator.io."))
+                    .add(cname("www.denominator.io.", 3600, "www3.denominator.io."))
+                    .add(a("www1.denominator.io.", 3600, ImmutableList.of("192.0.2.2", "192.0.2.1")))
+                    .add(a("www3.denominator.io.", 3600, "192.0.2.3")).build();
+
+            SyncResult result = ZoneSync.sync(manager.getApi(), "denominator.io.", desired.iterator());
+            assertEquals(result.getAdded(), 1);
+            assertEquals(result.getReplaced(), 1);
+            assertEquals(result.getDeleted(), 1);
+            assertEquals(result.getChanged(), 3);
+            assertEquals(result.getUnchanged(), 3);
+
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            assertEquals(api.getByNameAndType("www.denominator.io.", "CNAME").get(), desired.get(1));
+            assertEquals(api.getByNameAndType("www3.denominator.io.", "A").get(), desired.get(3));
+            assertFalse(api.getByNameAndType("www2.denominator.io.", "A").isPresent());
+            assertEquals(ZoneSync.sync(manager.getApi(), "denominator.io.", desired.iterator()).getChanged(), 0);
+        } finally {
+            manager.close();
+        }
+    }
+
+    /**
+     * lists record sets in reverse, as a provider with its own order would.
+     */
+    @Module(entryPoints = DNSApiManager.class, complete = false, overrides = true)
+    static class ReverseListing {
+        private final DNSApi api;
+
+        ReverseListing(DNSApi api) {
+            this.api = api;
+        }
+
+        @Provides
+        ResourceRecordSetApi.Factory provideResourceRecordSetApiFactory() {
+            return new ResourceRecordSetApi.Factory() {
+
+                @Override
+                public ResourceRecordSetApi create(String zoneName) {
+                    final ResourceRecordSetApi delegate = api.getResourceRecordSetApiForZone(zoneName);
+                    return (ResourceRecordSetApi) Proxy.newProxyInstance(ResourceRecordSetApi.class.getClassLoader(),
+                            new Class<?>[] { ResourceRecordSetApi.class }, new InvocationHandler() {
+
+                                @Override
+                                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                                    try {
+                                        Object result = method.invoke(delegate, args);
+                                        if (!method.getName().equals("list"))
+                                            return result;
+                                        return Lists.reverse(ImmutableList.copyOf((Iterator<?>) result)).iterator();
+                                    } catch (InvocationTargetException e) {
+                                        throw e.getCause();
+                                    }
+                                }
+                            });
+                }
+            };
+        }
+    }
+
+    @Test
+    public void syncDoesntDependOnListingOrDesiredOrder() throws IOException {
+        DNSApiManager mock = create(new MockProvider());
+        DNSApiManager reversed = create(new MockProvider(), new ReverseListing(mock.getApi()));
+        try {
+            List<ResourceRecordSet<?>> desired = ImmutableList.<ResourceRecordSet<?>> builder()
+                    .add(a("www3.denominator.io.", 3600, "192.0.2.3"))
+                    .add(ns("denominator.io.", 86400, "ns1.denominator.io."))
+                    .add(a("www1.denominator.io.", 3600, ImmutableList.of("192.0.2.2", "192.0.2.1")))
+                    .add(cname("www.denominator.io.", 3600, "www3.denominator.io.")).build();
+
+            SyncResult result = ZoneSync.sync(reversed.getApi(), "denominator.io.", desired.iterator());
+            assertEquals(result.getAdded(), 1);
+            assertEquals(result.getReplaced(), 1);
+            assertEquals(result.getDeleted(), 1);
+            assertEquals(result.getUnchanged(), 3);
+
+            ResourceRecordSetApi api = mock.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            assertEquals(api.getByNameAndType("www3.denominator.io.", "A").get(), desired.get(0));
+            assertFalse(api.getByNameAndType("www2.denominator.io.", "A").isPresent());
+        } finally {
+            reversed.close();
+            mock.close();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "desired record sets must be unique .*")
+    public void syncChangesNothingWhenDesiredHasDuplicates() throws IOException {
+        DNSApiManager manager = create(new MockProvider());
+        try {
+            List<ResourceRecordSet<?>> desired = ImmutableList.<ResourceRecordSet<?>> of(
+                    a("www3.denominator.io.", 3600, "192.0.2.3"), a("www3.denominator.io.", 3600, "192.0.2.4"));
+            ZoneSync.sync(manager.getApi(), "denominator.io.", desired.iterator());
+        } finally {
+            ResourceRecordSetApi api = manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            assertFalse(api.getByNameAndType("www3.denominator.io.", "A").isPresent());
+            assertTrue(api.getByNameAndType("www2.denominator.io.", "A").isPresent());
+            manager.close();
+        }
+    }
+
+    static final Function<Change, Action> toAction = new Function<Change, Action>() {
+        @Override
+        public Action apply(Change input) {
+            return input.getAction();
+        }
+    };
+}
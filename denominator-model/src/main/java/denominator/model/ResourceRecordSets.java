@@ -6,6 +6,8 @@ import java.util.Map;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Multimap;
 
 import denominator.model.rdata.AAAAData;
 import denominator.model.rdata.AData;
@@ -90,6 +92,67 @@ public class ResourceRecordSets {
         }
     }
 
+    /**
+     * evaluates to true if the input {@link ResourceRecordSet} exists and its
+     * {@link ResourceRecordSet#getName() name} maps to its
+     * {@link ResourceRecordSet#getType() type} in {@code namesToTypes}.
+     *
+     * @param namesToTypes
+     *            names of the desired record sets, each to one or more types
+     */
+    public static Predicate<ResourceRecordSet<?>> nameAndTypeIn(Multimap<String, String> namesToTypes) {
+        return new NameAndTypeInPredicate(namesToTypes);
+    }
+
+    private static final class NameAndTypeInPredicate implements Predicate<ResourceRecordSet<?>> {
+        private final ImmutableSetMultimap<String, String> namesToTypes;
+
+        public NameAndTypeInPredicate(Multimap<String, String> namesToTypes) {
+            this.namesToTypes = ImmutableSetMultimap.copyOf(checkNotNull(namesToTypes, "namesToTypes"));
+        }
+
+        @Override
+        public boolean apply(ResourceRecordSet<?> input) {
+            if (input == null)
+                return false;
+            return namesToTypes.containsEntry(input.getName(), input.getType());
+        }
+
+        @Override
+        public String toString() {
+            return "NameAndTypeIn(" + namesToTypes + ")";
+        }
+    }
+
+    /**
+     * evaluates to true if the input {@link ResourceRecordSet} exists and its
+     * {@link ResourceRecordSet#getTTL() ttl} is present and greater than
+     * {@code ttl}.
+     */
+    public static Predicate<ResourceRecordSet<?>> ttlGreaterThan(int ttl) {
+        return new TTLGreaterThanPredicate(ttl);
+    }
+
+    private static final class TTLGreaterThanPredicate implements Predicate<ResourceRecordSet<?>> {
+        private final int ttl;
+
+        public TTLGreaterThanPredicate(int ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public boolean apply(ResourceRecordSet<?> input) {
+            if (input == null || !input.getTTL().isPresent())
+                return false;
+            return input.getTTL().get().intValue() > ttl;
+        }
+
+        @Override
+        public String toString() {
+            return "TTLGreaterThan(" + ttl + ")";
+        }
+    }
+
     /**
      * evaluates to true if the input {@link ResourceRecordSet} exists and
      * contains the {@code rdata} specified.
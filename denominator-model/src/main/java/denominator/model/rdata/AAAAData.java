@@ -4,12 +4,13 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.beans.ConstructorProperties;
-import java.net.Inet6Address;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.common.collect.ForwardingMap;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.net.InetAddresses;
+import com.google.common.collect.Maps;
 
 /**
  * Corresponds to the binary representation of the {@code AAAA} (Address) RData
@@ -30,34 +31,83 @@ public class AAAAData extends ForwardingMap<String, Object> {
      *            valid ipv6 address. ex. {@code 1234:ab00:ff00::6b14:abcd}
      * @throws IllegalArgumentException
      *             if the address is malformed or not ipv6
-     * @see InetAddresses#forString(String)
      */
     public static AAAAData create(String ipv6address) throws IllegalArgumentException {
         return new AAAAData(ipv6address);
     }
 
-    private final String address;
+    private final long high;
+    private final long low;
+    /**
+     * formatted on first use, as maps are read and hashed often. Threads may
+     * race to set it, but all format the same string.
+     */
+    private String address;
 
     @ConstructorProperties("address")
     private AAAAData(String ipv6address) {
-        checkArgument(InetAddresses.forString(checkNotNull(ipv6address, "address")) instanceof Inet6Address,
-                "%s should be a ipv6 address", ipv6address);
-        this.address = ipv6address;
-        this.delegate = ImmutableMap.<String, Object> of("address", ipv6address);
+        long[] parsed = new long[2];
+        if (!IPAddresses.parseIPv6(checkNotNull(ipv6address, "address"), parsed)) {
+            checkArgument(IPAddresses.parseIPv4(ipv6address) == IPAddresses.INVALID, "%s should be a ipv6 address",
+                    ipv6address);
+            throw new IllegalArgumentException(String.format("'%s' is not an IP string literal.", ipv6address));
+        }
+        this.high = parsed[0];
+        this.low = parsed[1];
     }
 
     /**
-     * a 128 bit IPv6 address
+     * a 128 bit IPv6 address, in the canonical form of RFC 5952, regardless of
+     * the form it was created with.
      */
     public String getAddress() {
-        return address;
+        String result = address;
+        if (result == null)
+            address = result = IPAddresses.ipv6String(high, low);
+        return result;
     }
 
-    // transient to avoid serializing by default, for example in json
-    private final transient ImmutableMap<String, Object> delegate;
-
     @Override
     protected Map<String, Object> delegate() {
-        return delegate;
+        return ImmutableMap.<String, Object> of("address", getAddress());
+    }
+
+    @Override
+    public Object get(Object key) {
+        return "address".equals(key) ? getAddress() : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return "address".equals(key);
+    }
+
+    @Override
+    public int size() {
+        return 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return Collections.singleton(Maps.<String, Object> immutableEntry("address", getAddress()));
+    }
+
+    @Override
+    public int hashCode() {
+        return Compact.hashEntry("address", getAddress());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof AAAAData) {
+            AAAAData that = AAAAData.class.cast(obj);
+            return high == that.high && low == that.low;
+        }
+        return super.equals(obj);
     }
 }
@@ -4,12 +4,13 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.beans.ConstructorProperties;
-import java.net.Inet4Address;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.common.collect.ForwardingMap;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.net.InetAddresses;
+import com.google.common.collect.Maps;
 
 /**
  * Corresponds to the binary representation of the {@code A} (Address) RData
@@ -30,34 +31,69 @@ public class AData extends ForwardingMap<String, Object> {
      *            valid ipv4 address. ex. {@code 192.0.2.1}
      * @throws IllegalArgumentException
      *             if the address is malformed or not ipv4
-     * @see InetAddresses#forString(String)
      */
     public static AData create(String ipv4address) throws IllegalArgumentException {
         return new AData(ipv4address);
     }
 
-    private final String address;
+    private final int packed;
 
     @ConstructorProperties("address")
     private AData(String ipv4address) {
-        checkArgument(InetAddresses.forString(checkNotNull(ipv4address, "address")) instanceof Inet4Address,
-                "%s should be a ipv4 address", ipv4address);
-        this.address = ipv4address;
-        this.delegate = ImmutableMap.<String, Object> of("address", ipv4address);
+        long parsed = IPAddresses.parseIPv4(checkNotNull(ipv4address, "address"));
+        if (parsed == IPAddresses.INVALID) {
+            checkArgument(!IPAddresses.parseIPv6(ipv4address, new long[2]), "%s should be a ipv4 address", ipv4address);
+            throw new IllegalArgumentException(String.format("'%s' is not an IP string literal.", ipv4address));
+        }
+        this.packed = (int) parsed;
     }
 
     /**
      * a 32-bit internet address
      */
     public String getAddress() {
-        return address;
+        return IPAddresses.ipv4String(packed);
     }
 
-    // transient to avoid serializing by default, for example in json
-    private final transient ImmutableMap<String, Object> delegate;
-
     @Override
     protected Map<String, Object> delegate() {
-        return delegate;
+        return ImmutableMap.<String, Object> of("address", getAddress());
+    }
+
+    @Override
+    public Object get(Object key) {
+        return "address".equals(key) ? getAddress() : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return "address".equals(key);
+    }
+
+    @Override
+    public int size() {
+        return 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return Collections.singleton(Maps.<String, Object> immutableEntry("address", getAddress()));
+    }
+
+    @Override
+    public int hashCode() {
+        return Compact.hashEntry("address", getAddress());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof AData)
+            return packed == AData.class.cast(obj).packed;
+        return super.equals(obj);
     }
 }
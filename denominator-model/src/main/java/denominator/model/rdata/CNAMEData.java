@@ -3,10 +3,13 @@ package denominator.model.rdata;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.beans.ConstructorProperties;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.common.collect.ForwardingMap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 
 /**
  * Corresponds to the binary representation of the {@code CNAME} (Canonical
@@ -30,8 +33,7 @@ public class CNAMEData extends ForwardingMap<String, Object> {
 
     @ConstructorProperties("cname")
     private CNAMEData(String cname) {
-        this.cname = checkNotNull(cname, "cname");
-        this.delegate = ImmutableMap.<String, Object> of("cname", cname);
+        this.cname = Compact.name(checkNotNull(cname, "cname"));
     }
 
     /**
@@ -42,11 +44,45 @@ public class CNAMEData extends ForwardingMap<String, Object> {
         return cname;
     }
 
-    // transient to avoid serializing by default, for example in json
-    private final transient ImmutableMap<String, Object> delegate;
-    
     @Override
     protected Map<String, Object> delegate() {
-        return delegate;
+        return ImmutableMap.<String, Object> of("cname", cname);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return "cname".equals(key) ? cname : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return "cname".equals(key);
+    }
+
+    @Override
+    public int size() {
+        return 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return Collections.singleton(Maps.<String, Object> immutableEntry("cname", cname));
+    }
+
+    @Override
+    public int hashCode() {
+        return Compact.hashEntry("cname", cname);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof CNAMEData)
+            return cname.equals(CNAMEData.class.cast(obj).cname);
+        return super.equals(obj);
     }
 }
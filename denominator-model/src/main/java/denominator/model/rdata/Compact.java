@@ -0,0 +1,35 @@
+package denominator.model.rdata;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * helps rdata hold fields smaller than the map they present. Lookups by key,
+ * {@code size} and, for single-field rdata, {@code entrySet} are answered from
+ * the fields. Other views build a map when accessed, rather than hold one.
+ *
+ * @see IPAddresses
+ */
+final class Compact {
+
+    /**
+     * domain names repeat across record sets, ex. the targets of CNAME or NS
+     * records, so each distinct name is only held once.
+     */
+    private static final Interner<String> NAMES = Interners.newWeakInterner();
+
+    static String name(String name) {
+        return NAMES.intern(name);
+    }
+
+    /**
+     * hash code of a map entry, as defined by {@link java.util.Map.Entry},
+     * without building it.
+     */
+    static int hashEntry(String key, Object value) {
+        return key.hashCode() ^ value.hashCode();
+    }
+
+    private Compact() {
+    }
+}
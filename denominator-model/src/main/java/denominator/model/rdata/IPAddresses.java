@@ -0,0 +1,227 @@
+package denominator.model.rdata;
+
+/**
+ * parses and formats ip addresses to and from their packed forms, without
+ * allocating {@link java.net.InetAddress} instances.
+ *
+ * Parsing accepts what {@link com.google.common.net.InetAddresses#forString}
+ * does: dotted-quad ipv4 addresses without leading zeros, and the textual
+ * forms of ipv6 addresses in RFC 4291, including an embedded ipv4 address.
+ * As there, ipv6 groups may be padded with any number of leading zeros, ex.
+ * {@code 00000::1}.
+ * Formatting ipv6 addresses follows RFC 5952, so addresses parsed from
+ * different textual forms format the same.
+ */
+final class IPAddresses {
+
+    /**
+     * returned by {@link #parseIPv4} when the text isn't a dotted-quad.
+     */
+    static final long INVALID = -1;
+
+    /**
+     * @return the address as an unsigned int, or {@link #INVALID}.
+     */
+    static long parseIPv4(String text) {
+        return parseIPv4(text, 0, text.length());
+    }
+
+    private static long parseIPv4(String text, int start, int end) {
+        long value = 0;
+        int dots = 0;
+        int octet = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // leading zeros could be read as octal, so aren't allowed
+                if (digits > 0 && octet == 0)
+                    return INVALID;
+                octet = octet * 10 + (c - '0');
+                if (octet > 255)
+                    return INVALID;
+                digits++;
+            } else if (c == '.') {
+                if (digits == 0 || ++dots > 3)
+                    return INVALID;
+                value = value << 8 | octet;
+                octet = 0;
+                digits = 0;
+            } else {
+                return INVALID;
+            }
+        }
+        if (digits == 0 || dots != 3)
+            return INVALID;
+        return value << 8 | octet;
+    }
+
+    /**
+     * @param out
+     *            receives the high and low 64 bits of the address, if valid.
+     * @return false if the text isn't an ipv6 address.
+     */
+    static boolean parseIPv6(String text, long[] out) {
+        int length = text.length();
+        if (length < 2)
+            return false;
+        // groups before "::", or all groups if it is absent
+        long headHigh = 0, headLow = 0;
+        int headGroups = 0;
+        // groups after "::"
+        long tailHigh = 0, tailLow = 0;
+        int tailGroups = 0;
+        boolean skipped = false;
+        int i = 0;
+        if (text.charAt(0) == ':') {
+            if (text.charAt(1) != ':')
+                return false;
+            skipped = true;
+            i = 2;
+        }
+        while (i < length) {
+            int start = i;
+            int group = 0;
+            // like InetAddresses, a group may have any number of leading zeros
+            while (i < length) {
+                int digit = hexDigit(text.charAt(i));
+                if (digit == -1)
+                    break;
+                if (group <= 0xffff)
+                    group = group << 4 | digit;
+                i++;
+            }
+            int groups;
+            long high, low;
+            if (i < length && text.charAt(i) == '.') {
+                // an embedded ipv4 address ends the text, and is two groups
+                long ipv4 = parseIPv4(text, start, length);
+                if (ipv4 == INVALID)
+                    return false;
+                i = length;
+                groups = 2;
+                high = 0;
+                low = ipv4;
+            } else {
+                if (i == start || group > 0xffff)
+                    return false;
+                groups = 1;
+                high = 0;
+                low = group;
+            }
+            if (skipped) {
+                tailHigh = shift(tailHigh, tailLow, groups) | high;
+                tailLow = tailLow << 16 * groups | low;
+                tailGroups += groups;
+            } else {
+                headHigh = shift(headHigh, headLow, groups) | high;
+                headLow = headLow << 16 * groups | low;
+                headGroups += groups;
+            }
+            if (headGroups + tailGroups > 8)
+                return false;
+            if (i == length)
+                break;
+            if (text.charAt(i++) != ':' || i == length)
+                return false;
+            if (text.charAt(i) == ':') {
+                if (skipped)
+                    return false;
+                skipped = true;
+                i++;
+            }
+        }
+        int skippedGroups = 8 - headGroups - tailGroups;
+        if (skipped ? skippedGroups < 1 : skippedGroups != 0)
+            return false;
+        // move the head above the groups "::" stands for and the tail
+        for (int shifts = skippedGroups + tailGroups; shifts > 0; shifts--) {
+            headHigh = shift(headHigh, headLow, 1);
+            headLow = headLow << 16;
+        }
+        out[0] = headHigh | tailHigh;
+        out[1] = headLow | tailLow;
+        return true;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        if (c >= 'a' && c <= 'f')
+            return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F')
+            return c - 'A' + 10;
+        return -1;
+    }
+
+    /**
+     * high 64 bits of the 128 bit value {@code high, low} shifted left by
+     * {@code groups} 16-bit groups, where groups is 1 or 2.
+     */
+    private static long shift(long high, long low, int groups) {
+        return high << 16 * groups | low >>> 64 - 16 * groups;
+    }
+
+    static String ipv4String(int packed) {
+        return new StringBuilder(15).append(packed >>> 24).append('.')
+                                    .append(packed >>> 16 & 0xff).append('.')
+                                    .append(packed >>> 8 & 0xff).append('.')
+                                    .append(packed & 0xff).toString();
+    }
+
+    /**
+     * formats as RFC 5952: lower-case hex without leading zeros, where the
+     * longest run of two or more zero groups, or the first of equal runs, is
+     * replaced with {@code ::}.
+     */
+    static String ipv6String(long high, long low) {
+        int runStart = -1, runLength = 0;
+        for (int i = 0, start = -1; i <= 8; i++) {
+            if (i < 8 && group(high, low, i) == 0) {
+                if (start == -1)
+                    start = i;
+            } else if (start != -1) {
+                if (i - start > runLength) {
+                    runStart = start;
+                    runLength = i - start;
+                }
+                start = -1;
+            }
+        }
+        if (runLength < 2) {
+            runStart = -1;
+            runLength = 0;
+        }
+        StringBuilder builder = new StringBuilder(39);
+        for (int i = 0; i < 8; i++) {
+            if (i == runStart) {
+                builder.append("::");
+                i += runLength - 1;
+                continue;
+            }
+            if (i > 0 && i != runStart + runLength)
+                builder.append(':');
+            appendHex(builder, group(high, low, i));
+        }
+        return builder.toString();
+    }
+
+    private static int group(long high, long low, int index) {
+        long half = index < 4 ? high : low;
+        return (int) (half >>> 48 - 16 * (index % 4)) & 0xffff;
+    }
+
+    private static void appendHex(StringBuilder builder, int group) {
+        boolean leading = true;
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            int digit = group >>> shift & 0xf;
+            if (leading && digit == 0 && shift > 0)
+                continue;
+            leading = false;
+            builder.append(Character.forDigit(digit, 16));
+        }
+    }
+
+    private IPAddresses() {
+    }
+}
@@ -34,10 +34,7 @@ public class MXData extends ForwardingMap<String, Object> {
     private MXData(int preference, String exchange) {
         checkArgument(preference <= 0xFFFF, "preference must be 65535 or less");
         this.preference = preference;
-        this.exchange = checkNotNull(exchange, "exchange");
-        this.delegate = ImmutableMap.<String, Object> builder()
-                                    .put("preference", preference)
-                                    .put("exchange", exchange).build();
+        this.exchange = Compact.name(checkNotNull(exchange, "exchange"));
     }
 
     /**
@@ -56,11 +53,48 @@ public class MXData extends ForwardingMap<String, Object> {
         return exchange;
     }
 
-    // transient to avoid serializing by default, for example in json
-    private final transient ImmutableMap<String, Object> delegate;
-    
     @Override
     protected Map<String, Object> delegate() {
-        return delegate;
+        return ImmutableMap.<String, Object> builder()
+                           .put("preference", preference)
+                           .put("exchange", exchange).build();
+    }
+
+    @Override
+    public Object get(Object key) {
+        if ("preference".equals(key))
+            return preference;
+        if ("exchange".equals(key))
+            return exchange;
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return 2;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Compact.hashEntry("preference", preference) + Compact.hashEntry("exchange", exchange);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof MXData) {
+            MXData that = MXData.class.cast(obj);
+            return preference == that.preference && exchange.equals(that.exchange);
+        }
+        return super.equals(obj);
     }
 }
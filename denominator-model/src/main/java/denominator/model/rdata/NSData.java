@@ -3,10 +3,13 @@ package denominator.model.rdata;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.beans.ConstructorProperties;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.common.collect.ForwardingMap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 
 /**
  * Corresponds to the binary representation of the {@code NS} (Name Server)
@@ -30,8 +33,7 @@ public class NSData extends ForwardingMap<String, Object> {
 
     @ConstructorProperties("nsdname")
     private NSData(String nsdname) {
-        this.nsdname = checkNotNull(nsdname, "nsdname");
-        this.delegate = ImmutableMap.<String, Object> of("nsdname", nsdname);
+        this.nsdname = Compact.name(checkNotNull(nsdname, "nsdname"));
     }
 
     /**
@@ -42,11 +44,45 @@ public class NSData extends ForwardingMap<String, Object> {
         return nsdname;
     }
 
-    // transient to avoid serializing by default, for example in json
-    private final transient ImmutableMap<String, Object> delegate;
-    
     @Override
     protected Map<String, Object> delegate() {
-        return delegate;
+        return ImmutableMap.<String, Object> of("nsdname", nsdname);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return "nsdname".equals(key) ? nsdname : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return "nsdname".equals(key);
+    }
+
+    @Override
+    public int size() {
+        return 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return Collections.singleton(Maps.<String, Object> immutableEntry("nsdname", nsdname));
+    }
+
+    @Override
+    public int hashCode() {
+        return Compact.hashEntry("nsdname", nsdname);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof NSData)
+            return nsdname.equals(NSData.class.cast(obj).nsdname);
+        return super.equals(obj);
     }
 }
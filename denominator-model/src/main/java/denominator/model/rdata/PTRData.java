@@ -3,10 +3,13 @@ package denominator.model.rdata;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.beans.ConstructorProperties;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.common.collect.ForwardingMap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 
 /**
  * Corresponds to the binary representation of the {@code PTR} (Pointer) RData
@@ -29,8 +32,7 @@ public class PTRData extends ForwardingMap<String, Object> {
 
     @ConstructorProperties("ptrdname")
     private PTRData(String ptrdname) {
-        this.ptrdname = checkNotNull(ptrdname, "ptrdname");
-        this.delegate = ImmutableMap.<String, Object> of("ptrdname", ptrdname);
+        this.ptrdname = Compact.name(checkNotNull(ptrdname, "ptrdname"));
     }
 
     /**
@@ -40,11 +42,45 @@ public class PTRData extends ForwardingMap<String, Object> {
         return ptrdname;
     }
 
-    // transient to avoid serializing by default, for example in json
-    private final transient ImmutableMap<String, Object> delegate;
-    
     @Override
     protected Map<String, Object> delegate() {
-        return delegate;
+        return ImmutableMap.<String, Object> of("ptrdname", ptrdname);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return "ptrdname".equals(key) ? ptrdname : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return "ptrdname".equals(key);
+    }
+
+    @Override
+    public int size() {
+        return 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return Collections.singleton(Maps.<String, Object> immutableEntry("ptrdname", ptrdname));
+    }
+
+    @Override
+    public int hashCode() {
+        return Compact.hashEntry("ptrdname", ptrdname);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PTRData)
+            return ptrdname.equals(PTRData.class.cast(obj).ptrdname);
+        return super.equals(obj);
     }
 }
@@ -39,12 +39,7 @@ public class SRVData extends ForwardingMap<String, Object> {
         this.priority = priority;
         this.weight = weight;
         this.port = port;
-        this.target = checkNotNull(target, "target");
-        this.delegate = ImmutableMap.<String, Object> builder()
-                                    .put("priority", priority)
-                                    .put("weight", weight)
-                                    .put("port", port)
-                                    .put("target", target).build();
+        this.target = Compact.name(checkNotNull(target, "target"));
     }
 
     /**
@@ -136,11 +131,56 @@ public class SRVData extends ForwardingMap<String, Object> {
         return new Builder();
     }
 
-    // transient to avoid serializing by default, for example in json
-    private final transient ImmutableMap<String, Object> delegate;
-    
     @Override
     protected Map<String, Object> delegate() {
-        return delegate;
+        return ImmutableMap.<String, Object> builder()
+                           .put("priority", priority)
+                           .put("weight", weight)
+                           .put("port", port)
+                           .put("target", target).build();
+    }
+
+    @Override
+    public Object get(Object key) {
+        if ("priority".equals(key))
+            return priority;
+        if ("weight".equals(key))
+            return weight;
+        if ("port".equals(key))
+            return port;
+        if ("target".equals(key))
+            return target;
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return 4;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Compact.hashEntry("priority", priority) + Compact.hashEntry("weight", weight)
+                + Compact.hashEntry("port", port) + Compact.hashEntry("target", target);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof SRVData) {
+            SRVData that = SRVData.class.cast(obj);
+            return priority == that.priority && weight == that.weight && port == that.port
+                    && target.equals(that.target);
+        }
+        return super.equals(obj);
     }
 }
@@ -0,0 +1,191 @@
+package denominator.model.snapshot;
+
+import static denominator.model.snapshot.SnapshotFormat.PROFILE_GEO;
+import static denominator.model.snapshot.SnapshotFormat.PROFILE_MAP;
+import static denominator.model.snapshot.SnapshotFormat.RECORD_SET;
+import static denominator.model.snapshot.SnapshotFormat.TYPED;
+import static denominator.model.snapshot.SnapshotFormat.VALUE_INT;
+import static denominator.model.snapshot.SnapshotFormat.VALUE_STRING;
+import static java.lang.String.format;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+
+import denominator.model.ResourceRecordSet;
+import denominator.model.ResourceRecordSet.Builder;
+import denominator.model.profile.Geo;
+import denominator.model.rdata.AAAAData;
+import denominator.model.rdata.AData;
+import denominator.model.rdata.CNAMEData;
+import denominator.model.rdata.MXData;
+import denominator.model.rdata.NSData;
+import denominator.model.rdata.PTRData;
+import denominator.model.rdata.SOAData;
+import denominator.model.rdata.SPFData;
+import denominator.model.rdata.SRVData;
+import denominator.model.rdata.SSHFPData;
+import denominator.model.rdata.TXTData;
+
+/**
+ * decodes record sets from a channel or a mapped file.
+ *
+ * @see SnapshotFormat
+ */
+abstract class Decoder {
+
+    abstract int readByte();
+
+    abstract void readBytes(byte[] destination, int count);
+
+    /**
+     * reads a reference to the string table, and the string's definition, if
+     * it follows.
+     */
+    abstract String readString();
+
+    /**
+     * reads the record set after its {@link SnapshotFormat#RECORD_SET} tag.
+     */
+    ResourceRecordSet<?> readRecordSet() {
+        String name = readString();
+        String type = readString();
+        Builder<Map<String, Object>> builder = ResourceRecordSet.builder().name(name).type(type);
+        long ttl = readVarint();
+        if (ttl > 0)
+            builder.ttl((int) (ttl - 1));
+        for (int i = readCount(); i > 0; i--)
+            builder.addProfile(readProfile());
+        boolean typed = readByte() == TYPED;
+        for (int i = readCount(); i > 0; i--)
+            builder.add(typed ? readTyped(type) : readMap());
+        return builder.build();
+    }
+
+    private Map<String, Object> readTyped(String type) {
+        if ("A".equals(type)) {
+            return AData.create(new StringBuilder(15).append(readByte()).append('.').append(readByte()).append('.')
+                    .append(readByte()).append('.').append(readByte()).toString());
+        } else if ("AAAA".equals(type)) {
+            // not InetAddress, as it turns ipv4-mapped addresses into ipv4
+            StringBuilder address = new StringBuilder(39);
+            for (int i = 0; i < 8; i++) {
+                if (i > 0)
+                    address.append(':');
+                address.append(Integer.toHexString(readByte() << 8 | readByte()));
+            }
+            return AAAAData.create(address.toString());
+        } else if ("CNAME".equals(type)) {
+            return CNAMEData.create(readString());
+        } else if ("MX".equals(type)) {
+            return MXData.create(readInt(), readString());
+        } else if ("NS".equals(type)) {
+            return NSData.create(readString());
+        } else if ("PTR".equals(type)) {
+            return PTRData.create(readString());
+        } else if ("SOA".equals(type)) {
+            return SOAData.builder().mname(readString()).rname(readString()).serial(readInt()).refresh(readInt())
+                    .retry(readInt()).expire(readInt()).minimum(readInt()).build();
+        } else if ("SPF".equals(type)) {
+            return SPFData.create(readUTF());
+        } else if ("SRV".equals(type)) {
+            return SRVData.builder().priority(readInt()).weight(readInt()).port(readInt()).target(readString())
+                    .build();
+        } else if ("SSHFP".equals(type)) {
+            return SSHFPData.builder().algorithm(readInt()).fptype(readInt()).fingerprint(readUTF()).build();
+        } else if ("TXT".equals(type)) {
+            return TXTData.create(readUTF());
+        }
+        throw new IllegalArgumentException("snapshot has typed rdata for unsupported type " + type);
+    }
+
+    private Map<String, Object> readProfile() {
+        int kind = readByte();
+        if (kind == PROFILE_GEO) {
+            String name = readString();
+            ImmutableListMultimap.Builder<String, String> regions = ImmutableListMultimap.builder();
+            for (int i = readCount(); i > 0; i--) {
+                String region = readString();
+                for (int j = readCount(); j > 0; j--)
+                    regions.put(region, readString());
+            }
+            return Geo.create(name, regions.build());
+        } else if (kind == PROFILE_MAP) {
+            return readMap();
+        }
+        throw new IllegalArgumentException(format("snapshot has unsupported profile kind %s", kind));
+    }
+
+    private Map<String, Object> readMap() {
+        ImmutableMap.Builder<String, Object> map = ImmutableMap.builder();
+        for (int i = readCount(); i > 0; i--) {
+            String key = readString();
+            int kind = readByte();
+            if (kind == VALUE_STRING) {
+                map.put(key, readUTF());
+            } else if (kind == VALUE_INT) {
+                int zigzag = (int) readVarint();
+                map.put(key, (zigzag >>> 1) ^ -(zigzag & 1));
+            } else {
+                throw new IllegalArgumentException(format("snapshot has unsupported value kind %s", kind));
+            }
+        }
+        return map.build();
+    }
+
+    /**
+     * @return true if a record set follows, or false if the footer does.
+     */
+    boolean readTag() {
+        int tag = readByte();
+        if (tag == RECORD_SET)
+            return true;
+        if (tag == SnapshotFormat.FOOTER)
+            return false;
+        throw new IllegalArgumentException(format("snapshot has unsupported tag %s", tag));
+    }
+
+    String readUTF() {
+        byte[] utf8 = new byte[readCount()];
+        readBytes(utf8, utf8.length);
+        return new String(utf8, Charsets.UTF_8);
+    }
+
+    private int readCount() {
+        long count = readVarint();
+        if (count > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("snapshot is corrupt: count " + count);
+        return (int) count;
+    }
+
+    private int readInt() {
+        return (int) readVarint();
+    }
+
+    long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IllegalArgumentException("snapshot is corrupt: varint is too long");
+    }
+
+    /**
+     * checks the magic and version at the start of a snapshot.
+     */
+    void readHeader() {
+        byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+        readBytes(magic, magic.length);
+        if (!Arrays.equals(magic, SnapshotFormat.MAGIC))
+            throw new IllegalArgumentException("not a snapshot");
+        int version = readByte();
+        if (version != SnapshotFormat.VERSION)
+            throw new IllegalArgumentException(format("unsupported snapshot version %s", version));
+    }
+}
@@ -0,0 +1,189 @@
+package denominator.model.snapshot;
+
+import static denominator.model.snapshot.SnapshotFormat.GENERIC;
+import static denominator.model.snapshot.SnapshotFormat.PROFILE_GEO;
+import static denominator.model.snapshot.SnapshotFormat.PROFILE_MAP;
+import static denominator.model.snapshot.SnapshotFormat.TYPED;
+import static denominator.model.snapshot.SnapshotFormat.VALUE_INT;
+import static denominator.model.snapshot.SnapshotFormat.VALUE_STRING;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Multimap;
+import com.google.common.net.InetAddresses;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * encodes record sets into a growable byte array, which is then written to a
+ * channel.
+ *
+ * @see SnapshotFormat
+ */
+abstract class Encoder {
+    private byte[] bytes = new byte[8192];
+    private int length;
+
+    /**
+     * writes a reference to {@code value} in the string table, defining it
+     * first if needed.
+     */
+    abstract void writeString(String value);
+
+    int length() {
+        return length;
+    }
+
+    void writeRecordSet(ResourceRecordSet<?> rrset) {
+        writeByte(SnapshotFormat.RECORD_SET);
+        writeString(rrset.getName());
+        writeString(rrset.getType());
+        writeVarint(rrset.getTTL().isPresent() ? rrset.getTTL().get() + 1L : 0);
+        List<Map<String, Object>> profiles = rrset.getProfiles();
+        writeVarint(profiles.size());
+        for (Map<String, Object> profile : profiles)
+            writeProfile(profile);
+        Class<?> rdataType = SnapshotFormat.RDATA_TYPES.get(rrset.getType());
+        boolean typed = rdataType != null;
+        for (int i = 0; typed && i < rrset.size(); i++)
+            typed = rdataType.isInstance(rrset.get(i));
+        writeByte(typed ? TYPED : GENERIC);
+        writeVarint(rrset.size());
+        for (Map<String, Object> rdata : rrset) {
+            if (typed) {
+                writeTyped(rrset.getType(), rdata);
+            } else {
+                writeMap(rdata);
+            }
+        }
+    }
+
+    /**
+     * values of the rdata types in {@link SnapshotFormat#RDATA_TYPES} are
+     * written in map order, without keys.
+     */
+    private void writeTyped(String type, Map<String, Object> rdata) {
+        if ("A".equals(type) || "AAAA".equals(type)) {
+            byte[] address = InetAddresses.forString(rdata.get("address").toString()).getAddress();
+            if ("AAAA".equals(type) && address.length == 4) {
+                // ipv4-mapped addresses parse as ipv4
+                byte[] mapped = new byte[16];
+                mapped[10] = mapped[11] = (byte) 0xff;
+                System.arraycopy(address, 0, mapped, 12, 4);
+                address = mapped;
+            }
+            writeBytes(address, address.length);
+            return;
+        }
+        for (Entry<String, Object> entry : rdata.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Integer) {
+                writeVarint((Integer) value & 0xffffffffL);
+            } else if (SnapshotFormat.INLINE_KEYS.contains(entry.getKey())) {
+                writeUTF(value.toString());
+            } else {
+                writeString(value.toString());
+            }
+        }
+    }
+
+    private void writeProfile(Map<String, Object> profile) {
+        Object regions = profile.get("regions");
+        if ("geo".equals(profile.get("type")) && profile.size() == 3 && regions instanceof Multimap) {
+            writeByte(PROFILE_GEO);
+            writeString(profile.get("name").toString());
+            Map<?, ? extends Collection<?>> byRegion = ((Multimap<?, ?>) regions).asMap();
+            writeVarint(byRegion.size());
+            for (Entry<?, ? extends Collection<?>> region : byRegion.entrySet()) {
+                writeString(region.getKey().toString());
+                writeVarint(region.getValue().size());
+                for (Object territory : region.getValue())
+                    writeString(territory.toString());
+            }
+        } else {
+            writeByte(PROFILE_MAP);
+            writeMap(profile);
+        }
+    }
+
+    private void writeMap(Map<String, Object> map) {
+        writeVarint(map.size());
+        for (Entry<String, Object> entry : map.entrySet()) {
+            writeString(entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof Integer) {
+                writeByte(VALUE_INT);
+                int i = (Integer) value;
+                writeVarint(((i << 1) ^ (i >> 31)) & 0xffffffffL);
+            } else if (value instanceof String) {
+                writeByte(VALUE_STRING);
+                writeUTF((String) value);
+            } else {
+                throw new IllegalArgumentException(String.format("unsupported value of %s: %s", entry.getKey(),
+                        value));
+            }
+        }
+    }
+
+    void writeUTF(String value) {
+        byte[] utf8 = value.getBytes(Charsets.UTF_8);
+        writeVarint(utf8.length);
+        writeBytes(utf8, utf8.length);
+    }
+
+    void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7fL) != 0) {
+            bytes[length++] = (byte) (value & 0x7f | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    void writeInt(int value) {
+        ensureCapacity(4);
+        bytes[length++] = (byte) (value >>> 24);
+        bytes[length++] = (byte) (value >>> 16);
+        bytes[length++] = (byte) (value >>> 8);
+        bytes[length++] = (byte) value;
+    }
+
+    void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        bytes[length++] = (byte) value;
+    }
+
+    void writeBytes(byte[] source, int count) {
+        ensureCapacity(count);
+        System.arraycopy(source, 0, bytes, length, count);
+        length += count;
+    }
+
+    private void ensureCapacity(int count) {
+        if (length + count > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+    }
+
+    /**
+     * writes and clears the encoded bytes.
+     */
+    void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        length = 0;
+    }
+}
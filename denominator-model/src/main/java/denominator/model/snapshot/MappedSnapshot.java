@@ -0,0 +1,218 @@
+package denominator.model.snapshot;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * answers lookups against a snapshot file by binary searching its index in a
+ * read-only mapping. Only the record sets returned, and the strings needed to
+ * find them, are decoded. Safe for use by multiple threads.
+ *
+ * <pre>
+ * MappedSnapshot snapshot = MappedSnapshot.open(new File("denominator.io.snapshot"));
+ * Optional&lt;ResourceRecordSet&lt;?&gt;&gt; www = snapshot.getByNameAndType(&quot;www.denominator.io.&quot;, &quot;A&quot;);
+ * </pre>
+ *
+ * @see SnapshotWriter
+ */
+public final class MappedSnapshot implements Iterable<ResourceRecordSet<?>> {
+
+    /**
+     * maps the snapshot at {@code file}. The mapping is released when this
+     * instance is garbage collected.
+     *
+     * @throws IllegalArgumentException
+     *             if the file isn't a complete snapshot of a supported
+     *             version.
+     */
+    public static MappedSnapshot open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(checkNotNull(file, "file"), "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            checkArgument(channel.size() <= Integer.MAX_VALUE, "snapshots are limited to 2GB");
+            return new MappedSnapshot(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int stringOffsetsStart;
+    private final int size;
+    private final int indexStart;
+    // decoded lazily; racing threads decode the same immutable value
+    private final String[] strings;
+
+    MappedSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int limit = buffer.limit();
+        checkArgument(limit >= SnapshotFormat.MAGIC.length + 1 + SnapshotFormat.TRAILER_LENGTH, "not a snapshot");
+        new BufferDecoder(0).readHeader();
+        byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+        ByteBuffer trailer = buffer.duplicate();
+        trailer.position(limit - SnapshotFormat.TRAILER_LENGTH);
+        long footerOffset = trailer.getLong();
+        trailer.get(magic);
+        checkArgument(Arrays.equals(magic, SnapshotFormat.MAGIC), "snapshot is truncated");
+        checkArgument(footerOffset > 0 && footerOffset < limit, "snapshot is corrupt: footer offset %s",
+                footerOffset);
+        int footer = (int) footerOffset;
+        checkArgument(buffer.get(footer) == SnapshotFormat.FOOTER, "snapshot is corrupt: no footer");
+        this.stringCount = buffer.getInt(footer + 1);
+        this.stringOffsetsStart = footer + 5;
+        this.size = buffer.getInt(stringOffsetsStart + 4 * stringCount);
+        this.indexStart = stringOffsetsStart + 4 * stringCount + 4;
+        this.strings = new String[stringCount];
+    }
+
+    /**
+     * count of record sets in the snapshot.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * iterates across all record sets, sorted by name, then type.
+     */
+    @Override
+    public Iterator<ResourceRecordSet<?>> iterator() {
+        return new IndexIterator(0, size, null);
+    }
+
+    /**
+     * iterates across the record sets with {@code name}, sorted by type.
+     */
+    public Iterator<ResourceRecordSet<?>> listByName(String name) {
+        checkNotNull(name, "name");
+        return new IndexIterator(lowerBound(name, null), size, name);
+    }
+
+    public Optional<ResourceRecordSet<?>> getByNameAndType(String name, String type) {
+        checkNotNull(name, "name");
+        checkNotNull(type, "type");
+        int entry = lowerBound(name, type);
+        if (entry < size && name.equals(string(nameId(entry))) && type.equals(string(typeId(entry))))
+            return Optional.<ResourceRecordSet<?>> of(recordSet(entry));
+        return Optional.absent();
+    }
+
+    /**
+     * first index entry not less than {@code name} and {@code type}, where a
+     * null type sorts before all others.
+     */
+    private int lowerBound(String name, String type) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int result = string(nameId(mid)).compareTo(name);
+            if (result == 0 && type != null)
+                result = string(typeId(mid)).compareTo(type);
+            else if (result == 0)
+                result = 1;
+            if (result < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int nameId(int entry) {
+        return buffer.getInt(indexStart + 12 * entry);
+    }
+
+    private int typeId(int entry) {
+        return buffer.getInt(indexStart + 12 * entry + 4);
+    }
+
+    private ResourceRecordSet<?> recordSet(int entry) {
+        BufferDecoder decoder = new BufferDecoder(buffer.getInt(indexStart + 12 * entry + 8));
+        checkArgument(decoder.readTag(), "snapshot is corrupt: no record set for entry %s", entry);
+        return decoder.readRecordSet();
+    }
+
+    private String string(int id) {
+        checkArgument(id >= 0 && id < stringCount, "snapshot is corrupt: undefined string %s", id);
+        String value = strings[id];
+        if (value == null) {
+            value = new BufferDecoder(buffer.getInt(stringOffsetsStart + 4 * id)).readUTF();
+            strings[id] = value;
+        }
+        return value;
+    }
+
+    private final class IndexIterator extends AbstractIterator<ResourceRecordSet<?>> {
+        private final int end;
+        private final String name;
+        private int entry;
+
+        private IndexIterator(int start, int end, String name) {
+            this.entry = start;
+            this.end = end;
+            this.name = name;
+        }
+
+        @Override
+        protected ResourceRecordSet<?> computeNext() {
+            if (entry == end || (name != null && !name.equals(string(nameId(entry)))))
+                return endOfData();
+            return recordSet(entry++);
+        }
+    }
+
+    private final class BufferDecoder extends Decoder {
+        private final ByteBuffer in;
+
+        private BufferDecoder(int position) {
+            in = buffer.duplicate();
+            in.position(position);
+        }
+
+        @Override
+        int readByte() {
+            return in.get() & 0xff;
+        }
+
+        @Override
+        void readBytes(byte[] destination, int count) {
+            in.get(destination, 0, count);
+        }
+
+        @Override
+        String readString() {
+            long id = readVarint();
+            checkArgument(id < stringCount, "snapshot is corrupt: undefined string %s", id);
+            int definition = buffer.getInt(stringOffsetsStart + 4 * (int) id);
+            if (definition != in.position())
+                return string((int) id);
+            String value = strings[(int) id];
+            if (value == null) {
+                value = readUTF();
+                strings[(int) id] = value;
+            } else {
+                // skip the definition
+                int length = (int) readVarint();
+                in.position(in.position() + length);
+            }
+            return value;
+        }
+    }
+}
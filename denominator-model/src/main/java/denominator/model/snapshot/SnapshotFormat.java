@@ -0,0 +1,82 @@
+package denominator.model.snapshot;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import denominator.model.rdata.AAAAData;
+import denominator.model.rdata.AData;
+import denominator.model.rdata.CNAMEData;
+import denominator.model.rdata.MXData;
+import denominator.model.rdata.NSData;
+import denominator.model.rdata.PTRData;
+import denominator.model.rdata.SOAData;
+import denominator.model.rdata.SPFData;
+import denominator.model.rdata.SRVData;
+import denominator.model.rdata.SSHFPData;
+import denominator.model.rdata.TXTData;
+
+/**
+ * layout of version 1 snapshots. Integers in the footer and trailer are
+ * big-endian, so that the index can be searched in place.
+ *
+ * <pre>
+ * snapshot  = "DNMS" version:byte recordSet* footer trailer
+ * recordSet = 0x01 name:string type:string ttl:varint profiles:varint profile*
+ *             (0x01 | 0x00) rdatas:varint (typed | map)*
+ * string    = id:varint [utf8], where utf8 follows the first use of an id
+ * utf8      = length:varint bytes
+ * profile   = 0x01 name:string regions:varint (region:string territories:varint territory:string*)*
+ *           | 0x00 map
+ * map       = entries:varint (key:string (0x00 utf8 | 0x01 zigzag:varint))*
+ * footer    = 0x00 strings:int utf8Offset:int* recordSets:int (name:int type:int offset:int)*
+ * trailer   = footerOffset:long "DNMS"
+ * </pre>
+ *
+ * ttl is written plus one, so that zero means absent. Typed rdata are the
+ * values of {@link #RDATA_TYPES} in map order: addresses as their 4 or 16
+ * bytes, numbers as varints, {@link #INLINE_KEYS} as utf8, and other values
+ * as strings. Index entries are sorted by name, then type.
+ */
+final class SnapshotFormat {
+    static final byte[] MAGIC = { 'D', 'N', 'M', 'S' };
+    static final int VERSION = 1;
+    static final int TRAILER_LENGTH = 12;
+
+    static final int FOOTER = 0x00;
+    static final int RECORD_SET = 0x01;
+
+    static final int GENERIC = 0x00;
+    static final int TYPED = 0x01;
+
+    static final int PROFILE_MAP = 0x00;
+    static final int PROFILE_GEO = 0x01;
+
+    static final int VALUE_STRING = 0x00;
+    static final int VALUE_INT = 0x01;
+
+    /**
+     * rdata written without keys, when all rdata of a set are this type.
+     */
+    static final Map<String, Class<?>> RDATA_TYPES = ImmutableMap.<String, Class<?>> builder()
+            .put("A", AData.class)
+            .put("AAAA", AAAAData.class)
+            .put("CNAME", CNAMEData.class)
+            .put("MX", MXData.class)
+            .put("NS", NSData.class)
+            .put("PTR", PTRData.class)
+            .put("SOA", SOAData.class)
+            .put("SPF", SPFData.class)
+            .put("SRV", SRVData.class)
+            .put("SSHFP", SSHFPData.class)
+            .put("TXT", TXTData.class).build();
+
+    /**
+     * values unlikely to repeat, so aren't added to the string table.
+     */
+    static final ImmutableSet<String> INLINE_KEYS = ImmutableSet.of("txtdata", "fingerprint");
+
+    private SnapshotFormat() {
+    }
+}
@@ -0,0 +1,106 @@
+package denominator.model.snapshot;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * reads record sets from a channel in the order they were written, without
+ * reading the index. Use {@link MappedSnapshot} to look up record sets by name
+ * and type.
+ *
+ * I/O errors while iterating are propagated as runtime exceptions.
+ */
+public final class SnapshotReader extends AbstractIterator<ResourceRecordSet<?>> implements Closeable {
+    private final ReadableByteChannel channel;
+    private final ChannelDecoder decoder = new ChannelDecoder();
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the channel doesn't start with a supported snapshot
+     *             header.
+     */
+    public SnapshotReader(ReadableByteChannel channel) {
+        this.channel = checkNotNull(channel, "channel");
+        decoder.readHeader();
+    }
+
+    @Override
+    protected ResourceRecordSet<?> computeNext() {
+        if (!decoder.readTag())
+            return endOfData();
+        return decoder.readRecordSet();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private final class ChannelDecoder extends Decoder {
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private final List<String> strings = Lists.newArrayList();
+
+        ChannelDecoder() {
+            buffer.flip();
+        }
+
+        @Override
+        int readByte() {
+            if (!buffer.hasRemaining())
+                fill();
+            return buffer.get() & 0xff;
+        }
+
+        @Override
+        void readBytes(byte[] destination, int count) {
+            int offset = 0;
+            while (offset < count) {
+                if (!buffer.hasRemaining())
+                    fill();
+                int length = Math.min(count - offset, buffer.remaining());
+                buffer.get(destination, offset, length);
+                offset += length;
+            }
+        }
+
+        @Override
+        String readString() {
+            long id = readVarint();
+            if (id < strings.size())
+                return strings.get((int) id);
+            if (id > strings.size())
+                throw new IllegalArgumentException("snapshot is corrupt: undefined string " + id);
+            String value = readUTF();
+            strings.add(value);
+            return value;
+        }
+
+        private void fill() {
+            buffer.clear();
+            try {
+                int read;
+                do {
+                    read = channel.read(buffer);
+                } while (read == 0);
+                if (read < 0)
+                    throw new EOFException("snapshot is truncated");
+            } catch (IOException e) {
+                throw Throwables.propagate(e);
+            } finally {
+                buffer.flip();
+            }
+        }
+    }
+}
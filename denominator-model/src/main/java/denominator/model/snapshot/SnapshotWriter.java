@@ -0,0 +1,168 @@
+package denominator.model.snapshot;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * writes record sets to a channel in the snapshot format, buffering up to
+ * 64KB at a time. The index is written when the writer is closed, so that the
+ * result can be opened with {@link MappedSnapshot}.
+ *
+ * <pre>
+ * SnapshotWriter writer = new SnapshotWriter(new FileOutputStream(file).getChannel());
+ * try {
+ *     writer.writeAll(api.iterator());
+ * } finally {
+ *     writer.close();
+ * }
+ * </pre>
+ *
+ * Snapshots are limited to 2GB.
+ */
+public final class SnapshotWriter implements Closeable {
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final Map<String, Integer> ids = Maps.newHashMap();
+    private final TableEncoder encoder = new TableEncoder();
+    private String[] strings = new String[256];
+    private int[] stringOffsets = new int[256];
+    // name id, type id, offset
+    private int[] index = new int[3 * 256];
+    private int recordSets;
+    private long flushed;
+    private boolean closed;
+
+    public SnapshotWriter(WritableByteChannel channel) {
+        this.channel = checkNotNull(channel, "channel");
+        encoder.writeBytes(SnapshotFormat.MAGIC, SnapshotFormat.MAGIC.length);
+        encoder.writeByte(SnapshotFormat.VERSION);
+    }
+
+    public SnapshotWriter write(ResourceRecordSet<?> rrset) throws IOException {
+        checkState(!closed, "closed");
+        checkNotNull(rrset, "rrset");
+        int offset = position();
+        encoder.writeRecordSet(rrset);
+        if (3 * recordSets + 3 > index.length)
+            index = Arrays.copyOf(index, index.length * 2);
+        index[3 * recordSets] = ids.get(rrset.getName());
+        index[3 * recordSets + 1] = ids.get(rrset.getType());
+        index[3 * recordSets + 2] = offset;
+        recordSets++;
+        if (encoder.length() >= FLUSH_THRESHOLD)
+            flush();
+        return this;
+    }
+
+    public SnapshotWriter writeAll(Iterator<? extends ResourceRecordSet<?>> rrsets) throws IOException {
+        while (rrsets.hasNext())
+            write(rrsets.next());
+        return this;
+    }
+
+    /**
+     * writes the index and trailer, then closes the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            writeFooter();
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeFooter() throws IOException {
+        long footerOffset = position();
+        encoder.writeByte(SnapshotFormat.FOOTER);
+        encoder.writeInt(ids.size());
+        for (int i = 0; i < ids.size(); i++)
+            encoder.writeInt(stringOffsets[i]);
+        encoder.writeInt(recordSets);
+        // sort the index by name, then type
+        final int[] rank = rankStrings();
+        Integer[] order = new Integer[recordSets];
+        for (int i = 0; i < recordSets; i++)
+            order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer left, Integer right) {
+                int result = Ints.compare(rank[index[3 * left]], rank[index[3 * right]]);
+                if (result != 0)
+                    return result;
+                return Ints.compare(rank[index[3 * left + 1]], rank[index[3 * right + 1]]);
+            }
+        });
+        for (Integer i : order) {
+            encoder.writeInt(index[3 * i]);
+            encoder.writeInt(index[3 * i + 1]);
+            encoder.writeInt(index[3 * i + 2]);
+        }
+        encoder.writeLong(footerOffset);
+        encoder.writeBytes(SnapshotFormat.MAGIC, SnapshotFormat.MAGIC.length);
+    }
+
+    /**
+     * position of each string id in sorted order.
+     */
+    private int[] rankStrings() {
+        String[] sorted = Arrays.copyOf(strings, ids.size());
+        Arrays.sort(sorted);
+        int[] rank = new int[ids.size()];
+        for (int i = 0; i < sorted.length; i++)
+            rank[ids.get(sorted[i])] = i;
+        return rank;
+    }
+
+    private void flush() throws IOException {
+        flushed += encoder.length();
+        encoder.writeTo(channel);
+    }
+
+    private int position() {
+        long position = flushed + encoder.length();
+        checkArgument(position <= Integer.MAX_VALUE, "snapshots are limited to 2GB");
+        return (int) position;
+    }
+
+    private final class TableEncoder extends Encoder {
+
+        @Override
+        void writeString(String value) {
+            Integer id = ids.get(value);
+            if (id != null) {
+                writeVarint(id);
+                return;
+            }
+            id = ids.size();
+            if (id == strings.length) {
+                strings = Arrays.copyOf(strings, id * 2);
+                stringOffsets = Arrays.copyOf(stringOffsets, id * 2);
+            }
+            ids.put(value, id);
+            strings[id] = value;
+            writeVarint(id);
+            stringOffsets[id] = position();
+            writeUTF(value);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * compact binary snapshots of record sets, which can be streamed over
+ * channels or searched in place with {@link denominator.model.snapshot.MappedSnapshot}.
+ */
+package denominator.model.snapshot;
@@ -0,0 +1,400 @@
+package denominator.model.zonefile;
+
+import static java.lang.String.format;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+
+import denominator.model.ResourceRecordSet;
+import denominator.model.ResourceRecordSet.Builder;
+import denominator.model.rdata.AAAAData;
+import denominator.model.rdata.AData;
+import denominator.model.rdata.CNAMEData;
+import denominator.model.rdata.MXData;
+import denominator.model.rdata.NSData;
+import denominator.model.rdata.PTRData;
+import denominator.model.rdata.SOAData;
+import denominator.model.rdata.SPFData;
+import denominator.model.rdata.SRVData;
+import denominator.model.rdata.SSHFPData;
+import denominator.model.rdata.TXTData;
+
+/**
+ * reads one entry of the zone file at a time, holding only the record set
+ * being grouped.
+ *
+ * @see ZoneFiles#read(Reader, String)
+ */
+final class ZoneFileReader extends AbstractIterator<ResourceRecordSet<?>> {
+    private final BufferedReader in;
+    private String origin;
+    private Optional<Integer> defaultTTL = Optional.absent();
+    private String lastOwner;
+    private int lineNumber;
+
+    // tokens of the current entry, which may span lines in parentheses
+    private final List<String> tokens = Lists.newArrayList();
+    private final BitSet quoted = new BitSet();
+    private boolean ownerPresent;
+
+    // the record read ahead of the record set being grouped
+    private String name;
+    private String type;
+    private Optional<Integer> ttl;
+    private Map<String, Object> rdata;
+
+    ZoneFileReader(Reader in, String origin) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        this.origin = origin == null || origin.endsWith(".") ? origin : origin + ".";
+    }
+
+    @Override
+    protected ResourceRecordSet<?> computeNext() {
+        if (rdata == null && !readRecord())
+            return endOfData();
+        String name = this.name;
+        String type = this.type;
+        Builder<Map<String, Object>> builder = ResourceRecordSet.builder().name(name).type(type);
+        if (ttl.isPresent())
+            builder.ttl(ttl.get());
+        do {
+            builder.add(rdata);
+            rdata = null;
+        } while (readRecord() && name.equals(this.name) && type.equals(this.type));
+        return builder.build();
+    }
+
+    /**
+     * @return false at the end of the file, or true when the next record is
+     *         read into {@link #rdata}.
+     */
+    private boolean readRecord() {
+        while (readEntry()) {
+            try {
+                if (ownerPresent && tokens.get(0).startsWith("$")) {
+                    directive();
+                } else {
+                    record();
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(format("line %s: %s", lineNumber, e.getMessage()), e);
+            }
+        }
+        return false;
+    }
+
+    private void directive() {
+        String directive = tokens.get(0).toUpperCase(Locale.US);
+        if ("$ORIGIN".equals(directive)) {
+            checkValues(directive, 1);
+            origin = absolute(tokens.get(1));
+        } else if ("$TTL".equals(directive)) {
+            checkValues(directive, 1);
+            defaultTTL = Optional.of(ttl(tokens.get(1)));
+        } else {
+            throw new IllegalArgumentException("unsupported directive: " + tokens.get(0));
+        }
+    }
+
+    private void record() {
+        int index = 0;
+        if (ownerPresent) {
+            lastOwner = absolute(tokens.get(index++));
+        } else if (lastOwner == null) {
+            throw new IllegalArgumentException("first record has no name");
+        }
+        Optional<Integer> ttl = Optional.absent();
+        // ttl and class may be in either order
+        for (int i = 0; i < 2 && index < tokens.size(); i++) {
+            String token = tokens.get(index);
+            if (!ttl.isPresent() && !token.isEmpty() && isDigit(token.charAt(0))) {
+                ttl = Optional.of(ttl(token));
+                index++;
+            } else if ("IN".equalsIgnoreCase(token)) {
+                index++;
+            } else if ("CH".equalsIgnoreCase(token) || "HS".equalsIgnoreCase(token)
+                    || "CS".equalsIgnoreCase(token)) {
+                throw new IllegalArgumentException("unsupported class: " + token);
+            }
+        }
+        if (index == tokens.size())
+            throw new IllegalArgumentException("record has no type");
+        this.name = lastOwner;
+        this.type = tokens.get(index++).toUpperCase(Locale.US);
+        this.ttl = ttl.or(defaultTTL);
+        this.rdata = rdata(type, index);
+    }
+
+    private Map<String, Object> rdata(String type, int index) {
+        if ("A".equals(type)) {
+            checkValues(type, index, 1);
+            return AData.create(tokens.get(index));
+        } else if ("AAAA".equals(type)) {
+            checkValues(type, index, 1);
+            return AAAAData.create(tokens.get(index));
+        } else if ("CNAME".equals(type)) {
+            checkValues(type, index, 1);
+            return CNAMEData.create(absolute(tokens.get(index)));
+        } else if ("MX".equals(type)) {
+            checkValues(type, index, 2);
+            return MXData.create(Integer.parseInt(tokens.get(index)), absolute(tokens.get(index + 1)));
+        } else if ("NS".equals(type)) {
+            checkValues(type, index, 1);
+            return NSData.create(absolute(tokens.get(index)));
+        } else if ("PTR".equals(type)) {
+            checkValues(type, index, 1);
+            return PTRData.create(absolute(tokens.get(index)));
+        } else if ("SOA".equals(type)) {
+            checkValues(type, index, 7);
+            return SOAData.builder()
+                          .mname(absolute(tokens.get(index)))
+                          .rname(absolute(tokens.get(index + 1)))
+                          .serial(Integer.parseInt(tokens.get(index + 2)))
+                          .refresh(ttl(tokens.get(index + 3)))
+                          .retry(ttl(tokens.get(index + 4)))
+                          .expire(ttl(tokens.get(index + 5)))
+                          .minimum(ttl(tokens.get(index + 6))).build();
+        } else if ("SPF".equals(type)) {
+            return SPFData.create(characterStrings(type, index));
+        } else if ("SRV".equals(type)) {
+            checkValues(type, index, 4);
+            return SRVData.builder()
+                          .priority(Integer.parseInt(tokens.get(index)))
+                          .weight(Integer.parseInt(tokens.get(index + 1)))
+                          .port(Integer.parseInt(tokens.get(index + 2)))
+                          .target(absolute(tokens.get(index + 3))).build();
+        } else if ("SSHFP".equals(type)) {
+            checkValues(type, index, 3);
+            return SSHFPData.builder()
+                            .algorithm(Integer.parseInt(tokens.get(index)))
+                            .fptype(Integer.parseInt(tokens.get(index + 1)))
+                            .fingerprint(tokens.get(index + 2)).build();
+        } else if ("TXT".equals(type)) {
+            return TXTData.create(characterStrings(type, index));
+        }
+        throw new IllegalArgumentException("unsupported type: " + type);
+    }
+
+    /**
+     * joins the character-strings of {@code TXT} or {@code SPF} rdata, which
+     * {@link ZoneFiles#write} splits when longer than 255 characters.
+     */
+    private String characterStrings(String type, int index) {
+        if (index == tokens.size())
+            throw new IllegalArgumentException(type + " record has no rdata");
+        if (index == tokens.size() - 1)
+            return quoted.get(index) ? tokens.get(index) : unescape(tokens.get(index));
+        StringBuilder builder = new StringBuilder();
+        for (int i = index; i < tokens.size(); i++) {
+            builder.append(quoted.get(i) ? tokens.get(i) : unescape(tokens.get(i)));
+        }
+        return builder.toString();
+    }
+
+    private void checkValues(String type, int index, int count) {
+        if (tokens.size() - index != count)
+            throw new IllegalArgumentException(format("%s expects %s values, not %s", type, count, tokens.size()
+                    - index));
+    }
+
+    private void checkValues(String directive, int count) {
+        checkValues(directive, 1, count);
+    }
+
+    private String absolute(String name) {
+        if (name.endsWith("."))
+            return name;
+        if (origin == null)
+            throw new IllegalArgumentException(format("%s is relative, but there's no origin", name));
+        if ("@".equals(name))
+            return origin;
+        return ".".equals(origin) ? name + "." : name + "." + origin;
+    }
+
+    /**
+     * seconds, optionally as units, ex. {@code 1h30m}.
+     */
+    private static int ttl(String text) {
+        long total = 0;
+        long value = 0;
+        boolean digits = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                value = value * 10 + (c - '0');
+                digits = true;
+            } else if (digits) {
+                total += value * unit(c, text);
+                value = 0;
+                digits = false;
+            } else {
+                throw new IllegalArgumentException("invalid ttl: " + text);
+            }
+            if (value > Integer.MAX_VALUE || total > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("invalid ttl: " + text);
+        }
+        total += value;
+        if (total > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("invalid ttl: " + text);
+        return (int) total;
+    }
+
+    private static int unit(char c, String text) {
+        switch (Character.toLowerCase(c)) {
+        case 's':
+            return 1;
+        case 'm':
+            return 60;
+        case 'h':
+            return 3600;
+        case 'd':
+            return 86400;
+        case 'w':
+            return 604800;
+        default:
+            throw new IllegalArgumentException("invalid ttl: " + text);
+        }
+    }
+
+    /**
+     * reads the tokens of the next entry, skipping blank lines and comments.
+     *
+     * @return false at the end of the file.
+     */
+    private boolean readEntry() {
+        tokens.clear();
+        quoted.clear();
+        int depth = 0;
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (tokens.isEmpty())
+                    ownerPresent = line.length() > 0 && !Character.isWhitespace(line.charAt(0));
+                depth = tokenize(line, depth);
+                if (depth == 0 && !tokens.isEmpty())
+                    return true;
+            }
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        if (depth > 0)
+            throw new IllegalArgumentException(format("line %s: unbalanced parentheses", lineNumber));
+        return false;
+    }
+
+    /**
+     * @return depth of parentheses at the end of the line.
+     */
+    private int tokenize(String line, int depth) {
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            char c = line.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\r') {
+                i++;
+            } else if (c == ';') {
+                break;
+            } else if (c == '(') {
+                depth++;
+                i++;
+            } else if (c == ')') {
+                if (--depth < 0)
+                    throw new IllegalArgumentException(format("line %s: unbalanced parentheses", lineNumber));
+                i++;
+            } else if (c == '"') {
+                i = quotedToken(line, i + 1);
+            } else {
+                int start = i;
+                while (i < length && !isDelimiter(line.charAt(i))) {
+                    if (line.charAt(i) == '\\')
+                        i++;
+                    i++;
+                }
+                tokens.add(line.substring(start, Math.min(i, length)));
+            }
+        }
+        return depth;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == ';' || c == '(' || c == ')' || c == '"';
+    }
+
+    /**
+     * adds the unescaped contents of the quoted string starting at
+     * {@code start}.
+     *
+     * @return index after the closing quote.
+     */
+    private int quotedToken(String line, int start) {
+        StringBuilder builder = null;
+        for (int i = start; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted.set(tokens.size());
+                tokens.add(builder == null ? line.substring(start, i) : builder.toString());
+                return i + 1;
+            } else if (c == '\\') {
+                if (builder == null)
+                    builder = new StringBuilder(line.length()).append(line, start, i);
+                i = unescape(line, i, builder);
+            } else if (builder != null) {
+                builder.append(c);
+            }
+        }
+        throw new IllegalArgumentException(format("line %s: unterminated quoted string", lineNumber));
+    }
+
+    private String unescape(String text) {
+        if (text.indexOf('\\') == -1)
+            return text;
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i = unescape(text, i, builder);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * appends the character escaped at {@code backslash}, either {@code \X} or
+     * {@code \DDD}.
+     *
+     * @return index of the last character of the escape.
+     */
+    private int unescape(String text, int backslash, StringBuilder builder) {
+        int i = backslash + 1;
+        if (i == text.length())
+            throw new IllegalArgumentException(format("line %s: incomplete escape", lineNumber));
+        if (i + 2 < text.length() && isDigit(text.charAt(i)) && isDigit(text.charAt(i + 1))
+                && isDigit(text.charAt(i + 2))) {
+            int value = Integer.parseInt(text.substring(i, i + 3));
+            if (value > 255)
+                throw new IllegalArgumentException(format("line %s: invalid escape \\%s", lineNumber, value));
+            builder.append((char) value);
+            return i + 2;
+        }
+        builder.append(text.charAt(i));
+        return i;
+    }
+}
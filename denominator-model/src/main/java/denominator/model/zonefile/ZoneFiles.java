@@ -0,0 +1,171 @@
+package denominator.model.zonefile;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+
+import denominator.model.ResourceRecordSet;
+
+/**
+ * Static utility methods that read and write record sets in the master file
+ * format of <a href="http://www.ietf.org/rfc/rfc1035.txt">RFC 1035</a>, also
+ * known as zone files.
+ *
+ * <h4>Example</h4>
+ *
+ * <pre>
+ * Iterator&lt;ResourceRecordSet&lt;?&gt;&gt; rrsets = ZoneFiles.read(reader, &quot;denominator.io.&quot;);
+ * ZoneFiles.write(rrsets, &quot;denominator.io.&quot;, writer);
+ * </pre>
+ *
+ * Both directions stream: only the record set being read or written is held
+ * in memory. All types in {@link denominator.model.rdata} are supported.
+ */
+public final class ZoneFiles {
+
+    private static final Set<String> TYPES = ImmutableSet.of("A", "AAAA", "CNAME", "MX", "NS", "PTR", "SOA", "SPF",
+            "SRV", "SSHFP", "TXT");
+
+    /**
+     * true if {@link #read} and {@link #write} support record sets of this
+     * type.
+     */
+    public static boolean isSupported(String type) {
+        return TYPES.contains(type);
+    }
+
+    /**
+     * lazily reads record sets from a zone file. Records are grouped into a
+     * record set while they share a name and type, as in files written by
+     * name servers and {@link #write}. The ttl of the first record in each
+     * group applies to the record set.
+     *
+     * Only adjacent records are grouped, so that the file needn't be held in
+     * memory. If records of one name and type are apart in the file, each run
+     * of them is returned as its own record set. Callers merge these, ex. by
+     * replacing with the first and adding the rest.
+     *
+     * {@code $ORIGIN} and {@code $TTL} directives are supported. Records
+     * without a ttl use that of the last {@code $TTL}, or none if absent.
+     *
+     * @param in
+     *            zone file to read. Isn't closed by this method.
+     * @param origin
+     *            name relative names are under, until an {@code $ORIGIN}
+     *            directive. Can be null if the file only has absolute names,
+     *            or sets {@code $ORIGIN} before any relative name.
+     * @throws IllegalArgumentException
+     *             on {@code next()} if the file is malformed, or contains an
+     *             unsupported type. The message includes the line number.
+     */
+    public static Iterator<ResourceRecordSet<?>> read(Reader in, String origin) {
+        return new ZoneFileReader(checkNotNull(in, "in"), origin);
+    }
+
+    /**
+     * writes record sets as a zone file with one record per line, using
+     * absolute names.
+     *
+     * @param origin
+     *            written as the {@code $ORIGIN} of the file, if not null.
+     * @throws IllegalArgumentException
+     *             if a record set's type isn't {@link #isSupported supported},
+     *             as it couldn't be read back. Record sets before it are
+     *             already written.
+     */
+    public static void write(Iterator<? extends ResourceRecordSet<?>> rrsets, String origin, Appendable out)
+            throws IOException {
+        checkNotNull(rrsets, "rrsets");
+        checkNotNull(out, "out");
+        if (origin != null)
+            out.append("$ORIGIN ").append(origin).append('\n');
+        while (rrsets.hasNext()) {
+            append(rrsets.next(), out);
+        }
+    }
+
+    /**
+     * the lines {@link #write} produces for {@code rrset}, without a trailing
+     * line break.
+     *
+     * @throws IllegalArgumentException
+     *             if the type of the record set isn't {@link #isSupported
+     *             supported}.
+     */
+    public static String format(ResourceRecordSet<?> rrset) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            append(checkNotNull(rrset, "rrset"), builder);
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        if (builder.length() > 0)
+            builder.setLength(builder.length() - 1);
+        return builder.toString();
+    }
+
+    private static void append(ResourceRecordSet<?> rrset, Appendable out) throws IOException {
+        checkArgument(isSupported(rrset.getType()), "unsupported type: %s", rrset.getType());
+        boolean text = isText(rrset.getType());
+        for (Map<String, Object> rdata : rrset) {
+            out.append(rrset.getName()).append('\t');
+            if (rrset.getTTL().isPresent())
+                out.append(rrset.getTTL().get().toString()).append('\t');
+            out.append("IN\t").append(rrset.getType()).append('\t');
+            if (text) {
+                appendCharacterStrings(rdata.get("txtdata").toString(), out);
+            } else {
+                boolean first = true;
+                for (Object value : rdata.values()) {
+                    if (!first)
+                        out.append(' ');
+                    out.append(value.toString());
+                    first = false;
+                }
+            }
+            out.append('\n');
+        }
+    }
+
+    static boolean isText(String type) {
+        return "TXT".equals(type) || "SPF".equals(type);
+    }
+
+    /**
+     * character-strings are limited to 255 characters, so longer text is
+     * split into several.
+     */
+    private static void appendCharacterStrings(String text, Appendable out) throws IOException {
+        int start = 0;
+        do {
+            if (start > 0)
+                out.append(' ');
+            int end = Math.min(start + 255, text.length());
+            out.append('"');
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.append('\\').append(c);
+                } else if (c < ' ' || c == 0x7f) {
+                    out.append('\\').append((char) ('0' + c / 100)).append((char) ('0' + c / 10 % 10))
+                            .append((char) ('0' + c % 10));
+                } else {
+                    out.append(c);
+                }
+            }
+            out.append('"');
+            start = end;
+        } while (start < text.length());
+    }
+
+    private ZoneFiles() {
+    }
+}
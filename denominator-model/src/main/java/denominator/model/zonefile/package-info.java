@@ -0,0 +1,4 @@
+/**
+ * Reads and writes record sets as <a href="http://tools.ietf.org/html/rfc1035">Master File Format</a>, also known as zone files.
+ */
+package denominator.model.zonefile;
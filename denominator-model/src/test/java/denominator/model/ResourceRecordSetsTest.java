@@ -65,6 +65,29 @@ public class ResourceRecordSetsTest {
         assertTrue(ResourceRecordSets.typeEqualTo(aRRS.getType()).apply(aRRS));
     }
 
+    public void nameAndTypeInReturnsFalseOnNull() {
+        assertFalse(ResourceRecordSets.nameAndTypeIn(ImmutableMultimap.of(aRRS.getName(), aRRS.getType())).apply(
+                null));
+    }
+
+    public void nameAndTypeInReturnsFalseOnSameNameDifferentType() {
+        assertFalse(ResourceRecordSets.nameAndTypeIn(ImmutableMultimap.of(aRRS.getName(), "AAAA")).apply(aRRS));
+    }
+
+    public void nameAndTypeInReturnsTrueOnSameNameAndType() {
+        assertTrue(ResourceRecordSets.nameAndTypeIn(
+                ImmutableMultimap.of(aRRS.getName(), "AAAA", aRRS.getName(), aRRS.getType())).apply(aRRS));
+    }
+
+    public void ttlGreaterThanReturnsFalseOnAbsentTTL() {
+        assertFalse(ResourceRecordSets.ttlGreaterThan(0).apply(a("www.denominator.io.", "192.0.2.1")));
+    }
+
+    public void ttlGreaterThanComparesTTL() {
+        assertTrue(ResourceRecordSets.ttlGreaterThan(300).apply(aRRS));
+        assertFalse(ResourceRecordSets.ttlGreaterThan(3600).apply(aRRS));
+    }
+
     public void containsRDataReturnsFalseOnNull() {
         assertFalse(ResourceRecordSets.containsRData(aRRS.get(0)).apply(null));
     }
@@ -1,9 +1,14 @@
 package denominator.model.rdata;
 
 import static denominator.model.ResourceRecordSets.aaaa;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
 @Test
 public class AAAADataTest {
 
@@ -20,4 +25,39 @@ public class AAAADataTest {
     public void testGoodIPv6() {
         aaaa("www.denominator.io.", "2001:db8:1cfe:face:b00c::3");
     }
+
+    public void testEqualsAndHashCodeMatchMap() {
+        AAAAData rdata = AAAAData.create("2001:db8:1cfe:face:b00c::3");
+        ImmutableMap<String, Object> map = ImmutableMap.<String, Object> of("address", "2001:db8:1cfe:face:b00c::3");
+        assertEquals(rdata, map);
+        assertEquals(map, rdata);
+        assertEquals(rdata.hashCode(), map.hashCode());
+        assertEquals(rdata.getAddress(), "2001:db8:1cfe:face:b00c::3");
+    }
+
+    public void testAddressIsCanonicalized() {
+        AAAAData rdata = AAAAData.create("2001:DB8:0:0::0003");
+        assertEquals(rdata.getAddress(), "2001:db8::3");
+        assertEquals(rdata, AAAAData.create("2001:db8::3"));
+        assertEquals(rdata, ImmutableMap.<String, Object> of("address", "2001:db8::3"));
+        assertEquals(rdata.hashCode(), AAAAData.create("2001:db8:0:0:0:0:0:3").hashCode());
+    }
+
+    public void testEmbeddedIPv4() {
+        assertEquals(AAAAData.create("::ffff:192.0.2.1").getAddress(), "::ffff:c000:201");
+    }
+
+    public void testContainsRegardlessOfTextualForm() {
+        assertTrue(aaaa("www.denominator.io.", "2001:db8::3").contains(AAAAData.create("2001:0db8:0:0:0:0:0:3")));
+    }
+
+    public void testLookupsMatchMap() {
+        AAAAData rdata = AAAAData.create("2001:db8::3");
+        assertEquals(rdata.get("address"), "2001:db8::3");
+        assertEquals(rdata.get("cname"), null);
+        assertTrue(rdata.containsKey("address"));
+        assertEquals(rdata.size(), 1);
+        assertEquals(rdata.entrySet(), ImmutableMap.<String, Object> of("address", "2001:db8::3").entrySet());
+        assertEquals(rdata.keySet(), ImmutableSet.of("address"));
+    }
 }
@@ -1,9 +1,14 @@
 package denominator.model.rdata;
 
 import static denominator.model.ResourceRecordSets.a;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
 @Test
 public class ADataTest {
 
@@ -20,4 +25,29 @@ public class ADataTest {
     public void testGoodIPv4() {
         a("www.denominator.io.", "192.0.2.1");
     }
+
+    public void testEqualsAndHashCodeMatchMap() {
+        AData rdata = AData.create("192.0.2.1");
+        ImmutableMap<String, Object> map = ImmutableMap.<String, Object> of("address", "192.0.2.1");
+        assertEquals(rdata, map);
+        assertEquals(map, rdata);
+        assertEquals(rdata.hashCode(), map.hashCode());
+        assertEquals(rdata, AData.create("192.0.2.1"));
+        assertEquals(rdata.getAddress(), "192.0.2.1");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ".*not an IP.*")
+    public void testLeadingZerosNotAllowed() {
+        a("www.denominator.io.", "192.0.2.01");
+    }
+
+    public void testLookupsMatchMap() {
+        AData rdata = AData.create("192.0.2.1");
+        assertEquals(rdata.get("address"), "192.0.2.1");
+        assertEquals(rdata.get("cname"), null);
+        assertTrue(rdata.containsKey("address"));
+        assertEquals(rdata.size(), 1);
+        assertEquals(rdata.entrySet(), ImmutableMap.<String, Object> of("address", "192.0.2.1").entrySet());
+        assertEquals(rdata.keySet(), ImmutableSet.of("address"));
+    }
 }
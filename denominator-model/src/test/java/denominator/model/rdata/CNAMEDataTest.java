@@ -1,9 +1,13 @@
 package denominator.model.rdata;
 
 import static denominator.model.ResourceRecordSets.cname;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
+
 @Test
 public class CNAMEDataTest {
 
@@ -11,5 +15,12 @@ public class CNAMEDataTest {
     public void testNullTarget() {
         cname("www.denominator.io.", (String) null);
     }
-    
+
+    public void testTargetIsInterned() {
+        CNAMEData first = CNAMEData.create(new String("www.denominator.io."));
+        CNAMEData second = CNAMEData.create(new String("www.denominator.io."));
+        assertSame(first.getCname(), second.getCname());
+        assertEquals(first, ImmutableMap.<String, Object> of("cname", "www.denominator.io."));
+        assertEquals(first.hashCode(), second.hashCode());
+    }
 }
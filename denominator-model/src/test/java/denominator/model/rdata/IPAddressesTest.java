@@ -0,0 +1,69 @@
+package denominator.model.rdata;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.google.common.net.InetAddresses;
+
+@Test
+public class IPAddressesTest {
+
+    @DataProvider(name = "addresses")
+    public Object[][] addresses() {
+        return new Object[][] { { "0.0.0.0" }, { "192.0.2.1" }, { "255.255.255.255" }, { "192.0.2.01" },
+                { "256.0.0.1" }, { "192.0.2" }, { "192.0.2.1." }, { ".192.0.2.1" }, { "192..2.1" }, { "1.2.3.4.5" },
+                { "::" }, { "::1" }, { "1::" }, { "2001:db8::3" }, { "2001:DB8:0:0:0:0:0:3" }, { "2001:db8:0:1:0:0:1:0" },
+                { "2001:0:0:1:0:0:0:1" }, { "1:0:0:2:0:0:3:4" }, { "0:1:2:3:4:5:6:7" }, { "1:2:3:4:5:6:7::" },
+                { "::ffff:192.0.2.1" }, { "::192.0.2.1" }, { "1:2:3:4:5:6:192.0.2.1" }, { "1:2:3:4:5:6:7:192.0.2.1" },
+                { ":::" }, { ":1" }, { "1:" }, { "1::2::3" }, { "1:2:3:4:5:6:7:8:9" }, { "1:2:3:4:5:6:7" },
+                { "12345::" }, { "00000::1" }, { "0000000000000001::1" }, { "::000000000000ffff" }, { "::10000" },
+                { "::0001.2.3.4" }, { "g::" }, { "::192.0.2.1:1" }, { "::ffff:192.0.2.256" }, { "" }, { ":" } };
+    }
+
+    @Test(dataProvider = "addresses")
+    public void matchesInetAddresses(String text) {
+        InetAddress expected = InetAddresses.isInetAddress(text) ? InetAddresses.forString(text) : null;
+        long ipv4 = IPAddresses.parseIPv4(text);
+        long[] ipv6 = new long[2];
+        boolean isIPv6 = IPAddresses.parseIPv6(text, ipv6);
+        if (expected == null) {
+            assertEquals(ipv4, IPAddresses.INVALID);
+            assertFalse(isIPv6);
+        } else if (expected instanceof Inet4Address && !text.contains(":")) {
+            assertEquals(IPAddresses.ipv4String((int) ipv4), expected.getHostAddress());
+            assertFalse(isIPv6);
+        } else {
+            byte[] bytes = ByteBuffer.allocate(16).putLong(ipv6[0]).putLong(ipv6[1]).array();
+            assertEquals(bytes, sixteenBytes(expected));
+            assertEquals(IPAddresses.ipv6String(ipv6[0], ipv6[1]), toAddrString(bytes));
+            assertEquals(ipv4, IPAddresses.INVALID);
+        }
+    }
+
+    /**
+     * ipv4-mapped ipv6 addresses are parsed as {@link Inet4Address}.
+     */
+    private static byte[] sixteenBytes(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 16)
+            return bytes;
+        return ByteBuffer.allocate(16).putShort(10, (short) 0xffff).put(12, bytes[0]).put(13, bytes[1])
+                .put(14, bytes[2]).put(15, bytes[3]).array();
+    }
+
+    private static String toAddrString(byte[] bytes) {
+        try {
+            return InetAddresses.toAddrString(Inet6Address.getByAddress(null, bytes, null));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
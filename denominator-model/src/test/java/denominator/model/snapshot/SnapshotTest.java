@@ -0,0 +1,139 @@
+package denominator.model.snapshot;
+
+import static denominator.model.ResourceRecordSets.a;
+import static denominator.model.ResourceRecordSets.aaaa;
+import static denominator.model.ResourceRecordSets.cname;
+import static denominator.model.ResourceRecordSets.ns;
+import static denominator.model.ResourceRecordSets.txt;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+
+import denominator.model.ResourceRecordSet;
+import denominator.model.profile.Geo;
+import denominator.model.rdata.AAAAData;
+import denominator.model.rdata.MXData;
+import denominator.model.rdata.SOAData;
+import denominator.model.rdata.SRVData;
+import denominator.model.rdata.SSHFPData;
+
+@Test
+public class SnapshotTest {
+
+    static final List<ResourceRecordSet<?>> RRSETS = ImmutableList.<ResourceRecordSet<?>> of(
+            ResourceRecordSet.<SOAData> builder().name("denominator.io.").type("SOA").ttl(3600)
+                    .add(SOAData.builder().mname("ns1.denominator.io.").rname("admin.denominator.io.")
+                            .serial(Integer.MAX_VALUE).refresh(3600).retry(600).expire(604800).minimum(60).build())
+                    .build(),
+            ns("denominator.io.", 86400, "ns1.denominator.io."),
+            a("www1.denominator.io.", 3600, ImmutableList.of("192.0.2.1", "192.0.2.255")),
+            cname("www.denominator.io.", "www1.denominator.io."),
+            aaaa("ipv6.denominator.io.", ImmutableList.of("2001:db8::1", "::ffff:192.0.2.1")),
+            ResourceRecordSet.<MXData> builder().name("denominator.io.").type("MX").ttl(0)
+                    .add(MXData.create(10, "mx.denominator.io.")).build(),
+            ResourceRecordSet.<SRVData> builder().name("_http._tcp.denominator.io.").type("SRV")
+                    .add(SRVData.builder().priority(0).weight(1).port(80).target("www.denominator.io.").build())
+                    .build(),
+            ResourceRecordSet.<SSHFPData> builder().name("ssh.denominator.io.").type("SSHFP")
+                    .add(SSHFPData.createDSA("190e37c5b5f8c6a8d5e6dc3a7d1ab4f6bbd06b8d")).build(),
+            txt("txt.denominator.io.", "\u00e9l\u00e8ve \"quoted\""),
+            ResourceRecordSet.<Map<String, Object>> builder().name("www2.denominator.io.").type("A").ttl(300)
+                    .addProfile(Geo.create("alazona", ImmutableMultimap.of("United States", "AZ")))
+                    .addProfile(ImmutableMap.<String, Object> of("type", "weighted", "weight", -1))
+                    .add(ImmutableMap.<String, Object> of("address", "192.0.2.1")).build(),
+            ResourceRecordSet.<Map<String, Object>> builder().name("www3.denominator.io.").type("HINFO")
+                    .add(ImmutableMap.<String, Object> of("cpu", "PC", "os", "Linux")).build());
+
+    public void streamingRoundTrip() throws IOException {
+        List<ResourceRecordSet<?>> reread = ImmutableList.copyOf(new SnapshotReader(Channels
+                .newChannel(new ByteArrayInputStream(write(RRSETS)))));
+        assertRoundTrip(reread, RRSETS);
+    }
+
+    public void mappedLookups() throws IOException {
+        File file = File.createTempFile("denominator", ".snapshot");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                new SnapshotWriter(out.getChannel()).writeAll(RRSETS.iterator()).close();
+            } finally {
+                out.close();
+            }
+            MappedSnapshot snapshot = MappedSnapshot.open(file);
+            assertEquals(snapshot.size(), RRSETS.size());
+
+            assertRoundTrip(ImmutableList.of(snapshot.getByNameAndType("www2.denominator.io.", "A").get()),
+                    RRSETS.subList(9, 10));
+            assertRoundTrip(ImmutableList.of(snapshot.getByNameAndType("ipv6.denominator.io.", "AAAA").get()),
+                    RRSETS.subList(4, 5));
+            assertFalse(snapshot.getByNameAndType("www2.denominator.io.", "AAAA").isPresent());
+            assertFalse(snapshot.getByNameAndType("a.denominator.io.", "A").isPresent());
+            assertFalse(snapshot.getByNameAndType("zzz.denominator.io.", "A").isPresent());
+
+            assertEquals(ImmutableList.copyOf(snapshot.listByName("denominator.io.")),
+                    ImmutableList.of(RRSETS.get(5), RRSETS.get(1), RRSETS.get(0)));
+            assertFalse(snapshot.listByName("denominator.io").hasNext());
+            assertEquals(ImmutableList.copyOf(snapshot).size(), RRSETS.size());
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void ipv4MappedAddressStaysAAAA() throws IOException {
+        ResourceRecordSet<?> rrset = aaaa("ipv6.denominator.io.", "::ffff:192.0.2.1");
+        ResourceRecordSet<?> reread = new SnapshotReader(Channels.newChannel(new ByteArrayInputStream(
+                write(ImmutableList.<ResourceRecordSet<?>> of(rrset))))).next();
+        assertEquals(reread, rrset);
+        assertEquals(reread.get(0), AAAAData.create("::ffff:192.0.2.1"));
+    }
+
+    public void stringsAreWrittenOnce() throws IOException {
+        byte[] one = write(ImmutableList.<ResourceRecordSet<?>> of(RRSETS.get(2)));
+        byte[] two = write(ImmutableList.<ResourceRecordSet<?>> of(RRSETS.get(2), RRSETS.get(2)));
+        // tag, name id, type id, 2 ttl bytes, profiles, typed, count, 8
+        // address bytes and an index entry
+        assertEquals(two.length - one.length, 16 + 12);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "unsupported snapshot version 2")
+    public void unsupportedVersion() throws IOException {
+        byte[] snapshot = write(RRSETS);
+        snapshot[4] = 2;
+        new SnapshotReader(Channels.newChannel(new ByteArrayInputStream(snapshot)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "snapshot is truncated")
+    public void mappedRequiresTrailer() throws IOException {
+        byte[] snapshot = write(RRSETS);
+        new MappedSnapshot(ByteBuffer.wrap(snapshot, 0, snapshot.length - 1).slice());
+    }
+
+    static byte[] write(List<ResourceRecordSet<?>> rrsets) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SnapshotWriter(Channels.newChannel(out)).writeAll(rrsets.iterator()).close();
+        return out.toByteArray();
+    }
+
+    static void assertRoundTrip(List<ResourceRecordSet<?>> actual, List<ResourceRecordSet<?>> expected) {
+        assertEquals(actual, expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(actual.get(i).getTTL(), expected.get(i).getTTL());
+            assertEquals(actual.get(i).getProfiles(), expected.get(i).getProfiles());
+        }
+    }
+}
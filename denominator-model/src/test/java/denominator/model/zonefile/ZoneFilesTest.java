@@ -0,0 +1,155 @@
+package denominator.model.zonefile;
+
+import static denominator.model.ResourceRecordSets.a;
+import static denominator.model.ResourceRecordSets.cname;
+import static denominator.model.ResourceRecordSets.ns;
+import static denominator.model.ResourceRecordSets.txt;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import denominator.model.ResourceRecordSet;
+import denominator.model.rdata.AAAAData;
+import denominator.model.rdata.MXData;
+import denominator.model.rdata.SOAData;
+import denominator.model.rdata.SPFData;
+import denominator.model.rdata.SRVData;
+import denominator.model.rdata.SSHFPData;
+
+@Test
+public class ZoneFilesTest {
+
+    static final String ZONE = Joiner.on('\n').join(
+            "$ORIGIN denominator.io.",
+            "$TTL 1h",
+            "@ IN SOA ns1 admin.denominator.io. (",
+            "        1          ; serial",
+            "        3600 600 1w",
+            "        60 )",
+            "  86400 IN NS ns1.denominator.io.",
+            "",
+            "; comment",
+            "www IN 300 CNAME www1",
+            "www1 A 192.0.2.1",
+            "     A 192.0.2.2",
+            "mail.denominator.io. MX 10 mx",
+            "_http._tcp SRV 0 1 80 www",
+            "txt TXT \"v=1; \\\"quoted\\\"\" \" and more\"",
+            "$ORIGIN sub.denominator.io.",
+            "ipv6 3600 AAAA 2001:DB8::1",
+            "ssh SSHFP 1 1 123456789abcdef67890123456789abcdef67890",
+            "spf SPF v=spf1\\032-all");
+
+    public void readsRecordSets() {
+        List<ResourceRecordSet<?>> rrsets = ImmutableList.copyOf(ZoneFiles.read(new StringReader(ZONE), null));
+        assertEquals(rrsets, ImmutableList.of(
+                ResourceRecordSet.<SOAData> builder().name("denominator.io.").type("SOA").ttl(3600)
+                        .add(SOAData.builder().mname("ns1.denominator.io.").rname("admin.denominator.io.")
+                                .serial(1).refresh(3600).retry(600).expire(604800).minimum(60).build()).build(),
+                ns("denominator.io.", 86400, "ns1.denominator.io."),
+                cname("www.denominator.io.", 300, "www1.denominator.io."),
+                a("www1.denominator.io.", 3600, ImmutableList.of("192.0.2.1", "192.0.2.2")),
+                ResourceRecordSet.<MXData> builder().name("mail.denominator.io.").type("MX").ttl(3600)
+                        .add(MXData.create(10, "mx.denominator.io.")).build(),
+                ResourceRecordSet.<SRVData> builder().name("_http._tcp.denominator.io.").type("SRV").ttl(3600)
+                        .add(SRVData.builder().priority(0).weight(1).port(80).target("www.denominator.io.").build())
+                        .build(),
+                txt("txt.denominator.io.", 3600, "v=1; \"quoted\" and more"),
+                ResourceRecordSet.<AAAAData> builder().name("ipv6.sub.denominator.io.").type("AAAA").ttl(3600)
+                        .add(AAAAData.create("2001:db8::1")).build(),
+                ResourceRecordSet.<SSHFPData> builder().name("ssh.sub.denominator.io.").type("SSHFP").ttl(3600)
+                        .add(SSHFPData.createRSA("123456789abcdef67890123456789abcdef67890")).build(),
+                ResourceRecordSet.<SPFData> builder().name("spf.sub.denominator.io.").type("SPF").ttl(3600)
+                        .add(SPFData.create("v=spf1 -all")).build()));
+        assertEquals(rrsets.get(2).getTTL().get(), Integer.valueOf(300));
+    }
+
+    public void writeThenReadIsLossless() throws IOException {
+        List<ResourceRecordSet<?>> rrsets = ImmutableList.copyOf(ZoneFiles.read(new StringReader(ZONE), null));
+        StringBuilder zone = new StringBuilder();
+        ZoneFiles.write(rrsets.iterator(), "denominator.io.", zone);
+        List<ResourceRecordSet<?>> reread = ImmutableList.copyOf(ZoneFiles.read(new StringReader(zone.toString()),
+                null));
+        assertEquals(reread, rrsets);
+        for (int i = 0; i < rrsets.size(); i++) {
+            assertEquals(reread.get(i).getTTL(), rrsets.get(i).getTTL());
+        }
+    }
+
+    public void writesOneRecordPerLine() {
+        assertEquals(ZoneFiles.format(a("www1.denominator.io.", 3600, ImmutableList.of("192.0.2.1", "192.0.2.2"))),
+                "www1.denominator.io.\t3600\tIN\tA\t192.0.2.1\nwww1.denominator.io.\t3600\tIN\tA\t192.0.2.2");
+        assertEquals(ZoneFiles.format(txt("txt.denominator.io.", "\"hello\"")),
+                "txt.denominator.io.\tIN\tTXT\t\"\\\"hello\\\"\"");
+    }
+
+    public void longTextIsSplitIntoCharacterStrings() {
+        String text = Strings.repeat("a", 300);
+        String line = ZoneFiles.format(txt("txt.denominator.io.", text));
+        assertEquals(line, "txt.denominator.io.\tIN\tTXT\t\"" + Strings.repeat("a", 255) + "\" \""
+                + Strings.repeat("a", 45) + "\"");
+        Iterator<ResourceRecordSet<?>> reread = ZoneFiles.read(new StringReader(line), null);
+        assertEquals(reread.next(), txt("txt.denominator.io.", text));
+    }
+
+    public void relativeToOriginArgument() {
+        ResourceRecordSet<?> rrset = ZoneFiles.read(new StringReader("www 60 A 192.0.2.1"), "denominator.io").next();
+        assertEquals(rrset, a("www.denominator.io.", 60, "192.0.2.1"));
+    }
+
+    public void noTTLWithoutDefault() {
+        ResourceRecordSet<?> rrset = ZoneFiles.read(new StringReader("www.denominator.io. A 192.0.2.1"), null).next();
+        assertEquals(rrset.getTTL().isPresent(), false);
+    }
+
+    public void recordsApartInTheFileAreSeparateRecordSets() {
+        Iterator<ResourceRecordSet<?>> rrsets = ZoneFiles.read(new StringReader(Joiner.on('\n').join(
+                "www 60 A 192.0.2.1",
+                "ftp 60 A 192.0.2.3",
+                "www 60 A 192.0.2.2")), "denominator.io.");
+        assertEquals(ImmutableList.copyOf(rrsets), ImmutableList.of(
+                a("www.denominator.io.", 60, "192.0.2.1"),
+                a("ftp.denominator.io.", 60, "192.0.2.3"),
+                a("www.denominator.io.", 60, "192.0.2.2")));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "unsupported type: HINFO")
+    public void writeRejectsUnsupportedTypes() {
+        ZoneFiles.format(ResourceRecordSet.<Map<String, Object>> builder()
+                .name("www.denominator.io.")
+                .type("HINFO")
+                .add(ImmutableMap.<String, Object> of("cpu", "PC", "os", "Linux")).build());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "line 2: www is relative, but there's no origin")
+    public void relativeNameWithoutOrigin() {
+        ZoneFiles.read(new StringReader("; comment\nwww A 192.0.2.1"), null).next();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "line 1: unsupported type: HINFO")
+    public void unsupportedType() {
+        ZoneFiles.read(new StringReader("www.denominator.io. HINFO PC Linux"), null).next();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "line 1: MX expects 2 values, not 1")
+    public void wrongNumberOfValues() {
+        ZoneFiles.read(new StringReader("www.denominator.io. MX mx.denominator.io."), null).next();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "line 2: unbalanced parentheses")
+    public void unbalancedParentheses() {
+        ZoneFiles.read(new StringReader("denominator.io. SOA ns1.denominator.io. admin.denominator.io. (\n1"), null)
+                .next();
+    }
+}
@@ -1,10 +1,12 @@
 package denominator.clouddns;
 
 import static com.google.common.base.Suppliers.compose;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 import java.io.Closeable;
 import java.util.List;
 
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.ContextBuilder;
@@ -15,6 +17,8 @@ import org.jclouds.rackspace.clouddns.v1.CloudDNSApiMetadata;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
@@ -26,14 +30,17 @@ import denominator.DNSApiManager;
 import denominator.Provider;
 import denominator.ResourceRecordSetApi;
 import denominator.ZoneApi;
+import denominator.config.AsyncOverBlockingResourceRecordSets;
+import denominator.config.BatchOverBlockingResourceRecordSets;
 import denominator.config.GeoUnsupported;
 import denominator.config.OnlyNormalResourceRecordSets;
 
 @Module(entryPoints = DNSApiManager.class,
            includes = { GeoUnsupported.class, 
-                        OnlyNormalResourceRecordSets.class } )
+                        OnlyNormalResourceRecordSets.class,
+                        AsyncOverBlockingResourceRecordSets.class,
+                        BatchOverBlockingResourceRecordSets.class } )
 public class CloudDNSProvider extends Provider {
-
     @Provides
     protected Provider provideThis() {
         return this;
@@ -64,8 +71,25 @@ public class CloudDNSProvider extends Provider {
 
     @Provides
     @Singleton
-    ResourceRecordSetApi.Factory provideResourceRecordSetApiFactory(CloudDNSApi api) {
-        return new CloudDNSResourceRecordSetApi.Factory(api);
+    ResourceRecordSetApi.Factory provideResourceRecordSetApiFactory(CloudDNSApi api,
+            @Named("domainIds") Cache<String, Integer> domainIds) {
+        return new CloudDNSResourceRecordSetApi.Factory(api, domainIds);
+    }
+
+    /**
+     * domain ids by name, used when creating a {@link ResourceRecordSetApi}.
+     * Entries expire after 5 minutes. To change the bounds, read stats or
+     * invalidate entries, pass a module with {@code overrides = true} that
+     * provides your own {@code @Named("domainIds")} cache.
+     */
+    @Provides
+    @Singleton
+    @Named("domainIds")
+    Cache<String, Integer> provideDomainIdCache() {
+        return CacheBuilder.newBuilder()
+                           .maximumSize(1000)
+                           .expireAfterWrite(5, MINUTES)
+                           .build();
     }
 
     @Provides
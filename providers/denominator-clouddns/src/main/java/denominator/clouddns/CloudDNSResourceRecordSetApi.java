@@ -5,8 +5,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static denominator.model.ResourceRecordSets.nameEqualTo;
 
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.jclouds.rackspace.clouddns.v1.CloudDNSApi;
 import org.jclouds.rackspace.clouddns.v1.domain.Domain;
@@ -14,7 +17,11 @@ import org.jclouds.rackspace.clouddns.v1.features.RecordApi;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader;
 import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import denominator.ResourceRecordSetApi;
 import denominator.model.ResourceRecordSet;
@@ -51,17 +58,55 @@ public final class CloudDNSResourceRecordSetApi implements denominator.ResourceR
     static final class Factory implements denominator.ResourceRecordSetApi.Factory {
 
         private final CloudDNSApi api;
+        private final Cache<String, Integer> domainIds;
 
         @Inject
-        Factory(CloudDNSApi api) {
+        Factory(CloudDNSApi api, @Named("domainIds") Cache<String, Integer> domainIds) {
             this.api = api;
+            this.domainIds = domainIds;
         }
 
         @Override
         public ResourceRecordSetApi create(final String domainName) {
+            checkNotNull(domainName, "domainName");
+            int domainId;
+            try {
+                domainId = domainIds.get(domainName, new Callable<Integer>() {
+                    public Integer call() {
+                        return new DomainIdByName(api).load(domainName);
+                    }
+                });
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            } catch (UncheckedExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            }
+            return new CloudDNSResourceRecordSetApi(api.getRecordApiForDomain(domainId));
+        }
+    }
+
+    /**
+     * looks up the id of a domain by listing all of them. Results should be
+     * cached, as this is expensive when there are many domains.
+     */
+    static final class DomainIdByName extends CacheLoader<String, Integer> {
+
+        private final CloudDNSApi api;
+
+        DomainIdByName(CloudDNSApi api) {
+            this.api = api;
+        }
+
+        @Override
+        public Integer load(String domainName) {
             Optional<Domain> domain = api.getDomainApi().list().concat().firstMatch(domainNameEquals(domainName));
             checkArgument(domain.isPresent(), "domain %s not found", domainName);
-            return new CloudDNSResourceRecordSetApi(api.getRecordApiForDomain(domain.get().getId()));
+            return domain.get().getId();
+        }
+
+        @Override
+        public String toString() {
+            return "domainIdByName()";
         }
     }
 
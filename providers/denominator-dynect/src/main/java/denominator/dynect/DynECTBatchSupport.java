@@ -0,0 +1,31 @@
+package denominator.dynect;
+
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.dynect.v3.DynECTApi;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import dagger.Module;
+import dagger.Provides;
+import denominator.DNSApiManager;
+import denominator.ResourceRecordSetBatch;
+import denominator.config.BatchOverBlockingResourceRecordSets;
+
+/**
+ * overrides {@link BatchOverBlockingResourceRecordSets}, so that a batch
+ * publishes the zone once.
+ */
+@Module(entryPoints = DNSApiManager.class, complete = false, overrides = true)
+public class DynECTBatchSupport {
+
+    @Provides
+    @Singleton
+    ResourceRecordSetBatch.Factory provideResourceRecordSetBatchFactory(DynECTApi api, RecordDetailApi detailApi,
+            @Named(PROPERTY_USER_THREADS) ListeningExecutorService executor, @Named("prefetch") int prefetch) {
+        return new DynECTResourceRecordSetBatch.Factory(api, detailApi, executor, prefetch);
+    }
+}
@@ -3,10 +3,7 @@ package denominator.dynect;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Predicates.alwaysTrue;
 import static com.google.common.base.Predicates.equalTo;
-import static com.google.common.collect.Iterables.any;
 import static com.google.common.collect.Iterables.filter;
-import static com.google.common.collect.Multimaps.filterKeys;
-import static com.google.common.collect.Multimaps.index;
 
 import java.util.Iterator;
 import java.util.List;
@@ -15,7 +12,6 @@ import java.util.Set;
 
 import javax.inject.Inject;
 
-import org.jclouds.dynect.v3.DynECTApi;
 import org.jclouds.dynect.v3.domain.GeoRegionGroup;
 import org.jclouds.dynect.v3.domain.GeoService;
 import org.jclouds.dynect.v3.domain.Node;
@@ -38,16 +34,16 @@ public final class DynECTGeoResourceRecordSetApi implements GeoResourceRecordSet
 
     private final Set<String> types;
     private final Multimap<String, String> regions;
-    private final DynECTApi api;
-    private final Function<String, String> countryToRegion;
+    private final GeoServiceIndex services;
+    private final GeoProfiles geoProfiles;
     private final String zoneFQDN;
 
-    DynECTGeoResourceRecordSetApi(Set<String> types, Multimap<String, String> regions, DynECTApi api,
-            Function<String, String> countryToRegion, String zoneFQDN) {
+    DynECTGeoResourceRecordSetApi(Set<String> types, Multimap<String, String> regions, GeoServiceIndex services,
+            GeoProfiles geoProfiles, String zoneFQDN) {
         this.types = types;
         this.regions = regions;
-        this.api = api;
-        this.countryToRegion = countryToRegion;
+        this.services = services;
+        this.geoProfiles = geoProfiles;
         this.zoneFQDN = zoneFQDN;
     }
 
@@ -66,7 +62,7 @@ public final class DynECTGeoResourceRecordSetApi implements GeoResourceRecordSet
         Predicate<Node> nodeFilter = zoneNameEqualTo(zoneFQDN);
         Predicate<GeoRegionGroup> geoGroupFilter = alwaysTrue();
         Predicate<RecordSet> rsetFilter = alwaysTrue();
-        return transform(nodeFilter, geoGroupFilter, rsetFilter).iterator();
+        return transform(services.servicesForZone(zoneFQDN), nodeFilter, geoGroupFilter, rsetFilter).iterator();
     }
 
     @Override
@@ -75,7 +71,7 @@ public final class DynECTGeoResourceRecordSetApi implements GeoResourceRecordSet
         Predicate<Node> nodeFilter = equalTo(Node.create(zoneFQDN, fqdn));
         Predicate<GeoRegionGroup> geoGroupFilter = alwaysTrue();
         Predicate<RecordSet> rsetFilter = alwaysTrue();
-        return transform(nodeFilter, geoGroupFilter, rsetFilter).iterator();
+        return transform(servicesForName(fqdn), nodeFilter, geoGroupFilter, rsetFilter).iterator();
     }
 
     @Override
@@ -85,7 +81,7 @@ public final class DynECTGeoResourceRecordSetApi implements GeoResourceRecordSet
         Predicate<Node> nodeFilter = equalTo(Node.create(zoneFQDN, fqdn));
         Predicate<GeoRegionGroup> geoGroupFilter = alwaysTrue();
         Predicate<RecordSet> rsetFilter = typeEqualTo(type);
-        return transform(nodeFilter, geoGroupFilter, rsetFilter).iterator();
+        return transform(servicesForName(fqdn), nodeFilter, geoGroupFilter, rsetFilter).iterator();
     }
 
     @Override
@@ -96,7 +92,11 @@ public final class DynECTGeoResourceRecordSetApi implements GeoResourceRecordSet
         Predicate<Node> nodeFilter = equalTo(Node.create(zoneFQDN, fqdn));
         Predicate<GeoRegionGroup> geoGroupFilter = nameEqualTo(group);
         Predicate<RecordSet> rsetFilter = typeEqualTo(type);
-        return transform(nodeFilter, geoGroupFilter, rsetFilter).first();
+        return transform(servicesForName(fqdn), nodeFilter, geoGroupFilter, rsetFilter).first();
+    }
+
+    private List<GeoService> servicesForName(String fqdn) {
+        return services.servicesForNode(zoneFQDN, fqdn);
     }
 
     /**
@@ -104,12 +104,10 @@ public final class DynECTGeoResourceRecordSetApi implements GeoResourceRecordSet
      * current zone. We need to filter out those not in the zone from our
      * results.
      */
-    private FluentIterable<ResourceRecordSet<?>> transform(Predicate<Node> nodeFilter,
+    private FluentIterable<ResourceRecordSet<?>> transform(List<GeoService> services, Predicate<Node> nodeFilter,
             Predicate<GeoRegionGroup> geoGroupFilter, Predicate<RecordSet> rsetFilter) {
-        return api.getGeoServiceApi().list()
-                  .transform(geoServiceById)
-                  .filter(nodesMatching(nodeFilter))
-                  .transformAndConcat(toIterator(nodeFilter, geoGroupFilter, rsetFilter));
+        return FluentIterable.from(services)
+                             .transformAndConcat(toIterator(nodeFilter, geoGroupFilter, rsetFilter));
     }
 
     private Function<GeoService, Iterable<ResourceRecordSet<?>>> toIterator(
@@ -122,8 +120,7 @@ public final class DynECTGeoResourceRecordSetApi implements GeoResourceRecordSet
                 ImmutableList.Builder<ResourceRecordSet<?>> toReturn = ImmutableList.builder();
                 Iterable<Node> nodes = filter(input.getNodes(), nodeFilter);
                 for (GeoRegionGroup group : filter(input.getGroups(), groupFilter)) {
-                    Multimap<String, String> indexedGroups = indexByRegion(group.getCountries());
-                    Geo geo = Geo.create(group.getName(), indexedGroups);
+                    Geo geo = geoProfiles.create(group.getName(), group.getCountries());
                     toReturn.addAll(FluentIterable.from(group.getRecordSets())
                                                   .filter(rsetFilter)
                                                   .transform(toResourceRecordSetBuilder(geo))
@@ -131,24 +128,9 @@ public final class DynECTGeoResourceRecordSetApi implements GeoResourceRecordSet
                 }
                 return toReturn.build();
             }
-
-            private Multimap<String, String> indexByRegion(List<String> countries) {
-                // special case the "all countries" condition
-                if (countries.size() == 1 && regions.containsKey(countries.get(0))) {
-                    return filterKeys(regions, equalTo(countries.get(0)));
-                }
-                return index(countries, countryToRegion);
-            }
         };
     }
 
-    private final Function<String, GeoService> geoServiceById = new Function<String, GeoService>() {
-        @Override
-        public GeoService apply(String input) {
-            return api.getGeoServiceApi().get(input);
-        }
-    };
-
     private static Predicate<GeoRegionGroup> nameEqualTo(final String group) {
         return new Predicate<GeoRegionGroup>() {
 
@@ -160,15 +142,6 @@ public final class DynECTGeoResourceRecordSetApi implements GeoResourceRecordSet
         };
     }
 
-    private static Predicate<GeoService> nodesMatching(final Predicate<Node> nodeFilter) {
-        return new Predicate<GeoService>() {
-            @Override
-            public boolean apply(GeoService input) {
-                return any(input.getNodes(), nodeFilter);
-            }
-        };
-    }
-
     private static Predicate<Node> zoneNameEqualTo(final String zoneName) {
         return new Predicate<Node>() {
             @Override
@@ -247,24 +220,24 @@ public final class DynECTGeoResourceRecordSetApi implements GeoResourceRecordSet
     static final class Factory implements GeoResourceRecordSetApi.Factory {
         private final Set<String> types;
         private final Multimap<String, String> regions;
-        private final DynECTApi api;
-        private final Function<String, String> countryToRegion;
+        private final GeoServiceIndex services;
+        private final GeoProfiles geoProfiles;
 
         @Inject
         Factory(@denominator.config.profile.Geo Set<String> types,
-                @denominator.config.profile.Geo Multimap<String, String> regions, DynECTApi api,
-                @denominator.config.profile.Geo Function<String, String> countryToRegion) {
+                @denominator.config.profile.Geo Multimap<String, String> regions, GeoServiceIndex services,
+                GeoProfiles geoProfiles) {
             this.types = types;
             this.regions = regions;
-            this.api = api;
-            this.countryToRegion = countryToRegion;
+            this.services = services;
+            this.geoProfiles = geoProfiles;
         }
 
         @Override
         public Optional<GeoResourceRecordSetApi> create(String zoneName) {
             checkNotNull(zoneName, "zoneName was null");
             return Optional.<GeoResourceRecordSetApi> of(
-                    new DynECTGeoResourceRecordSetApi(types,regions, api, countryToRegion, zoneName));
+                    new DynECTGeoResourceRecordSetApi(types, regions, services, geoProfiles, zoneName));
         }
     }
 }
@@ -1,16 +1,17 @@
 package denominator.dynect;
 
-import java.util.Map.Entry;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
 
+import org.jclouds.dynect.v3.DynECTApi;
 import org.jclouds.dynect.v3.domain.GeoRegionGroup;
 
-import com.google.common.base.Function;
-import com.google.common.base.Functions;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableMap.Builder;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
@@ -22,6 +23,26 @@ import denominator.profile.GeoResourceRecordSetApi;
 
 @Module(entryPoints = DNSApiManager.class, complete = false)
 public class DynECTGeoSupport {
+    private final long serviceTTL;
+    private final TimeUnit serviceTTLUnit;
+
+    /**
+     * geo services are listed again after a minute.
+     */
+    public DynECTGeoSupport() {
+        this(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @param serviceTTL
+     *            how long geo services are indexed before they are listed
+     *            and read again. Changes to services show within this time.
+     */
+    public DynECTGeoSupport(long serviceTTL, TimeUnit serviceTTLUnit) {
+        checkArgument(serviceTTL >= 0, "serviceTTL must be non-negative, but was %s", serviceTTL);
+        this.serviceTTL = serviceTTL;
+        this.serviceTTLUnit = checkNotNull(serviceTTLUnit, "serviceTTLUnit");
+    }
 
     @Provides
     @Singleton
@@ -29,6 +50,12 @@ public class DynECTGeoSupport {
         return in;
     }
 
+    @Provides
+    @Singleton
+    GeoServiceIndex provideGeoServiceIndex(DynECTApi api) {
+        return new GeoServiceIndex(api.getGeoServiceApi(), serviceTTL, serviceTTLUnit, Ticker.systemTicker());
+    }
+
     /**
      * taken from <a
      * href="https://help.dynect.net/predefined-geotm-regions-groups/"
@@ -106,12 +133,7 @@ public class DynECTGeoSupport {
      */
     @Provides
     @Singleton
-    @denominator.config.profile.Geo
-    Function<String, String> provideCountryToRegion(@denominator.config.profile.Geo Multimap<String, String> regions) {
-        Builder<String, String> builder = ImmutableMap.<String, String> builder();
-        for (Entry<String, String> region : regions.entries()) {
-            builder.put(region.getValue(), region.getKey());
-        }
-        return Functions.forMap(builder.build());
+    GeoProfiles provideGeoProfiles(@denominator.config.profile.Geo Multimap<String, String> regions) {
+        return new GeoProfiles(regions);
     }
 }
\ No newline at end of file
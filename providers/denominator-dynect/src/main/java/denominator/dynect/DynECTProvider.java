@@ -1,27 +1,41 @@
 package denominator.dynect;
 
 import static com.google.common.base.Suppliers.compose;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.rest.config.BinderUtils.bindHttpApi;
 
 import java.io.Closeable;
 import java.util.List;
 
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.ContextBuilder;
 import org.jclouds.domain.Credentials;
 import org.jclouds.dynect.v3.DynECTApi;
+import org.jclouds.dynect.v3.DynECTExceptions.JobStillRunningException;
 import org.jclouds.dynect.v3.DynECTProviderMetadata;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.logging.slf4j.config.SLF4JLoggingModule;
 
 import com.google.common.base.Function;
+import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
 
 import dagger.Module;
 import dagger.Provides;
+import denominator.AdaptiveRateLimiter;
 import denominator.CredentialsConfiguration.CredentialsAsList;
+import denominator.config.AsyncOverBlockingResourceRecordSets;
 import denominator.config.ConcatNormalAndGeoResourceRecordSets;
 import denominator.DNSApiManager;
 import denominator.Provider;
@@ -31,7 +45,9 @@ import denominator.config.ConcatNormalAndGeoResourceRecordSets;
 
 @Module(entryPoints = DNSApiManager.class, 
            includes = { DynECTGeoSupport.class, 
-                        ConcatNormalAndGeoResourceRecordSets.class })
+                        ConcatNormalAndGeoResourceRecordSets.class,
+                        AsyncOverBlockingResourceRecordSets.class,
+                        DynECTBatchSupport.class })
 public class DynECTProvider extends Provider {
 
     @Provides
@@ -65,17 +81,91 @@ public class DynECTProvider extends Provider {
 
     @Provides
     @Singleton
-    ResourceRecordSetApi.Factory provideResourceRecordSetApiFactory(DynECTApi api) {
-        return new DynECTResourceRecordSetApi.Factory(api);
+    ResourceRecordSetApi.Factory provideResourceRecordSetApiFactory(DynECTApi api, RecordDetailApi detailApi,
+            @Named(PROPERTY_USER_THREADS) ListeningExecutorService executor, @Named("prefetch") int prefetch) {
+        return new DynECTResourceRecordSetApi.Factory(api, detailApi, executor, prefetch);
+    }
+
+    /**
+     * how many records to get concurrently when they could not be listed with
+     * detail. To tune this against DynECT's rate limits, pass a module with
+     * {@code overrides = true} that provides a different value.
+     */
+    @Provides
+    @Named("prefetch")
+    int providePrefetch() {
+        return 10;
+    }
+
+    /**
+     * jclouds' user thread pool, which is shut down when the api is closed.
+     */
+    @Provides
+    @Singleton
+    @Named(PROPERTY_USER_THREADS)
+    ListeningExecutorService provideUserExecutor(Injector injector) {
+        return injector.getInstance(Key.get(ListeningExecutorService.class, Names.named(PROPERTY_USER_THREADS)));
     }
 
     @Provides
     @Singleton
-    DynECTApi provideApi(Supplier<Credentials> credentials) {
+    Injector provideInjector(Supplier<Credentials> credentials) {
         return ContextBuilder.newBuilder(new DynECTProviderMetadata())
                              .credentialsSupplier(credentials)
-                             .modules(ImmutableSet.<com.google.inject.Module> of(new SLF4JLoggingModule()))
-                             .buildApi(DynECTApi.class);
+                             .modules(ImmutableSet.<com.google.inject.Module> of(new SLF4JLoggingModule(),
+                                                                                 new BindRecordDetailApi()))
+                             .buildInjector();
+    }
+
+    /**
+     * shared by {@link DynECTApi} and {@link RecordDetailApi}, as they use the
+     * same session. The rate is reduced when requests are throttled.
+     */
+    @Provides
+    @Singleton
+    AdaptiveRateLimiter provideRateLimiter() {
+        return AdaptiveRateLimiter.create(10);
+    }
+
+    @Provides
+    @Singleton
+    DynECTApi provideApi(Injector injector, AdaptiveRateLimiter rateLimiter) {
+        return rateLimiter.decorate(DynECTApi.class, injector.getInstance(DynECTApi.class), new IsThrottled());
+    }
+
+    @Provides
+    @Singleton
+    RecordDetailApi provideRecordDetailApi(Injector injector, AdaptiveRateLimiter rateLimiter) {
+        return rateLimiter.decorate(RecordDetailApi.class, injector.getInstance(RecordDetailApi.class),
+                new IsThrottled());
+    }
+
+    /**
+     * DynECT responds with {@code 429} when requests arrive too quickly, and
+     * refuses new jobs while one is still running on the session.
+     */
+    private static class IsThrottled implements Predicate<Throwable> {
+        public boolean apply(Throwable input) {
+            if (input instanceof JobStillRunningException)
+                return true;
+            if (input instanceof HttpResponseException) {
+                HttpResponse response = HttpResponseException.class.cast(input).getResponse();
+                return response != null && response.getStatusCode() == 429;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * binds {@link RecordDetailApi} so that it shares the session of
+     * {@link DynECTApi}.
+     */
+    static final class BindRecordDetailApi extends AbstractModule {
+
+        @Override
+        protected void configure() {
+            bindHttpApi(binder(), RecordDetailApi.class);
+        }
     }
 
     @Provides
@@ -6,22 +6,29 @@ import static com.google.common.base.Predicates.notNull;
 import static com.google.common.collect.Iterators.filter;
 import static com.google.common.collect.Ordering.usingToString;
 import static denominator.dynect.GroupByRecordNameAndTypeIterator.getRecord;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.jclouds.dynect.v3.DynECTApi;
 import org.jclouds.dynect.v3.domain.CreateRecord;
 import org.jclouds.dynect.v3.domain.Record;
 import org.jclouds.dynect.v3.domain.RecordId;
+import org.jclouds.dynect.v3.features.RecordApi;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 import denominator.ResourceRecordSetApi;
 import denominator.model.ResourceRecordSet;
@@ -30,36 +37,55 @@ import denominator.model.ResourceRecordSet.Builder;
 public final class DynECTResourceRecordSetApi implements denominator.ResourceRecordSetApi {
     static final class Factory implements denominator.ResourceRecordSetApi.Factory {
         private final DynECTApi api;
+        private final RecordDetailApi detailApi;
+        private final ListeningExecutorService executor;
+        private final int prefetch;
 
         @Inject
-        Factory(DynECTApi api) {
+        Factory(DynECTApi api, RecordDetailApi detailApi, @Named(PROPERTY_USER_THREADS) ListeningExecutorService executor,
+                @Named("prefetch") int prefetch) {
             this.api = api;
+            this.detailApi = detailApi;
+            this.executor = executor;
+            this.prefetch = prefetch;
         }
 
         @Override
         public ResourceRecordSetApi create(String zoneName) {
             checkNotNull(zoneName, "zoneName was null");
-            return new DynECTResourceRecordSetApi(api, zoneName);
+            return new DynECTResourceRecordSetApi(api, detailApi, executor, prefetch, zoneName);
         }
     }
 
     private final DynECTApi api;
+    private final RecordDetailApi detailApi;
+    private final ListeningExecutorService executor;
+    private final int prefetch;
     private final String zoneFQDN;
 
-    DynECTResourceRecordSetApi(DynECTApi api, String zoneFQDN) {
+    DynECTResourceRecordSetApi(DynECTApi api, RecordDetailApi detailApi, ListeningExecutorService executor,
+            int prefetch, String zoneFQDN) {
         this.api = api;
+        this.detailApi = detailApi;
+        this.executor = executor;
+        this.prefetch = prefetch;
         this.zoneFQDN = zoneFQDN;
     }
 
+    /**
+     * lists all records in the zone with their rdata in one request. Only
+     * records whose types aren't supported by {@link ToRecordsWithDetail} are
+     * fetched individually.
+     */
     @Override
     public Iterator<ResourceRecordSet<?>> list() {
-        return groupByRecordNameAndType(api.getRecordApiForZone(zoneFQDN).list());
+        return groupByRecordNameAndType(detailApi.listInZone(zoneFQDN));
     }
 
     @Override
     public Iterator<ResourceRecordSet<?>> listByName(String fqdn) {
         checkNotNull(fqdn, "fqdn was null");
-        return groupByRecordNameAndType(api.getRecordApiForZone(zoneFQDN).listByFQDN(fqdn));
+        return groupByRecordNameAndType(detailApi.listByFQDN(zoneFQDN, fqdn));
     }
 
     @Override
@@ -113,7 +139,7 @@ public final class DynECTResourceRecordSetApi implements denominator.ResourceRec
                                                                             .type(rrset.getType())
                                                                             .ttl(ttlToApply.or(0));
             for (Map<String, Object> record : recordsLeftToCreate) {
-                api.getRecordApiForZone(zoneFQDN).scheduleCreate(builder.rdata(record).build());
+                api.getRecordApiForZone(zoneFQDN).scheduleCreate(builder.rdata(ImmutableMap.copyOf(record)).build());
             }
             api.getZoneApi().publish(zoneFQDN);
         }
@@ -174,16 +200,22 @@ public final class DynECTResourceRecordSetApi implements denominator.ResourceRec
                                                                             .type(rrset.getType())
                                                                             .ttl(ttlToApply);
             for (Map<String, Object> record : recordsLeftToCreate) {
-                api.getRecordApiForZone(zoneFQDN).scheduleCreate(builder.rdata(record).build());
+                api.getRecordApiForZone(zoneFQDN).scheduleCreate(builder.rdata(ImmutableMap.copyOf(record)).build());
             }
             api.getZoneApi().publish(zoneFQDN);
         }
     }
 
     private List<Record<?>> existingRecordsByNameAndType(String name, String type) {
-        return exisingRecordIdsByNameAndType(name, type).transform(new Function<RecordId, Record<?>>() {
+        return existingRecordsByNameAndType(api.getRecordApiForZone(zoneFQDN), name, type);
+    }
+
+    static List<Record<?>> existingRecordsByNameAndType(final RecordApi recordApi, String name, String type) {
+        checkNotNull(name, "name");
+        checkNotNull(type, "type");
+        return recordApi.listByFQDNAndType(name, type).transform(new Function<RecordId, Record<?>>() {
             public Record<?> apply(RecordId in) {
-                return getRecord(api.getRecordApiForZone(zoneFQDN), in);
+                return getRecord(recordApi, in);
             }
 
             public String toString() {
@@ -227,10 +259,27 @@ public final class DynECTResourceRecordSetApi implements denominator.ResourceRec
     }
 
     private Iterator<ResourceRecordSet<?>> groupByRecordNameAndType(FluentIterable<RecordId> recordIds) {
-        Iterator<RecordId> orderedKeys = recordIds.toSortedList(usingToString()).iterator();
-        return filter(new GroupByRecordNameAndTypeIterator(api.getRecordApiForZone(zoneFQDN), orderedKeys), notNull());
+        Iterator<RecordId> orderedKeys = recordIds.toSortedList(byFQDNTypeAndId).iterator();
+        return filter(new GroupByRecordNameAndTypeIterator(api.getRecordApiForZone(zoneFQDN), orderedKeys, executor,
+                prefetch), notNull());
     }
 
+    /**
+     * listings may mix {@link Record} and {@link RecordId}, whose
+     * {@code toString()} differ, so we cannot sort on that.
+     */
+    static final Ordering<RecordId> byFQDNTypeAndId = new Ordering<RecordId>() {
+
+        @Override
+        public int compare(RecordId left, RecordId right) {
+            return ComparisonChain.start()
+                                  .compare(left.getFQDN(), right.getFQDN())
+                                  .compare(left.getType(), right.getType())
+                                  .compare(left.getId(), right.getId())
+                                  .result();
+        }
+    };
+
     private FluentIterable<RecordId> exisingRecordIdsByNameAndType(String name, String type) {
         checkNotNull(name, "name");
         checkNotNull(type, "type");
@@ -0,0 +1,175 @@
+package denominator.dynect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static denominator.dynect.DynECTResourceRecordSetApi.byFQDNTypeAndId;
+import static denominator.dynect.DynECTResourceRecordSetApi.existingRecordsByNameAndType;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.jclouds.dynect.v3.DynECTApi;
+import org.jclouds.dynect.v3.domain.CreateRecord;
+import org.jclouds.dynect.v3.domain.Record;
+import org.jclouds.dynect.v3.features.RecordApi;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import denominator.ResourceRecordSetBatch;
+import denominator.StagedResourceRecordSetBatch;
+import denominator.model.ResourceRecordSet;
+import denominator.model.ResourceRecordSet.Builder;
+
+/**
+ * schedules the record creates and deletes for all staged changes, then
+ * publishes the zone once.
+ */
+final class DynECTResourceRecordSetBatch extends StagedResourceRecordSetBatch {
+
+    private final DynECTApi api;
+    private final RecordDetailApi detailApi;
+    private final ListeningExecutorService executor;
+    private final int prefetch;
+    private final String zoneFQDN;
+    private boolean shouldPublish;
+
+    DynECTResourceRecordSetBatch(DynECTApi api, RecordDetailApi detailApi, ListeningExecutorService executor,
+            int prefetch, String zoneFQDN) {
+        super(zoneFQDN);
+        this.api = api;
+        this.detailApi = detailApi;
+        this.executor = executor;
+        this.prefetch = prefetch;
+        this.zoneFQDN = zoneFQDN;
+    }
+
+    @Override
+    protected void stage(String name, String type,
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change) {
+        RecordApi recordApi = api.getRecordApiForZone(zoneFQDN);
+        List<Record<?>> existingRecords = existingRecordsByNameAndType(recordApi, name, type);
+        stage(recordApi, name, type, existingRecords, change);
+    }
+
+    /**
+     * lists the zone's records with their rdata in one request, then stages
+     * each name and type as its records are read, getting those listed
+     * without rdata {@code prefetch} at a time.
+     */
+    @Override
+    protected void stageMatching(Predicate<? super ResourceRecordSet<?>> filter,
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change) {
+        RecordApi recordApi = api.getRecordApiForZone(zoneFQDN);
+        GroupByRecordNameAndTypeIterator groups = new GroupByRecordNameAndTypeIterator(recordApi, detailApi
+                .listInZone(zoneFQDN).toSortedList(byFQDNTypeAndId).iterator(), executor, prefetch);
+        while (groups.hasNext()) {
+            List<Record<?>> existingRecords = ImmutableList.<Record<?>> copyOf(groups.nextRecords());
+            if (existingRecords.isEmpty())
+                continue;
+            String name = existingRecords.get(0).getFQDN();
+            String type = existingRecords.get(0).getType();
+            if (filter.apply(toResourceRecordSet(name, type, existingRecords).get()))
+                stage(recordApi, name, type, existingRecords, change);
+        }
+    }
+
+    private void stage(RecordApi recordApi, String name, String type, List<Record<?>> existingRecords,
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change) {
+        Optional<ResourceRecordSet<?>> existing = toResourceRecordSet(name, type, existingRecords);
+        Optional<ResourceRecordSet<?>> desired = change.apply(existing);
+        if (!desired.isPresent()) {
+            for (Record<?> existingRecord : existingRecords) {
+                recordApi.scheduleDelete(existingRecord);
+                shouldPublish = true;
+            }
+            return;
+        }
+
+        int ttlToApply = desired.get().getTTL().or(0);
+        List<Map<String, Object>> recordsLeftToCreate = Lists.<Map<String, Object>> newArrayList(desired.get());
+
+        for (Record<?> existingRecord : existingRecords) {
+            if (recordsLeftToCreate.contains(existingRecord.getRData()) && ttlToApply == existingRecord.getTTL()) {
+                recordsLeftToCreate.remove(existingRecord.getRData());
+                continue;
+            }
+            recordApi.scheduleDelete(existingRecord);
+            shouldPublish = true;
+        }
+
+        if (recordsLeftToCreate.size() > 0) {
+            CreateRecord.Builder<Map<String, Object>> builder = CreateRecord.builder()
+                                                                            .fqdn(name)
+                                                                            .type(type)
+                                                                            .ttl(ttlToApply);
+            for (Map<String, Object> record : recordsLeftToCreate) {
+                recordApi.scheduleCreate(builder.rdata(ImmutableMap.copyOf(record)).build());
+            }
+            shouldPublish = true;
+        }
+    }
+
+    private static Optional<ResourceRecordSet<?>> toResourceRecordSet(String name, String type,
+            List<Record<?>> existingRecords) {
+        if (existingRecords.isEmpty())
+            return Optional.absent();
+        Builder<Map<String, Object>> builder = ResourceRecordSet.builder()
+                                                                .name(name)
+                                                                .type(type)
+                                                                .ttl(existingRecords.get(0).getTTL());
+        for (Record<?> existingRecord : existingRecords) {
+            builder.add(existingRecord.getRData());
+        }
+        return Optional.<ResourceRecordSet<?>> of(builder.build());
+    }
+
+    /**
+     * resets whether to publish even when a change fails, so that reusing this
+     * batch doesn't publish changes it didn't schedule.
+     */
+    @Override
+    public void commit() {
+        try {
+            super.commit();
+        } finally {
+            shouldPublish = false;
+        }
+    }
+
+    @Override
+    protected void apply() {
+        if (shouldPublish)
+            api.getZoneApi().publish(zoneFQDN);
+    }
+
+    static final class Factory implements denominator.ResourceRecordSetBatch.Factory {
+        private final DynECTApi api;
+        private final RecordDetailApi detailApi;
+        private final ListeningExecutorService executor;
+        private final int prefetch;
+
+        @Inject
+        Factory(DynECTApi api, RecordDetailApi detailApi, @Named(PROPERTY_USER_THREADS) ListeningExecutorService executor,
+                @Named("prefetch") int prefetch) {
+            this.api = api;
+            this.detailApi = detailApi;
+            this.executor = executor;
+            this.prefetch = prefetch;
+        }
+
+        @Override
+        public ResourceRecordSetBatch create(String zoneName) {
+            checkNotNull(zoneName, "zoneName was null");
+            return new DynECTResourceRecordSetBatch(api, detailApi, executor, prefetch, zoneName);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package denominator.dynect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+
+import denominator.model.profile.Geo;
+
+/**
+ * builds {@link Geo} profiles from the countries of a
+ * {@link org.jclouds.dynect.v3.domain.GeoRegionGroup}.
+ *
+ * Each country of the supported regions is numbered, grouped by region, so
+ * that a group's countries are a {@link BitSet}. Groups with the same name
+ * and countries share the same profile, so listing many record sets of a
+ * group doesn't build a multimap for each one.
+ */
+final class GeoProfiles {
+    private final Multimap<String, String> regions;
+    private final Map<String, Integer> countryToIndex;
+    private final String[] countries;
+    private final String[] regionOfCountry;
+    private final ConcurrentMap<GroupKey, Geo> profiles = Maps.newConcurrentMap();
+
+    GeoProfiles(Multimap<String, String> regions) {
+        this.regions = checkNotNull(regions, "regions");
+        ImmutableMap.Builder<String, Integer> countryToIndex = ImmutableMap.builder();
+        this.countries = new String[regions.size()];
+        this.regionOfCountry = new String[regions.size()];
+        int index = 0;
+        for (Entry<String, String> entry : regions.entries()) {
+            countryToIndex.put(entry.getValue(), index);
+            countries[index] = entry.getValue();
+            regionOfCountry[index] = entry.getKey();
+            index++;
+        }
+        this.countryToIndex = countryToIndex.build();
+    }
+
+    /**
+     * @param countries
+     *            country codes, or the name of a region, which means all of
+     *            its countries.
+     */
+    Geo create(String name, List<String> countries) {
+        GroupKey key = new GroupKey(checkNotNull(name, "name"), toBitSet(countries));
+        Geo geo = profiles.get(key);
+        if (geo == null) {
+            Geo newGeo = Geo.create(name, toRegions(key.countries));
+            geo = profiles.putIfAbsent(key, newGeo);
+            if (geo == null)
+                geo = newGeo;
+        }
+        return geo;
+    }
+
+    private BitSet toBitSet(List<String> countries) {
+        BitSet bits = new BitSet(this.countries.length);
+        // special case the "all countries" condition
+        if (countries.size() == 1 && regions.containsKey(countries.get(0))) {
+            for (String country : regions.get(countries.get(0)))
+                bits.set(countryToIndex.get(country));
+            return bits;
+        }
+        for (String country : countries) {
+            Integer index = countryToIndex.get(country);
+            checkArgument(index != null, "country %s is not in any supported region", country);
+            bits.set(index);
+        }
+        return bits;
+    }
+
+    private Multimap<String, String> toRegions(BitSet bits) {
+        ImmutableListMultimap.Builder<String, String> builder = ImmutableListMultimap.builder();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+            builder.put(regionOfCountry[i], countries[i]);
+        return builder.build();
+    }
+
+    private static final class GroupKey {
+        private final String name;
+        private final BitSet countries;
+
+        private GroupKey(String name, BitSet countries) {
+            this.name = name;
+            this.countries = countries;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + countries.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof GroupKey))
+                return false;
+            GroupKey that = (GroupKey) obj;
+            return name.equals(that.name) && countries.equals(that.countries);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package denominator.dynect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jclouds.dynect.v3.domain.GeoService;
+import org.jclouds.dynect.v3.domain.Node;
+import org.jclouds.dynect.v3.features.GeoServiceApi;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+
+/**
+ * indexes the geo services of an account by the nodes they reference, so that
+ * lookups of a name don't need to get every service.
+ *
+ * Service names are listed again once {@code ttl} has passed, and every
+ * service is read again then, as the api doesn't say which services changed.
+ * A change to a service shows once the first listing after {@code ttl}
+ * completes.
+ *
+ * Lookups use the last published index and don't wait for a refresh, except
+ * for the first.
+ */
+final class GeoServiceIndex {
+    private final GeoServiceApi api;
+    private final long ttlNanos;
+    private final Ticker ticker;
+    private final Lock refreshLock = new ReentrantLock();
+    private volatile Index index;
+
+    GeoServiceIndex(GeoServiceApi api, long ttl, TimeUnit unit, Ticker ticker) {
+        this.api = checkNotNull(api, "api");
+        checkArgument(ttl >= 0, "ttl must be non-negative, but was %s", ttl);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.ticker = checkNotNull(ticker, "ticker");
+    }
+
+    /**
+     * services with any node for {@code fqdn} in {@code zone}.
+     */
+    List<GeoService> servicesForNode(String zone, String fqdn) {
+        return current().servicesByNode.get(Node.create(zone, fqdn));
+    }
+
+    /**
+     * services with any node in {@code zone}.
+     */
+    List<GeoService> servicesForZone(String zone) {
+        return current().servicesByZone.get(zone);
+    }
+
+    /**
+     * refreshes if stale. While another thread refreshes, returns the stale
+     * index instead of waiting for it.
+     */
+    private Index current() {
+        Index current = index;
+        if (current != null && ticker.read() - current.listedAt < ttlNanos)
+            return current;
+        if (current == null) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            return current;
+        }
+        try {
+            current = index;
+            long now = ticker.read();
+            if (current == null || now - current.listedAt >= ttlNanos)
+                index = current = refresh(now);
+            return current;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Index refresh(long now) {
+        List<GeoService> services = Lists.newArrayList();
+        for (String name : ImmutableSet.copyOf(api.list())) {
+            GeoService service = api.get(name);
+            // it is possible that the service was deleted between the list and the get
+            if (service != null)
+                services.add(service);
+        }
+        return new Index(services, now);
+    }
+
+    private static ImmutableSet<String> zones(GeoService service) {
+        ImmutableSet.Builder<String> zones = ImmutableSet.builder();
+        for (Node node : service.getNodes())
+            zones.add(node.getZone());
+        return zones.build();
+    }
+
+    /**
+     * immutable, so that it can be read without locking once published.
+     */
+    private static final class Index {
+        private final ListMultimap<Node, GeoService> servicesByNode;
+        private final ListMultimap<String, GeoService> servicesByZone;
+        private final long listedAt;
+
+        /**
+         * @param services
+         *            in the order listed.
+         */
+        private Index(List<GeoService> services, long listedAt) {
+            ImmutableListMultimap.Builder<Node, GeoService> byNode = ImmutableListMultimap.builder();
+            ImmutableListMultimap.Builder<String, GeoService> byZone = ImmutableListMultimap.builder();
+            for (GeoService service : services) {
+                for (Node node : ImmutableSet.copyOf(service.getNodes()))
+                    byNode.put(node, service);
+                for (String zone : zones(service))
+                    byZone.put(zone, service);
+            }
+            this.servicesByNode = byNode.build();
+            this.servicesByZone = byZone.build();
+            this.listedAt = listedAt;
+        }
+    }
+}
@@ -1,60 +1,148 @@
 package denominator.dynect;
 
-import static com.google.common.collect.Iterators.peekingIterator;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.jclouds.dynect.v3.domain.Record;
 import org.jclouds.dynect.v3.domain.RecordId;
 import org.jclouds.dynect.v3.features.RecordApi;
 
-import com.google.common.collect.PeekingIterator;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 import denominator.model.ResourceRecordSet;
 import denominator.model.ResourceRecordSet.Builder;
 
+/**
+ * groups records by name and type, getting those which weren't listed with
+ * detail. Up to {@code prefetch} gets are in flight on the executor ahead of
+ * the consumer, while results are still emitted in the order of the input.
+ */
 class GroupByRecordNameAndTypeIterator implements Iterator<ResourceRecordSet<?>> {
 
-    private final PeekingIterator<RecordId> peekingIterator;
     private final RecordApi api;
+    private final Iterator<RecordId> sortedIterator;
+    private final ListeningExecutorService executor;
+    private final int prefetch;
+    private final Deque<RecordId> pendingIds = new ArrayDeque<RecordId>();
+    private final Deque<Future<Record<? extends Map<String, Object>>>> pendingRecords =
+            new ArrayDeque<Future<Record<? extends Map<String, Object>>>>();
 
+    /**
+     * gets records one at a time on the calling thread.
+     */
     public GroupByRecordNameAndTypeIterator(RecordApi api, Iterator<RecordId> sortedIterator) {
-        this.api = api;
-        this.peekingIterator = peekingIterator(sortedIterator);
+        this(api, sortedIterator, sameThreadExecutor(), 1);
+    }
+
+    public GroupByRecordNameAndTypeIterator(RecordApi api, Iterator<RecordId> sortedIterator,
+            ListeningExecutorService executor, int prefetch) {
+        this.api = checkNotNull(api, "api was null");
+        this.sortedIterator = checkNotNull(sortedIterator, "sortedIterator was null");
+        this.executor = checkNotNull(executor, "executor was null");
+        checkArgument(prefetch > 0, "prefetch must be positive, but was %s", prefetch);
+        this.prefetch = prefetch;
     }
 
     @Override
     public boolean hasNext() {
-        return peekingIterator.hasNext();
+        fillWindow();
+        return !pendingIds.isEmpty();
     }
 
     @Override
     public ResourceRecordSet<?> next() {
-        Record<?> record = getRecord(api, peekingIterator.next());
-        // it is possible that the record was deleted between the list and the get
-        if (record == null)
+        List<Record<? extends Map<String, Object>>> records = nextRecords();
+        // it is possible that the records were deleted between the list and
+        // the get
+        if (records.isEmpty())
             return null;
+        Record<?> record = records.get(0);
         Builder<Map<String, Object>> builder = ResourceRecordSet.builder()
                                                                 .name(record.getFQDN())
                                                                 .type(record.getType())
-                                                                .ttl(record.getTTL())
-                                                                .add(record.getRData());
-        while (hasNext()) {
-            RecordId next = peekingIterator.peek();
-            if (next == null)
-                continue;
-            if (fqdnAndTypeEquals(next, record)) {
-                builder.add(getRecord(api, peekingIterator.next()).getRData());
-            } else {
-                break;
-            }
+                                                                .ttl(record.getTTL());
+        for (Record<? extends Map<String, Object>> sameNameAndType : records) {
+            builder.add(sameNameAndType.getRData());
         }
         return builder.build();
     }
 
+    /**
+     * returns the records of the next name and type, in input order, skipping
+     * any deleted since they were listed.
+     */
+    List<Record<? extends Map<String, Object>>> nextRecords() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        RecordId first = pendingIds.peek();
+        List<Record<? extends Map<String, Object>>> records = Lists.newArrayList();
+        do {
+            Record<? extends Map<String, Object>> record = nextRecord();
+            if (record != null)
+                records.add(record);
+        } while (hasNext() && fqdnAndTypeEquals(pendingIds.peek(), first));
+        return records;
+    }
+
+    private void fillWindow() {
+        while (pendingIds.size() < prefetch && sortedIterator.hasNext()) {
+            RecordId recordId = sortedIterator.next();
+            pendingIds.add(recordId);
+            pendingRecords.add(submitGet(recordId));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Future<Record<? extends Map<String, Object>>> submitGet(final RecordId recordId) {
+        if (recordId instanceof Record)
+            return immediateFuture((Record<? extends Map<String, Object>>) recordId);
+        return executor.submit(new Callable<Record<? extends Map<String, Object>>>() {
+            public Record<? extends Map<String, Object>> call() {
+                return getRecord(api, recordId);
+            }
+
+            @Override
+            public String toString() {
+                return "getRecord(" + recordId + ")";
+            }
+        });
+    }
+
+    private Record<? extends Map<String, Object>> nextRecord() {
+        pendingIds.remove();
+        try {
+            return pendingRecords.remove().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * returns the input when it is already a {@link Record}, such as those
+     * listed by {@link RecordDetailApi}. Otherwise, gets the record by id.
+     */
+    @SuppressWarnings("unchecked")
     static Record<? extends Map<String, Object>> getRecord(RecordApi api, RecordId recordId) {
-        if ("A".equals(recordId.getType())) {
+        if (recordId instanceof Record) {
+            return (Record<? extends Map<String, Object>>) recordId;
+        } else if ("A".equals(recordId.getType())) {
             return api.getA(recordId.getFQDN(), recordId.getId());
         } else if ("AAAA".equals(recordId.getType())) {
             return api.getAAAA(recordId.getFQDN(), recordId.getId());
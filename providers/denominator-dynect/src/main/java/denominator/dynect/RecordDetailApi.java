@@ -0,0 +1,65 @@
+package denominator.dynect;
+
+import javax.inject.Named;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+import org.jclouds.Fallbacks.EmptyFluentIterableOnNotFoundOr404;
+import org.jclouds.dynect.v3.DynECTExceptions.JobStillRunningException;
+import org.jclouds.dynect.v3.domain.Record;
+import org.jclouds.dynect.v3.domain.RecordId;
+import org.jclouds.dynect.v3.features.RecordApi;
+import org.jclouds.dynect.v3.filters.AlwaysAddContentType;
+import org.jclouds.dynect.v3.filters.SessionManager;
+import org.jclouds.rest.annotations.Fallback;
+import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.QueryParams;
+import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
+
+import com.google.common.collect.FluentIterable;
+
+/**
+ * {@link RecordApi#list()} and {@link RecordApi#listByFQDN(String)} only
+ * return record ids, which implies a {@code GET} per record in order to read
+ * its rdata. DynECT will return the full records when {@code detail=Y} is
+ * passed. This is bound into the same jclouds context as {@code DynECTApi}, so
+ * that it shares its session.
+ *
+ * <h4>Note</h4>
+ *
+ * Elements of the result are {@link Record} instances, except where we don't
+ * know how to parse the type. In this case, they are plain {@link RecordId}s
+ * and need to be fetched individually.
+ *
+ * @see ToRecordsWithDetail
+ */
+@Headers(keys = "API-Version", values = "{jclouds.api-version}")
+@RequestFilters({ AlwaysAddContentType.class, SessionManager.class })
+interface RecordDetailApi {
+
+    /**
+     * all records in the zone, including their rdata where supported.
+     */
+    @Named("GetAllRecord")
+    @GET
+    @Path("/AllRecord/{zone}")
+    @QueryParams(keys = "detail", values = "Y")
+    @ResponseParser(ToRecordsWithDetail.class)
+    @Fallback(EmptyFluentIterableOnNotFoundOr404.class)
+    FluentIterable<RecordId> listInZone(@PathParam("zone") String zone) throws JobStillRunningException;
+
+    /**
+     * all records at the node {@code fqdn}, including their rdata where
+     * supported.
+     */
+    @Named("GetRecord")
+    @GET
+    @Path("/AllRecord/{zone}/{fqdn}")
+    @QueryParams(keys = "detail", values = "Y")
+    @ResponseParser(ToRecordsWithDetail.class)
+    @Fallback(EmptyFluentIterableOnNotFoundOr404.class)
+    FluentIterable<RecordId> listByFQDN(@PathParam("zone") String zone, @PathParam("fqdn") String fqdn)
+            throws JobStillRunningException;
+}
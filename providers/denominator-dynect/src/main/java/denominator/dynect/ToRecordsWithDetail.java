@@ -0,0 +1,105 @@
+package denominator.dynect;
+
+import static org.jclouds.util.Strings2.toStringAndClose;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map.Entry;
+
+import javax.inject.Inject;
+
+import org.jclouds.dynect.v3.domain.Record;
+import org.jclouds.dynect.v3.domain.RecordId;
+import org.jclouds.dynect.v3.domain.SOARecord;
+import org.jclouds.dynect.v3.domain.rdata.AAAAData;
+import org.jclouds.dynect.v3.domain.rdata.AData;
+import org.jclouds.dynect.v3.domain.rdata.CNAMEData;
+import org.jclouds.dynect.v3.domain.rdata.MXData;
+import org.jclouds.dynect.v3.domain.rdata.NSData;
+import org.jclouds.dynect.v3.domain.rdata.PTRData;
+import org.jclouds.dynect.v3.domain.rdata.SRVData;
+import org.jclouds.dynect.v3.domain.rdata.SSHFPData;
+import org.jclouds.dynect.v3.domain.rdata.TXTData;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.json.Json;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * parses the response of {@code GET /AllRecord?detail=Y}, which is an object
+ * of record arrays grouped by type, ex. {@code a_records}.
+ *
+ * Types we can parse are returned as {@link Record}. Others are returned as
+ * {@link RecordId}, so that callers can fall back to getting them
+ * individually.
+ */
+final class ToRecordsWithDetail implements Function<HttpResponse, FluentIterable<RecordId>> {
+
+    /**
+     * types correspond to those in
+     * {@link GroupByRecordNameAndTypeIterator#getRecord}.
+     */
+    @SuppressWarnings("serial")
+    private static final ImmutableMap<String, Type> recordTypes = ImmutableMap.<String, Type> builder()
+            .put("A", new TypeToken<Record<AData>>() {}.getType())
+            .put("AAAA", new TypeToken<Record<AAAAData>>() {}.getType())
+            .put("CNAME", new TypeToken<Record<CNAMEData>>() {}.getType())
+            .put("MX", new TypeToken<Record<MXData>>() {}.getType())
+            .put("NS", new TypeToken<Record<NSData>>() {}.getType())
+            .put("PTR", new TypeToken<Record<PTRData>>() {}.getType())
+            .put("SOA", SOARecord.class)
+            .put("SRV", new TypeToken<Record<SRVData>>() {}.getType())
+            .put("SSHFP", new TypeToken<Record<SSHFPData>>() {}.getType())
+            .put("TXT", new TypeToken<Record<TXTData>>() {}.getType()).build();
+
+    private final Json json;
+
+    @Inject
+    ToRecordsWithDetail(Json json) {
+        this.json = json;
+    }
+
+    @Override
+    public FluentIterable<RecordId> apply(HttpResponse response) {
+        String payload;
+        try {
+            payload = toStringAndClose(response.getPayload().getInput());
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        ImmutableList.Builder<RecordId> records = ImmutableList.builder();
+        JsonObject data = new JsonParser().parse(payload).getAsJsonObject().getAsJsonObject("data");
+        for (Entry<String, JsonElement> recordsOfType : data.entrySet()) {
+            for (JsonElement element : recordsOfType.getValue().getAsJsonArray()) {
+                records.add(toRecordOrId(element.getAsJsonObject()));
+            }
+        }
+        return FluentIterable.from(records.build());
+    }
+
+    private RecordId toRecordOrId(JsonObject element) {
+        String type = element.get("record_type").getAsString();
+        if (recordTypes.containsKey(type)) {
+            Record<?> record = json.fromJson(element.toString(), recordTypes.get(type));
+            return record;
+        }
+        return RecordId.recordIdBuilder()
+                       .zone(element.get("zone").getAsString())
+                       .fqdn(element.get("fqdn").getAsString())
+                       .type(type)
+                       .id(element.get("record_id").getAsLong()).build();
+    }
+
+    @Override
+    public String toString() {
+        return "toRecordsWithDetail()";
+    }
+}
@@ -7,6 +7,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.Properties;
 import java.util.Set;
 
@@ -18,25 +19,31 @@ import org.testng.annotations.Test;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
 import com.google.inject.Module;
 import com.google.mockwebserver.MockResponse;
 import com.google.mockwebserver.MockWebServer;
 import com.google.mockwebserver.RecordedRequest;
 
+import denominator.model.ResourceRecordSet;
+
 @Test(singleThreaded = true)
 public class DynECTResourceRecordSetApiMockTest {
     static Set<Module> modules = ImmutableSet.<Module> of(new ExecutorServiceModule(sameThreadExecutor(),
             sameThreadExecutor()));
 
-    static DynECTApi mockDynECTApi(String uri) {
+    static DynECTResourceRecordSetApi mockDynECTApi(String uri) {
         Properties overrides = new Properties();
         overrides.setProperty(PROPERTY_MAX_RETRIES, "1");
-        return ContextBuilder.newBuilder("dynect")
-                             .credentials("jclouds:joe", "letmein")
-                             .endpoint(uri)
-                             .overrides(overrides)
-                             .modules(modules)
-                             .buildApi(DynECTApi.class);
+        Injector injector = ContextBuilder.newBuilder("dynect")
+                                          .credentials("jclouds:joe", "letmein")
+                                          .endpoint(uri)
+                                          .overrides(overrides)
+                                          .modules(ImmutableSet.<Module> builder().addAll(modules)
+                                                  .add(new DynECTProvider.BindRecordDetailApi()).build())
+                                          .buildInjector();
+        return new DynECTResourceRecordSetApi(injector.getInstance(DynECTApi.class),
+                injector.getInstance(RecordDetailApi.class), sameThreadExecutor(), 10, "foo.com");
     }
 
     String session = "{\"status\": \"success\", \"data\": {\"token\": \"FFFFFFFFFF\", \"version\": \"3.3.8\"}, \"job_id\": 254417252, \"msgs\": [{\"INFO\": \"login: Login successful\", \"SOURCE\": \"BLL\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
@@ -54,8 +61,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.add(a("www.foo.com", 3600, "192.0.2.1"));
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -87,8 +93,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.add(a("www.foo.com", 3600, "192.0.2.1"));
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -116,8 +121,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.add(a("www.foo.com", "198.51.100.1"));
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -156,8 +160,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.add(a("www.foo.com", 10000000, "198.51.100.1"));
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -198,8 +201,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.remove(a("www.foo.com", "192.0.2.1"));
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -236,8 +238,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.remove(a("www.foo.com", "198.51.100.1"));
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -272,8 +273,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.applyTTLToNameAndType(3600, "www.foo.com", "A");
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -298,8 +298,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.applyTTLToNameAndType(3600, "www.boo.com", "A");
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -322,8 +321,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.applyTTLToNameAndType(10000000, "www.foo.com", "A");
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -358,31 +356,55 @@ public class DynECTResourceRecordSetApiMockTest {
         }
     }
 
+    String recordsWithDetail1And2 = "{\"status\": \"success\", \"data\": {\"a_records\": [{\"zone\": \"foo.com\", \"ttl\": 3600, \"fqdn\": \"www.foo.com\", \"record_type\": \"A\", \"rdata\": {\"address\": \"192.0.2.1\"}, \"record_id\": 1}, {\"zone\": \"foo.com\", \"ttl\": 3600, \"fqdn\": \"www.foo.com\", \"record_type\": \"A\", \"rdata\": {\"address\": \"198.51.100.1\"}, \"record_id\": 2}]}, \"job_id\": 273523368, \"msgs\": [{\"INFO\": \"detail: Here is your zone tree\", \"SOURCE\": \"BLL\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
+
     @Test
     public void listByNameWhenPresent() throws IOException, InterruptedException {
         MockWebServer server = new MockWebServer();
         server.enqueue(new MockResponse().setResponseCode(200).setBody(session));
-        server.enqueue(new MockResponse().setResponseCode(200).setBody(recordIdsWithRecords1And2));
-        server.enqueue(new MockResponse().setResponseCode(200).setBody(record1Result));
-        server.enqueue(new MockResponse().setResponseCode(200).setBody(record2Result));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(recordsWithDetail1And2));
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             assertEquals(api.listByName("www.foo.com").next(),
                     a("www.foo.com", 3600, ImmutableList.of("192.0.2.1", "198.51.100.1")));
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
 
             RecordedRequest listByFQDN = server.takeRequest();
-            assertEquals(listByFQDN.getRequestLine(), "GET /AllRecord/foo.com/www.foo.com HTTP/1.1");
+            assertEquals(listByFQDN.getRequestLine(), "GET /AllRecord/foo.com/www.foo.com?detail=Y HTTP/1.1");
 
-            RecordedRequest getRecord1 = server.takeRequest();
-            assertEquals(getRecord1.getRequestLine(), "GET /ARecord/foo.com/www.foo.com/1 HTTP/1.1");
+            server.shutdown();
+        }
+    }
 
-            RecordedRequest getRecord2 = server.takeRequest();
-            assertEquals(getRecord2.getRequestLine(), "GET /ARecord/foo.com/www.foo.com/2 HTTP/1.1");
+    String recordsWithDetailAndUnknownType = "{\"status\": \"success\", \"data\": {\"a_records\": [{\"zone\": \"foo.com\", \"ttl\": 3600, \"fqdn\": \"www.foo.com\", \"record_type\": \"A\", \"rdata\": {\"address\": \"192.0.2.1\"}, \"record_id\": 1}], \"loc_records\": [{\"zone\": \"foo.com\", \"ttl\": 3600, \"fqdn\": \"www.foo.com\", \"record_type\": \"LOC\", \"rdata\": {}, \"record_id\": 3}]}, \"job_id\": 273523368, \"msgs\": [{\"INFO\": \"detail: Here is your zone tree\", \"SOURCE\": \"BLL\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
+
+    String record3Result = "{\"status\": \"success\", \"data\": {\"zone\": \"foo.com\", \"ttl\": 3600, \"fqdn\": \"www.foo.com\", \"record_type\": \"LOC\", \"rdata\": {\"version\": 0}, \"record_id\": 3}, \"job_id\": 274279510, \"msgs\": [{\"INFO\": \"get: Found the record\", \"SOURCE\": \"API-B\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
+
+    @Test
+    public void listByNameGetsTypesItCannotParseIndividually() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(session));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(recordsWithDetailAndUnknownType));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(record3Result));
+        server.play();
+
+        try {
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
+            Iterator<ResourceRecordSet<?>> rrsets = api.listByName("www.foo.com");
+            assertEquals(rrsets.next(), a("www.foo.com", 3600, "192.0.2.1"));
+            assertEquals(rrsets.next().getType(), "LOC");
+            assertFalse(rrsets.hasNext());
+        } finally {
+            assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
+
+            RecordedRequest listByFQDN = server.takeRequest();
+            assertEquals(listByFQDN.getRequestLine(), "GET /AllRecord/foo.com/www.foo.com?detail=Y HTTP/1.1");
+
+            RecordedRequest getRecord3 = server.takeRequest();
+            assertEquals(getRecord3.getRequestLine(), "GET /LOCRecord/foo.com/www.foo.com/3 HTTP/1.1");
 
             server.shutdown();
         }
@@ -396,14 +418,13 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             assertFalse(api.listByName("www.foo.com").hasNext());
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
 
             RecordedRequest listByFQDN = server.takeRequest();
-            assertEquals(listByFQDN.getRequestLine(), "GET /AllRecord/foo.com/www.foo.com HTTP/1.1");
+            assertEquals(listByFQDN.getRequestLine(), "GET /AllRecord/foo.com/www.foo.com?detail=Y HTTP/1.1");
 
             server.shutdown();
         }
@@ -419,8 +440,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             assertEquals(api.getByNameAndType("www.foo.com", "A").get(),
                     a("www.foo.com", 3600, ImmutableList.of("192.0.2.1", "198.51.100.1")));
         } finally {
@@ -447,8 +467,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             assertEquals(api.getByNameAndType("www.foo.com", "A"), Optional.absent());
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -473,8 +492,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.replace(a("www.foo.com", 10000000, ImmutableSet.of("192.0.2.1", "198.51.100.1")));
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -513,8 +531,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.replace(a("www.foo.com", 3600, "192.0.2.1"));
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -538,8 +555,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.remove(a("www.foo.com", "198.51.100.1"));
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -565,8 +581,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.deleteByNameAndType("www.foo.com", "A");
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -596,8 +611,7 @@ public class DynECTResourceRecordSetApiMockTest {
         server.play();
 
         try {
-            DynECTResourceRecordSetApi api = new DynECTResourceRecordSetApi(
-                    mockDynECTApi(server.getUrl("/").toString()), "foo.com");
+            DynECTResourceRecordSetApi api = mockDynECTApi(server.getUrl("/").toString());
             api.deleteByNameAndType("www.foo.com", "A");
         } finally {
             assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
@@ -0,0 +1,177 @@
+package denominator.dynect;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static denominator.dynect.DynECTResourceRecordSetApiMockTest.modules;
+import static denominator.model.ResourceRecordSets.a;
+import static denominator.model.ResourceRecordSets.ttlGreaterThan;
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.dynect.v3.DynECTApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.mockwebserver.MockResponse;
+import com.google.mockwebserver.MockWebServer;
+import com.google.mockwebserver.RecordedRequest;
+
+import denominator.ResourceRecordSetBatch;
+
+@Test(singleThreaded = true)
+public class DynECTResourceRecordSetBatchMockTest {
+
+    static DynECTResourceRecordSetBatch mockDynECTBatch(String uri) {
+        Properties overrides = new Properties();
+        overrides.setProperty(PROPERTY_MAX_RETRIES, "1");
+        Injector injector = ContextBuilder.newBuilder("dynect")
+                                          .credentials("jclouds:joe", "letmein")
+                                          .endpoint(uri)
+                                          .overrides(overrides)
+                                          .modules(ImmutableSet.<Module> builder().addAll(modules)
+                                                  .add(new DynECTProvider.BindRecordDetailApi()).build())
+                                          .buildInjector();
+        return new DynECTResourceRecordSetBatch(injector.getInstance(DynECTApi.class),
+                injector.getInstance(RecordDetailApi.class), sameThreadExecutor(), 1, "foo.com");
+    }
+
+    String session = "{\"status\": \"success\", \"data\": {\"token\": \"FFFFFFFFFF\", \"version\": \"3.3.8\"}, \"job_id\": 254417252, \"msgs\": [{\"INFO\": \"login: Login successful\", \"SOURCE\": \"BLL\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
+    String success = "{\"status\": \"success\", \"data\": {}, \"job_id\": 262989027, \"msgs\": [{\"INFO\": \"thing done\", \"SOURCE\": \"BLL\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
+    String recordIdsWithRecord1 = "{\"status\": \"success\", \"data\": [\"/REST/ARecord/foo.com/www.foo.com/1\"], \"job_id\": 273523368, \"msgs\": [{\"INFO\": \"get_tree: Here is your zone tree\", \"SOURCE\": \"BLL\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
+    String record1Result = "{\"status\": \"success\", \"data\": {\"zone\": \"foo.com\", \"ttl\": 3600, \"fqdn\": \"www.foo.com\", \"record_type\": \"A\", \"rdata\": {\"address\": \"192.0.2.1\"}, \"record_id\": 1}, \"job_id\": 274279510, \"msgs\": [{\"INFO\": \"get: Found the record\", \"SOURCE\": \"API-B\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
+    String recordIdsWithRecord3 = "{\"status\": \"success\", \"data\": [\"/REST/ARecord/foo.com/www1.foo.com/3\"], \"job_id\": 273523368, \"msgs\": [{\"INFO\": \"get_tree: Here is your zone tree\", \"SOURCE\": \"BLL\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
+    String record3Result = "{\"status\": \"success\", \"data\": {\"zone\": \"foo.com\", \"ttl\": 3600, \"fqdn\": \"www1.foo.com\", \"record_type\": \"A\", \"rdata\": {\"address\": \"192.0.2.1\"}, \"record_id\": 3}, \"job_id\": 274279510, \"msgs\": [{\"INFO\": \"get: Found the record\", \"SOURCE\": \"API-B\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
+
+    String createRecord2 = "{\"rdata\":{\"address\":\"198.51.100.1\"},\"ttl\":3600}";
+    String createRecord4 = "{\"rdata\":{\"address\":\"198.51.100.1\"},\"ttl\":0}";
+
+    @Test
+    public void commitSchedulesAllChangesAndPublishesOnce() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(session));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(recordIdsWithRecord1));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(record1Result));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(success));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(recordIdsWithRecord3));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(record3Result));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(success));
+        server.enqueue(new MockResponse().setResponseCode(404)); // no existing records
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(success));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(success));
+        server.play();
+
+        try {
+            ResourceRecordSetBatch batch = mockDynECTBatch(server.getUrl("/").toString());
+            batch.add(a("www.foo.com", "198.51.100.1"))
+                 .deleteByNameAndType("www1.foo.com", "A")
+                 .add(a("www2.foo.com", "192.0.2.1"))
+                 .replace(a("www2.foo.com", "198.51.100.1"))
+                 .commit();
+        } finally {
+            assertEquals(server.getRequestCount(), 10);
+            assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
+
+            assertEquals(server.takeRequest().getRequestLine(), "GET /ARecord/foo.com/www.foo.com HTTP/1.1");
+            assertEquals(server.takeRequest().getRequestLine(), "GET /ARecord/foo.com/www.foo.com/1 HTTP/1.1");
+            RecordedRequest postRecord2 = server.takeRequest();
+            assertEquals(postRecord2.getRequestLine(), "POST /ARecord/foo.com/www.foo.com HTTP/1.1");
+            assertEquals(new String(postRecord2.getBody()), createRecord2);
+
+            assertEquals(server.takeRequest().getRequestLine(), "GET /ARecord/foo.com/www1.foo.com HTTP/1.1");
+            assertEquals(server.takeRequest().getRequestLine(), "GET /ARecord/foo.com/www1.foo.com/3 HTTP/1.1");
+            assertEquals(server.takeRequest().getRequestLine(), "DELETE /ARecord/foo.com/www1.foo.com/3 HTTP/1.1");
+
+            assertEquals(server.takeRequest().getRequestLine(), "GET /ARecord/foo.com/www2.foo.com HTTP/1.1");
+            RecordedRequest postRecord4 = server.takeRequest();
+            assertEquals(postRecord4.getRequestLine(), "POST /ARecord/foo.com/www2.foo.com HTTP/1.1");
+            assertEquals(new String(postRecord4.getBody()), createRecord4);
+
+            RecordedRequest publish = server.takeRequest();
+            assertEquals(publish.getRequestLine(), "PUT /Zone/foo.com HTTP/1.1");
+            assertEquals(new String(publish.getBody()), "{\"publish\":true}");
+
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void commitDoesntPublishWhenNothingChanged() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(session));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(recordIdsWithRecord1));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(record1Result));
+        server.play();
+
+        try {
+            ResourceRecordSetBatch batch = mockDynECTBatch(server.getUrl("/").toString());
+            batch.add(a("www.foo.com", 3600, "192.0.2.1")).commit();
+        } finally {
+            assertEquals(server.getRequestCount(), 3);
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void failedCommitDoesntPublishOnReuse() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(session));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(recordIdsWithRecord1));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(record1Result));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(success));
+        server.enqueue(new MockResponse().setResponseCode(400));
+        server.play();
+
+        try {
+            ResourceRecordSetBatch batch = mockDynECTBatch(server.getUrl("/").toString());
+            try {
+                batch.replace(a("www.foo.com", 3600, "198.51.100.1")).commit();
+                fail();
+            } catch (RuntimeException e) {
+            }
+            batch.commit();
+        } finally {
+            assertEquals(server.getRequestCount(), 5);
+            server.shutdown();
+        }
+    }
+
+    String zoneWithDetail = "{\"status\": \"success\", \"data\": {\"a_records\": [{\"zone\": \"foo.com\", \"ttl\": 3600, \"fqdn\": \"www.foo.com\", \"record_type\": \"A\", \"rdata\": {\"address\": \"192.0.2.1\"}, \"record_id\": 1}, {\"zone\": \"foo.com\", \"ttl\": 3600, \"fqdn\": \"www.foo.com\", \"record_type\": \"A\", \"rdata\": {\"address\": \"198.51.100.1\"}, \"record_id\": 2}, {\"zone\": \"foo.com\", \"ttl\": 300, \"fqdn\": \"www1.foo.com\", \"record_type\": \"A\", \"rdata\": {\"address\": \"192.0.2.1\"}, \"record_id\": 3}]}, \"job_id\": 273523368, \"msgs\": [{\"INFO\": \"detail: Here is your zone tree\", \"SOURCE\": \"BLL\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";
+
+    @Test
+    public void applyTTLListsZoneOnceAndPublishesOnce() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(session));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(zoneWithDetail));
+        for (int i = 0; i < 5; i++)
+            server.enqueue(new MockResponse().setResponseCode(200).setBody(success));
+        server.play();
+
+        try {
+            ResourceRecordSetBatch batch = mockDynECTBatch(server.getUrl("/").toString());
+            batch.applyTTL(300, ttlGreaterThan(300)).commit();
+        } finally {
+            assertEquals(server.getRequestCount(), 7);
+            assertEquals(server.takeRequest().getRequestLine(), "POST /Session HTTP/1.1");
+            assertEquals(server.takeRequest().getRequestLine(), "GET /AllRecord/foo.com?detail=Y HTTP/1.1");
+
+            assertEquals(server.takeRequest().getRequestLine(), "DELETE /ARecord/foo.com/www.foo.com/1 HTTP/1.1");
+            assertEquals(server.takeRequest().getRequestLine(), "DELETE /ARecord/foo.com/www.foo.com/2 HTTP/1.1");
+            RecordedRequest postRecord1 = server.takeRequest();
+            assertEquals(postRecord1.getRequestLine(), "POST /ARecord/foo.com/www.foo.com HTTP/1.1");
+            assertEquals(new String(postRecord1.getBody()), "{\"rdata\":{\"address\":\"192.0.2.1\"},\"ttl\":300}");
+            RecordedRequest postRecord2 = server.takeRequest();
+            assertEquals(postRecord2.getRequestLine(), "POST /ARecord/foo.com/www.foo.com HTTP/1.1");
+            assertEquals(new String(postRecord2.getBody()), "{\"rdata\":{\"address\":\"198.51.100.1\"},\"ttl\":300}");
+
+            assertEquals(server.takeRequest().getRequestLine(), "PUT /Zone/foo.com HTTP/1.1");
+
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package denominator.dynect;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+
+import denominator.model.profile.Geo;
+
+@Test
+public class GeoProfilesTest {
+    Multimap<String, String> regions = new DynECTGeoSupport().provideCountriesByRegion();
+    GeoProfiles profiles = new GeoProfiles(regions);
+
+    public void groupsWithSameNameAndCountriesShareProfile() {
+        Geo geo = profiles.create("Europe", ImmutableList.of("FR", "DE"));
+        assertSame(profiles.create("Europe", ImmutableList.of("DE", "FR")), geo);
+        assertEquals(geo.getRegions(), ImmutableMultimap.of("13", "DE", "13", "FR"));
+    }
+
+    public void groupsOrganizedByRegion() {
+        Geo geo = profiles.create("Mixed", ImmutableList.of("CA", "FR", "US"));
+        assertEquals(geo.getRegions(), ImmutableMultimap.of("11", "CA", "11", "US", "13", "FR"));
+    }
+
+    public void regionNameMeansAllOfItsCountries() {
+        Geo geo = profiles.create("Antarctica", ImmutableList.of("17"));
+        assertEquals(geo.getRegions(), ImmutableMultimap.builder().putAll("17", regions.get("17")).build());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unknownCountry() {
+        profiles.create("Nowhere", ImmutableList.of("ZZ"));
+    }
+}
@@ -0,0 +1,152 @@
+package denominator.dynect;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.dynect.v3.domain.GeoService;
+import org.jclouds.dynect.v3.domain.Node;
+import org.jclouds.dynect.v3.features.GeoServiceApi;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+@Test(singleThreaded = true)
+public class GeoServiceIndexTest {
+
+    static class FakeGeoServiceApi implements GeoServiceApi {
+        final Map<String, GeoService> services = Maps.newLinkedHashMap();
+        final List<String> calls = Lists.newArrayList();
+
+        @Override
+        public FluentIterable<String> list() {
+            calls.add("list");
+            return FluentIterable.from(ImmutableList.copyOf(services.keySet()));
+        }
+
+        @Override
+        public GeoService get(String name) {
+            calls.add("get " + name);
+            return services.get(name);
+        }
+    }
+
+    static class FakeTicker extends Ticker {
+        final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+
+    static GeoService service(String name, Node... nodes) {
+        return GeoService.builder().name(name).active(true).ttl(30).nodes(ImmutableList.copyOf(nodes)).build();
+    }
+
+    FakeGeoServiceApi api;
+    FakeTicker ticker;
+    GeoServiceIndex index;
+
+    @BeforeMethod
+    public void resetIndex() {
+        api = new FakeGeoServiceApi();
+        ticker = new FakeTicker();
+        index = new GeoServiceIndex(api, 1, MINUTES, ticker);
+    }
+
+    GeoService www = service("www", Node.create("denominator.io", "www.denominator.io"));
+    GeoService mail = service("mail", Node.create("denominator.io", "mail.denominator.io"),
+            Node.create("other.io", "mail.other.io"));
+
+    public void lookupsBetweenRefreshesDontCallTheApi() {
+        api.services.put("www", www);
+        api.services.put("mail", mail);
+
+        assertEquals(index.servicesForNode("denominator.io", "www.denominator.io"), ImmutableList.of(www));
+        assertEquals(index.servicesForNode("other.io", "mail.other.io"), ImmutableList.of(mail));
+        assertEquals(index.servicesForZone("denominator.io"), ImmutableList.of(www, mail));
+        assertEquals(index.servicesForNode("denominator.io", "ftp.denominator.io"), ImmutableList.of());
+
+        assertEquals(api.calls, ImmutableList.of("list", "get www", "get mail"));
+    }
+
+    public void refreshAfterTTLPicksUpNewAndRemovedServices() {
+        api.services.put("www", www);
+        index.servicesForZone("denominator.io");
+
+        api.services.remove("www");
+        api.services.put("mail", mail);
+        ticker.nanos.addAndGet(MINUTES.toNanos(1));
+
+        assertEquals(index.servicesForZone("denominator.io"), ImmutableList.of(mail));
+        assertEquals(api.calls, ImmutableList.of("list", "get www", "list", "get mail"));
+    }
+
+    public void refreshAfterTTLPicksUpChangedServices() {
+        api.services.put("www", www);
+        api.services.put("mail", mail);
+        index.servicesForZone("denominator.io");
+        api.calls.clear();
+
+        GeoService movedMail = service("mail", Node.create("denominator.io", "mail.denominator.io"));
+        api.services.put("mail", movedMail);
+        ticker.nanos.addAndGet(MINUTES.toNanos(1) - 1);
+        assertEquals(index.servicesForZone("other.io"), ImmutableList.of(mail));
+        assertEquals(api.calls, ImmutableList.of());
+
+        ticker.nanos.addAndGet(1);
+        assertEquals(index.servicesForZone("other.io"), ImmutableList.of());
+        assertEquals(index.servicesForZone("denominator.io"), ImmutableList.of(www, movedMail));
+        assertEquals(api.calls, ImmutableList.of("list", "get www", "get mail"));
+    }
+
+    public void lookupsDuringRefreshUseThePreviousIndex() throws Exception {
+        final CountDownLatch listing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        FakeGeoServiceApi blockingApi = new FakeGeoServiceApi() {
+            @Override
+            public FluentIterable<String> list() {
+                if (!calls.isEmpty()) {
+                    listing.countDown();
+                    Uninterruptibles.awaitUninterruptibly(release);
+                }
+                return super.list();
+            }
+        };
+        blockingApi.services.put("www", www);
+        final GeoServiceIndex index = new GeoServiceIndex(blockingApi, 1, MINUTES, ticker);
+        index.servicesForZone("denominator.io");
+
+        blockingApi.services.put("mail", mail);
+        ticker.nanos.addAndGet(MINUTES.toNanos(1));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<GeoService>> refreshed = executor.submit(new Callable<List<GeoService>>() {
+                public List<GeoService> call() {
+                    return index.servicesForZone("denominator.io");
+                }
+            });
+            listing.await();
+            assertEquals(index.servicesForZone("denominator.io"), ImmutableList.of(www));
+            release.countDown();
+            assertEquals(refreshed.get(), ImmutableList.of(www, mail));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package denominator.dynect;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
 import static denominator.model.ResourceRecordSets.ns;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
 import static org.jclouds.dynect.v3.domain.RecordId.recordIdBuilder;
@@ -23,9 +25,12 @@ import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Module;
+import com.google.mockwebserver.Dispatcher;
 import com.google.mockwebserver.MockResponse;
 import com.google.mockwebserver.MockWebServer;
+import com.google.mockwebserver.RecordedRequest;
 
 import denominator.model.ResourceRecordSet;
 import denominator.model.rdata.SOAData;
@@ -60,7 +65,7 @@ public class GroupByRecordNameAndTypeIteratorMockTest {
     String ns = "{\"status\": \"success\", \"data\": {\"zone\": \"denominator.io\", \"ttl\": 86400, \"fqdn\": \"denominator.io\", \"record_type\": \"NS\", \"rdata\": {\"nsdname\": \"ns4.p28.dynect.net.\"}, \"record_id\": 50976580}, \"job_id\": 274279510, \"msgs\": [{\"INFO\": \"get: Found the record\", \"SOURCE\": \"API-B\", \"ERR_CD\": null, \"LVL\": \"INFO\"}]}";   
 
     /**
-     * until dynect supports {@code GET ?detail=y}, we have to do a get on each record.
+     * records listed without detail, ex. types we cannot parse, need a get on each record.
      */
     public void getOnEachRecordAggregatingSameNameAndType() throws IOException, InterruptedException {
         MockWebServer server = new MockWebServer();
@@ -96,4 +101,44 @@ public class GroupByRecordNameAndTypeIteratorMockTest {
             server.shutdown();
         }
     }
+
+    ImmutableList<RecordId> recordIdsWithDeletedNS = ImmutableList.<RecordId> builder()
+                                                                  .add(builder.type("SOA").id(50976579l).build())
+                                                                  .add(builder.type("NS").id(50976580l).build())
+                                                                  .add(builder.type("NS").id(50976581l).build())
+                                                                  .build();
+
+    /**
+     * responses arrive in any order when gets are in flight concurrently.
+     */
+    public void prefetchRetainsOrderAndSkipsRecordsDeletedAfterList() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getRequestLine().startsWith("POST /Session"))
+                    return new MockResponse().addHeader(CONTENT_TYPE, APPLICATION_JSON).setBody(session);
+                if (request.getPath().endsWith("/50976579"))
+                    return new MockResponse().addHeader(CONTENT_TYPE, APPLICATION_JSON).setBody(soa);
+                if (request.getPath().endsWith("/50976580"))
+                    return new MockResponse().addHeader(CONTENT_TYPE, APPLICATION_JSON).setBody(ns);
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        server.play();
+
+        ListeningExecutorService executor = listeningDecorator(newFixedThreadPool(3));
+        try {
+            RecordApi api = mockDynECTApi(server.getUrl("/").toString()).getRecordApiForZone("denominator.io");
+
+            Iterator<ResourceRecordSet<?>> iterator = new GroupByRecordNameAndTypeIterator(api,
+                    recordIdsWithDeletedNS.iterator(), executor, 3);
+            assertEquals(iterator.next().getType(), "SOA");
+            assertEquals(iterator.next(), ns("denominator.io", 86400, "ns4.p28.dynect.net."));
+            assertFalse(iterator.hasNext());
+        } finally {
+            executor.shutdownNow();
+            assertEquals(server.getRequestCount(), 4);
+            server.shutdown();
+        }
+    }
 }
@@ -0,0 +1,48 @@
+package denominator.route53;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.route53.domain.HostedZone;
+import org.jclouds.route53.features.HostedZoneApi;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+
+/**
+ * iterates over all hosted zones, listing each page via {@code api}. Unlike
+ * {@link HostedZoneApi#list()}, whose later pages are listed by jclouds
+ * directly, every page passes through the rate limiter that decorates
+ * {@code api}.
+ */
+class HostedZoneIterator extends AbstractIterator<HostedZone> {
+    private final HostedZoneApi api;
+    private Iterator<HostedZone> current = Iterators.emptyIterator();
+    private Optional<Object> nextMarker = Optional.absent();
+    private boolean started;
+
+    HostedZoneIterator(HostedZoneApi api) {
+        this.api = checkNotNull(api, "api was null");
+    }
+
+    @Override
+    protected HostedZone computeNext() {
+        while (!current.hasNext()) {
+            IterableWithMarker<HostedZone> page;
+            if (!started) {
+                started = true;
+                page = api.listFirstPage();
+            } else if (nextMarker.isPresent()) {
+                page = api.listAt(nextMarker.get().toString());
+            } else {
+                return endOfData();
+            }
+            nextMarker = page.nextMarker();
+            current = page.iterator();
+        }
+        return current.next();
+    }
+}
@@ -0,0 +1,134 @@
+package denominator.route53;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.domain.ResourceRecordSetIterable;
+import org.jclouds.route53.domain.ResourceRecordSetIterable.NextRecord;
+import org.jclouds.route53.features.ResourceRecordSetApi;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * iterates over all record sets in a hosted zone, listing up to
+ * {@code pagesAhead} pages on the executor while the consumer reads the
+ * current one. As each page holds the marker of the next, pages are still
+ * listed one after another, and at most {@code pagesAhead + 1} are held in
+ * memory.
+ */
+class PrefetchingPageIterator extends AbstractIterator<ResourceRecordSet> {
+    private final ResourceRecordSetApi api;
+    private final ListeningExecutorService executor;
+    private final int pagesAhead;
+    private final Deque<Future<ResourceRecordSetIterable>> pending = new ArrayDeque<Future<ResourceRecordSetIterable>>();
+    private Iterator<ResourceRecordSet> current = Iterators.emptyIterator();
+    private boolean started;
+    /**
+     * marker of the page after the last one taken.
+     */
+    private Optional<NextRecord> afterTaken = Optional.absent();
+
+    PrefetchingPageIterator(ResourceRecordSetApi api, ListeningExecutorService executor, int pagesAhead) {
+        this.api = checkNotNull(api, "api was null");
+        this.executor = checkNotNull(executor, "executor was null");
+        checkArgument(pagesAhead >= 0, "pagesAhead must be non-negative, but was %s", pagesAhead);
+        this.pagesAhead = pagesAhead;
+    }
+
+    @Override
+    protected ResourceRecordSet computeNext() {
+        while (!current.hasNext()) {
+            if (!takePage())
+                return endOfData();
+        }
+        fill();
+        return current.next();
+    }
+
+    private boolean takePage() {
+        if (pending.isEmpty()) {
+            if (!started) {
+                started = true;
+                pending.add(submitFirst());
+            } else if (afterTaken.isPresent()) {
+                pending.add(submit(afterTaken.get()));
+            } else {
+                return false;
+            }
+        }
+        ResourceRecordSetIterable page = get(pending.remove());
+        afterTaken = page.nextRecord();
+        current = page.iterator();
+        fill();
+        return true;
+    }
+
+    /**
+     * submits the pages after the last pending one, as long as its marker is
+     * known.
+     */
+    private void fill() {
+        while (started && pending.size() < pagesAhead) {
+            Optional<NextRecord> next;
+            if (pending.isEmpty()) {
+                next = afterTaken;
+            } else if (pending.peekLast().isDone()) {
+                next = get(pending.peekLast()).nextRecord();
+            } else {
+                return;
+            }
+            if (!next.isPresent())
+                return;
+            pending.add(submit(next.get()));
+        }
+    }
+
+    private Future<ResourceRecordSetIterable> submitFirst() {
+        return executor.submit(new Callable<ResourceRecordSetIterable>() {
+            public ResourceRecordSetIterable call() {
+                return api.listFirstPage();
+            }
+
+            @Override
+            public String toString() {
+                return "listFirstPage()";
+            }
+        });
+    }
+
+    private Future<ResourceRecordSetIterable> submit(final NextRecord nextRecord) {
+        return executor.submit(new Callable<ResourceRecordSetIterable>() {
+            public ResourceRecordSetIterable call() {
+                return api.listAt(nextRecord);
+            }
+
+            @Override
+            public String toString() {
+                return "listAt(" + nextRecord + ")";
+            }
+        });
+    }
+
+    private static ResourceRecordSetIterable get(Future<ResourceRecordSetIterable> page) {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package denominator.route53;
+
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.route53.Route53Api;
+
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import dagger.Module;
+import dagger.Provides;
+import denominator.DNSApiManager;
+import denominator.ResourceRecordSetBatch;
+import denominator.config.BatchOverBlockingResourceRecordSets;
+
+/**
+ * overrides {@link BatchOverBlockingResourceRecordSets}, so that a batch is
+ * sent as few change batches as possible.
+ */
+@Module(entryPoints = DNSApiManager.class, complete = false, overrides = true)
+public class Route53BatchSupport {
+
+    @Provides
+    @Singleton
+    ResourceRecordSetBatch.Factory provideResourceRecordSetBatchFactory(Route53Api api,
+            @Named("zoneIds") Cache<String, String> zoneIds,
+            @Named(PROPERTY_USER_THREADS) ListeningExecutorService executor, @Named("prefetch") int pagesAhead) {
+        return new Route53ResourceRecordSetBatch.Factory(api, zoneIds, executor, pagesAhead);
+    }
+}
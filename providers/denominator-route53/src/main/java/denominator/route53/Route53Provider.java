@@ -1,13 +1,18 @@
 package denominator.route53;
 
 import static com.google.common.base.Suppliers.compose;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 
 import java.io.Closeable;
 import java.util.List;
 
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.ContextBuilder;
+import org.jclouds.aws.AWSResponseException;
+import org.jclouds.aws.domain.AWSError;
 import org.jclouds.aws.domain.SessionCredentials;
 import org.jclouds.aws.route53.AWSRoute53ProviderMetadata;
 import org.jclouds.domain.Credentials;
@@ -16,26 +21,36 @@ import org.jclouds.route53.Route53Api;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
 
 import dagger.Module;
 import dagger.Provides;
+import denominator.AdaptiveRateLimiter;
 import denominator.CredentialsConfiguration.CredentialsAsList;
 import denominator.DNSApiManager;
 import denominator.Provider;
 import denominator.ResourceRecordSetApi;
 import denominator.ZoneApi;
+import denominator.config.AsyncOverBlockingResourceRecordSets;
 import denominator.config.GeoUnsupported;
 import denominator.config.OnlyNormalResourceRecordSets;
 
 @Module(entryPoints = DNSApiManager.class,
            includes = { GeoUnsupported.class, 
-                        OnlyNormalResourceRecordSets.class } )
+                        OnlyNormalResourceRecordSets.class,
+                        AsyncOverBlockingResourceRecordSets.class,
+                        Route53BatchSupport.class } )
 public class Route53Provider extends Provider {
-
     @Provides
     protected Provider provideThis() {
         return this;
@@ -73,11 +88,64 @@ public class Route53Provider extends Provider {
 
     @Provides
     @Singleton
-    Route53Api provideApi(Supplier<Credentials> credentials) {
+    Injector provideInjector(Supplier<Credentials> credentials) {
         return ContextBuilder.newBuilder(new AWSRoute53ProviderMetadata())
                              .credentialsSupplier(credentials)
                              .modules(ImmutableSet.<com.google.inject.Module> of(new SLF4JLoggingModule()))
-                             .buildApi(Route53Api.class);
+                             .buildInjector();
+    }
+
+    /**
+     * route53 allows 5 requests per second per account. The rate is reduced
+     * when requests are throttled.
+     */
+    @Provides
+    @Singleton
+    AdaptiveRateLimiter provideRateLimiter() {
+        return AdaptiveRateLimiter.create(5);
+    }
+
+    @Provides
+    @Singleton
+    Route53Api provideApi(Injector injector, AdaptiveRateLimiter rateLimiter) {
+        return rateLimiter.decorate(Route53Api.class, injector.getInstance(Route53Api.class), new IsThrottled());
+    }
+
+    /**
+     * route53 returns {@code Throttling} or {@code PriorRequestNotComplete}
+     * when requests arrive too quickly.
+     */
+    private static class IsThrottled implements Predicate<Throwable> {
+        public boolean apply(Throwable input) {
+            if (input instanceof AWSResponseException) {
+                AWSError error = AWSResponseException.class.cast(input).getError();
+                return error != null
+                        && ("Throttling".equals(error.getCode()) || "PriorRequestNotComplete".equals(error.getCode()));
+            }
+            return false;
+        }
+    }
+
+    /**
+     * jclouds' user thread pool, which is shut down when the api is closed.
+     */
+    @Provides
+    @Singleton
+    @Named(PROPERTY_USER_THREADS)
+    ListeningExecutorService provideUserExecutor(Injector injector) {
+        return injector.getInstance(Key.get(ListeningExecutorService.class, Names.named(PROPERTY_USER_THREADS)));
+    }
+
+    /**
+     * how many pages of record sets to list ahead of the consumer. Each page
+     * holds up to 100 record sets. To trade memory or request rate for
+     * latency, pass a module with {@code overrides = true} that provides a
+     * different value. Zero lists pages on demand.
+     */
+    @Provides
+    @Named("prefetch")
+    int providePrefetch() {
+        return 1;
     }
 
     @Provides
@@ -88,8 +156,40 @@ public class Route53Provider extends Provider {
 
     @Provides
     @Singleton
-    ResourceRecordSetApi.Factory provideResourceRecordSetApiFactory(Route53Api api) {
-        return new Route53ResourceRecordSetApi.Factory(api);
+    ResourceRecordSetApi.Factory provideResourceRecordSetApiFactory(Route53Api api,
+            @Named("zoneIds") Cache<String, String> zoneIds, @Named(PROPERTY_USER_THREADS) ListeningExecutorService executor,
+            @Named("prefetch") int pagesAhead) {
+        return new Route53ResourceRecordSetApi.Factory(api, zoneIds, executor, pagesAhead);
+    }
+
+    /**
+     * hosted zone ids by name, used when creating a
+     * {@link ResourceRecordSetApi}. Entries expire after 5 minutes, or when
+     * route53 reports the zone no longer exists. To change the bounds, read
+     * stats or invalidate entries, pass a module with {@code overrides = true}
+     * that provides your own {@code @Named("zoneIds")} cache:
+     * 
+     * <pre>
+     * final Cache&lt;String, String&gt; zoneIds = CacheBuilder.newBuilder().recordStats().build();
+     * 
+     * &#064;Module(entryPoints = DNSApiManager.class, complete = false, overrides = true)
+     * class ZoneIds {
+     *     &#064;Provides
+     *     &#064;Named(&quot;zoneIds&quot;)
+     *     Cache&lt;String, String&gt; provideZoneIds() {
+     *         return zoneIds;
+     *     }
+     * }
+     * </pre>
+     */
+    @Provides
+    @Singleton
+    @Named("zoneIds")
+    Cache<String, String> provideZoneIdCache() {
+        return CacheBuilder.newBuilder()
+                           .maximumSize(1000)
+                           .expireAfterWrite(5, MINUTES)
+                           .build();
     }
 
     @Provides
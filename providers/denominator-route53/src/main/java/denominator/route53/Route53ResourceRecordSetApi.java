@@ -5,14 +5,24 @@ import static com.google.common.base.Predicates.and;
 import static com.google.common.base.Predicates.in;
 import static com.google.common.base.Predicates.not;
 import static com.google.common.collect.Iterables.filter;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
 import static denominator.route53.ToDenominatorResourceRecordSet.isAlias;
 import static denominator.route53.ToRoute53ResourceRecordSet.toTextFormat;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.jclouds.aws.AWSResponseException;
+import org.jclouds.aws.domain.AWSError;
 import org.jclouds.route53.Route53Api;
 import org.jclouds.route53.domain.ChangeBatch;
 import org.jclouds.route53.domain.HostedZone;
@@ -20,9 +30,16 @@ import org.jclouds.route53.domain.ResourceRecordSetIterable.NextRecord;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
+import com.google.common.collect.Iterators;
+import com.google.common.reflect.Reflection;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import denominator.ResourceRecordSetApi;
 import denominator.model.ResourceRecordSet;
@@ -30,20 +47,34 @@ import denominator.model.ResourceRecordSet;
 final class Route53ResourceRecordSetApi implements denominator.ResourceRecordSetApi {
 
     private final org.jclouds.route53.features.ResourceRecordSetApi route53RRsetApi;
+    private final ListeningExecutorService executor;
+    private final int pagesAhead;
 
+    /**
+     * lists pages one at a time on the calling thread.
+     */
     Route53ResourceRecordSetApi(org.jclouds.route53.features.ResourceRecordSetApi route53RRsetApi) {
+        this(route53RRsetApi, sameThreadExecutor(), 0);
+    }
+
+    Route53ResourceRecordSetApi(org.jclouds.route53.features.ResourceRecordSetApi route53RRsetApi,
+            ListeningExecutorService executor, int pagesAhead) {
         this.route53RRsetApi = route53RRsetApi;
+        this.executor = executor;
+        this.pagesAhead = pagesAhead;
     }
 
     /**
-     * lists and lazily transforms all record sets who are not aliases into denominator format.
+     * lists and lazily transforms all record sets who are not aliases into
+     * denominator format. Up to {@code pagesAhead} pages are listed in the
+     * background while the current one is consumed.
      */
     @Override
     public Iterator<ResourceRecordSet<?>> list() {
-        Iterator<ResourceRecordSet<?>> iterator = route53RRsetApi.list().concat()
-                                                                 .filter(not(isAlias()))
-                                                                 .transform(ToDenominatorResourceRecordSet.INSTANCE)
-                                                                 .iterator();
+        Iterator<org.jclouds.route53.domain.ResourceRecordSet> pages = new PrefetchingPageIterator(route53RRsetApi,
+                executor, pagesAhead);
+        Iterator<ResourceRecordSet<?>> iterator = Iterators.transform(Iterators.filter(pages, not(isAlias())),
+                ToDenominatorResourceRecordSet.INSTANCE);
         return new GroupByRecordNameAndTypeIterator(iterator);
     }
 
@@ -197,17 +228,120 @@ final class Route53ResourceRecordSetApi implements denominator.ResourceRecordSet
     static final class Factory implements denominator.ResourceRecordSetApi.Factory {
 
         private final Route53Api api;
+        private final Cache<String, String> zoneIds;
+        private final ListeningExecutorService executor;
+        private final int pagesAhead;
+
+        /**
+         * lists pages one at a time on the calling thread.
+         */
+        Factory(Route53Api api, Cache<String, String> zoneIds) {
+            this(api, zoneIds, sameThreadExecutor(), 0);
+        }
 
         @Inject
-        Factory(Route53Api api) {
+        Factory(Route53Api api, @Named("zoneIds") Cache<String, String> zoneIds,
+                @Named(PROPERTY_USER_THREADS) ListeningExecutorService executor, @Named("prefetch") int pagesAhead) {
             this.api = api;
+            this.zoneIds = zoneIds;
+            this.executor = executor;
+            this.pagesAhead = pagesAhead;
         }
 
         @Override
         public ResourceRecordSetApi create(final String zoneName) {
-            Optional<HostedZone> zone = api.getHostedZoneApi().list().concat().firstMatch(zoneNameEquals(zoneName));
+            return new Route53ResourceRecordSetApi(rrsetApiForZone(api, zoneIds, zoneName), executor, pagesAhead);
+        }
+    }
+
+    /**
+     * the record set api of the hosted zone named {@code zoneName}, whose id is
+     * forgotten if route53 reports the zone no longer exists.
+     */
+    static org.jclouds.route53.features.ResourceRecordSetApi rrsetApiForZone(Route53Api api,
+            Cache<String, String> zoneIds, String zoneName) {
+        org.jclouds.route53.features.ResourceRecordSetApi delegate = api.getResourceRecordSetApiForHostedZone(zoneId(
+                api, zoneIds, zoneName));
+        return Reflection.newProxy(org.jclouds.route53.features.ResourceRecordSetApi.class,
+                new InvalidateZoneIdOnNoSuchHostedZone(delegate, zoneIds, zoneName));
+    }
+
+    /**
+     * rethrows the cause when the zone id cannot be loaded, such as
+     * {@code IllegalArgumentException} when the zone is not found.
+     */
+    static String zoneId(final Route53Api api, Cache<String, String> zoneIds, final String zoneName) {
+        checkNotNull(zoneName, "zoneName");
+        try {
+            return zoneIds.get(zoneName, new Callable<String>() {
+                public String call() {
+                    return new HostedZoneIdByName(api).load(zoneName);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private static final class InvalidateZoneIdOnNoSuchHostedZone implements InvocationHandler {
+        private final Object delegate;
+        private final Cache<String, String> zoneIds;
+        private final String zoneName;
+
+        private InvalidateZoneIdOnNoSuchHostedZone(Object delegate, Cache<String, String> zoneIds, String zoneName) {
+            this.delegate = delegate;
+            this.zoneIds = zoneIds;
+            this.zoneName = zoneName;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                if (isNoSuchHostedZone(e.getCause()))
+                    zoneIds.invalidate(zoneName);
+                throw e.getCause();
+            }
+        }
+    }
+
+    static boolean isNoSuchHostedZone(Throwable t) {
+        for (Throwable cause : Throwables.getCausalChain(t)) {
+            if (cause instanceof AWSResponseException) {
+                AWSError error = AWSResponseException.class.cast(cause).getError();
+                if (error != null && "NoSuchHostedZone".equals(error.getCode()))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * looks up the id of a hosted zone by listing all of them. Results should
+     * be cached, as this is expensive when there are many zones.
+     */
+    static final class HostedZoneIdByName extends CacheLoader<String, String> {
+
+        private final Route53Api api;
+
+        HostedZoneIdByName(Route53Api api) {
+            this.api = api;
+        }
+
+        @Override
+        public String load(String zoneName) {
+            Optional<HostedZone> zone = Iterators.tryFind(new HostedZoneIterator(api.getHostedZoneApi()),
+                    zoneNameEquals(zoneName));
             checkArgument(zone.isPresent(), "zone %s not found", zoneName);
-            return new Route53ResourceRecordSetApi(api.getResourceRecordSetApiForHostedZone(zone.get().getId()));
+            return zone.get().getId();
+        }
+
+        @Override
+        public String toString() {
+            return "hostedZoneIdByName()";
         }
     }
 
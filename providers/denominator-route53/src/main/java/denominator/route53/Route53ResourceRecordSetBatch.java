@@ -0,0 +1,173 @@
+package denominator.route53;
+
+import static com.google.common.base.Predicates.not;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static denominator.route53.Route53ResourceRecordSetApi.rrsetApiForZone;
+import static denominator.route53.ToDenominatorResourceRecordSet.isAlias;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.Iterator;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.jclouds.route53.Route53Api;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ChangeBatch.Action;
+import org.jclouds.route53.domain.ChangeBatch.ActionOnResourceRecordSet;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.cache.Cache;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import denominator.ResourceRecordSetBatch;
+import denominator.StagedResourceRecordSetBatch;
+import denominator.model.ResourceRecordSet;
+
+/**
+ * sends staged changes in as few {@link ChangeBatch change batches} as
+ * Amazon's limits allow. The delete and create which replace a record set are
+ * always sent in the same batch, so that each record set is changed
+ * atomically. The batch as a whole is not: change batches are sent in turn,
+ * and those sent before a failure remain applied.
+ */
+final class Route53ResourceRecordSetBatch extends StagedResourceRecordSetBatch {
+
+    /**
+     * limits of a single {@code ChangeResourceRecordSets} request.
+     */
+    static final int MAX_CHANGES = 100;
+    static final int MAX_VALUES = 1000;
+    static final int MAX_VALUE_CHARACTERS = 32000;
+
+    private final Route53ResourceRecordSetApi api;
+    private final org.jclouds.route53.features.ResourceRecordSetApi route53RRsetApi;
+    private final ListeningExecutorService executor;
+    private final int pagesAhead;
+    private final List<ChangeBatch> pending = Lists.newArrayList();
+
+    /**
+     * lists pages one at a time on the calling thread.
+     */
+    Route53ResourceRecordSetBatch(String zoneName, org.jclouds.route53.features.ResourceRecordSetApi route53RRsetApi) {
+        this(zoneName, route53RRsetApi, sameThreadExecutor(), 0);
+    }
+
+    Route53ResourceRecordSetBatch(String zoneName, org.jclouds.route53.features.ResourceRecordSetApi route53RRsetApi,
+            ListeningExecutorService executor, int pagesAhead) {
+        super(zoneName);
+        this.api = new Route53ResourceRecordSetApi(route53RRsetApi, executor, pagesAhead);
+        this.route53RRsetApi = route53RRsetApi;
+        this.executor = executor;
+        this.pagesAhead = pagesAhead;
+    }
+
+    @Override
+    protected void stage(String name, String type,
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change) {
+        stage(api.filterRoute53RRSByNameAndType(name, type).first(), change);
+    }
+
+    /**
+     * pages through the zone once, in the order Amazon returns it, listing up
+     * to {@code pagesAhead} pages ahead.
+     */
+    @Override
+    protected void stageMatching(Predicate<? super ResourceRecordSet<?>> filter,
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change) {
+        for (Iterator<org.jclouds.route53.domain.ResourceRecordSet> rrsets = Iterators.filter(
+                new PrefetchingPageIterator(route53RRsetApi, executor, pagesAhead), not(isAlias())); rrsets.hasNext();) {
+            org.jclouds.route53.domain.ResourceRecordSet rrs = rrsets.next();
+            if (filter.apply(ToDenominatorResourceRecordSet.INSTANCE.apply(rrs)))
+                stage(Optional.of(rrs), change);
+        }
+    }
+
+    private void stage(Optional<org.jclouds.route53.domain.ResourceRecordSet> oldRRS,
+            Function<Optional<ResourceRecordSet<?>>, Optional<ResourceRecordSet<?>>> change) {
+        Optional<ResourceRecordSet<?>> desired = change.apply(oldRRS.transform(ToDenominatorResourceRecordSet.INSTANCE));
+
+        ChangeBatch.Builder changes = ChangeBatch.builder();
+        if (desired.isPresent()) {
+            org.jclouds.route53.domain.ResourceRecordSet replacement = ToRoute53ResourceRecordSet.INSTANCE.apply(desired
+                    .get());
+            if (oldRRS.isPresent()) {
+                if (oldRRS.get().getTTL().equals(replacement.getTTL())
+                        && oldRRS.get().getValues().equals(replacement.getValues()))
+                    return;
+                changes.delete(oldRRS.get());
+            }
+            changes.create(replacement);
+        } else if (oldRRS.isPresent()) {
+            changes.delete(oldRRS.get());
+        } else {
+            return;
+        }
+        pending.add(changes.build());
+    }
+
+    @Override
+    protected void apply() {
+        try {
+            ChangeBatch.Builder batch = ChangeBatch.builder();
+            int changes = 0, values = 0, characters = 0;
+            for (ChangeBatch rrsetChanges : pending) {
+                int rrsetValues = 0, rrsetCharacters = 0;
+                for (ActionOnResourceRecordSet action : rrsetChanges) {
+                    for (String value : action.getRRS().getValues()) {
+                        rrsetValues++;
+                        rrsetCharacters += value.length();
+                    }
+                }
+                if (changes > 0
+                        && (changes + rrsetChanges.size() > MAX_CHANGES || values + rrsetValues > MAX_VALUES
+                                || characters + rrsetCharacters > MAX_VALUE_CHARACTERS)) {
+                    route53RRsetApi.apply(batch.build());
+                    batch = ChangeBatch.builder();
+                    changes = values = characters = 0;
+                }
+                for (ActionOnResourceRecordSet action : rrsetChanges) {
+                    if (action.getAction() == Action.DELETE)
+                        batch.delete(action.getRRS());
+                    else
+                        batch.create(action.getRRS());
+                }
+                changes += rrsetChanges.size();
+                values += rrsetValues;
+                characters += rrsetCharacters;
+            }
+            if (changes > 0)
+                route53RRsetApi.apply(batch.build());
+        } finally {
+            pending.clear();
+        }
+    }
+
+    static final class Factory implements denominator.ResourceRecordSetBatch.Factory {
+
+        private final Route53Api api;
+        private final Cache<String, String> zoneIds;
+        private final ListeningExecutorService executor;
+        private final int pagesAhead;
+
+        @Inject
+        Factory(Route53Api api, @Named("zoneIds") Cache<String, String> zoneIds,
+                @Named(PROPERTY_USER_THREADS) ListeningExecutorService executor, @Named("prefetch") int pagesAhead) {
+            this.api = api;
+            this.zoneIds = zoneIds;
+            this.executor = executor;
+            this.pagesAhead = pagesAhead;
+        }
+
+        @Override
+        public ResourceRecordSetBatch create(String zoneName) {
+            return new Route53ResourceRecordSetBatch(zoneName, rrsetApiForZone(api, zoneIds, zoneName), executor,
+                    pagesAhead);
+        }
+    }
+}
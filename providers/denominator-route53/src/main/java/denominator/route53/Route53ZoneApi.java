@@ -8,6 +8,7 @@ import org.jclouds.route53.Route53Api;
 import org.jclouds.route53.domain.HostedZone;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
 
 public final class Route53ZoneApi implements denominator.ZoneApi {
     private final Route53Api api;
@@ -19,7 +20,7 @@ public final class Route53ZoneApi implements denominator.ZoneApi {
 
     @Override
     public Iterator<String> list() {
-        return api.getHostedZoneApi().list().concat().transform(ZoneName.INSTANCE).iterator();
+        return Iterators.transform(new HostedZoneIterator(api.getHostedZoneApi()), ZoneName.INSTANCE);
     }
 
     private static enum ZoneName implements Function<HostedZone, String> {
@@ -1,35 +1,55 @@
 package denominator.route53;
 
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static denominator.CredentialsConfiguration.credentials;
 import static denominator.model.ResourceRecordSets.a;
 import static denominator.model.ResourceRecordSets.cname;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.Properties;
 import java.util.Set;
 
+import javax.inject.Named;
+
 import org.jclouds.ContextBuilder;
+import org.jclouds.aws.AWSResponseException;
 import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.rest.ResourceNotFoundException;
 import org.jclouds.route53.Route53Api;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Module;
 import com.google.mockwebserver.MockResponse;
 import com.google.mockwebserver.MockWebServer;
 import com.google.mockwebserver.RecordedRequest;
 
+import dagger.Provides;
+import denominator.DNSApiManager;
+import denominator.Denominator;
+import denominator.ResourceRecordSetApi;
+import denominator.model.ResourceRecordSet;
+
 @Test(singleThreaded = true)
 public class Route53ResourceRecordSetApiMockTest {
     static Set<Module> modules = ImmutableSet.<Module> of(new ExecutorServiceModule(sameThreadExecutor(),
             sameThreadExecutor()));
 
-    static org.jclouds.route53.features.ResourceRecordSetApi mockRoute53Api(String uri) {
+    static Route53Api mockRoute53(String uri) {
         Properties overrides = new Properties();
         overrides.setProperty(PROPERTY_MAX_RETRIES, "1");
         return ContextBuilder.newBuilder("aws-route53")
@@ -37,8 +57,129 @@ public class Route53ResourceRecordSetApiMockTest {
                              .endpoint(uri)
                              .overrides(overrides)
                              .modules(modules)
-                             .buildApi(Route53Api.class)
-                             .getResourceRecordSetApiForHostedZone("Z1PA6795UKMFR9");
+                             .buildApi(Route53Api.class);
+    }
+
+    static org.jclouds.route53.features.ResourceRecordSetApi mockRoute53Api(String uri) {
+        return mockRoute53(uri).getResourceRecordSetApiForHostedZone("Z1PA6795UKMFR9");
+    }
+
+    String hostedZones = "<ListHostedZonesResponse><HostedZones><HostedZone><Id>/hostedzone/Z1PA6795UKMFR9</Id><Name>denominator.io.</Name><CallerReference>denomination</CallerReference><Config><Comment>no comment</Comment></Config><ResourceRecordSetCount>17</ResourceRecordSetCount></HostedZone></HostedZones><IsTruncated>false</IsTruncated><MaxItems>100</MaxItems></ListHostedZonesResponse>";
+
+    @Test
+    public void factoryListsHostedZonesOnlyOnCacheMiss() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(hostedZones));
+        server.play();
+
+        try {
+            Route53Api route53 = mockRoute53(server.getUrl("/").toString());
+            LoadingCache<String, String> zoneIds = CacheBuilder.newBuilder().recordStats()
+                    .build(new Route53ResourceRecordSetApi.HostedZoneIdByName(route53));
+            Route53ResourceRecordSetApi.Factory factory = new Route53ResourceRecordSetApi.Factory(route53, zoneIds);
+            factory.create("denominator.io.");
+            factory.create("denominator.io.");
+            assertEquals(zoneIds.stats().missCount(), 1);
+            assertEquals(zoneIds.stats().hitCount(), 1);
+        } finally {
+            assertEquals(server.getRequestCount(), 1);
+            assertEquals(server.takeRequest().getRequestLine(), "GET /2012-02-29/hostedzone HTTP/1.1");
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "zone foo.com. not found")
+    public void factoryDoesntCacheMissingZone() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(hostedZones));
+        server.play();
+
+        try {
+            Route53Api route53 = mockRoute53(server.getUrl("/").toString());
+            LoadingCache<String, String> zoneIds = CacheBuilder.newBuilder()
+                    .build(new Route53ResourceRecordSetApi.HostedZoneIdByName(route53));
+            new Route53ResourceRecordSetApi.Factory(route53, zoneIds).create("foo.com.");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @dagger.Module(entryPoints = DNSApiManager.class, complete = false, overrides = true)
+    static class MockRoute53Api {
+        private final Route53Api api;
+
+        MockRoute53Api(Route53Api api) {
+            this.api = api;
+        }
+
+        @Provides
+        Route53Api provideApi() {
+            return api;
+        }
+    }
+
+    @dagger.Module(entryPoints = DNSApiManager.class, complete = false, overrides = true)
+    static class ZoneIds {
+        private final Cache<String, String> zoneIds;
+
+        ZoneIds(Cache<String, String> zoneIds) {
+            this.zoneIds = zoneIds;
+        }
+
+        @Provides
+        @Named("zoneIds")
+        Cache<String, String> provideZoneIds() {
+            return zoneIds;
+        }
+    }
+
+    @Test
+    public void overriddenZoneIdCacheReportsStats() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(hostedZones));
+        server.play();
+
+        Cache<String, String> zoneIds = CacheBuilder.newBuilder().recordStats().build();
+        DNSApiManager manager = Denominator.create(new Route53Provider(), credentials("accessKey", "secretKey"),
+                new MockRoute53Api(mockRoute53(server.getUrl("/").toString())), new ZoneIds(zoneIds));
+        try {
+            manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            manager.getApi().getResourceRecordSetApiForZone("denominator.io.");
+            assertEquals(zoneIds.stats().missCount(), 1);
+            assertEquals(zoneIds.stats().hitCount(), 1);
+        } finally {
+            manager.close();
+            assertEquals(server.getRequestCount(), 1);
+            server.shutdown();
+        }
+    }
+
+    String noSuchHostedZone = "<ErrorResponse xmlns=\"https://route53.amazonaws.com/doc/2012-02-29/\"><Error><Type>Sender</Type><Code>NoSuchHostedZone</Code><Message>No hosted zone found with ID: Z1PA6795UKMFR9</Message></Error><RequestId>d38ea9d8-d1fe-11e2-9bca-3bdf6dd7f93c</RequestId></ErrorResponse>";
+
+    @Test
+    public void noSuchHostedZoneInvalidatesZoneId() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(hostedZones));
+        server.enqueue(new MockResponse().setResponseCode(404).setBody(noSuchHostedZone));
+        server.play();
+
+        Cache<String, String> zoneIds = CacheBuilder.newBuilder().build();
+        try {
+            Route53Api route53 = mockRoute53(server.getUrl("/").toString());
+            ResourceRecordSetApi api = new Route53ResourceRecordSetApi.Factory(route53, zoneIds)
+                    .create("denominator.io.");
+            assertEquals(zoneIds.getIfPresent("denominator.io."), "Z1PA6795UKMFR9");
+            try {
+                api.deleteByNameAndType("www.denominator.io.", "A");
+                fail("expected NoSuchHostedZone");
+            } catch (ResourceNotFoundException e) {
+                assertEquals(AWSResponseException.class.cast(e.getCause()).getError().getCode(), "NoSuchHostedZone");
+            }
+            assertNull(zoneIds.getIfPresent("denominator.io."));
+        } finally {
+            assertEquals(server.getRequestCount(), 2);
+            server.shutdown();
+        }
     }
 
     String weightedRecords = "<ListResourceRecordSetsResponse><ResourceRecordSets><ResourceRecordSet><Name>www.foo.com.</Name><Type>CNAME</Type><SetIdentifier>Route53Service:us-east-1:PLATFORMSERVICE:i-7f0aec0d:20130313205017</SetIdentifier><Weight>1</Weight><TTL>0</TTL><ResourceRecords><ResourceRecord><Value>www1.foo.com.</Value></ResourceRecord></ResourceRecords></ResourceRecordSet><ResourceRecordSet><Name>www.foo.com.</Name><Type>CNAME</Type><SetIdentifier>Route53Service:us-east-1:PLATFORMSERVICE:i-fbe41089:20130312203418</SetIdentifier><Weight>1</Weight><TTL>0</TTL><ResourceRecords><ResourceRecord><Value>www2.foo.com.</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></ResourceRecordSets></ListResourceRecordSetsResponse>";
@@ -63,6 +204,36 @@ public class Route53ResourceRecordSetApiMockTest {
         }
     }
 
+    String firstPage = "<ListResourceRecordSetsResponse><ResourceRecordSets><ResourceRecordSet><Name>www1.foo.com.</Name><Type>A</Type><TTL>3600</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet><ResourceRecordSet><Name>www2.foo.com.</Name><Type>A</Type><TTL>3600</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></ResourceRecordSets><IsTruncated>true</IsTruncated><NextRecordName>www3.foo.com.</NextRecordName><NextRecordType>A</NextRecordType><MaxItems>2</MaxItems></ListResourceRecordSetsResponse>";
+    String lastPage = "<ListResourceRecordSetsResponse><ResourceRecordSets><ResourceRecordSet><Name>www3.foo.com.</Name><Type>A</Type><TTL>3600</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></ResourceRecordSets><IsTruncated>false</IsTruncated><MaxItems>2</MaxItems></ListResourceRecordSetsResponse>";
+
+    @Test
+    public void listPrefetchesNextPageWhileCurrentIsConsumed() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(firstPage));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(lastPage));
+        server.play();
+
+        ListeningExecutorService executor = listeningDecorator(newSingleThreadExecutor());
+        try {
+            Route53ResourceRecordSetApi api = new Route53ResourceRecordSetApi(mockRoute53Api(server.getUrl("/")
+                    .toString()), executor, 1);
+            Iterator<ResourceRecordSet<?>> iterator = api.list();
+            assertEquals(iterator.next(), a("www1.foo.com.", 3600, "192.0.2.1"));
+            // the last page is requested before the consumer reaches it
+            assertEquals(server.takeRequest().getRequestLine(),
+                    "GET /2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset HTTP/1.1");
+            assertEquals(server.takeRequest().getRequestLine(),
+                    "GET /2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset?name=www3.foo.com.&type=A HTTP/1.1");
+            assertEquals(ImmutableList.copyOf(iterator), ImmutableList.of(
+                    a("www2.foo.com.", 3600, "192.0.2.1"), a("www3.foo.com.", 3600, "192.0.2.1")));
+            assertEquals(server.getRequestCount(), 2);
+        } finally {
+            executor.shutdownNow();
+            server.shutdown();
+        }
+    }
+
     @Test
     public void listByNameWeightedRecordSubsetsAggregateOnNameAndType() throws IOException, InterruptedException {
         MockWebServer server = new MockWebServer();
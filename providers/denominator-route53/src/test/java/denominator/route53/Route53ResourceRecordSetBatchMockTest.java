@@ -0,0 +1,148 @@
+package denominator.route53;
+
+import static denominator.model.ResourceRecordSets.a;
+import static denominator.model.ResourceRecordSets.ttlGreaterThan;
+import static denominator.route53.Route53ResourceRecordSetApiMockTest.mockRoute53Api;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.testng.annotations.Test;
+
+import com.google.mockwebserver.MockResponse;
+import com.google.mockwebserver.MockWebServer;
+import com.google.mockwebserver.RecordedRequest;
+
+import denominator.ResourceRecordSetBatch;
+
+@Test(singleThreaded = true)
+public class Route53ResourceRecordSetBatchMockTest {
+
+    String noRecords = "<ListResourceRecordSetsResponse><ResourceRecordSets></ResourceRecordSets></ListResourceRecordSetsResponse>";
+    String oneRecordFormat = "<ListResourceRecordSetsResponse><ResourceRecordSets><ResourceRecordSet><Name>%s</Name><Type>A</Type><TTL>3600</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></ResourceRecordSets></ListResourceRecordSetsResponse>";
+    String changeSynced = "<GetChangeResponse><ChangeInfo><Id>/change/C2682N5HXP0BZ4</Id><Status>INSYNC</Status><SubmittedAt>2011-09-10T01:36:41.958Z</SubmittedAt></ChangeInfo></GetChangeResponse>";
+
+    String createWwwDeleteWww1AndReplaceWww2 = "<ChangeResourceRecordSetsRequest xmlns=\"https://route53.amazonaws.com/doc/2012-02-29/\"><ChangeBatch><Changes><Change><Action>CREATE</Action><ResourceRecordSet><Name>www.foo.com.</Name><Type>A</Type><TTL>3600</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord><ResourceRecord><Value>198.51.100.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></Change><Change><Action>DELETE</Action><ResourceRecordSet><Name>www1.foo.com.</Name><Type>A</Type><TTL>3600</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></Change><Change><Action>DELETE</Action><ResourceRecordSet><Name>www2.foo.com.</Name><Type>A</Type><TTL>3600</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></Change><Change><Action>CREATE</Action><ResourceRecordSet><Name>www2.foo.com.</Name><Type>A</Type><TTL>300</TTL><ResourceRecords><ResourceRecord><Value>198.51.100.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></Change></Changes></ChangeBatch></ChangeResourceRecordSetsRequest>";
+
+    @Test
+    public void commitSendsOneChangeBatchAndCollapsesOperationsOnSameRRSet() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(noRecords));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(format(oneRecordFormat, "www1.foo.com.")));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(format(oneRecordFormat, "www2.foo.com.")));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(changeSynced));
+        server.play();
+
+        try {
+            ResourceRecordSetBatch batch = new Route53ResourceRecordSetBatch("foo.com.", mockRoute53Api(server.getUrl("/")
+                    .toString()));
+            batch.add(a("www.foo.com.", 3600, "192.0.2.1"))
+                 .deleteByNameAndType("www1.foo.com.", "A")
+                 .replace(a("www2.foo.com.", "198.51.100.1"))
+                 .add(a("www.foo.com.", "198.51.100.1"))
+                 .commit();
+        } finally {
+            assertEquals(server.getRequestCount(), 4);
+            assertEquals(server.takeRequest().getRequestLine(),
+                    "GET /2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset?name=www.foo.com.&type=A HTTP/1.1");
+            assertEquals(server.takeRequest().getRequestLine(),
+                    "GET /2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset?name=www1.foo.com.&type=A HTTP/1.1");
+            assertEquals(server.takeRequest().getRequestLine(),
+                    "GET /2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset?name=www2.foo.com.&type=A HTTP/1.1");
+
+            RecordedRequest changeRRSets = server.takeRequest();
+            assertEquals(changeRRSets.getRequestLine(), "POST /2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset HTTP/1.1");
+            assertEquals(new String(changeRRSets.getBody()), createWwwDeleteWww1AndReplaceWww2);
+
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void commitDoesntSendChangeBatchWhenNothingChanged() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(format(oneRecordFormat, "www.foo.com.")));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(noRecords));
+        server.play();
+
+        try {
+            ResourceRecordSetBatch batch = new Route53ResourceRecordSetBatch("foo.com.", mockRoute53Api(server.getUrl("/")
+                    .toString()));
+            batch.replace(a("www.foo.com.", 3600, "192.0.2.1"))
+                 .remove(a("www1.foo.com.", "192.0.2.1"))
+                 .commit();
+        } finally {
+            assertEquals(server.getRequestCount(), 2);
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void commitSplitsChangeBatchesWithoutSeparatingDeleteFromCreate() throws IOException,
+            InterruptedException {
+        MockWebServer server = new MockWebServer();
+        int rrsets = Route53ResourceRecordSetBatch.MAX_CHANGES / 2 + 1;
+        for (int i = 0; i < rrsets; i++) {
+            server.enqueue(new MockResponse().setResponseCode(200).setBody(
+                    format(oneRecordFormat, "www" + i + ".foo.com.")));
+        }
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(changeSynced));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(changeSynced));
+        server.play();
+
+        try {
+            ResourceRecordSetBatch batch = new Route53ResourceRecordSetBatch("foo.com.", mockRoute53Api(server.getUrl("/")
+                    .toString()));
+            for (int i = 0; i < rrsets; i++) {
+                batch.add(a("www" + i + ".foo.com.", "198.51.100.1"));
+            }
+            batch.commit();
+        } finally {
+            assertEquals(server.getRequestCount(), rrsets + 2);
+            for (int i = 0; i < rrsets; i++) {
+                server.takeRequest();
+            }
+            RecordedRequest first = server.takeRequest();
+            assertEquals(first.getRequestLine(), "POST /2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset HTTP/1.1");
+            assertEquals(countChanges(first), Route53ResourceRecordSetBatch.MAX_CHANGES);
+
+            RecordedRequest second = server.takeRequest();
+            assertEquals(second.getRequestLine(), "POST /2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset HTTP/1.1");
+            assertEquals(countChanges(second), 2);
+
+            server.shutdown();
+        }
+    }
+
+    String twoRecords = "<ListResourceRecordSetsResponse><ResourceRecordSets><ResourceRecordSet><Name>foo.com.</Name><Type>SOA</Type><TTL>3600</TTL><ResourceRecords><ResourceRecord><Value>ns-1612.awsdns-09.co.uk. awsdns-hostmaster.amazon.com. 1 7200 900 1209600 86400</Value></ResourceRecord></ResourceRecords></ResourceRecordSet><ResourceRecordSet><Name>foo.com.</Name><Type>NS</Type><TTL>172800</TTL><ResourceRecords><ResourceRecord><Value>ns-1612.awsdns-09.co.uk.</Value></ResourceRecord></ResourceRecords></ResourceRecordSet><ResourceRecordSet><Name>www1.foo.com.</Name><Type>A</Type><TTL>3600</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet><ResourceRecordSet><Name>www2.foo.com.</Name><Type>A</Type><TTL>300</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></ResourceRecordSets></ListResourceRecordSetsResponse>";
+    String lowerTTLOfWww1 = "<ChangeResourceRecordSetsRequest xmlns=\"https://route53.amazonaws.com/doc/2012-02-29/\"><ChangeBatch><Changes><Change><Action>DELETE</Action><ResourceRecordSet><Name>www1.foo.com.</Name><Type>A</Type><TTL>3600</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></Change><Change><Action>CREATE</Action><ResourceRecordSet><Name>www1.foo.com.</Name><Type>A</Type><TTL>300</TTL><ResourceRecords><ResourceRecord><Value>192.0.2.1</Value></ResourceRecord></ResourceRecords></ResourceRecordSet></Change></Changes></ChangeBatch></ChangeResourceRecordSetsRequest>";
+
+    @Test
+    public void applyTTLListsZoneOnceAndChangesOnlyMatches() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(twoRecords));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(changeSynced));
+        server.play();
+
+        try {
+            ResourceRecordSetBatch batch = new Route53ResourceRecordSetBatch("foo.com.", mockRoute53Api(server.getUrl("/")
+                    .toString()));
+            batch.applyTTL(300, ttlGreaterThan(300)).commit();
+        } finally {
+            assertEquals(server.getRequestCount(), 2);
+            assertEquals(server.takeRequest().getRequestLine(),
+                    "GET /2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset HTTP/1.1");
+
+            RecordedRequest changeRRSets = server.takeRequest();
+            assertEquals(changeRRSets.getRequestLine(), "POST /2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset HTTP/1.1");
+            assertEquals(new String(changeRRSets.getBody()), lowerTTLOfWww1);
+
+            server.shutdown();
+        }
+    }
+
+    static int countChanges(RecordedRequest request) {
+        return new String(request.getBody()).split("<Change>").length - 1;
+    }
+}
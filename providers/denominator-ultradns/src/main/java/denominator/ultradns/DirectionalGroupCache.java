@@ -0,0 +1,78 @@
+package denominator.ultradns;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * directional groups, keyed on account and group id. Group definitions rarely
+ * change, so {@link #SHARED} is used by all connections in the process.
+ */
+final class DirectionalGroupCache {
+
+    static final DirectionalGroupCache SHARED = new DirectionalGroupCache(CacheBuilder.newBuilder()
+            .maximumSize(10000).expireAfterWrite(5, MINUTES).recordStats());
+
+    private final Cache<List<String>, Multimap<String, String>> groups;
+
+    DirectionalGroupCache(CacheBuilder<Object, Object> builder) {
+        this.groups = builder.build();
+    }
+
+    /**
+     * @param loader
+     *            reads a group of the account by id.
+     */
+    Multimap<String, String> get(String accountId, final String groupId,
+            final CacheLoader<String, Multimap<String, String>> loader) {
+        checkNotNull(groupId, "groupId");
+        checkNotNull(loader, "loader");
+        try {
+            return groups.get(ImmutableList.of(checkNotNull(accountId, "accountId"), groupId),
+                    new Callable<Multimap<String, String>>() {
+                        public Multimap<String, String> call() throws Exception {
+                            return loader.load(groupId);
+                        }
+                    });
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * loads any of the groups which are not yet cached, reading each only
+     * once, even if listed more than once.
+     */
+    Map<String, Multimap<String, String>> getAll(String accountId, Iterable<String> groupIds,
+            CacheLoader<String, Multimap<String, String>> loader) {
+        ImmutableMap.Builder<String, Multimap<String, String>> builder = ImmutableMap.builder();
+        for (String groupId : ImmutableSet.copyOf(groupIds))
+            builder.put(groupId, get(accountId, groupId, loader));
+        return builder.build();
+    }
+
+    CacheStats stats() {
+        return groups.stats();
+    }
+
+    void invalidateAll() {
+        groups.invalidateAll();
+    }
+}
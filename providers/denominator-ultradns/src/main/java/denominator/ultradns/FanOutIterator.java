@@ -0,0 +1,80 @@
+package denominator.ultradns;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * applies a function to each input on the executor, keeping up to
+ * {@code inFlight} calls running ahead of the consumer. Results are returned
+ * in the order of the inputs, regardless of which call finished first.
+ *
+ * When {@code inFlight} is zero, each call is made on the consumer's thread
+ * when its result is needed.
+ */
+class FanOutIterator<I, O> extends AbstractIterator<O> {
+    private final Iterator<I> inputs;
+    private final Function<? super I, O> function;
+    private final ListeningExecutorService executor;
+    private final int inFlight;
+    private final Deque<Future<O>> pending = new ArrayDeque<Future<O>>();
+
+    FanOutIterator(Iterator<I> inputs, Function<? super I, O> function, ListeningExecutorService executor,
+            int inFlight) {
+        this.inputs = checkNotNull(inputs, "inputs");
+        this.function = checkNotNull(function, "function");
+        this.executor = checkNotNull(executor, "executor");
+        checkArgument(inFlight >= 0, "inFlight must be non-negative, but was %s", inFlight);
+        this.inFlight = inFlight;
+    }
+
+    @Override
+    protected O computeNext() {
+        if (inFlight == 0)
+            return inputs.hasNext() ? function.apply(inputs.next()) : endOfData();
+        while (pending.size() < inFlight && inputs.hasNext())
+            pending.add(submit(inputs.next()));
+        if (pending.isEmpty())
+            return endOfData();
+        try {
+            return pending.remove().get();
+        } catch (InterruptedException e) {
+            cancelPending();
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            cancelPending();
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private Future<O> submit(final I input) {
+        return executor.submit(new Callable<O>() {
+            public O call() {
+                return function.apply(input);
+            }
+
+            @Override
+            public String toString() {
+                return function + "(" + input + ")";
+            }
+        });
+    }
+
+    private void cancelPending() {
+        for (Future<O> future : pending)
+            future.cancel(true);
+        pending.clear();
+    }
+}
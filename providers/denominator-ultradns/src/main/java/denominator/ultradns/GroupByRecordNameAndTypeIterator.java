@@ -1,6 +1,7 @@
 package denominator.ultradns;
 
 import static com.google.common.collect.Iterators.peekingIterator;
+import static denominator.ResourceTypeToValue.typeName;
 import static denominator.ultradns.UltraDNSFunctions.toRdataMap;
 
 import java.util.Iterator;
@@ -11,7 +12,6 @@ import org.jclouds.ultradns.ws.domain.ResourceRecordDetail;
 
 import com.google.common.collect.PeekingIterator;
 
-import denominator.ResourceTypeToValue;
 import denominator.model.ResourceRecordSet;
 import denominator.model.ResourceRecordSet.Builder;
 
@@ -30,7 +30,7 @@ class GroupByRecordNameAndTypeIterator implements Iterator<ResourceRecordSet<?>>
     @Override
     public ResourceRecordSet<?> next() {
         ResourceRecord record = peekingIterator.next().getRecord();
-        String type = new ResourceTypeToValue().inverse().get(record.getType());
+        String type = typeName(record.getType());
         Builder<Map<String, Object>> builder = ResourceRecordSet.builder()
                                                                 .name(record.getName())
                                                                 .type(type)
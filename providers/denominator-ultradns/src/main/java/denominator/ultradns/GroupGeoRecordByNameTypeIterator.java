@@ -1,9 +1,13 @@
 package denominator.ultradns;
 
+import static com.google.common.collect.Iterators.concat;
+import static com.google.common.collect.Iterators.partition;
 import static com.google.common.collect.Iterators.peekingIterator;
+import static com.google.common.collect.Iterators.transform;
 import static denominator.ultradns.UltraDNSFunctions.forTypeAndRData;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import javax.inject.Inject;
@@ -15,9 +19,9 @@ import org.jclouds.ultradns.ws.domain.IdAndName;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.base.Supplier;
 import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.PeekingIterator;
 
@@ -38,12 +42,23 @@ import denominator.model.profile.Geo;
 class GroupGeoRecordByNameTypeIterator implements Iterator<ResourceRecordSet<?>> {
 
     static final class Factory {
+        /**
+         * records read ahead, so that the groups they reference are loaded
+         * together.
+         */
+        static final int PAGE_SIZE = 100;
+
         private final CacheLoader<String, Multimap<String, String>> getDirectionalGroup;
+        private final DirectionalGroupCache cache;
+        private final Supplier<IdAndName> account;
 
         @Inject
         private Factory(
-                @denominator.config.profile.Geo CacheLoader<String, Multimap<String, String>> getDirectionalGroup) {
+                @denominator.config.profile.Geo CacheLoader<String, Multimap<String, String>> getDirectionalGroup,
+                DirectionalGroupCache cache, Supplier<IdAndName> account) {
             this.getDirectionalGroup = getDirectionalGroup;
+            this.cache = cache;
+            this.account = account;
         }
 
         /**
@@ -55,9 +70,35 @@ class GroupGeoRecordByNameTypeIterator implements Iterator<ResourceRecordSet<?>>
          *            or {@link DirectionalPoolRecordDetail#getGroup()}
          */
         Iterator<ResourceRecordSet<?>> create(Iterator<DirectionalPoolRecordDetail> sortedIterator) {
-            LoadingCache<String, Multimap<String, String>> requestScopedGeoCache = 
-                    CacheBuilder.newBuilder().build(getDirectionalGroup);
-            return new GroupGeoRecordByNameTypeIterator(requestScopedGeoCache, sortedIterator);
+            final String accountId = account.get().getId();
+            Iterator<DirectionalPoolRecordDetail> loadingGroupsByPage = concat(transform(
+                    partition(sortedIterator, PAGE_SIZE),
+                    new Function<List<DirectionalPoolRecordDetail>, Iterator<DirectionalPoolRecordDetail>>() {
+                        @Override
+                        public Iterator<DirectionalPoolRecordDetail> apply(List<DirectionalPoolRecordDetail> page) {
+                            cache.getAll(accountId, groupIds(page), getDirectionalGroup);
+                            return page.iterator();
+                        }
+                    }));
+            Function<String, Multimap<String, String>> cachedGroup = new Function<String, Multimap<String, String>>() {
+                @Override
+                public Multimap<String, String> apply(String groupId) {
+                    return cache.get(accountId, groupId, getDirectionalGroup);
+                }
+            };
+            return new GroupGeoRecordByNameTypeIterator(cachedGroup, loadingGroupsByPage);
+        }
+
+        private static Iterable<String> groupIds(List<DirectionalPoolRecordDetail> page) {
+            ImmutableSet.Builder<String> groupIds = ImmutableSet.builder();
+            for (DirectionalPoolRecordDetail record : page) {
+                if (record.getRecord().isNoResponseRecord())
+                    continue;
+                Optional<IdAndName> group = group(record);
+                if (group.isPresent())
+                    groupIds.add(group.get().getId());
+            }
+            return groupIds.build();
         }
     }
 
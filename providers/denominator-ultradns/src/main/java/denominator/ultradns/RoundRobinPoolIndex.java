@@ -0,0 +1,183 @@
+package denominator.ultradns;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static denominator.ResourceTypeToValue.typeName;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.ultradns.ws.domain.ResourceRecordDetail;
+import org.jclouds.ultradns.ws.domain.RoundRobinPool;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+
+/**
+ * indexes the round robin pools of a zone by dname and type, and the records
+ * in them by guid. Pools are indexed from a single listing, but their records
+ * are only loaded when a lookup needs them.
+ *
+ * The index is kept coherent by {@link UltraDNSRoundRobinPoolApi}, and is
+ * considered stale once {@code ttl} has passed since it was last rebuilt, or
+ * after {@link #invalidate()}.
+ */
+final class RoundRobinPoolIndex {
+    private final long ttlNanos;
+    private final Ticker ticker;
+
+    private final Map<List<String>, String> poolIdByDNameAndType = Maps.newHashMap();
+    private final SetMultimap<String, String> poolIdsByDName = LinkedHashMultimap.create();
+    private final Map<String, String> dnameByPoolId = Maps.newHashMap();
+    private final Set<String> poolsWithRecordsLoaded = Sets.newHashSet();
+    private final Map<String, String> poolIdByRecordGuid = Maps.newHashMap();
+    private final SetMultimap<String, String> recordGuidsByPoolId = LinkedHashMultimap.create();
+    private long rebuiltAt;
+    private boolean valid;
+
+    RoundRobinPoolIndex() {
+        this(1, TimeUnit.MINUTES, Ticker.systemTicker());
+    }
+
+    RoundRobinPoolIndex(long ttl, TimeUnit unit, Ticker ticker) {
+        checkArgument(ttl >= 0, "ttl must be non-negative, but was %s", ttl);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.ticker = checkNotNull(ticker, "ticker");
+    }
+
+    synchronized boolean isStale() {
+        return !valid || ticker.read() - rebuiltAt >= ttlNanos;
+    }
+
+    synchronized void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * replaces the contents of the index with the pools listed. As pools are
+     * created with their type as the name, the type of any other pool is
+     * unknown until its records are loaded.
+     */
+    synchronized void rebuild(Iterable<RoundRobinPool> pools) {
+        poolIdByDNameAndType.clear();
+        poolIdsByDName.clear();
+        dnameByPoolId.clear();
+        poolsWithRecordsLoaded.clear();
+        poolIdByRecordGuid.clear();
+        recordGuidsByPoolId.clear();
+        for (RoundRobinPool pool : pools) {
+            poolIdsByDName.put(pool.getDName(), pool.getId());
+            dnameByPoolId.put(pool.getId(), pool.getDName());
+            if (isPoolType(pool.getName()))
+                putIfAbsent(pool.getDName(), pool.getName(), pool.getId());
+        }
+        rebuiltAt = ticker.read();
+        valid = true;
+    }
+
+    synchronized Optional<String> poolId(String dname, String type) {
+        return Optional.fromNullable(poolIdByDNameAndType.get(ImmutableList.of(dname, type)));
+    }
+
+    synchronized Optional<String> poolIdForRecord(String guid) {
+        return Optional.fromNullable(poolIdByRecordGuid.get(guid));
+    }
+
+    /**
+     * true if any record of the pool is indexed. When false, the pool may
+     * still have records added elsewhere, or not yet loaded.
+     */
+    synchronized boolean hasRecords(String poolId) {
+        return recordGuidsByPoolId.containsKey(poolId);
+    }
+
+    /**
+     * pools of the dname whose records haven't been loaded, in the order they
+     * were listed.
+     */
+    synchronized List<String> poolsWithoutRecords(String dname) {
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (String poolId : poolIdsByDName.get(dname)) {
+            if (!poolsWithRecordsLoaded.contains(poolId))
+                builder.add(poolId);
+        }
+        return builder.build();
+    }
+
+    /**
+     * replaces the records indexed for the pool, and indexes its type, if
+     * unknown, by the first record.
+     */
+    synchronized void putRecords(String poolId, Iterable<ResourceRecordDetail> records) {
+        String dname = dnameByPoolId.get(poolId);
+        if (dname == null)
+            return;
+        removeRecordsOf(poolId);
+        for (ResourceRecordDetail record : records) {
+            putRecord(poolId, record.getGuid());
+            String type = typeName(record.getRecord().getType());
+            if (type != null && isPoolType(type))
+                putIfAbsent(dname, type, poolId);
+        }
+        poolsWithRecordsLoaded.add(poolId);
+    }
+
+    /**
+     * indexes a pool just created, which is empty.
+     */
+    synchronized void putPool(String poolId, String dname, String type) {
+        poolIdsByDName.put(dname, poolId);
+        dnameByPoolId.put(poolId, dname);
+        poolsWithRecordsLoaded.add(poolId);
+        putIfAbsent(dname, type, poolId);
+    }
+
+    synchronized void putRecord(String poolId, String guid) {
+        if (!dnameByPoolId.containsKey(poolId))
+            return;
+        poolIdByRecordGuid.put(guid, poolId);
+        recordGuidsByPoolId.put(poolId, guid);
+    }
+
+    synchronized void removeRecord(String guid) {
+        String poolId = poolIdByRecordGuid.remove(guid);
+        if (poolId != null)
+            recordGuidsByPoolId.remove(poolId, guid);
+    }
+
+    synchronized void removePool(String poolId) {
+        String dname = dnameByPoolId.remove(poolId);
+        if (dname == null)
+            return;
+        poolIdsByDName.remove(dname, poolId);
+        poolsWithRecordsLoaded.remove(poolId);
+        for (String type : ImmutableList.of("A", "AAAA")) {
+            List<String> key = ImmutableList.of(dname, type);
+            if (poolId.equals(poolIdByDNameAndType.get(key)))
+                poolIdByDNameAndType.remove(key);
+        }
+        removeRecordsOf(poolId);
+    }
+
+    private void removeRecordsOf(String poolId) {
+        for (String guid : recordGuidsByPoolId.removeAll(poolId))
+            poolIdByRecordGuid.remove(guid);
+    }
+
+    private void putIfAbsent(String dname, String type, String poolId) {
+        List<String> key = ImmutableList.of(dname, type);
+        if (!poolIdByDNameAndType.containsKey(key))
+            poolIdByDNameAndType.put(key, poolId);
+    }
+
+    static boolean isPoolType(String type) {
+        return "A".equals(type) || "AAAA".equals(type);
+    }
+}
@@ -1,6 +1,8 @@
 
 package denominator.ultradns;
 
+import static denominator.ResourceTypeToValue.typeName;
+
 import java.util.List;
 import java.util.Map;
 
@@ -11,7 +13,6 @@ import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMap;
 
-import denominator.ResourceTypeToValue;
 import denominator.model.rdata.AAAAData;
 import denominator.model.rdata.AData;
 import denominator.model.rdata.CNAMEData;
@@ -57,7 +58,7 @@ final class UltraDNSFunctions {
         @Override
         public Map<String, Object> apply(ResourceRecord in) {
             List<String> parts = in.getRData();
-            String type = new ResourceTypeToValue().inverse().get(in.getType());
+            String type = typeName(in.getType());
             return forTypeAndRData(type, parts);
         }
 
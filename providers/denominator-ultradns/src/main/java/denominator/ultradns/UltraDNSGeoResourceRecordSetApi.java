@@ -5,6 +5,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterators.concat;
 import static com.google.common.collect.Iterators.filter;
 import static com.google.common.collect.Iterators.transform;
+import static denominator.ResourceTypeToValue.typeValue;
 import static denominator.model.ResourceRecordSets.typeEqualTo;
 import static denominator.ultradns.UltraDNSPredicates.isGeolocationPool;
 import static org.jclouds.ultradns.ws.domain.DirectionalPool.RecordType.IPV4;
@@ -12,9 +13,11 @@ import static org.jclouds.ultradns.ws.domain.DirectionalPool.RecordType.IPV6;
 
 import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.jclouds.ultradns.ws.UltraDNSWSApi;
 import org.jclouds.ultradns.ws.domain.DirectionalGroupCoordinates;
@@ -29,11 +32,13 @@ import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 import dagger.Lazy;
-import denominator.ResourceTypeToValue;
 import denominator.model.ResourceRecordSet;
 import denominator.profile.GeoResourceRecordSetApi;
 
@@ -45,15 +50,37 @@ public final class UltraDNSGeoResourceRecordSetApi implements GeoResourceRecordS
     private final DirectionalPoolApi poolApi;
     private final GroupGeoRecordByNameTypeIterator.Factory iteratorFactory;
     private final String zoneName;
+    private final Set<DirectionalPool.RecordType> directionalTypes;
+    private final ListeningExecutorService executor;
+    private final int inFlight;
 
     UltraDNSGeoResourceRecordSetApi(Set<String> types, Multimap<String, String> regions, DirectionalGroupApi groupApi,
-            DirectionalPoolApi poolApi, GroupGeoRecordByNameTypeIterator.Factory iteratorFactory, String zoneName) {
+            DirectionalPoolApi poolApi, GroupGeoRecordByNameTypeIterator.Factory iteratorFactory, String zoneName,
+            ListeningExecutorService executor, int inFlight) {
         this.types = types;
         this.regions = regions;
         this.groupApi = groupApi;
         this.poolApi = poolApi;
         this.iteratorFactory = iteratorFactory;
         this.zoneName = zoneName;
+        this.directionalTypes = directionalTypes(types);
+        this.executor = executor;
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * directional types which hold any of the supported types, as there's no
+     * point listing the others.
+     */
+    static Set<DirectionalPool.RecordType> directionalTypes(Set<String> types) {
+        Set<DirectionalPool.RecordType> directionalTypes = EnumSet.noneOf(DirectionalPool.RecordType.class);
+        for (DirectionalPool.RecordType type : DirectionalPool.RecordType.values()) {
+            if (type == IPV4 ? types.contains("A") || types.contains("CNAME")
+                    : type == IPV6 ? types.contains("AAAA") || types.contains("CNAME")
+                    : types.contains(type.name()))
+                directionalTypes.add(type);
+        }
+        return directionalTypes;
     }
 
     @Override
@@ -66,33 +93,69 @@ public final class UltraDNSGeoResourceRecordSetApi implements GeoResourceRecordS
         return regions;
     }
 
+    /**
+     * lists records of each geolocation pool, one call per directional type,
+     * fanning the calls out on the executor.
+     */
     @Override
     public Iterator<ResourceRecordSet<?>> list() {
-        return concat(poolApi.list().filter(isGeolocationPool())
-                .transform(new Function<DirectionalPool, Iterator<ResourceRecordSet<?>>>() {
+        Set<String> dnames = ImmutableSet.copyOf(poolApi.list().filter(isGeolocationPool())
+                .transform(new Function<DirectionalPool, String>() {
                     @Override
-                    public Iterator<ResourceRecordSet<?>> apply(DirectionalPool pool) {
-                        return allByDName(pool.getDName());
+                    public String apply(DirectionalPool pool) {
+                        return pool.getDName();
                     }
-
-                }).iterator());
+                }));
+        return allByDNames(dnames);
     }
 
-    private Iterator<ResourceRecordSet<?>> allByDName(final String dname) {
-        return concat(transform(EnumSet.allOf(DirectionalPool.RecordType.class).iterator(),
-                new Function<DirectionalPool.RecordType, Iterator<ResourceRecordSet<?>>>() {
-
+    private Iterator<ResourceRecordSet<?>> allByDNames(Iterable<String> dnames) {
+        ImmutableList.Builder<DNameAndType> calls = ImmutableList.builder();
+        for (String dname : dnames) {
+            for (DirectionalPool.RecordType dirType : directionalTypes)
+                calls.add(new DNameAndType(dname, dirType));
+        }
+        Iterator<List<DirectionalPoolRecordDetail>> sortedRecords = new FanOutIterator<DNameAndType, List<DirectionalPoolRecordDetail>>(
+                calls.build().iterator(), listSortedRecords, executor, inFlight);
+        return concat(transform(sortedRecords,
+                new Function<List<DirectionalPoolRecordDetail>, Iterator<ResourceRecordSet<?>>>() {
                     @Override
-                    public Iterator<ResourceRecordSet<?>> apply(DirectionalPool.RecordType input) {
-                        return iteratorForDNameAndDirectionalType(dname, input);
+                    public Iterator<ResourceRecordSet<?>> apply(List<DirectionalPoolRecordDetail> records) {
+                        return iteratorFactory.create(records.iterator());
                     }
-
                 }));
     }
 
+    private final Function<DNameAndType, List<DirectionalPoolRecordDetail>> listSortedRecords = new Function<DNameAndType, List<DirectionalPoolRecordDetail>>() {
+        @Override
+        public List<DirectionalPoolRecordDetail> apply(DNameAndType call) {
+            return sortedRecordsForDNameAndDirectionalType(call.dname, call.dirType);
+        }
+
+        @Override
+        public String toString() {
+            return "listRecordsByDNameAndType";
+        }
+    };
+
+    private static final class DNameAndType {
+        private final String dname;
+        private final DirectionalPool.RecordType dirType;
+
+        private DNameAndType(String dname, DirectionalPool.RecordType dirType) {
+            this.dname = dname;
+            this.dirType = dirType;
+        }
+
+        @Override
+        public String toString() {
+            return dname + ", " + dirType;
+        }
+    }
+
     @Override
     public Iterator<ResourceRecordSet<?>> listByName(String name) {
-        return allByDName(checkNotNull(name, "name"));
+        return allByDNames(ImmutableSet.of(checkNotNull(name, "name")));
     }
 
     @Override
@@ -135,7 +198,7 @@ public final class UltraDNSGeoResourceRecordSetApi implements GeoResourceRecordS
     }
 
     private Iterator<DirectionalPoolRecordDetail> recordsForNameTypeAndGroup(String name, String type, String groupName) {
-        int typeValue = checkNotNull(new ResourceTypeToValue().get(type), "typeValue for %s", type);
+        int typeValue = typeValue(type);
         DirectionalGroupCoordinates group = DirectionalGroupCoordinates.builder()
                                                                        .zoneName(zoneName)
                                                                        .recordName(name)
@@ -146,8 +209,12 @@ public final class UltraDNSGeoResourceRecordSetApi implements GeoResourceRecordS
 
     private Iterator<ResourceRecordSet<?>> iteratorForDNameAndDirectionalType(String name,
             DirectionalPool.RecordType dirType) {
-        return iteratorFactory.create(poolApi.listRecordsByDNameAndType(name, dirType.getCode())
-                .toSortedList(byTypeAndGeoGroup).iterator());
+        return iteratorFactory.create(sortedRecordsForDNameAndDirectionalType(name, dirType).iterator());
+    }
+
+    private List<DirectionalPoolRecordDetail> sortedRecordsForDNameAndDirectionalType(String name,
+            DirectionalPool.RecordType dirType) {
+        return poolApi.listRecordsByDNameAndType(name, dirType.getCode()).toSortedList(byTypeAndGeoGroup);
     }
 
     static Optional<IdAndName> group(DirectionalPoolRecordDetail in) {
@@ -171,16 +238,22 @@ public final class UltraDNSGeoResourceRecordSetApi implements GeoResourceRecordS
         private final UltraDNSWSApi api;
         private final Supplier<IdAndName> account;
         private final GroupGeoRecordByNameTypeIterator.Factory iteratorFactory;
+        private final ListeningExecutorService executor;
+        private final int listThreads;
 
         @Inject
         Factory(@denominator.config.profile.Geo Set<String> types,
                 @denominator.config.profile.Geo Lazy<Multimap<String, String>> regions, UltraDNSWSApi api,
-                Supplier<IdAndName> account, GroupGeoRecordByNameTypeIterator.Factory iteratorFactory) {
+                Supplier<IdAndName> account, GroupGeoRecordByNameTypeIterator.Factory iteratorFactory,
+                @denominator.config.profile.Geo ListeningExecutorService executor,
+                @Named("listThreads") int listThreads) {
             this.types = types;
             this.regions = regions;
             this.api = api;
             this.account = account;
             this.iteratorFactory = iteratorFactory;
+            this.executor = executor;
+            this.listThreads = listThreads;
         }
 
         @Override
@@ -189,7 +262,8 @@ public final class UltraDNSGeoResourceRecordSetApi implements GeoResourceRecordS
             return Optional.<GeoResourceRecordSetApi> of(
                     new UltraDNSGeoResourceRecordSetApi(types, regions.get(), 
                             api.getDirectionalGroupApiForAccount(account.get().getId()),
-                            api.getDirectionalPoolApiForZone(zoneName), iteratorFactory, zoneName));
+                            api.getDirectionalPoolApiForZone(zoneName), iteratorFactory, zoneName, executor,
+                            listThreads > 1 ? listThreads : 0));
         }
     }
 
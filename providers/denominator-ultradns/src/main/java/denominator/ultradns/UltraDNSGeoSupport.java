@@ -1,8 +1,12 @@
 package denominator.ultradns;
 
 import static com.google.common.base.Functions.toStringFunction;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Predicates.in;
 import static com.google.common.base.Predicates.not;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.jclouds.ultradns.ws.domain.DirectionalPool.RecordType.IPV4;
 import static org.jclouds.ultradns.ws.domain.DirectionalPool.RecordType.IPV6;
 
@@ -10,7 +14,10 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.ultradns.ws.UltraDNSWSApi;
@@ -19,11 +26,14 @@ import org.jclouds.ultradns.ws.domain.IdAndName;
 
 import com.google.common.base.Supplier;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import dagger.Module;
 import dagger.Provides;
@@ -32,6 +42,26 @@ import denominator.profile.GeoResourceRecordSetApi;
 
 @Module(entryPoints = DNSApiManager.class, complete = false)
 public class UltraDNSGeoSupport {
+    private final int listThreads;
+
+    /**
+     * lists geo record sets one call at a time.
+     */
+    public UltraDNSGeoSupport() {
+        this(1);
+    }
+
+    /**
+     * @param listThreads
+     *            up to this many calls are made at once when listing geo
+     *            record sets. Results are returned in the same order as
+     *            when listed one call at a time.
+     */
+    public UltraDNSGeoSupport(int listThreads) {
+        checkArgument(listThreads > 0, "listThreads must be positive, but was %s", listThreads);
+        this.listThreads = listThreads;
+    }
+
 
     @Provides
     @Singleton
@@ -79,4 +109,43 @@ public class UltraDNSGeoSupport {
 
         };
     }
+
+    @Provides
+    @Named("listThreads")
+    int provideListThreads() {
+        return listThreads;
+    }
+
+    /**
+     * threads are daemons which exit when idle, as there's no hook to shut
+     * them down.
+     */
+    @Provides
+    @Singleton
+    @denominator.config.profile.Geo
+    ListeningExecutorService provideListExecutor() {
+        if (listThreads == 1)
+            return sameThreadExecutor();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(listThreads, listThreads, 60, SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat("ultradns-geo-list-%d").build());
+        executor.allowCoreThreadTimeOut(true);
+        return listeningDecorator(executor);
+    }
+
+    /**
+     * shared by all connections, as groups are keyed on account.
+     */
+    @Provides
+    @Singleton
+    DirectionalGroupCache provideDirectionalGroupCache() {
+        return DirectionalGroupCache.SHARED;
+    }
+
+    /**
+     * statistics of the directional groups cached across all connections.
+     */
+    public static CacheStats directionalGroupCacheStats() {
+        return DirectionalGroupCache.SHARED.stats();
+    }
 }
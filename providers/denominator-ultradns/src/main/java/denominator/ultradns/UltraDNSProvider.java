@@ -9,11 +9,14 @@ import javax.inject.Singleton;
 
 import org.jclouds.ContextBuilder;
 import org.jclouds.domain.Credentials;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.logging.slf4j.config.SLF4JLoggingModule;
 import org.jclouds.ultradns.ws.UltraDNSWSApi;
 import org.jclouds.ultradns.ws.UltraDNSWSProviderMetadata;
 
 import com.google.common.base.Function;
+import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
@@ -21,13 +24,18 @@ import com.google.common.collect.Multimap;
 
 import dagger.Module;
 import dagger.Provides;
+import denominator.AdaptiveRateLimiter;
 import denominator.CredentialsConfiguration.CredentialsAsList;
 import denominator.DNSApiManager;
 import denominator.Provider;
 import denominator.ResourceRecordSetApi;
 import denominator.ZoneApi;
+import denominator.config.AsyncOverBlockingResourceRecordSets;
+import denominator.config.BatchOverBlockingResourceRecordSets;
 
-@Module(entryPoints = DNSApiManager.class)
+@Module(entryPoints = DNSApiManager.class, 
+           includes = { AsyncOverBlockingResourceRecordSets.class,
+                        BatchOverBlockingResourceRecordSets.class })
 public class UltraDNSProvider extends Provider {
 
     @Provides
@@ -52,13 +60,37 @@ public class UltraDNSProvider extends Provider {
         }
     }
 
+    /**
+     * the rate is reduced when requests are throttled.
+     */
     @Provides
     @Singleton
-    UltraDNSWSApi provideApi(Supplier<Credentials> credentials) {
-        return ContextBuilder.newBuilder(new UltraDNSWSProviderMetadata())
-                             .credentialsSupplier(credentials)
-                             .modules(ImmutableSet.<com.google.inject.Module> of(new SLF4JLoggingModule()))
-                             .buildApi(UltraDNSWSApi.class);
+    AdaptiveRateLimiter provideRateLimiter() {
+        return AdaptiveRateLimiter.create(10);
+    }
+
+    @Provides
+    @Singleton
+    UltraDNSWSApi provideApi(Supplier<Credentials> credentials, AdaptiveRateLimiter rateLimiter) {
+        UltraDNSWSApi api = ContextBuilder.newBuilder(new UltraDNSWSProviderMetadata())
+                                          .credentialsSupplier(credentials)
+                                          .modules(ImmutableSet.<com.google.inject.Module> of(new SLF4JLoggingModule()))
+                                          .buildApi(UltraDNSWSApi.class);
+        return rateLimiter.decorate(UltraDNSWSApi.class, api, new IsThrottled());
+    }
+
+    /**
+     * UltraDNS responds with {@code 429} when requests arrive too quickly. It
+     * also uses {@code 503}, but jclouds already retries server errors.
+     */
+    private static class IsThrottled implements Predicate<Throwable> {
+        public boolean apply(Throwable input) {
+            if (input instanceof HttpResponseException) {
+                HttpResponse response = HttpResponseException.class.cast(input).getResponse();
+                return response != null && response.getStatusCode() == 429;
+            }
+            return false;
+        }
     }
 
     @Provides
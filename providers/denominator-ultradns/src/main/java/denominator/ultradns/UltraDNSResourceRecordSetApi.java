@@ -2,15 +2,15 @@ package denominator.ultradns;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.base.Predicates.and;
 import static com.google.common.collect.Lists.newArrayList;
+import static denominator.ResourceTypeToValue.typeValue;
 import static denominator.model.ResourceRecordSets.nameEqualTo;
-import static denominator.model.ResourceRecordSets.typeEqualTo;
 import static denominator.ultradns.UltraDNSFunctions.toRdataMap;
 
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
@@ -21,18 +21,32 @@ import org.jclouds.ultradns.ws.features.ResourceRecordApi;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Ordering;
 
 import denominator.ResourceRecordSetApi;
-import denominator.ResourceTypeToValue;
 import denominator.model.ResourceRecordSet;
 
 public final class UltraDNSResourceRecordSetApi implements denominator.ResourceRecordSetApi {
     static final class Factory implements denominator.ResourceRecordSetApi.Factory {
 
         private final UltraDNSWSApi api;
+        /**
+         * round robin pools by zone, shared so that each zone is only
+         * listed once per ttl. Indexes of zones not recently used are dropped.
+         */
+        private final LoadingCache<String, RoundRobinPoolIndex> poolIndexes = CacheBuilder.newBuilder()
+                .maximumSize(100).expireAfterAccess(10, TimeUnit.MINUTES).build(
+                new CacheLoader<String, RoundRobinPoolIndex>() {
+                    @Override
+                    public RoundRobinPoolIndex load(String zoneName) {
+                        return new RoundRobinPoolIndex();
+                    }
+                });
 
         @Inject
         Factory(UltraDNSWSApi api) {
@@ -41,15 +55,18 @@ public final class UltraDNSResourceRecordSetApi implements denominator.ResourceR
 
         @Override
         public ResourceRecordSetApi create(final String zoneName) {
-            return new UltraDNSResourceRecordSetApi(api.getResourceRecordApiForZone(zoneName),
-                    new UltraDNSRoundRobinPoolApi(api.getRoundRobinPoolApiForZone(zoneName)));
+            return new UltraDNSResourceRecordSetApi(zoneName, api.getResourceRecordApiForZone(zoneName),
+                    new UltraDNSRoundRobinPoolApi(api.getRoundRobinPoolApiForZone(zoneName),
+                            poolIndexes.getUnchecked(zoneName)));
         }
     }
 
+    private final String zoneName;
     private final ResourceRecordApi api;
     private final UltraDNSRoundRobinPoolApi roundRobinPoolApi;
 
-    UltraDNSResourceRecordSetApi(ResourceRecordApi api, UltraDNSRoundRobinPoolApi roundRobinPoolApi) {
+    UltraDNSResourceRecordSetApi(String zoneName, ResourceRecordApi api, UltraDNSRoundRobinPoolApi roundRobinPoolApi) {
+        this.zoneName = zoneName;
         this.api = api;
         this.roundRobinPoolApi = roundRobinPoolApi;
     }
@@ -64,26 +81,28 @@ public final class UltraDNSResourceRecordSetApi implements denominator.ResourceR
     @Override
     public Iterator<ResourceRecordSet<?>> listByName(String name) {
         checkNotNull(name, "name");
-        // TODO: temporary until listByNameAndType() works with NS records where
-        // name = zoneName
-        return Iterators.filter(list(), nameEqualTo(name));
+        // listByName() doesn't return NS records where name = zoneName
+        if (zoneName.equals(name))
+            return Iterators.filter(list(), nameEqualTo(name));
+        Iterator<ResourceRecordDetail> orderedRecords = api.listByName(name).toSortedList(byNameTypeAndCreateDate)
+                .iterator();
+        return new GroupByRecordNameAndTypeIterator(orderedRecords);
     }
 
     @Override
     public Optional<ResourceRecordSet<?>> getByNameAndType(String name, String type) {
-        checkNotNull(name, "name");
-        checkNotNull(type, "type");
-        // TODO: temporary until listByNameAndType() works with NS records where
-        // name = zoneName
-        return Iterators.tryFind(list(), and(nameEqualTo(name), typeEqualTo(type)));
+        Iterator<ResourceRecordSet<?>> it = new GroupByRecordNameAndTypeIterator(
+                referencesByNameAndType(name, type).iterator());
+        return it.hasNext() ? Optional.<ResourceRecordSet<?>> of(it.next()) : Optional.<ResourceRecordSet<?>> absent();
     }
 
     private List<ResourceRecordDetail> referencesByNameAndType(final String name, String type) {
         checkNotNull(name, "name");
         checkNotNull(type, "type");
-        final int typeValue = checkNotNull(new ResourceTypeToValue().get(type), "typeValue for %s", type);
-        // TODO: temporary until listByNameAndType() works with NS records where
-        // name = zoneName
+        final int typeValue = typeValue(type);
+        if (!"NS".equals(type) || !zoneName.equals(name))
+            return api.listByNameAndType(name, typeValue).toSortedList(byNameTypeAndCreateDate);
+        // listByNameAndType() doesn't return NS records where name = zoneName
         return api.list().filter(new Predicate<ResourceRecordDetail>() {
             public boolean apply(ResourceRecordDetail in) {
                 return name.equals(in.getRecord().getName()) && typeValue == in.getRecord().getType();
@@ -180,7 +199,7 @@ public final class UltraDNSResourceRecordSetApi implements denominator.ResourceR
             } else {
                 ResourceRecord.Builder builder = ResourceRecord.rrBuilder()
                                                                .name(name)
-                                                               .type(new ResourceTypeToValue().get(type))
+                                                               .type(typeValue(type))
                                                                .ttl(ttl);
 
                 for (Map<String, Object> rdata : rdatas) {
@@ -0,0 +1,52 @@
+package denominator.ultradns;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+
+@Test
+public class DirectionalGroupCacheTest {
+
+    static class RecordingLoader extends CacheLoader<String, Multimap<String, String>> {
+        final List<String> loaded = Lists.newArrayList();
+
+        @Override
+        public Multimap<String, String> load(String groupId) {
+            loaded.add(groupId);
+            return ImmutableMultimap.of("United States (US)", groupId);
+        }
+    }
+
+    public void getAllLoadsEachMissingGroupOnce() {
+        DirectionalGroupCache cache = new DirectionalGroupCache(CacheBuilder.newBuilder().recordStats());
+        RecordingLoader loader = new RecordingLoader();
+
+        cache.get("account", "C000000000000001", loader);
+        assertEquals(cache.getAll("account", ImmutableList.of("C000000000000001", "C000000000000002",
+                "C000000000000002"), loader).keySet(), ImmutableSet.of("C000000000000001", "C000000000000002"));
+
+        assertEquals(loader.loaded, ImmutableList.of("C000000000000001", "C000000000000002"));
+        assertEquals(cache.stats().loadCount(), 2);
+        assertEquals(cache.stats().hitCount(), 1);
+    }
+
+    public void groupsAreKeyedOnAccount() {
+        DirectionalGroupCache cache = new DirectionalGroupCache(CacheBuilder.newBuilder());
+        RecordingLoader loader = new RecordingLoader();
+
+        cache.get("account1", "C000000000000001", loader);
+        cache.get("account2", "C000000000000001", loader);
+
+        assertEquals(loader.loaded, ImmutableList.of("C000000000000001", "C000000000000001"));
+    }
+}
@@ -0,0 +1,64 @@
+package denominator.ultradns;
+
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+@Test
+public class FanOutIteratorTest {
+
+    public void returnsResultsInInputOrderWhenLaterCallsFinishFirst() {
+        final CountDownLatch lastCallDone = new CountDownLatch(1);
+        Function<Integer, String> function = new Function<Integer, String>() {
+            @Override
+            public String apply(Integer input) {
+                try {
+                    if (input == 0)
+                        lastCallDone.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw Throwables.propagate(e);
+                }
+                if (input == 2)
+                    lastCallDone.countDown();
+                return input.toString();
+            }
+        };
+        ListeningExecutorService executor = listeningDecorator(Executors.newFixedThreadPool(3));
+        try {
+            assertEquals(ImmutableList.copyOf(new FanOutIterator<Integer, String>(ImmutableList.of(0, 1, 2)
+                    .iterator(), function, executor, 3)), ImmutableList.of("0", "1", "2"));
+            assertEquals(lastCallDone.getCount(), 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void propagatesFailure() {
+        Function<Integer, String> function = new Function<Integer, String>() {
+            @Override
+            public String apply(Integer input) {
+                throw new IllegalStateException("input " + input);
+            }
+        };
+        FanOutIterator<Integer, String> iterator = new FanOutIterator<Integer, String>(ImmutableList.of(0)
+                .iterator(), function, sameThreadExecutor(), 1);
+        try {
+            iterator.next();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "input 0");
+        }
+    }
+}
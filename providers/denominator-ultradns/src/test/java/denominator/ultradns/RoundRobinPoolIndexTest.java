@@ -0,0 +1,137 @@
+package denominator.ultradns;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.sql.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.ultradns.ws.domain.ResourceRecord;
+import org.jclouds.ultradns.ws.domain.ResourceRecordDetail;
+import org.jclouds.ultradns.ws.domain.RoundRobinPool;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+
+@Test
+public class RoundRobinPoolIndexTest {
+
+    static class FakeTicker extends Ticker {
+        final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+
+    static RoundRobinPool pool(String id, String name) {
+        return RoundRobinPool.builder().zoneId("0000000000000001").id(id).name(name).dname("www.denominator.io.")
+                .build();
+    }
+
+    static ResourceRecordDetail record(String guid, int type, String rdata) {
+        ResourceRecord record = ResourceRecord.rrBuilder().name("www.denominator.io.").type(type).ttl(3600)
+                .rdata(rdata).build();
+        return ResourceRecordDetail.builder().guid(guid).zoneId("0000000000000001").zoneName("denominator.io.")
+                .created(new Date(1l)).modified(new Date(1l)).record(record).build();
+    }
+
+    FakeTicker ticker;
+    RoundRobinPoolIndex index;
+
+    @BeforeMethod
+    public void resetIndex() {
+        ticker = new FakeTicker();
+        index = new RoundRobinPoolIndex(1, MINUTES, ticker);
+    }
+
+    public void staleUntilRebuiltAndAgainAfterTtl() {
+        assertTrue(index.isStale());
+
+        index.rebuild(ImmutableList.of(pool("POOLA", "A")));
+        assertFalse(index.isStale());
+
+        ticker.nanos.addAndGet(SECONDS.toNanos(59));
+        assertFalse(index.isStale());
+
+        ticker.nanos.addAndGet(SECONDS.toNanos(1));
+        assertTrue(index.isStale());
+    }
+
+    public void invalidateMakesStale() {
+        index.rebuild(ImmutableList.of(pool("POOLA", "A")));
+
+        index.invalidate();
+        assertTrue(index.isStale());
+    }
+
+    public void rebuildIndexesPoolsNamedAfterTheirType() {
+        index.rebuild(ImmutableList.of(pool("POOLA", "A"), pool("POOLX", "legacy")));
+
+        assertEquals(index.poolId("www.denominator.io.", "A"), Optional.of("POOLA"));
+        assertEquals(index.poolId("www.denominator.io.", "AAAA"), Optional.absent());
+        assertEquals(index.poolsWithoutRecords("www.denominator.io."), ImmutableList.of("POOLA", "POOLX"));
+    }
+
+    public void putRecordsIndexesTypeOfOtherPools() {
+        index.rebuild(ImmutableList.of(pool("POOLX", "legacy")));
+
+        index.putRecords("POOLX", ImmutableList.of(record("AAAAAAAAAAAA", 28, "2001:db8::1")));
+
+        assertEquals(index.poolId("www.denominator.io.", "AAAA"), Optional.of("POOLX"));
+        assertEquals(index.poolIdForRecord("AAAAAAAAAAAA"), Optional.of("POOLX"));
+        assertTrue(index.hasRecords("POOLX"));
+        assertTrue(index.poolsWithoutRecords("www.denominator.io.").isEmpty());
+    }
+
+    public void putPoolIsEmptyWithRecordsLoaded() {
+        index.rebuild(ImmutableList.<RoundRobinPool> of());
+
+        index.putPool("POOLA", "www.denominator.io.", "A");
+
+        assertEquals(index.poolId("www.denominator.io.", "A"), Optional.of("POOLA"));
+        assertFalse(index.hasRecords("POOLA"));
+        assertTrue(index.poolsWithoutRecords("www.denominator.io.").isEmpty());
+    }
+
+    public void removeRecordLeavesOtherRecords() {
+        index.rebuild(ImmutableList.<RoundRobinPool> of());
+        index.putPool("POOLA", "www.denominator.io.", "A");
+        index.putRecord("POOLA", "AAAAAAAAAAAA");
+        index.putRecord("POOLA", "BBBBBBBBBBBB");
+
+        index.removeRecord("AAAAAAAAAAAA");
+        assertEquals(index.poolIdForRecord("AAAAAAAAAAAA"), Optional.absent());
+        assertTrue(index.hasRecords("POOLA"));
+
+        index.removeRecord("BBBBBBBBBBBB");
+        assertFalse(index.hasRecords("POOLA"));
+    }
+
+    public void putRecordIgnoresUnknownPool() {
+        index.rebuild(ImmutableList.<RoundRobinPool> of());
+
+        index.putRecord("POOLA", "AAAAAAAAAAAA");
+
+        assertEquals(index.poolIdForRecord("AAAAAAAAAAAA"), Optional.absent());
+        assertFalse(index.hasRecords("POOLA"));
+    }
+
+    public void removePoolRemovesItsRecords() {
+        index.rebuild(ImmutableList.of(pool("POOLA", "A")));
+        index.putRecords("POOLA", ImmutableList.of(record("AAAAAAAAAAAA", 1, "192.0.2.1")));
+
+        index.removePool("POOLA");
+
+        assertEquals(index.poolId("www.denominator.io.", "A"), Optional.absent());
+        assertEquals(index.poolIdForRecord("AAAAAAAAAAAA"), Optional.absent());
+        assertTrue(index.poolsWithoutRecords("www.denominator.io.").isEmpty());
+    }
+}
@@ -3,6 +3,7 @@ package denominator.ultradns;
 import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
 import static denominator.model.ResourceRecordSets.a;
 import static denominator.model.ResourceRecordSets.aaaa;
+import static denominator.model.ResourceRecordSets.ns;
 import static java.lang.String.format;
 import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
 import static org.testng.Assert.assertEquals;
@@ -46,12 +47,14 @@ public class UltraDNSResourceRecordSetApiMockTest {
     static UltraDNSResourceRecordSetApi mockUltraDNSResourceRecordSetApi(MockWebServer server) {
         String uri = server.getUrl("/").toString();
         UltraDNSWSApi wsApi = mockUltraDNSWSApi(uri);
-        return new UltraDNSResourceRecordSetApi(wsApi.getResourceRecordApiForZone(ZONE_NAME),
+        return new UltraDNSResourceRecordSetApi(ZONE_NAME, wsApi.getResourceRecordApiForZone(ZONE_NAME),
                 new UltraDNSRoundRobinPoolApi(wsApi.getRoundRobinPoolApiForZone(ZONE_NAME)));
     }
 
     private String getResourceRecordsOfZone = "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:v01=\"http://webservice.api.ultra.neustar.com/v01/\"><soapenv:Header><wsse:Security soapenv:mustUnderstand=\"1\" xmlns:wsse=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd\"><wsse:UsernameToken><wsse:Username>joe</wsse:Username><wsse:Password Type=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-username-token-profile-1.0#PasswordText\">letmein</wsse:Password></wsse:UsernameToken></wsse:Security></soapenv:Header><soapenv:Body><v01:getResourceRecordsOfZone><zoneName>foo.com.</zoneName><rrType>0</rrType></v01:getResourceRecordsOfZone></soapenv:Body></soapenv:Envelope>";
 
+    private String getResourceRecordsOfDNameByTypeTemplate = "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:v01=\"http://webservice.api.ultra.neustar.com/v01/\"><soapenv:Header><wsse:Security soapenv:mustUnderstand=\"1\" xmlns:wsse=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd\"><wsse:UsernameToken><wsse:Username>joe</wsse:Username><wsse:Password Type=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-username-token-profile-1.0#PasswordText\">letmein</wsse:Password></wsse:UsernameToken></wsse:Security></soapenv:Header><soapenv:Body><v01:getResourceRecordsOfDNameByType><zoneName>foo.com.</zoneName><hostName>%s</hostName><rrType>%s</rrType></v01:getResourceRecordsOfDNameByType></soapenv:Body></soapenv:Envelope>";
+
     private String getResourceRecordsOfZoneResponseHeader = "<?xml version=\"1.0\"?><soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body><ns1:getResourceRecordsOfZoneResponse xmlns:ns1=\"http://webservice.api.ultra.neustar.com/v01/\"><ResourceRecordList xmlns:ns2=\"http://schema.ultraservice.neustar.com/v01/\">";
     private String getResourceRecordsOfZoneResponseFooter = "</ResourceRecordList></ns1:getResourceRecordsOfZoneResponse></soap:Body></soap:Envelope>";
 
@@ -68,9 +71,10 @@ public class UltraDNSResourceRecordSetApiMockTest {
             UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
             assertFalse(api.listByName("www.foo.com.").hasNext());
         } finally {
-            RecordedRequest getResourceRecordsOfZone = server.takeRequest();
-            assertEquals(getResourceRecordsOfZone.getRequestLine(), "POST / HTTP/1.1");
-            assertEquals(new String(getResourceRecordsOfZone.getBody()), this.getResourceRecordsOfZone);
+            RecordedRequest getResourceRecordsOfDNameByType = server.takeRequest();
+            assertEquals(getResourceRecordsOfDNameByType.getRequestLine(), "POST / HTTP/1.1");
+            assertEquals(new String(getResourceRecordsOfDNameByType.getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "0"));
 
             server.shutdown();
         }
@@ -94,9 +98,10 @@ public class UltraDNSResourceRecordSetApiMockTest {
             assertEquals(api.listByName("www.foo.com.").next(),
                     a("www.foo.com.", 3600, ImmutableList.of("192.0.2.1", "198.51.100.1")));
         } finally {
-            RecordedRequest getResourceRecordsOfZone = server.takeRequest();
-            assertEquals(getResourceRecordsOfZone.getRequestLine(), "POST / HTTP/1.1");
-            assertEquals(new String(getResourceRecordsOfZone.getBody()), this.getResourceRecordsOfZone);
+            RecordedRequest getResourceRecordsOfDNameByType = server.takeRequest();
+            assertEquals(getResourceRecordsOfDNameByType.getRequestLine(), "POST / HTTP/1.1");
+            assertEquals(new String(getResourceRecordsOfDNameByType.getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "0"));
 
             server.shutdown();
         }
@@ -112,9 +117,10 @@ public class UltraDNSResourceRecordSetApiMockTest {
             UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
             assertEquals(api.getByNameAndType("www.foo.com.", "A"), Optional.absent());
         } finally {
-            RecordedRequest getResourceRecordsOfZone = server.takeRequest();
-            assertEquals(getResourceRecordsOfZone.getRequestLine(), "POST / HTTP/1.1");
-            assertEquals(new String(getResourceRecordsOfZone.getBody()), this.getResourceRecordsOfZone);
+            RecordedRequest getResourceRecordsOfDNameByType = server.takeRequest();
+            assertEquals(getResourceRecordsOfDNameByType.getRequestLine(), "POST / HTTP/1.1");
+            assertEquals(new String(getResourceRecordsOfDNameByType.getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "1"));
 
             server.shutdown();
         }
@@ -130,6 +136,37 @@ public class UltraDNSResourceRecordSetApiMockTest {
             UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
             assertEquals(api.getByNameAndType("www.foo.com.", "A").get(),
                     a("www.foo.com.", 3600, ImmutableList.of("192.0.2.1", "198.51.100.1")));
+        } finally {
+            RecordedRequest getResourceRecordsOfDNameByType = server.takeRequest();
+            assertEquals(getResourceRecordsOfDNameByType.getRequestLine(), "POST / HTTP/1.1");
+            assertEquals(new String(getResourceRecordsOfDNameByType.getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "1"));
+
+            server.shutdown();
+        }
+    }
+
+    private String nsRecordTemplate = "<ns2:ResourceRecord ZoneName=\"foo.com.\" Type=\"2\" DName=\"%s\" TTL=\"86400\" Guid=\"%s\" ZoneId=\"0000000000000001\" LName=\"%s\" Created=\"2009-10-12T12:02:23.000Z\" Modified=\"2011-09-27T23:49:22.000Z\"><ns2:InfoValues Info1Value=\"%s\"/></ns2:ResourceRecord>";
+
+    private String apexAndDelegatedNS = new StringBuilder(getResourceRecordsOfZoneResponseHeader)
+            .append(format(nsRecordTemplate, "foo.com.", "CCCCCCCCCCCC", "foo.com.", "pdns75.ultradns.com."))
+            .append(format(nsRecordTemplate, "sub.foo.com.", "DDDDDDDDDDDD", "sub.foo.com.", "ns1.sub.foo.com."))
+            .append(format(aRecordTTLGuidAddressTemplate, 3600, "AAAAAAAAAAAA", "192.0.2.1"))
+            .append(getResourceRecordsOfZoneResponseFooter).toString();
+
+    /**
+     * UltraDNS doesn't return NS records at the apex when queried by name.
+     */
+    @Test
+    public void getByNameAndTypeNSAtApexListsZone() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(apexAndDelegatedNS));
+        server.play();
+
+        try {
+            UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
+            assertEquals(api.getByNameAndType("foo.com.", "NS").get(),
+                    ns("foo.com.", 86400, "pdns75.ultradns.com."));
         } finally {
             RecordedRequest getResourceRecordsOfZone = server.takeRequest();
             assertEquals(getResourceRecordsOfZone.getRequestLine(), "POST / HTTP/1.1");
@@ -168,9 +205,10 @@ public class UltraDNSResourceRecordSetApiMockTest {
             UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
             api.add(a("www.foo.com.", 3600, "192.0.2.1"));
         } finally {
-            RecordedRequest getResourceRecordsOfZone = server.takeRequest();
-            assertEquals(getResourceRecordsOfZone.getRequestLine(), "POST / HTTP/1.1");
-            assertEquals(new String(getResourceRecordsOfZone.getBody()), this.getResourceRecordsOfZone);
+            RecordedRequest getResourceRecordsOfDNameByType = server.takeRequest();
+            assertEquals(getResourceRecordsOfDNameByType.getRequestLine(), "POST / HTTP/1.1");
+            assertEquals(new String(getResourceRecordsOfDNameByType.getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "1"));
 
             RecordedRequest getLoadBalancingPoolsByZone = server.takeRequest();
             assertEquals(getLoadBalancingPoolsByZone.getRequestLine(), "POST / HTTP/1.1");
@@ -208,9 +246,10 @@ public class UltraDNSResourceRecordSetApiMockTest {
             UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
             api.add(a("www.foo.com.", 3600, "192.0.2.1"));
         } finally {
-            RecordedRequest getResourceRecordsOfZone = server.takeRequest();
-            assertEquals(getResourceRecordsOfZone.getRequestLine(), "POST / HTTP/1.1");
-            assertEquals(new String(getResourceRecordsOfZone.getBody()), this.getResourceRecordsOfZone);
+            RecordedRequest getResourceRecordsOfDNameByType = server.takeRequest();
+            assertEquals(getResourceRecordsOfDNameByType.getRequestLine(), "POST / HTTP/1.1");
+            assertEquals(new String(getResourceRecordsOfDNameByType.getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "1"));
 
             RecordedRequest getLoadBalancingPoolsByZone = server.takeRequest();
             assertEquals(getLoadBalancingPoolsByZone.getRequestLine(), "POST / HTTP/1.1");
@@ -259,9 +298,10 @@ public class UltraDNSResourceRecordSetApiMockTest {
             UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
             api.remove(a("www.foo.com.", "192.0.2.1"));
         } finally {
-            RecordedRequest getResourceRecordsOfZone = server.takeRequest();
-            assertEquals(getResourceRecordsOfZone.getRequestLine(), "POST / HTTP/1.1");
-            assertEquals(new String(getResourceRecordsOfZone.getBody()), this.getResourceRecordsOfZone);
+            RecordedRequest getResourceRecordsOfDNameByType = server.takeRequest();
+            assertEquals(getResourceRecordsOfDNameByType.getRequestLine(), "POST / HTTP/1.1");
+            assertEquals(new String(getResourceRecordsOfDNameByType.getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "1"));
 
             RecordedRequest getLoadBalancingPoolsByZone = server.takeRequest();
             assertEquals(getLoadBalancingPoolsByZone.getRequestLine(), "POST / HTTP/1.1");
@@ -300,9 +340,10 @@ public class UltraDNSResourceRecordSetApiMockTest {
             UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
             api.add(a("www.foo.com.", "198.51.100.1"));
         } finally {
-            RecordedRequest getResourceRecordsOfZone = server.takeRequest();
-            assertEquals(getResourceRecordsOfZone.getRequestLine(), "POST / HTTP/1.1");
-            assertEquals(new String(getResourceRecordsOfZone.getBody()), this.getResourceRecordsOfZone);
+            RecordedRequest getResourceRecordsOfDNameByType = server.takeRequest();
+            assertEquals(getResourceRecordsOfDNameByType.getRequestLine(), "POST / HTTP/1.1");
+            assertEquals(new String(getResourceRecordsOfDNameByType.getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "1"));
 
             RecordedRequest getLoadBalancingPoolsByZone = server.takeRequest();
             assertEquals(getLoadBalancingPoolsByZone.getRequestLine(), "POST / HTTP/1.1");
@@ -317,6 +358,49 @@ public class UltraDNSResourceRecordSetApiMockTest {
         }
     }
 
+    private String noPooledRecords = new StringBuilder(getRRPoolRecordsResponseHeader)
+            .append(getRRPoolRecordsResponseFooter).toString();
+
+    @Test
+    public void addThenRemoveUsesPoolIndexInsteadOfListingPools() throws IOException, InterruptedException {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(noRecords));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(noPools));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(
+                format(addRRLBPoolResponseTemplate, "POOLA")));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(
+                format(addRecordToRRPoolResponseTemplate, "AAAAAAAAAAAA")));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(record1));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(deleteRecordOfRRPoolResponse));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(noPooledRecords));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(deleteLBPoolResponse));
+        server.play();
+
+        try {
+            UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
+            api.add(a("www.foo.com.", 3600, "192.0.2.1"));
+            api.remove(a("www.foo.com.", "192.0.2.1"));
+        } finally {
+            assertEquals(new String(server.takeRequest().getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "1"));
+            assertEquals(new String(server.takeRequest().getBody()), this.getLoadBalancingPoolsByZone);
+            assertEquals(new String(server.takeRequest().getBody()), format(addRRLBPoolTemplate, "A", "1"));
+            assertEquals(new String(server.takeRequest().getBody()),
+                    format(addRecordToRRPoolTemplate, "POOLA", "192.0.2.1", "1", 3600));
+
+            // no pools are listed or searched to find the record's pool
+            assertEquals(new String(server.takeRequest().getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "1"));
+            assertEquals(new String(server.takeRequest().getBody()),
+                    format(deleteRecordOfRRPoolTemplate, "AAAAAAAAAAAA"));
+            assertEquals(new String(server.takeRequest().getBody()), format(getRRPoolRecordsTemplate, "POOLA"));
+            assertEquals(new String(server.takeRequest().getBody()), format(deleteLBPoolTemplate, "POOLA"));
+            assertEquals(server.getRequestCount(), 8);
+
+            server.shutdown();
+        }
+    }
+
     @Test
     public void addFirstAAAACreatesRoundRobinPoolThenAddsRecordToIt() throws IOException, InterruptedException {
         MockWebServer server = new MockWebServer();
@@ -332,9 +416,10 @@ public class UltraDNSResourceRecordSetApiMockTest {
             UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
             api.add(aaaa("www.foo.com.", 3600, "2001:0DB8:85A3:0000:0000:8A2E:0370:7334"));
         } finally {
-            RecordedRequest getResourceRecordsOfZone = server.takeRequest();
-            assertEquals(getResourceRecordsOfZone.getRequestLine(), "POST / HTTP/1.1");
-            assertEquals(new String(getResourceRecordsOfZone.getBody()), this.getResourceRecordsOfZone);
+            RecordedRequest getResourceRecordsOfDNameByType = server.takeRequest();
+            assertEquals(getResourceRecordsOfDNameByType.getRequestLine(), "POST / HTTP/1.1");
+            assertEquals(new String(getResourceRecordsOfDNameByType.getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "28"));
 
             RecordedRequest getLoadBalancingPoolsByZone = server.takeRequest();
             assertEquals(getLoadBalancingPoolsByZone.getRequestLine(), "POST / HTTP/1.1");
@@ -347,7 +432,7 @@ public class UltraDNSResourceRecordSetApiMockTest {
             RecordedRequest addRecord1 = server.takeRequest();
             assertEquals(addRecord1.getRequestLine(), "POST / HTTP/1.1");
             assertEquals(new String(addRecord1.getBody()),
-                    format(addRecordToRRPoolTemplate, "POOLAAAA", "2001:0DB8:85A3:0000:0000:8A2E:0370:7334", "28", 3600));
+                    format(addRecordToRRPoolTemplate, "POOLAAAA", "2001:db8:85a3::8a2e:370:7334", "28", 3600));
 
             server.shutdown();
         }
@@ -366,9 +451,10 @@ public class UltraDNSResourceRecordSetApiMockTest {
             UltraDNSResourceRecordSetApi api = mockUltraDNSResourceRecordSetApi(server);
             api.add(aaaa("www.foo.com.", 3600, "2001:0DB8:85A3:0000:0000:8A2E:0370:7334"));
         } finally {
-            RecordedRequest getResourceRecordsOfZone = server.takeRequest();
-            assertEquals(getResourceRecordsOfZone.getRequestLine(), "POST / HTTP/1.1");
-            assertEquals(new String(getResourceRecordsOfZone.getBody()), this.getResourceRecordsOfZone);
+            RecordedRequest getResourceRecordsOfDNameByType = server.takeRequest();
+            assertEquals(getResourceRecordsOfDNameByType.getRequestLine(), "POST / HTTP/1.1");
+            assertEquals(new String(getResourceRecordsOfDNameByType.getBody()),
+                    format(getResourceRecordsOfDNameByTypeTemplate, "www.foo.com.", "28"));
 
             RecordedRequest getLoadBalancingPoolsByZone = server.takeRequest();
             assertEquals(getLoadBalancingPoolsByZone.getRequestLine(), "POST / HTTP/1.1");
@@ -378,7 +464,7 @@ public class UltraDNSResourceRecordSetApiMockTest {
             assertEquals(addRecord1.getRequestLine(), "POST / HTTP/1.1");
             assertEquals(
                     new String(addRecord1.getBody()),
-                    format(addRecordToRRPoolTemplate, "POOLAAAA", "2001:0DB8:85A3:0000:0000:8A2E:0370:7334", "28", 3600));
+                    format(addRecordToRRPoolTemplate, "POOLAAAA", "2001:db8:85a3::8a2e:370:7334", "28", 3600));
 
             server.shutdown();
         }